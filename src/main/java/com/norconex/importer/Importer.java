@@ -33,6 +33,8 @@ import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.UUID;
 
 import org.apache.commons.io.FilenameUtils;
@@ -57,6 +59,7 @@ import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.IImporterHandler;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.IDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.handler.filter.IOnMatchFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.handler.splitter.IDocumentSplitter;
@@ -66,10 +69,13 @@ import com.norconex.importer.parser.DocumentParserException;
 import com.norconex.importer.parser.IDocumentParser;
 import com.norconex.importer.parser.IDocumentParserFactory;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.response.AsyncResponseDispatcher;
 import com.norconex.importer.response.IImporterResponseProcessor;
+import com.norconex.importer.response.IImporterResponseVisitor;
 import com.norconex.importer.response.ImporterResponse;
 import com.norconex.importer.response.ImporterStatus;
 import com.norconex.importer.response.ImporterStatus.Status;
+import com.norconex.importer.util.MetadataUtil;
 
 /**
  * Principal class responsible for importing documents.
@@ -85,6 +91,7 @@ public class Importer {
 	private final ImporterConfig importerConfig;
 	private final CachedStreamFactory streamFactory;
     private final EventManager eventManager;
+    private final AsyncResponseDispatcher asyncResponseDispatcher;
     private static final InheritableThreadLocal<Importer> INSTANCE =
             new InheritableThreadLocal<>();
 
@@ -130,6 +137,15 @@ public class Importer {
                 this.importerConfig.getTempDir()); // use workdir + /tmp?
         this.eventManager = new EventManager(eventManager);
 
+        if (this.importerConfig.getAsyncResponseConfig().isEnabled()
+                && !this.importerConfig.getResponseProcessors().isEmpty()) {
+            asyncResponseDispatcher = new AsyncResponseDispatcher(
+                    this.importerConfig.getAsyncResponseConfig(),
+                    this.importerConfig.getResponseProcessors());
+        } else {
+            asyncResponseDispatcher = null;
+        }
+
         INSTANCE.set(this);
     }
 
@@ -170,6 +186,34 @@ public class Importer {
         return eventManager;
     }
 
+    /**
+     * Processes any pending responses when response processing is
+     * asynchronous and releases associated threads. Has no effect
+     * otherwise. Once shut down, this importer can no longer process
+     * responses asynchronously.
+     * Configured handlers and parser factory implementing
+     * {@link AutoCloseable} are also closed (e.g., to terminate persistent
+     * external processes).
+     * @since 3.0.0
+     */
+    public void shutdown() {
+        if (asyncResponseDispatcher != null) {
+            asyncResponseDispatcher.shutdown();
+        }
+        importerConfig.getPreParseHandlers().forEach(Importer::closeQuietly);
+        importerConfig.getPostParseHandlers().forEach(Importer::closeQuietly);
+        closeQuietly(importerConfig.getParserFactory());
+    }
+    private static void closeQuietly(Object obj) {
+        if (obj instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) obj).close();
+            } catch (Exception e) {
+                LOG.warn("Could not close {}.", obj, e);
+            }
+        }
+    }
+
     /**
      * Imports a document according to the importer configuration.
      * @param req request instructions for importing
@@ -188,6 +232,9 @@ public class Importer {
     }
     /**
      * Imports a document according to the importer configuration.
+     * When response processing is asynchronous, response documents
+     * are handed to response processors and the returned response
+     * documents only have their metadata (content is empty).
      * @param document the document to import
      * @return importer response
      * @since 3.0.0
@@ -195,34 +242,7 @@ public class Importer {
     public ImporterResponse importDocument(Doc document) {
         // Note: Doc reference, InputStream and metadata are all null-safe.
 
-        DocInfo docInfo = document.getDocInfo();
-
-        //--- Ensure non-null content Type on Doc ---
-        ContentType ct = docInfo.getContentType();
-        if (ct == null || StringUtils.isBlank(ct.toString())) {
-            try {
-                ct = ContentTypeDetector.detect(
-                        document.getInputStream(), document.getReference());
-            } catch (IOException e) {
-                LOG.warn("Could not detect content type. Defaulting to "
-                        + "\"application/octet-stream\".", e);
-                ct = ContentType.valueOf("application/octet-stream");
-            }
-            docInfo.setContentType(ct);
-        }
-
-        //--- Add basic metadata already ---
-        Properties meta = document.getMetadata();
-        meta.set(DocMetadata.REFERENCE, document.getReference());
-        meta.set(DocMetadata.CONTENT_TYPE, ct.toString());
-        ContentFamily contentFamily = ContentFamily.forContentType(ct);
-        if (contentFamily != null) {
-            meta.set(DocMetadata.CONTENT_FAMILY, contentFamily.toString());
-        }
-        if (StringUtils.isNotBlank(docInfo.getContentEncoding())) {
-            meta.set(DocMetadata.CONTENT_ENCODING,
-                    docInfo.getContentEncoding());
-        }
+        prepareDocument(document);
 
         //--- Document Handling ---
         try {
@@ -233,6 +253,8 @@ public class Importer {
                 response = new ImporterResponse(
                         document.getReference(), filterStatus);
             } else {
+                // metadata is kept as long as the response
+                MetadataUtil.compact(document.getMetadata());
                 response = new ImporterResponse(document);
             }
             for (Doc childDoc : nestedDocs) {
@@ -245,7 +267,7 @@ public class Importer {
             //--- Response Processor ---
             if (response.getParentResponse() == null
                     && !importerConfig.getResponseProcessors().isEmpty()) {
-                processResponse(response);
+                response = processResponse(response);
             }
             return response;
         } catch (IOException | ImporterException e) {
@@ -256,6 +278,174 @@ public class Importer {
         }
     }
 
+    /**
+     * <p>
+     * Imports a document in streaming mode, handing the document response
+     * and all its nested responses to the given visitor, depth-first
+     * (a parent response is visited before its nested ones).
+     * Each response document is disposed as soon as the visitor
+     * is done with it, and nested responses are not kept in the
+     * response tree once visited.  This keeps memory and temporary disk
+     * usage low for documents with many embedded documents
+     * (e.g., large archives), as only the current branch of the tree is
+     * retained.
+     * </p>
+     * <p>
+     * ZIP archive entries split by the parser are always split lazily
+     * in this mode (as with the "splitLazily" embedded configuration):
+     * an entry content is only loaded when the entry is imported, so
+     * entries waiting for their turn do not hold any content.
+     * Other embedded documents (e.g., from other containers or from
+     * splitters) are extracted along with their parent.
+     * </p>
+     * <p>
+     * Configured response processors are not invoked in streaming mode.
+     * </p>
+     * @param req request instructions for importing
+     * @param visitor response visitor
+     * @return importer status of the top-level document
+     * @since 3.0.0
+     */
+    public ImporterStatus importDocument(
+            ImporterRequest req, IImporterResponseVisitor visitor) {
+        Objects.requireNonNull(visitor, "'visitor' must not be null.");
+        try {
+            return importDocument(toDocument(req), visitor);
+        } catch (ImporterException e) {
+            LOG.warn("Importer request failed: {}", req, e);
+            ImporterResponse response = new ImporterResponse(
+                    req.getReference(), new ImporterStatus(
+                            new ImporterException(
+                                    "Importer request failed: " + req, e)));
+            visitor.visit(response);
+            return response.getImporterStatus();
+        }
+    }
+    /**
+     * Imports a document in streaming mode, handing the document response
+     * and all its nested responses to the given visitor, depth-first.
+     * @param document the document to import
+     * @param visitor response visitor
+     * @return importer status of the top-level document
+     * @see #importDocument(ImporterRequest, IImporterResponseVisitor)
+     * @since 3.0.0
+     */
+    public ImporterStatus importDocument(
+            Doc document, IImporterResponseVisitor visitor) {
+        Objects.requireNonNull(visitor, "'visitor' must not be null.");
+        return importDocument(document, null, visitor);
+    }
+
+    private ImporterStatus importDocument(Doc document,
+            ImporterResponse parentResponse, IImporterResponseVisitor visitor) {
+        prepareDocument(document);
+        document.setSplitLazily(true);
+
+        List<Doc> nestedDocs = new ArrayList<>();
+        ImporterResponse response = null;
+        try {
+            ImporterStatus filterStatus = importDocument(document, nestedDocs);
+            if (filterStatus.isRejected()) {
+                response = new ImporterResponse(
+                        document.getReference(), filterStatus);
+            } else {
+                MetadataUtil.compact(document.getMetadata());
+                response = new ImporterResponse(document);
+            }
+        } catch (IOException | ImporterException e) {
+            LOG.warn("Could not import document: {}", document, e);
+            response = new ImporterResponse(document.getReference(),
+                    new ImporterStatus(new ImporterException(
+                            "Could not import document: " + document, e)));
+            disposeQuietly(nestedDocs);
+            nestedDocs.clear();
+        }
+
+        if (parentResponse != null) {
+            parentResponse.addNestedResponse(response);
+        }
+        try {
+            visitor.visit(response);
+        } finally {
+            disposeQuietly(document);
+        }
+
+        int index = 0;
+        try {
+            for (; index < nestedDocs.size(); index++) {
+                Doc childDoc = nestedDocs.get(index);
+                // Release our handle as we go so visited ones are
+                // not retained.
+                nestedDocs.set(index, null);
+                importDocument(childDoc, response, visitor);
+            }
+        } finally {
+            if (index < nestedDocs.size()) {
+                disposeQuietly(nestedDocs.subList(index, nestedDocs.size()));
+            }
+            if (parentResponse != null) {
+                parentResponse.removeNestedResponse(response.getReference());
+            }
+        }
+        return response.getImporterStatus();
+    }
+
+    private void disposeQuietly(List<Doc> docs) {
+        for (Doc doc : docs) {
+            disposeQuietly(doc);
+        }
+    }
+    private void disposeQuietly(Doc doc) {
+        if (doc == null) {
+            return;
+        }
+        try {
+            doc.dispose();
+        } catch (IOException e) {
+            LOG.warn("Could not dispose of document: {}",
+                    doc.getReference(), e);
+        }
+    }
+
+    // Ensures content type and basic metadata are set
+    private void prepareDocument(Doc document) {
+        DocInfo docInfo = document.getDocInfo();
+
+        //--- Ensure non-null content Type on Doc ---
+        ContentType ct = docInfo.getContentType();
+        if (ct == null || StringUtils.isBlank(ct.toString())) {
+            try {
+                if (document.getContentFile() != null) {
+                    // Random access (e.g., ZIP central directory)
+                    ct = ContentTypeDetector.detect(
+                            document.getContentFile().toFile(),
+                            document.getReference());
+                } else {
+                    ct = ContentTypeDetector.detect(document.getInputStream(),
+                            document.getReference());
+                }
+            } catch (IOException e) {
+                LOG.warn("Could not detect content type. Defaulting to "
+                        + "\"application/octet-stream\".", e);
+                ct = ContentType.valueOf("application/octet-stream");
+            }
+            docInfo.setContentType(ct);
+        }
+
+        //--- Add basic metadata already ---
+        Properties meta = document.getMetadata();
+        meta.set(DocMetadata.REFERENCE, document.getReference());
+        meta.set(DocMetadata.CONTENT_TYPE, ct.toString());
+        ContentFamily contentFamily = ContentFamily.forContentType(ct);
+        if (contentFamily != null) {
+            meta.set(DocMetadata.CONTENT_FAMILY, contentFamily.toString());
+        }
+        if (StringUtils.isNotBlank(docInfo.getContentEncoding())) {
+            meta.set(DocMetadata.CONTENT_ENCODING,
+                    docInfo.getContentEncoding());
+        }
+    }
+
 
     // We deal with stream, but since only one of stream or file can be set,
     // convert file to stream only if set.
@@ -290,7 +480,11 @@ public class Importer {
         info.setContentEncoding(req.getContentEncoding());
         info.setContentType(req.getContentType());
 
-        return new Doc(info, is, req.getMetadata());
+        Doc doc = new Doc(info, is, req.getMetadata());
+        if (req.getInputStream() == null) {
+            doc.setContentFile(req.getFile());
+        }
+        return doc;
     }
 
     private ImporterStatus importDocument(
@@ -318,11 +512,53 @@ public class Importer {
     }
 
 
-    private void processResponse(ImporterResponse response) {
+    // Returns the response to hand to the caller.
+    private ImporterResponse processResponse(ImporterResponse response) {
+        if (asyncResponseDispatcher != null) {
+            // Processors own the response documents, which the
+            // dispatcher disposes once processed. The caller gets
+            // the same responses without content, so content is never
+            // copied on the importing thread.
+            ImporterResponse withoutContent = withoutContent(response);
+            try {
+                asyncResponseDispatcher.submit(response);
+                return withoutContent;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.warn("Interrupted while queuing response for "
+                        + "asynchronous processing. Processing it "
+                        + "synchronously instead: {}", response.getReference());
+            }
+        }
         for (IImporterResponseProcessor proc
                 : importerConfig.getResponseProcessors()) {
             proc.processImporterResponse(response);
         }
+        return response;
+    }
+
+    // Copy of a response tree, with documents having their own
+    // metadata, but no content.
+    private ImporterResponse withoutContent(ImporterResponse response) {
+        ImporterResponse copy;
+        Doc doc = response.getDocument();
+        if (doc == null) {
+            copy = new ImporterResponse(
+                    response.getReference(), response.getImporterStatus());
+        } else {
+            Properties meta = new Properties();
+            for (Entry<String, List<String>> en
+                    : doc.getMetadata().entrySet()) {
+                meta.put(en.getKey(), new ArrayList<>(en.getValue()));
+            }
+            copy = new ImporterResponse(new Doc(new DocInfo(
+                    doc.getDocInfo()), streamFactory.newInputStream(), meta));
+            copy.setImporterStatus(response.getImporterStatus());
+        }
+        for (ImporterResponse nested : response.getNestedResponses()) {
+            copy.addNestedResponse(withoutContent(nested));
+        }
+        return copy;
     }
 
     private ImporterStatus executeHandlers(
@@ -336,10 +572,16 @@ public class Importer {
         IncludeMatchResolver includeResolver = new IncludeMatchResolver();
         HandlerDoc hdoc = new HandlerDoc(doc);
         MutableObject<CachedInputStream> input = new MutableObject<>();
-        for (IImporterHandler h : handlers) {
+        for (IImporterHandler h : hoistMetadataOnlyFilters(handlers)) {
             eventManager.fire(ImporterEvent.create(
                     IMPORTER_HANDLER_BEGIN, doc, h, parseState));
-            input.setValue(doc.getInputStream());
+            // Metadata-only filters are not given content, so documents
+            // they reject never have it loaded or cached.
+            if (isMetadataOnlyFilter(h)) {
+                input.setValue(null);
+            } else {
+                input.setValue(doc.getInputStream());
+            }
             try {
                 if (h instanceof IDocumentTagger) {
                     tagDocument(hdoc, input.getValue(),
@@ -392,6 +634,37 @@ public class Importer {
         return PASSING_FILTER_STATUS;
     }
 
+    // Metadata-only filters only preceded by other filters are moved
+    // ahead of them, so documents they reject never have their content read.
+    // Filters do not modify documents and exclusions win regardless of
+    // order, so whether a document is accepted stays the same.
+    static List<IImporterHandler> hoistMetadataOnlyFilters(
+            List<IImporterHandler> handlers) {
+        List<IImporterHandler> ordered = null;
+        int hoistIndex = 0;
+        for (int i = 0; i < handlers.size(); i++) {
+            IImporterHandler h = handlers.get(i);
+            if (!(h instanceof IDocumentFilter)) {
+                break;
+            }
+            if (isMetadataOnlyFilter(h)) {
+                if (i != hoistIndex) {
+                    if (ordered == null) {
+                        ordered = new ArrayList<>(handlers);
+                    }
+                    ordered.remove(i);
+                    ordered.add(hoistIndex, h);
+                }
+                hoistIndex++;
+            }
+        }
+        return ordered != null ? ordered : handlers;
+    }
+    private static boolean isMetadataOnlyFilter(IImporterHandler h) {
+        return h instanceof IMetadataOnlyFilter
+                && ((IMetadataOnlyFilter) h).isMetadataOnly();
+    }
+
     private static class IncludeMatchResolver {
         private boolean hasIncludes = false;
         private boolean atLeastOneIncludeMatch = false;
@@ -33,6 +33,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.IImporterHandler;
 import com.norconex.importer.parser.GenericDocumentParserFactory;
 import com.norconex.importer.parser.IDocumentParserFactory;
+import com.norconex.importer.response.AsyncResponseConfig;
 import com.norconex.importer.response.IImporterResponseProcessor;
 
 /**
@@ -55,6 +56,8 @@ public class ImporterConfig implements IXMLConfigurable {
     private final List<IImporterHandler> postParseHandlers = new ArrayList<>();
     private final List<IImporterResponseProcessor> responseProcessors =
             new ArrayList<>();
+    private final AsyncResponseConfig asyncResponseConfig =
+            new AsyncResponseConfig();
 
     private Path tempDir = Paths.get(DEFAULT_TEMP_DIR_PATH);
     private int maxFileCacheSize = DEFAULT_MAX_MEM_INSTANCE;
@@ -116,6 +119,15 @@ public class ImporterConfig implements IXMLConfigurable {
         CollectionUtil.setAll(this.responseProcessors, responseProcessors);
     }
 
+    /**
+     * Gets the configuration for processing responses asynchronously.
+     * @return asynchronous response processing configuration
+     * @since 3.0.0
+     */
+    public AsyncResponseConfig getAsyncResponseConfig() {
+        return asyncResponseConfig;
+    }
+
     public int getMaxFileCacheSize() {
         return maxFileCacheSize;
     }
@@ -147,6 +159,20 @@ public class ImporterConfig implements IXMLConfigurable {
         setResponseProcessors(xml.getObjectListImpl(
                 IImporterResponseProcessor.class,
                 "responseProcessors/responseProcessor", responseProcessors));
+        loadAsyncResponseConfigFromXML(xml.getXML("asyncResponseProcessing"));
+    }
+
+    private void loadAsyncResponseConfigFromXML(XML xml) {
+        if (xml == null) {
+            return;
+        }
+        AsyncResponseConfig cfg = asyncResponseConfig;
+        cfg.setEnabled(xml.getBoolean("@enabled", cfg.isEnabled()));
+        cfg.setThreads(xml.getInteger("@threads", cfg.getThreads()));
+        cfg.setQueueSize(xml.getInteger("@queueSize", cfg.getQueueSize()));
+        cfg.setBatchSize(xml.getInteger("@batchSize", cfg.getBatchSize()));
+        cfg.setBatchMaxDelay(
+                xml.getLong("@batchMaxDelay", cfg.getBatchMaxDelay()));
     }
 
     @Override
@@ -160,6 +186,13 @@ public class ImporterConfig implements IXMLConfigurable {
         xml.addElementList("postParseHandlers", "handler", postParseHandlers);
         xml.addElementList(
                 "responseProcessors", "responseProcessor", responseProcessors);
+        XML asyncXML = xml.addElement("asyncResponseProcessing");
+        asyncXML.setAttribute("enabled", asyncResponseConfig.isEnabled());
+        asyncXML.setAttribute("threads", asyncResponseConfig.getThreads());
+        asyncXML.setAttribute("queueSize", asyncResponseConfig.getQueueSize());
+        asyncXML.setAttribute("batchSize", asyncResponseConfig.getBatchSize());
+        asyncXML.setAttribute(
+                "batchMaxDelay", asyncResponseConfig.getBatchMaxDelay());
     }
 
     @Override
@@ -38,6 +38,7 @@ import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.xml.XMLValidationException;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.response.ImporterResponse;
+import com.norconex.importer.response.ImporterResponseWriter;
 
 /**
  * Command line launcher of the Importer application.  Invoked by the
@@ -58,6 +59,8 @@ public final class ImporterLauncher {
     public static final String ARG_CHECKCFG = "checkcfg";
     public static final String ARG_IGNOREERRORS = "ignoreErrors";
 
+    private static final String OUTFORMAT_BINARY = "binary";
+
     /**
      * Constructor.
      */
@@ -116,8 +119,12 @@ public final class ImporterLauncher {
                         .setContentEncoding(contentEncoding)
                         .setMetadata(metadata)
                         .setReference(reference));
-            writeResponse(response, output,
-                    cmd.getOptionValue(ARG_OUTMETAFORMAT), 0, 0);
+            String outputFormat = cmd.getOptionValue(ARG_OUTMETAFORMAT);
+            if (OUTFORMAT_BINARY.equalsIgnoreCase(outputFormat)) {
+                writeBinaryResponse(response, output);
+            } else {
+                writeResponse(response, output, outputFormat, 0, 0);
+            }
         } catch (Exception e) {
             System.err.println(
                     "A problem occured while importing " + inputFile);
@@ -158,6 +165,16 @@ public final class ImporterLauncher {
         }
     }
 
+    private static void writeBinaryResponse(
+            ImporterResponse response, String outputPath) throws IOException {
+        try (ImporterResponseWriter writer = new ImporterResponseWriter(
+                new FileOutputStream(outputPath))) {
+            writer.write(response);
+        }
+        System.out.println("IMPORTED: " + response.getReference()
+                + " (binary: " + outputPath + ")");
+    }
+
     private static void writeResponse(ImporterResponse response,
             String outputPath, String outputFormat, int depth, int index)
                     throws IOException {
@@ -234,7 +251,9 @@ public final class ImporterLauncher {
                 "Optional: File where the imported content will be stored.");
         options.addOption("f", ARG_OUTMETAFORMAT, true,
                 "Optional: File format for extracted metadata fields. "
-              + "One of \"properties\" (default), \"json\", or \"xml\"");
+              + "One of \"properties\" (default), \"json\", or \"xml\". "
+              + "Use \"binary\" to write content, metadata and "
+              + "embedded documents to a single binary output file.");
         options.addOption("t", ARG_CONTENTTYPE, true,
                 "Optional: The MIME Content-type of the input file.");
         options.addOption("e", ARG_CONTENTENCODING, true,
@@ -16,6 +16,7 @@ package com.norconex.importer.doc;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.Objects;
 
 import org.apache.commons.io.IOUtils;
@@ -48,6 +49,15 @@ public class Doc {
     private final Properties metadata;
     @ToStringExclude
     private CachedInputStream content;
+    // Set until content is loaded, for lazily loaded documents
+    @ToStringExclude
+    private IDocContentOpener contentOpener;
+    @ToStringExclude
+    private CachedStreamFactory streamFactory;
+    // Local file with the same content, until content is replaced
+    private Path contentFile;
+    // Whether embedded documents are to be split lazily when possible
+    private boolean splitLazily;
 
     public Doc(String reference, CachedInputStream content) {
         this(reference, content, null);
@@ -89,6 +99,33 @@ public class Doc {
             this.metadata = metadata;
         }
     }
+    /**
+     * Creates an importer document whose content is only loaded
+     * when first requested, using the supplied content opener.
+     * Documents that never have their content read (e.g., rejected
+     * based on their metadata) never have their content loaded.
+     * @param docInfo document details
+     * @param contentOpener opens the document content when needed
+     * @param streamFactory stream factory used to cache content once loaded
+     * @param metadata importer document metadata
+     * @since 3.0.0
+     */
+    public Doc(DocInfo docInfo, IDocContentOpener contentOpener,
+            CachedStreamFactory streamFactory, Properties metadata) {
+        Objects.requireNonNull(docInfo, "'docInfo' must not be null.");
+        Objects.requireNonNull(
+                contentOpener, "'contentOpener' must not be null.");
+        Objects.requireNonNull(
+                streamFactory, "'streamFactory' must not be null.");
+        this.docInfo = docInfo;
+        this.contentOpener = contentOpener;
+        this.streamFactory = streamFactory;
+        if (metadata == null) {
+            this.metadata = new Properties();
+        } else {
+            this.metadata = metadata;
+        }
+    }
 
     /**
      * Disposes of any resources associated with this document (like
@@ -98,7 +135,24 @@ public class Doc {
      */
     //TODO implement "closeable" instead?
     public synchronized void dispose() throws IOException {
-        content.dispose();
+        if (contentOpener != null) {
+            contentOpener.close();
+            contentOpener = null;
+        }
+        if (content != null) {
+            content.dispose();
+        }
+    }
+
+    /**
+     * Gets whether the document content was loaded. Always
+     * <code>true</code> unless the document was created with an
+     * {@link IDocContentOpener} and its content was not yet requested.
+     * @return <code>true</code> if content is loaded
+     * @since 3.0.0
+     */
+    public synchronized boolean isContentLoaded() {
+        return content != null;
     }
 
     /**
@@ -122,6 +176,7 @@ public class Doc {
 
     //TODO Since 3.0.0
     public CachedInputStream getInputStream() {
+        loadContent();
         content.rewind();
         return content;
     }
@@ -133,12 +188,13 @@ public class Doc {
             return;
         }
         try {
-            this.content.dispose();
+            CachedStreamFactory factory = getStreamFactory();
+            dispose();
+            contentFile = null;
             if (inputStream instanceof CachedInputStream) {
                 this.content = (CachedInputStream) inputStream;
             } else {
-                CachedOutputStream os =
-                        this.content.getStreamFactory().newOuputStream();
+                CachedOutputStream os = factory.newOuputStream();
                 IOUtils.copy(inputStream, os);
                 this.content = os.getInputStream();
             }
@@ -148,8 +204,84 @@ public class Doc {
         }
     }
     //TODO Since 3.0.0
-    public CachedStreamFactory getStreamFactory() {
-        return content.getStreamFactory();
+    public synchronized CachedStreamFactory getStreamFactory() {
+        if (content != null) {
+            return content.getStreamFactory();
+        }
+        return streamFactory;
+    }
+
+    /**
+     * Gets a local file known to hold the exact same bytes as this
+     * document content, if any (e.g., when importing a file).
+     * Parsers can use it to access the content randomly (e.g., to read
+     * a ZIP central directory) instead of reading the content stream.
+     * Replacing the document content resets it to <code>null</code>.
+     * @return content file or <code>null</code>
+     * @since 3.0.0
+     */
+    public synchronized Path getContentFile() {
+        return contentFile;
+    }
+    /**
+     * Sets a local file holding the exact same bytes as this
+     * document content. The file must not be modified or deleted
+     * for as long as the document is being imported.
+     * @param contentFile content file
+     * @since 3.0.0
+     */
+    public synchronized void setContentFile(Path contentFile) {
+        this.contentFile = contentFile;
+    }
+
+    /**
+     * Gets whether embedded documents split from this document by
+     * the parser should have their content loaded only when first
+     * requested, when the parser supports it, regardless of parser
+     * configuration.
+     * @return <code>true</code> to split lazily
+     * @since 3.0.0
+     */
+    public synchronized boolean isSplitLazily() {
+        return splitLazily;
+    }
+    /**
+     * Sets whether embedded documents split from this document by
+     * the parser should have their content loaded only when first
+     * requested, when the parser supports it, regardless of parser
+     * configuration.
+     * @param splitLazily <code>true</code> to split lazily
+     * @since 3.0.0
+     */
+    public synchronized void setSplitLazily(boolean splitLazily) {
+        this.splitLazily = splitLazily;
+    }
+
+    private synchronized void loadContent() {
+        if (content != null) {
+            return;
+        }
+        if (contentOpener == null) {
+            throw new ImporterRuntimeException(
+                    "Document was disposed: " + getReference());
+        }
+        CachedOutputStream os = streamFactory.newOuputStream();
+        try (InputStream is = contentOpener.open()) {
+            IOUtils.copy(is, os);
+            content = os.getInputStream();
+        } catch (IOException e) {
+            throw new ImporterRuntimeException(
+                    "Could not load content of: " + getReference(), e);
+        } finally {
+            try {
+                os.close();
+                contentOpener.close();
+            } catch (IOException e) {
+                throw new ImporterRuntimeException(
+                        "Could not load content of: " + getReference(), e);
+            }
+            contentOpener = null;
+        }
     }
 
     public DocInfo getDocInfo() {
@@ -0,0 +1,44 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.doc;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Opens the content of a {@link Doc} on demand, such as an embedded
+ * document re-opened from its container.  Used for documents
+ * whose content is only loaded when first requested.
+ * Closing an opener releases any resources it holds, and is
+ * done once content was loaded or when the document is disposed.
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+@FunctionalInterface
+public interface IDocContentOpener extends Closeable {
+
+    /**
+     * Opens the document content.
+     * @return content input stream
+     * @throws IOException could not open content
+     */
+    InputStream open() throws IOException;
+
+    @Override
+    default void close() throws IOException {
+        // NOOP
+    }
+}
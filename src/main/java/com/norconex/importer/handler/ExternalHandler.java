@@ -14,26 +14,45 @@
  */
 package com.norconex.importer.handler;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.SystemUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -48,6 +67,7 @@ import com.norconex.commons.lang.io.ICachedStream;
 import com.norconex.commons.lang.io.InputStreamLineListener;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.map.PropertySetter;
+import com.norconex.commons.lang.text.Regex;
 import com.norconex.commons.lang.text.RegexFieldValueExtractor;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
@@ -204,6 +224,64 @@ import com.norconex.importer.parser.impl.ExternalParser;
  * {@link PropertySetter}.
  * </p>
  *
+ * <h3>Piped mode:</h3>
+ * <p>
+ * Since 3.0.0, setting "piped" to <code>true</code> reduces the overhead
+ * of exchanging data with the external application, which is
+ * best for large documents:
+ * </p>
+ * <ul>
+ *   <li>Where supported (e.g., Linux), <code>${INPUT}</code> is replaced
+ *       with the standard input path (<code>/dev/stdin</code>) and
+ *       content is sent through STDIN, while
+ *       <code>${INPUT_META}</code> is replaced with the path of a named
+ *       pipe (FIFO). No temporary files are written. Inputs must then be
+ *       read sequentially, only once. Temporary files are still used
+ *       where pipes are not supported (e.g., Windows).</li>
+ *   <li>Output content read from STDOUT is copied as is, without being
+ *       split into lines or decoded.</li>
+ *   <li>Metadata extraction patterns are only applied to
+ *       STDERR (or the <code>${OUTPUT_META}</code> file), never to
+ *       STDOUT.</li>
+ * </ul>
+ *
+ * <h3>Persistent processes:</h3>
+ * <p>
+ * Since 3.0.0, it is possible to keep a number of external application
+ * processes running and have each of them handle many documents, instead
+ * of launching the external application for every document. This is
+ * recommended when the external application is slow to start.
+ * A process failing while handling a document
+ * is discarded and a new one is started in its place.
+ * In persistent mode, the command does not support any of the above tokens
+ * and documents are exchanged over standard streams
+ * as a series of fields. Each field is written as chunks, each prefixed
+ * by its length in bytes (4-byte big-endian integer). A zero-length
+ * chunk marks the end of a field.
+ * For each document, the external application reads these
+ * fields from its standard input (STDIN):
+ * </p>
+ * <ol>
+ *   <li>The document reference, in UTF-8.</li>
+ *   <li>The document metadata, in UTF-8, using the metadata input format.
+ *       </li>
+ *   <li>The document content (empty when no content is sent).</li>
+ * </ol>
+ * <p>
+ * It must then write these fields to its standard output (STDOUT):
+ * </p>
+ * <ol>
+ *   <li>The new document content (ignored when not expected).</li>
+ *   <li>The new metadata, in UTF-8, using the metadata output format
+ *       (extraction patterns are applied to it when no format is set).
+ *       Can be empty.</li>
+ * </ol>
+ * <p>
+ * The external application must read a document entirely before writing
+ * its response, and end when its standard input is closed.
+ * Its standard error stream (STDERR) is only logged.
+ * </p>
+ *
  * <h3>Environment variables:</h3>
  *
  * <p>
@@ -243,6 +321,18 @@ import com.norconex.importer.parser.impl.ExternalParser;
  *   (Optional directory where to store temporary files used
  *    by this class.)
  * </tempDir>
+ *
+ * <piped>
+ *   [false|true]
+ *   (Optional. Whether to use pipes and raw output copy instead of
+ *    temporary files and line-based output handling.)
+ * </piped>
+ *
+ * <persistentProcesses>
+ *   (Optional number of external processes to keep running, each
+ *    handling many documents. Default is 0, launching the external
+ *    application for each document.)
+ * </persistentProcesses>
  * }
  * <p>Consuming classes implementing {@link IXMLConfigurable} can use
  * the XML save/load methods of this class to inherit the above
@@ -255,7 +345,7 @@ import com.norconex.importer.parser.impl.ExternalParser;
  * @since 3.0.0
  */
 @SuppressWarnings("javadoc")
-public class ExternalHandler {
+public class ExternalHandler implements AutoCloseable {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(ExternalHandler.class);
@@ -270,6 +360,11 @@ public class ExternalHandler {
     public static final String META_FORMAT_XML = "xml";
     public static final String META_FORMAT_PROPERTIES = "properties";
 
+    private static final Path STDIN_PATH = Paths.get("/dev/stdin");
+    private static final Pattern BACK_REFERENCE =
+            Pattern.compile("\\\\[1-9]|\\\\k<");
+    private static final long PIPE_JOIN_TIMEOUT = 5000;
+
     private String command;
     private final List<RegexFieldValueExtractor> patterns = new ArrayList<>();
 
@@ -280,6 +375,16 @@ public class ExternalHandler {
     private String metadataOutputFormat = META_FORMAT_JSON;
     private Path tempDir;
     private PropertySetter onSet;
+    private boolean piped;
+    private int persistentProcesses;
+    // Created on first use, when persistent
+    private transient ExternalProcessPool processPool;
+    // Named pipes not in use, reused instead of creating one per document
+    private final transient Queue<Path> idlePipes =
+            new ConcurrentLinkedQueue<>();
+    // Extraction patterns combined, to rule out most lines at once
+    private transient RegexFieldValueExtractor[] patternArray;
+    private transient Pattern combinedPattern;
 
     /**
      * Gets the command to execute.
@@ -296,6 +401,7 @@ public class ExternalHandler {
      */
     public void setCommand(String command) {
         this.command = command;
+        closeProcessPool();
     }
 
     /**
@@ -358,7 +464,10 @@ public class ExternalHandler {
     public void addMetadataExtractionPatterns(
             RegexFieldValueExtractor... patterns) {
         if (ArrayUtils.isNotEmpty(patterns)) {
-            this.patterns.addAll(Arrays.asList(patterns));
+            synchronized (this) {
+                this.patterns.addAll(Arrays.asList(patterns));
+                patternArray = null;
+            }
         }
     }
     /**
@@ -367,7 +476,10 @@ public class ExternalHandler {
      * @param patterns extraction pattern
      */
     public void setMetadataExtractionPatterns(RegexFieldValueExtractor... patterns) {
-        this.patterns.clear();
+        synchronized (this) {
+            this.patterns.clear();
+            patternArray = null;
+        }
         addMetadataExtractionPatterns(patterns);
     }
 
@@ -388,6 +500,7 @@ public class ExternalHandler {
     public void setEnvironmentVariables(
             Map<String, String> environmentVariables) {
         this.environmentVariables = environmentVariables;
+        closeProcessPool();
     }
     /**
      * Adds the environment variables, keeping environment variables previously
@@ -484,6 +597,50 @@ public class ExternalHandler {
         this.onSet = onSet;
     }
 
+    /**
+     * Gets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling. See class documentation.
+     * @return <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public boolean isPiped() {
+        return piped;
+    }
+    /**
+     * Sets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling. See class documentation.
+     * @param piped <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public void setPiped(boolean piped) {
+        this.piped = piped;
+    }
+
+    /**
+     * Gets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * @return number of persistent processes
+     * @since 3.0.0
+     */
+    public int getPersistentProcesses() {
+        return persistentProcesses;
+    }
+    /**
+     * Sets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document. Any running processes are
+     * terminated. See class documentation.
+     * @param persistentProcesses number of persistent processes
+     * @since 3.0.0
+     */
+    public void setPersistentProcesses(int persistentProcesses) {
+        this.persistentProcesses = persistentProcesses;
+        closeProcessPool();
+    }
+
     /**
      * Invoke the external application on a document.
      * @param doc document
@@ -499,6 +656,10 @@ public class ExternalHandler {
         //TODO eliminate output an set it back on doc???
 
         validate();
+        if (persistentProcesses > 0) {
+            handleDocumentPersistently(doc, input, output);
+            return;
+        }
         String cmd = command;
         final ArgFiles files = new ArgFiles();
         Properties externalMeta = new Properties();
@@ -515,7 +676,11 @@ public class ExternalHandler {
             LOG.debug("Command after token replacement: {}", cmd);
 
             //--- Execute Command ---
-            executeCommand(cmd, files, externalMeta, input, output);
+            if (piped) {
+                executePipedCommand(cmd, files, externalMeta, input, output);
+            } else {
+                executeCommand(cmd, files, externalMeta, input, output);
+            }
             try {
                 if (files.hasOutputFile() && output != null) {
                     FileUtils.copyFile(files.outputFile.toFile(), output);
@@ -524,16 +689,7 @@ public class ExternalHandler {
                 if (files.hasOutputMetaFile()) {
                     try (Reader outputMetaReader = Files.newBufferedReader(
                             files.outputMetaFile)) {
-                        String format = getMetadataOutputFormat();
-                        if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
-                            externalMeta.loadFromProperties(outputMetaReader);
-                        } else if (META_FORMAT_XML.equals(format)) {
-                            externalMeta.loadFromXML(outputMetaReader);
-                        } else if (META_FORMAT_JSON.equals(format)) {
-                            externalMeta.loadFromJSON(outputMetaReader);
-                        } else {
-                            extractMetaFromFile(outputMetaReader, externalMeta);
-                        }
+                        readOutputMeta(outputMetaReader, externalMeta);
                     }
                 }
             } catch (IOException e) {
@@ -547,6 +703,103 @@ public class ExternalHandler {
             });
         } finally {
             files.deleteAll();
+            idlePipes.addAll(files.reusablePipes);
+        }
+    }
+
+    private void handleDocumentPersistently(
+            HandlerDoc doc, InputStream input, OutputStream output)
+            throws ImporterHandlerException {
+        if (StringUtils.containsAny(command, TOKEN_INPUT, TOKEN_INPUT_META,
+                TOKEN_OUTPUT, TOKEN_OUTPUT_META, TOKEN_REFERENCE)) {
+            throw new ImporterHandlerException("Command tokens are not "
+                    + "supported with persistent processes. Command: "
+                    + command);
+        }
+        Properties externalMeta = new Properties();
+        try {
+            ByteArrayOutputStream inputMeta = new ByteArrayOutputStream();
+            try (Writer w = new OutputStreamWriter(
+                    inputMeta, StandardCharsets.UTF_8)) {
+                writeInputMeta(doc.getMetadata(), w);
+            }
+            byte[] outputMeta = getProcessPool().execute((stdin, stdout) -> {
+                ExternalProcessPool.writeField(stdin, new ByteArrayInputStream(
+                        doc.getReference().getBytes(StandardCharsets.UTF_8)));
+                ExternalProcessPool.writeField(stdin,
+                        new ByteArrayInputStream(inputMeta.toByteArray()));
+                ExternalProcessPool.writeField(stdin, input);
+                stdin.flush();
+                ExternalProcessPool.readField(stdout, output != null
+                        ? output : NullOutputStream.NULL_OUTPUT_STREAM);
+                ByteArrayOutputStream meta = new ByteArrayOutputStream();
+                ExternalProcessPool.readField(stdout, meta);
+                return meta.toByteArray();
+            });
+            readOutputMeta(new InputStreamReader(new ByteArrayInputStream(
+                    outputMeta), StandardCharsets.UTF_8), externalMeta);
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "External persistent process failed. Command: "
+                            + command, e);
+        }
+        externalMeta.forEach((k, v) -> {
+            PropertySetter.orAppend(onSet).apply(doc.getMetadata(), k, v);
+        });
+    }
+
+    private synchronized ExternalProcessPool getProcessPool() {
+        if (processPool == null) {
+            processPool = new ExternalProcessPool(
+                    command, environmentVariables, persistentProcesses);
+        }
+        return processPool;
+    }
+    private synchronized void closeProcessPool() {
+        if (processPool != null) {
+            processPool.close();
+            processPool = null;
+        }
+    }
+
+    /**
+     * Terminates any persistent processes started by this handler and
+     * deletes named pipes kept for reuse.
+     * Processes are started again if this handler is used afterwards.
+     * @since 3.0.0
+     */
+    @Override
+    public void close() {
+        closeProcessPool();
+        Path pipe;
+        while ((pipe = idlePipes.poll()) != null) {
+            deleteQuietly(pipe);
+        }
+    }
+
+    private void writeInputMeta(Properties meta, Writer writer)
+            throws IOException {
+        String format = getMetadataInputFormat();
+        if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
+            meta.storeToProperties(writer);
+        } else if (META_FORMAT_XML.equals(format)) {
+            meta.storeToXML(writer);
+        } else {
+            meta.storeToJSON(writer);
+        }
+        writer.flush();
+    }
+    private void readOutputMeta(Reader reader, Properties meta)
+            throws IOException {
+        String format = getMetadataOutputFormat();
+        if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
+            meta.loadFromProperties(reader);
+        } else if (META_FORMAT_XML.equals(format)) {
+            meta.loadFromXML(reader);
+        } else if (META_FORMAT_JSON.equals(format)) {
+            meta.loadFromJSON(reader);
+        } else {
+            extractMetaFromFile(reader, meta);
         }
     }
 
@@ -595,6 +848,141 @@ public class ExternalHandler {
         }
     }
 
+    private void executePipedCommand(
+            final String cmd,
+            final ArgFiles files,
+            final Properties metadata,
+            final InputStream input,
+            final OutputStream output) throws ImporterHandlerException {
+        Process process;
+        try {
+            process = ExternalProcessPool.newProcessBuilder(
+                    cmd, environmentVariables).start();
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "External command failed. Command: " + command, e);
+        }
+        Map<Path, Thread> pipeWriters = new LinkedHashMap<>();
+        Thread stdinWriter = null;
+        try {
+            InputStream stdinContent = null;
+            if (files.inputOnStdin || !files.hasInputFile()) {
+                stdinContent = input;
+            }
+            stdinWriter = startPipeThread("stdin",
+                    stdinContent, process.getOutputStream());
+            for (Entry<Path, InputStream> pipe : files.pipes.entrySet()) {
+                pipeWriters.put(pipe.getKey(), startPipeThread("fifo",
+                        pipe.getValue(), pipe.getKey()));
+            }
+            Thread stderrReader = startThread("stderr",
+                    () -> readErrors(process, files, metadata));
+
+            // Output content is copied as is
+            OutputStream stdoutTarget = NullOutputStream.NULL_OUTPUT_STREAM;
+            if (!files.hasOutputFile() && output != null) {
+                stdoutTarget = output;
+            }
+            IOUtils.copy(process.getInputStream(), stdoutTarget);
+            stdoutTarget.flush();
+
+            int exitValue = process.waitFor();
+            stderrReader.join();
+            if (exitValue != 0) {
+                LOG.error("Bad command exit value: {}", exitValue);
+            }
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "External command failed. Command: " + command, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImporterHandlerException(
+                    "Interrupted while executing command: " + command, e);
+        } finally {
+            process.destroyForcibly();
+            Map<Path, Thread> pipeReleasers = new LinkedHashMap<>();
+            pipeWriters.forEach((pipe, writer) -> pipeReleasers.put(
+                    pipe, releasePipeWriter(pipe, writer)));
+            joinQuietly(stdinWriter);
+            pipeWriters.values().forEach(this::joinQuietly);
+            pipeReleasers.values().forEach(this::joinQuietly);
+            // Only pipes no longer opened on our end can be reused
+            pipeWriters.forEach((pipe, writer) -> {
+                Thread releaser = pipeReleasers.get(pipe);
+                if (!writer.isAlive()
+                        && (releaser == null || !releaser.isAlive())) {
+                    files.reusablePipes.add(pipe);
+                }
+            });
+        }
+    }
+
+    private Thread startPipeThread(
+            String name, InputStream content, Object target) {
+        return startThread(name, () -> {
+            if (content == null && !(target instanceof OutputStream)) {
+                return;
+            }
+            try (OutputStream os = target instanceof OutputStream
+                    ? (OutputStream) target
+                    : new FileOutputStream(((Path) target).toFile())) {
+                if (content != null) {
+                    IOUtils.copy(content, os);
+                }
+            } catch (IOException e) {
+                // Normal if the external application does not read it all
+                LOG.debug("Could not write all {} content.", name, e);
+            }
+        });
+    }
+    private Thread startThread(String name, Runnable runnable) {
+        Thread t = new Thread(runnable, "importer-external-" + name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+    // A writer still waiting for the external application to open its
+    // named pipe is released by opening the pipe ourselves.
+    // Returns the releasing thread, or null if none was needed.
+    private Thread releasePipeWriter(Path pipe, Thread writer) {
+        if (writer.isAlive()) {
+            return startThread("fifo-release", () -> {
+                try (InputStream is = new FileInputStream(pipe.toFile())) {
+                    IOUtils.copy(is, NullOutputStream.NULL_OUTPUT_STREAM);
+                } catch (IOException e) {
+                    LOG.debug("Could not release named pipe: {}", pipe, e);
+                }
+            });
+        }
+        return null;
+    }
+    private void joinQuietly(Thread thread) {
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(PIPE_JOIN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    private void readErrors(
+            Process process, ArgFiles files, Properties metadata) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                process.getErrorStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (files.hasOutputMetaFile()) {
+                    LOG.debug("External command STDERR: {}", line);
+                } else {
+                    extractMetaFromLine(line, metadata);
+                }
+            }
+        } catch (IOException e) {
+            LOG.debug("Could not read external command STDERR.", e);
+        }
+    }
+
     private void writeLine(String line, OutputStream output) {
         try {
             output.write(line.getBytes());
@@ -616,21 +1004,107 @@ public class ExternalHandler {
 
     private synchronized void extractMetaFromLine(
             String line, Properties metadata) {
-        RegexFieldValueExtractor.extractFieldValues(metadata, line,
-                patterns.toArray(RegexFieldValueExtractor.EMPTY_ARRAY));
+        if (patternArray == null) {
+            patternArray =
+                    patterns.toArray(RegexFieldValueExtractor.EMPTY_ARRAY);
+            combinedPattern = combinePatterns(patterns);
+        }
+        if (patternArray.length == 0 || (combinedPattern != null
+                && !combinedPattern.matcher(line).find())) {
+            return;
+        }
+        RegexFieldValueExtractor.extractFieldValues(
+                metadata, line, patternArray);
+    }
+
+    // A single pattern matching whatever any of the extraction patterns
+    // could match. Null if they cannot be combined.
+    private static Pattern combinePatterns(
+            List<RegexFieldValueExtractor> extractors) {
+        if (extractors.isEmpty()) {
+            return null;
+        }
+        StringBuilder b = new StringBuilder();
+        for (RegexFieldValueExtractor extractor : extractors) {
+            Regex regex = extractor.getRegex();
+            String pattern = regex.getPattern();
+            // Group numbers change once combined
+            if (pattern == null || regex.isIgnoreDiacritic()
+                    || BACK_REFERENCE.matcher(pattern).find()) {
+                return null;
+            }
+            if (b.length() > 0) {
+                b.append('|');
+            }
+            b.append(regex.isIgnoreCase() ? "(?iu:" : "(?:");
+            b.append(pattern).append(')');
+        }
+        try {
+            return Pattern.compile(b.toString(), Pattern.DOTALL);
+        } catch (PatternSyntaxException e) {
+            LOG.debug("Could not combine extraction patterns.", e);
+            return null;
+        }
+    }
+
+    private Path resolveTempDirectory(Object stream) {
+        if (tempDir != null) {
+            return tempDir;
+        }
+        if (stream instanceof ICachedStream) {
+            return ((ICachedStream) stream).getCacheDirectory();
+        }
+        return FileUtils.getTempDirectory().toPath();
+    }
+
+    // Named pipe (FIFO) or null if it could not be created.
+    // A pipe left idle by a previous document is reused when possible,
+    // so "mkfifo" only runs when more pipes are used concurrently.
+    private Path createNamedPipe(Object stream, String name, String suffix) {
+        if (SystemUtils.IS_OS_WINDOWS) {
+            return null;
+        }
+        Path tempDirectory = resolveTempDirectory(stream);
+        Path pipe;
+        while ((pipe = idlePipes.poll()) != null) {
+            if (tempDirectory.equals(pipe.getParent())
+                    && pipe.getFileName().toString().startsWith(name + "-")
+                    && pipe.getFileName().toString().endsWith(suffix)
+                    && Files.exists(pipe)) {
+                return pipe;
+            }
+            deleteQuietly(pipe);
+        }
+        pipe = tempDirectory.resolve(
+                name + "-" + UUID.randomUUID() + suffix);
+        try {
+            Files.createDirectories(tempDirectory);
+            if (new ProcessBuilder("mkfifo", pipe.toString())
+                    .start().waitFor() == 0) {
+                pipe.toFile().deleteOnExit();
+                return pipe;
+            }
+        } catch (IOException e) {
+            LOG.debug("Could not create named pipe: {}", pipe, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.debug("Using a temporary file instead of a named pipe.");
+        return null;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.debug("Could not delete: {}", file, e);
+        }
     }
 
     private Path createTempFile(
             Object stream, String name, String suffix)
                     throws ImporterHandlerException {
-        Path tempDirectory;
-        if (tempDir != null) {
-            tempDirectory = tempDir;
-        } else if (stream instanceof ICachedStream) {
-            tempDirectory = ((ICachedStream) stream).getCacheDirectory();
-        } else {
-            tempDirectory = FileUtils.getTempDirectory().toPath();
-        }
+        Path tempDirectory = resolveTempDirectory(stream);
         Path file = null;
         try {
             if (!tempDirectory.toFile().exists()) {
@@ -650,6 +1124,11 @@ public class ExternalHandler {
         if (!cmd.contains(TOKEN_INPUT) || is == null) {
             return cmd;
         }
+        if (piped && STDIN_PATH.toFile().exists()) {
+            files.inputFile = STDIN_PATH;
+            files.inputOnStdin = true;
+            return StringUtils.replace(cmd, TOKEN_INPUT, STDIN_PATH.toString());
+        }
         String newCmd = cmd;
         files.inputFile = createTempFile(is, "input", ".tmp");
         newCmd = StringUtils.replace(newCmd, TOKEN_INPUT,
@@ -669,22 +1148,29 @@ public class ExternalHandler {
         if (!cmd.contains(TOKEN_INPUT_META)) {
             return cmd;
         }
+        String suffix = "." + StringUtils.defaultIfBlank(
+                getMetadataInputFormat(), META_FORMAT_JSON);
+        Path pipe = piped ? createNamedPipe(is, "input-meta", suffix) : null;
+        if (pipe != null) {
+            files.inputMetaFile = pipe;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (Writer w = new OutputStreamWriter(
+                    bytes, StandardCharsets.UTF_8)) {
+                writeInputMeta(meta, w);
+            } catch (IOException e) {
+                throw new ImporterHandlerException(
+                        "Could not write input metadata.", e);
+            }
+            files.pipes.put(pipe, new ByteArrayInputStream(bytes.toByteArray()));
+            return StringUtils.replace(
+                    cmd, TOKEN_INPUT_META, pipe.toAbsolutePath().toString());
+        }
         String newCmd = cmd;
-        files.inputMetaFile = createTempFile(
-                is, "input-meta", "." + StringUtils.defaultIfBlank(
-                        getMetadataInputFormat(), META_FORMAT_JSON));
+        files.inputMetaFile = createTempFile(is, "input-meta", suffix);
         newCmd = StringUtils.replace(newCmd, TOKEN_INPUT_META,
                 files.inputMetaFile.toAbsolutePath().toString());
         try (Writer fw = Files.newBufferedWriter(files.inputMetaFile)) {
-            String format = getMetadataInputFormat();
-            if (META_FORMAT_PROPERTIES.equalsIgnoreCase(format)) {
-                meta.storeToProperties(fw);
-            } else if (META_FORMAT_XML.equals(format)) {
-                meta.storeToXML(fw);
-            } else {
-                meta.storeToJSON(fw);
-            }
-            fw.flush();
+            writeInputMeta(meta, fw);
             return newCmd;
         } catch (IOException e) {
             ArgFiles.delete(files.inputMetaFile);
@@ -744,6 +1230,9 @@ public class ExternalHandler {
         setMetadataOutputFormat(xml.getString(
                 "metadata/@outputFormat", metadataOutputFormat));
         setOnSet(xml.getEnum("metadata/@onSet", PropertySetter.class, onSet));
+        setPiped(xml.getBoolean("piped", piped));
+        setPersistentProcesses(xml.getInteger(
+                "persistentProcesses", persistentProcesses));
 
         List<XML> nodes = xml.getXMLList("metadata/pattern");
         for (XML node : nodes) {
@@ -765,6 +1254,8 @@ public class ExternalHandler {
     public void saveHandlerToXML(XML xml) {
         xml.addElement("command", command);
         xml.addElement("tempDir", tempDir);
+        xml.addElement("piped", piped);
+        xml.addElement("persistentProcesses", persistentProcesses);
         if (!getMetadataExtractionPatterns().isEmpty()) {
             XML metaXML = xml.addElement("metadata")
                     .setAttribute("inputFormat", metadataInputFormat)
@@ -811,6 +1302,12 @@ public class ExternalHandler {
         Path inputMetaFile;
         Path outputFile;
         Path outputMetaFile;
+        // Input file is the standard input path (not deleted)
+        boolean inputOnStdin;
+        // Named pipes and their content
+        final Map<Path, InputStream> pipes = new LinkedHashMap<>();
+        // Named pipes fully released after execution, kept for reuse
+        final Set<Path> reusablePipes = new HashSet<>();
         boolean hasInputFile() {
             return inputFile != null;
         }
@@ -824,8 +1321,12 @@ public class ExternalHandler {
             return outputMetaFile != null;
         }
         void deleteAll() {
-            delete(inputFile);
-            delete(inputMetaFile);
+            if (!inputOnStdin) {
+                delete(inputFile);
+            }
+            if (!reusablePipes.contains(inputMetaFile)) {
+                delete(inputMetaFile);
+            }
             delete(outputFile);
             delete(outputMetaFile);
         }
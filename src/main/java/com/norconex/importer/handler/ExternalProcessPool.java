@@ -0,0 +1,287 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Pool of long-lived external processes, each handling one document at
+ * a time over their standard input and output streams.
+ * Processes are started when first needed. A process failing while
+ * handling a document is discarded and another one is started in its
+ * place for the next document.
+ * </p>
+ * <p>
+ * Fields are exchanged as a sequence of chunks, each prefixed with its
+ * length as a 4-byte big-endian integer. A zero-length chunk
+ * ends a field. See {@link ExternalHandler} for the protocol details.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+class ExternalProcessPool {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ExternalProcessPool.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final AtomicInteger STDERR_COUNT = new AtomicInteger();
+
+    /**
+     * Exchange of a document with an external process.
+     * @param <T> exchange result type
+     */
+    @FunctionalInterface
+    interface Exchange<T> {
+        T exchange(DataOutputStream stdin, DataInputStream stdout)
+                throws IOException;
+    }
+
+    private final String command;
+    private final Map<String, String> environmentVariables;
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<ExternalProcess> idleProcesses =
+            new LinkedBlockingQueue<>();
+    private boolean closed;
+
+    /**
+     * Creates a pool of external processes.
+     * @param command command launching an external process
+     * @param environmentVariables environment variables overwriting
+     *     those of this process (can be <code>null</code>)
+     * @param size maximum number of processes
+     */
+    ExternalProcessPool(String command,
+            Map<String, String> environmentVariables, int size) {
+        this.command = command;
+        this.environmentVariables = environmentVariables;
+        this.permits = new Semaphore(Math.max(1, size), true);
+    }
+
+    /**
+     * Exchanges a document with an idle process, waiting for one
+     * to become available if needed.
+     * @param exchange the exchange to perform
+     * @param <T> exchange result type
+     * @return exchange result
+     * @throws IOException process could not be started or failed
+     */
+    <T> T execute(Exchange<T> exchange) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(
+                    "Interrupted while waiting for an external process.", e);
+        }
+        try {
+            ExternalProcess process = idleProcesses.poll();
+            if (process != null && !process.isAlive()) {
+                LOG.warn("External process ended unexpectedly. "
+                        + "Starting a new one. Command: {}", command);
+                discard(process);
+                process = null;
+            }
+            if (process == null) {
+                process = start();
+            }
+            boolean success = false;
+            try {
+                T result = exchange.exchange(process.stdin, process.stdout);
+                success = true;
+                return result;
+            } finally {
+                if (success) {
+                    release(process);
+                } else {
+                    LOG.warn("External process failed. A new one will be "
+                            + "started for the next document. Command: {}",
+                            command);
+                    discard(process);
+                }
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Terminates all processes. Processes currently handling a document
+     * are terminated once done.
+     */
+    synchronized void close() {
+        closed = true;
+        ExternalProcess process;
+        while ((process = idleProcesses.poll()) != null) {
+            discard(process);
+        }
+    }
+
+    /**
+     * Writes a field made of the given input stream content.
+     * @param stdin where to write the field
+     * @param content field content
+     * @throws IOException could not write field
+     */
+    static void writeField(DataOutputStream stdin, InputStream content)
+            throws IOException {
+        if (content != null) {
+            byte[] buffer = new byte[CHUNK_SIZE];
+            int length;
+            while ((length = content.read(buffer)) != -1) {
+                if (length > 0) {
+                    stdin.writeInt(length);
+                    stdin.write(buffer, 0, length);
+                }
+            }
+        }
+        stdin.writeInt(0);
+    }
+    /**
+     * Reads a field, copying its content to the given output stream.
+     * @param stdout where to read the field from
+     * @param content where to copy the field content
+     * @throws IOException could not read field
+     */
+    static void readField(DataInputStream stdout, OutputStream content)
+            throws IOException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        int length;
+        while ((length = stdout.readInt()) != 0) {
+            if (length < 0) {
+                throw new IOException("Invalid chunk length: " + length);
+            }
+            while (length > 0) {
+                int read = stdout.read(
+                        buffer, 0, Math.min(length, buffer.length));
+                if (read == -1) {
+                    throw new EOFException(
+                            "External process output ended unexpectedly.");
+                }
+                content.write(buffer, 0, read);
+                length -= read;
+            }
+        }
+        content.flush();
+    }
+
+    private synchronized ExternalProcess start() throws IOException {
+        if (closed) {
+            throw new IOException("External process pool is closed.");
+        }
+        LOG.debug("Starting external process: {}", command);
+        return new ExternalProcess(
+                newProcessBuilder(command, environmentVariables).start());
+    }
+
+    private synchronized void release(ExternalProcess process) {
+        if (closed) {
+            discard(process);
+        } else {
+            idleProcesses.add(process);
+        }
+    }
+
+    private void discard(ExternalProcess process) {
+        process.destroy();
+    }
+
+    /**
+     * Creates a process builder running the given command through
+     * the operating system shell.
+     * @param command the command
+     * @param environmentVariables environment variables overwriting
+     *     those of this process (can be <code>null</code>)
+     * @return process builder
+     */
+    static ProcessBuilder newProcessBuilder(
+            String command, Map<String, String> environmentVariables) {
+        ProcessBuilder builder;
+        if (SystemUtils.IS_OS_WINDOWS) {
+            builder = new ProcessBuilder("cmd.exe", "/C", command);
+        } else {
+            // "exec" so the shell is replaced by the command
+            builder = new ProcessBuilder("/bin/sh", "-c", "exec " + command);
+        }
+        if (environmentVariables != null) {
+            builder.environment().putAll(environmentVariables);
+        }
+        return builder;
+    }
+
+    private static class ExternalProcess {
+        private final Process process;
+        private final DataOutputStream stdin;
+        private final DataInputStream stdout;
+        ExternalProcess(Process process) {
+            this.process = process;
+            this.stdin = new DataOutputStream(
+                    new BufferedOutputStream(process.getOutputStream()));
+            this.stdout = new DataInputStream(
+                    new BufferedInputStream(process.getInputStream()));
+            // STDERR is not part of the exchange, but must be consumed
+            Thread t = new Thread(() -> logErrors(process.getErrorStream()),
+                    "importer-external-stderr-"
+                            + STDERR_COUNT.incrementAndGet());
+            t.setDaemon(true);
+            t.start();
+        }
+        boolean isAlive() {
+            return process.isAlive();
+        }
+        void destroy() {
+            try {
+                // Closing STDIN lets well-behaved processes end on their own
+                stdin.close();
+            } catch (IOException e) {
+                LOG.debug("Could not close external process input.", e);
+            }
+            process.destroyForcibly();
+        }
+        private static void logErrors(InputStream stderr) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(stderr, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    LOG.debug("External process STDERR: {}", line);
+                }
+            } catch (IOException e) {
+                LOG.debug("Could not read external process STDERR.", e);
+            }
+        }
+    }
+}
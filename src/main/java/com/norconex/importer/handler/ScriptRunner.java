@@ -15,6 +15,10 @@
 package com.norconex.importer.handler;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import javax.script.Bindings;
 import javax.script.Compilable;
@@ -74,6 +78,22 @@ import com.norconex.importer.handler.transformer.impl.ScriptTransformer;
  * languages such as Groovy, JRuby, Scala, Fantom, Jython, etc. Refer to
  * appropriate third-party documentation about these languages to find
  * out how to use them.
+ * </p>
+ * <h3>Concurrency</h3>
+ * <p>
+ * As of 3.0.0, script engines are pooled. Script engines are usually not
+ * safe to share between threads, so each evaluation is given its own
+ * engine, along with its compiled script and bindings. Engines are created
+ * as needed and reused afterward. By default, there is no limit to the
+ * number of engines created, which in practice means one engine per
+ * thread evaluating the script at the same time. Setting a pool size
+ * limits the number of engines, threads waiting for an engine to become
+ * available when all are in use.
+ * </p>
+ * <p>
+ * Since engines and their bindings are reused, global variables declared
+ * by a script may still be defined on the next evaluation by the same
+ * engine. Variables supplied for evaluation are removed after each one.
  * </p><p>
  * <b>Note:</b> While using a scripting language can be very convenient, it
  * requires extra knowledge and should only be considered by
@@ -94,12 +114,17 @@ public class ScriptRunner<T> {
     public static final String LUA_ENGINE = "lua";
     public static final String JAVASCRIPT_ENGINE = "JavaScript";
     public static final String DEFAULT_SCRIPT_ENGINE = JAVASCRIPT_ENGINE;
+    /**
+     * Default maximum number of script engines (0 means no limit).
+     * @since 3.0.0
+     */
+    public static final int DEFAULT_POOL_SIZE = 0;
 
-    private ScriptEngine engine;
-    private CompiledScript compiledScript;
+    private EnginePool enginePool;
 
     private String engineName = DEFAULT_SCRIPT_ENGINE;
     private String script;
+    private int poolSize = DEFAULT_POOL_SIZE;
 
     public ScriptRunner() {
         super();
@@ -112,50 +137,120 @@ public class ScriptRunner<T> {
     public String getEngineName() {
         return engineName;
     }
-    public void setEngineName(String engineName) {
+    public synchronized void setEngineName(String engineName) {
         this.engineName = engineName;
-        this.engine = null;
+        this.enginePool = null;
     }
 
     public String getScript() {
         return script;
     }
-    public void setScript(String script) {
+    public synchronized void setScript(String script) {
         this.script = script;
-        this.engine = null;
+        this.enginePool = null;
     }
 
+    /**
+     * Gets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @return pool size
+     * @since 3.0.0
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+    /**
+     * Sets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @param poolSize pool size
+     * @since 3.0.0
+     */
+    public synchronized void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+        this.enginePool = null;
+    }
+
+    /**
+     * Creates new bindings.
+     * @return bindings
+     * @throws ImporterHandlerException could not create script engine
+     * @deprecated Since 3.0.0, use {@link #eval(Map)}, which reuses
+     *     bindings
+     */
+    @Deprecated
     public Bindings createBindings() throws ImporterHandlerException {
-        ensureScriptEngine();
-        return engine.createBindings();
+        EnginePool pool = getEnginePool();
+        PooledEngine pooled = pool.borrow();
+        try {
+            return pooled.engine.createBindings();
+        } finally {
+            pool.release(pooled);
+        }
     }
 
-    @SuppressWarnings("unchecked")
+    /**
+     * Evaluates the script with the given bindings.
+     * @param bindings bindings
+     * @return evaluation response
+     * @throws ImporterHandlerException could not evaluate script
+     * @deprecated Since 3.0.0, use {@link #eval(Map)}, which reuses
+     *     bindings
+     */
+    @Deprecated
     public T eval(Bindings bindings) throws ImporterHandlerException {
+        EnginePool pool = getEnginePool();
+        PooledEngine pooled = pool.borrow();
         try {
-            ensureScriptEngine();
-            T value;
-            if (compiledScript != null) {
-                value = (T) compiledScript.eval(bindings);
-            } else {
-                value = (T) engine.eval(script, bindings);
+            return pooled.eval(bindings);
+        } finally {
+            pool.release(pooled);
+        }
+    }
+
+    /**
+     * Evaluates the script with the given variables made available to it.
+     * The script is evaluated by a script engine not in use by other
+     * threads, reusing that engine bindings.
+     * @param variables script variables
+     * @return evaluation response
+     * @throws ImporterHandlerException could not evaluate script
+     * @since 3.0.0
+     */
+    public T eval(Map<String, Object> variables)
+            throws ImporterHandlerException {
+        EnginePool pool = getEnginePool();
+        PooledEngine pooled = pool.borrow();
+        try {
+            pooled.bindings.putAll(variables);
+            return pooled.eval(pooled.bindings);
+        } finally {
+            // do not hold on to variables (e.g., document content)
+            for (String name : variables.keySet()) {
+                pooled.bindings.remove(name);
             }
-            return value;
-        } catch (ScriptException e) {
-            throw new ImporterHandlerException("Script execution error.", e);
+            pool.release(pooled);
+        }
+    }
+
+    private synchronized EnginePool getEnginePool() {
+        if (enginePool == null) {
+            enginePool = new EnginePool(poolSize);
         }
+        return enginePool;
     }
 
-    private synchronized void ensureScriptEngine()
+    private PooledEngine createPooledEngine()
             throws ImporterHandlerException {
-        if (engine != null) {
-            return;
+        String name;
+        String source;
+        synchronized (this) {
+            name = this.engineName;
+            source = this.script;
         }
-        String name = this.engineName;
         if (StringUtils.isBlank(name)) {
             name = DEFAULT_SCRIPT_ENGINE;
         }
-        engine = new ScriptEngineManager().getEngineByName(name);
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName(name);
 
         if (engine == null) {
             StringBuilder b = new StringBuilder();
@@ -182,15 +277,17 @@ public class ScriptRunner<T> {
                     + name + "\".");
         }
 
+        CompiledScript compiledScript = null;
         if (engine instanceof Compilable) {
             Compilable compileEngine = (Compilable) engine;
             try {
-                compiledScript = compileEngine.compile(script);
+                compiledScript = compileEngine.compile(source);
             } catch (ScriptException e) {
                 throw new ImporterHandlerException(
                         "Could not compile script.", e);
             }
         }
+        return new PooledEngine(engine, compiledScript, source);
     }
 
 
@@ -203,6 +300,7 @@ public class ScriptRunner<T> {
         return new EqualsBuilder()
                 .append(engineName, castOther.engineName)
                 .append(script, castOther.script)
+                .append(poolSize, castOther.poolSize)
                 .isEquals();
     }
     @Override
@@ -210,6 +308,7 @@ public class ScriptRunner<T> {
         return new HashCodeBuilder()
                 .append(engineName)
                 .append(script)
+                .append(poolSize)
                 .toHashCode();
     }
     @Override
@@ -217,6 +316,90 @@ public class ScriptRunner<T> {
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
                 .append("engineName", engineName)
                 .append("script", script)
+                .append("poolSize", poolSize)
                 .toString();
     }
+
+    // A script engine with its compiled script and bindings, used by
+    // one thread at a time.
+    private class PooledEngine {
+        private final ScriptEngine engine;
+        private final CompiledScript compiledScript;
+        private final String source;
+        private final Bindings bindings;
+        PooledEngine(ScriptEngine engine,
+                CompiledScript compiledScript, String source) {
+            this.engine = engine;
+            this.compiledScript = compiledScript;
+            this.source = source;
+            this.bindings = engine.createBindings();
+        }
+        @SuppressWarnings("unchecked")
+        T eval(Bindings b) throws ImporterHandlerException {
+            try {
+                if (compiledScript != null) {
+                    return (T) compiledScript.eval(b);
+                }
+                return (T) engine.eval(source, b);
+            } catch (ScriptException e) {
+                throw new ImporterHandlerException(
+                        "Script execution error.", e);
+            }
+        }
+    }
+
+    // Engines are created on demand, up to max size (if greater than zero),
+    // and reused once released.
+    private class EnginePool {
+        private static final long WAIT_INTERVAL = 100;
+        private final BlockingQueue<PooledEngine> idleEngines =
+                new LinkedBlockingQueue<>();
+        private final int maxSize;
+        private int size;
+        EnginePool(int maxSize) {
+            this.maxSize = maxSize;
+        }
+        PooledEngine borrow() throws ImporterHandlerException {
+            PooledEngine pooled = idleEngines.poll();
+            while (pooled == null) {
+                if (reserve()) {
+                    boolean created = false;
+                    try {
+                        pooled = createPooledEngine();
+                        created = true;
+                    } finally {
+                        if (!created) {
+                            unreserve();
+                        }
+                    }
+                } else {
+                    // wait for one to be released, checking again
+                    // from time to time in case one failed to be created
+                    try {
+                        pooled = idleEngines.poll(
+                                WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new ImporterHandlerException(
+                                "Interrupted while waiting for a "
+                              + "script engine.", e);
+                    }
+                }
+            }
+            return pooled;
+        }
+        void release(PooledEngine pooled) {
+            idleEngines.offer(pooled);
+        }
+        private synchronized boolean reserve() {
+            if (maxSize > 0 && size >= maxSize) {
+                return false;
+            }
+            size++;
+            return true;
+        }
+        private synchronized void unreserve() {
+            size--;
+        }
+    }
 }
\ No newline at end of file
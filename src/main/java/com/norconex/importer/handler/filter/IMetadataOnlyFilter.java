@@ -0,0 +1,40 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.filter;
+
+/**
+ * Tells the importer a filter may only rely on a document reference
+ * and metadata to accept or reject it, never reading its content.
+ * When such a filter is only preceded by other filters, the importer
+ * evaluates it before them so documents can be rejected without their
+ * content being read (and cached). Since filters do not modify documents,
+ * and "exclude" filters have precedence over "include" ones regardless
+ * of their order, doing so does not change whether a document
+ * is accepted or not.
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public interface IMetadataOnlyFilter extends IDocumentFilter {
+
+    /**
+     * Gets whether this filter, as currently configured, only relies on
+     * document reference and metadata. When <code>true</code>, the
+     * importer passes a <code>null</code> input stream to
+     * {@link #acceptDocument(com.norconex.importer.handler.HandlerDoc,
+     * java.io.InputStream, com.norconex.importer.parser.ParseState)}.
+     * @return <code>true</code> if the document content is never read
+     */
+    boolean isMetadataOnly();
+}
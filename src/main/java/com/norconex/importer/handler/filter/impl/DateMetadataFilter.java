@@ -15,7 +15,6 @@
 package com.norconex.importer.handler.filter.impl;
 
 import java.io.InputStream;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -32,7 +31,6 @@ import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.commons.lang3.time.FastDateFormat;
 import org.slf4j.Logger;
@@ -43,9 +41,10 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
-import com.norconex.importer.util.FormatUtil;
+import com.norconex.importer.util.DateFormatRegistry;
 /**
  * <p>Accepts or rejects a document based on whether field values correspond
  * to a valid date, based on date conditions and date format.
@@ -135,7 +134,8 @@ import com.norconex.importer.util.FormatUtil;
  * @since 2.2.0
  */
 @SuppressWarnings("javadoc")
-public class DateMetadataFilter extends AbstractDocumentFilter {
+public class DateMetadataFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
     private static final Logger LOG =
             LoggerFactory.getLogger(DateMetadataFilter.class);
 
@@ -316,6 +316,11 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
         return Collections.unmodifiableList(conditions);
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        return true;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -337,12 +342,12 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
     }
 
     private boolean meetsAllConditions(String fieldName, String fieldValue) {
-        String epochString = FormatUtil.formatDateString(
-                fieldValue, format, null, fieldName);
-        if (StringUtils.isBlank(epochString)) {
+        Long fieldEpoch = DateFormatRegistry.parse(fieldValue, format, null);
+        if (fieldEpoch == null) {
+            LOG.debug("Invalid date format for field {}: {}",
+                    fieldName, fieldValue);
             return false;
         }
-        long fieldEpoch = Long.parseLong(epochString);
         for (Condition condition : conditions) {
             if (!condition.operator.evaluate(
                     fieldEpoch, condition.getEpochDate())) {
@@ -492,51 +497,37 @@ public class DateMetadataFilter extends AbstractDocumentFilter {
         private static final Pattern RELATIVE_PARTS = Pattern.compile(
                 "^(\\w{3,5})([-+]{1})(\\d+)([YMDhms]{1})(\\*{0,1})$");
         public static Condition parse(Operator operator, String dateString) {
-            try {
-                String d = dateString.trim();
+            String d = dateString.trim();
 
-                // NOW[-+]9[YMDhms][*]
-                // TODAY[-+]9[YMDhms][*]
-                if (d.startsWith("NOW") || d.startsWith("TODAY")) {
-                    Matcher m = RELATIVE_PARTS.matcher(d);
-                    if (!m.matches() || m.groupCount() != 5) {
-                        LOG.debug("Invalid format for value: {}", dateString);
-                        return null;
-                    }
-                    int amount = NumberUtils.toInt(m.group(3));
-                    if  ("-".equals(m.group(2))) {
-                        amount = -amount;
-                    }
-                    String unitStr = m.group(4);
-                    TimeUnit unit = TimeUnit.getTimeUnit(unitStr);
-                    if (unit == null) {
-                        LOG.debug("Invalid time unit: {}", unitStr);
-                    }
-                    boolean fixed = !"*".equals(m.group(5));
-                    boolean today = "TODAY".equals(m.group(1));
-                    return new Condition(operator, unit, amount, fixed, today);
+            // NOW[-+]9[YMDhms][*]
+            // TODAY[-+]9[YMDhms][*]
+            if (d.startsWith("NOW") || d.startsWith("TODAY")) {
+                Matcher m = RELATIVE_PARTS.matcher(d);
+                if (!m.matches() || m.groupCount() != 5) {
+                    LOG.debug("Invalid format for value: {}", dateString);
+                    return null;
                 }
-
-                // yyyy-MM-ddThh:mm:ss.SSS
-                if (d.contains(".")) {
-                    return new Condition(operator, FastDateFormat.getInstance(
-                            "yyyy-MM-dd'T'HH:mm:ss.SSS").parse(d).getTime());
+                int amount = NumberUtils.toInt(m.group(3));
+                if  ("-".equals(m.group(2))) {
+                    amount = -amount;
                 }
-                // yyyy-MM-ddThh:mm:ss
-                if (d.contains("T")) {
-                    return new Condition(operator, DateFormatUtils
-                            .ISO_8601_EXTENDED_DATETIME_FORMAT.parse(
-                                    d).getTime());
+                String unitStr = m.group(4);
+                TimeUnit unit = TimeUnit.getTimeUnit(unitStr);
+                if (unit == null) {
+                    LOG.debug("Invalid time unit: {}", unitStr);
                 }
+                boolean fixed = !"*".equals(m.group(5));
+                boolean today = "TODAY".equals(m.group(1));
+                return new Condition(operator, unit, amount, fixed, today);
+            }
 
-                // yyyy-MM-dd
-                return new Condition(operator,
-                        DateFormatUtils.ISO_8601_EXTENDED_DATE_FORMAT.parse(
-                                d).getTime());
-            } catch (ParseException e) {
-                LOG.debug("Date parse error for value: " + dateString, e);
+            // yyyy-MM-dd[Thh:mm:ss[.SSS]]
+            Long epoch = DateFormatRegistry.parseISO(d);
+            if (epoch == null) {
+                LOG.debug("Date parse error for value: {}", dateString);
+                return null;
             }
-            return null;
+            return new Condition(operator, epoch);
         }
 
         @Override
@@ -32,6 +32,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.parser.ParseState;
 /**
  * <p>Accepts or rejects a document based on whether its content (default) or
@@ -75,7 +76,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 3.0.0
  */
 @SuppressWarnings("javadoc")
-public class EmptyFilter extends AbstractDocumentFilter {
+public class EmptyFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
 
     private final TextMatcher fieldMatcher = new TextMatcher();
 
@@ -86,6 +88,12 @@ public class EmptyFilter extends AbstractDocumentFilter {
         this.fieldMatcher.copyFrom(fieldMatcher);
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        // content is only checked when there is no field matcher
+        return fieldMatcher.getPattern() != null;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
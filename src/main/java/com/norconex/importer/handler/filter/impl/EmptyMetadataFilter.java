@@ -32,6 +32,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
 /**
@@ -61,7 +62,8 @@ import com.norconex.importer.parser.ParseState;
  */
 @Deprecated
 @SuppressWarnings("javadoc")
-public class EmptyMetadataFilter extends AbstractDocumentFilter {
+public class EmptyMetadataFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
 
     private final List<String> fields = new ArrayList<>();
 
@@ -86,6 +88,11 @@ public class EmptyMetadataFilter extends AbstractDocumentFilter {
         CollectionUtil.setAll(this.fields, fields);
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        return true;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -34,6 +34,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
 /**
@@ -89,7 +90,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.2.0
  */
 @SuppressWarnings("javadoc")
-public class NumericMetadataFilter extends AbstractDocumentFilter {
+public class NumericMetadataFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(NumericMetadataFilter.class);
@@ -221,6 +223,11 @@ public class NumericMetadataFilter extends AbstractDocumentFilter {
         conditions.add(new Condition(operator, number));
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        return true;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -26,6 +26,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.parser.ParseState;
 /**
  * <p>Accepts or rejects a document based on its reference (e.g. URL).
@@ -57,7 +58,8 @@ import com.norconex.importer.parser.ParseState;
  * @since 3.0.0
  */
 @SuppressWarnings("javadoc")
-public class ReferenceFilter extends AbstractDocumentFilter {
+public class ReferenceFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
 
     private final TextMatcher valueMatcher = new TextMatcher();
 
@@ -83,6 +85,11 @@ public class ReferenceFilter extends AbstractDocumentFilter {
         this.valueMatcher.copyFrom(valueMatcher);
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        return true;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -32,6 +32,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
 /**
@@ -70,7 +71,8 @@ import com.norconex.importer.parser.ParseState;
  * @deprecated Since 3.0.0, use {@link TextFilter} instead.
  */
 @Deprecated
-public class RegexMetadataFilter extends AbstractDocumentFilter {
+public class RegexMetadataFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(RegexMetadataFilter.class);
@@ -120,6 +122,11 @@ public class RegexMetadataFilter extends AbstractDocumentFilter {
         this.field = property;
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        return true;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
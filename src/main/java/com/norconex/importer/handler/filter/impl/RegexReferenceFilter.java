@@ -28,6 +28,7 @@ import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.filter.AbstractDocumentFilter;
+import com.norconex.importer.handler.filter.IMetadataOnlyFilter;
 import com.norconex.importer.handler.filter.OnMatch;
 import com.norconex.importer.parser.ParseState;
 /**
@@ -66,7 +67,8 @@ import com.norconex.importer.parser.ParseState;
  * @deprecated Since 3.0.0, use {@link ReferenceFilter} instead.
  */
 @Deprecated
-public class RegexReferenceFilter extends AbstractDocumentFilter {
+public class RegexReferenceFilter extends AbstractDocumentFilter
+        implements IMetadataOnlyFilter {
 
     private boolean caseSensitive;
     private String regex;
@@ -104,6 +106,11 @@ public class RegexReferenceFilter extends AbstractDocumentFilter {
         cachedPattern = null;
     }
 
+    @Override
+    public boolean isMetadataOnly() {
+        return true;
+    }
+
     @Override
     protected boolean isDocumentMatched(
             HandlerDoc doc, InputStream input, ParseState parseState)
@@ -14,7 +14,8 @@
  */
 package com.norconex.importer.handler.filter.impl;
 
-import javax.script.Bindings;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -63,7 +64,8 @@ import com.norconex.importer.parser.ParseState;
  * {@nx.xml.usage
  * <handler class="com.norconex.importer.handler.filter.impl.ScriptFilter"
  *   {@nx.include com.norconex.importer.handler.filter.AbstractStringFilter#attributes}
- *       engineName="(script engine name)">
+ *       engineName="(script engine name)"
+ *       enginePoolSize="(maximum number of script engines)">
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
  *   <script>(your script)</script>
  * </handler>
@@ -118,12 +120,31 @@ public class ScriptFilter extends AbstractStringFilter {
         scriptRunner.setScript(script);
     }
 
+    /**
+     * Gets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @return engine pool size
+     * @since 3.0.0
+     */
+    public int getEnginePoolSize() {
+        return scriptRunner.getPoolSize();
+    }
+    /**
+     * Sets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @param enginePoolSize engine pool size
+     * @since 3.0.0
+     */
+    public void setEnginePoolSize(int enginePoolSize) {
+        scriptRunner.setPoolSize(enginePoolSize);
+    }
+
     @Override
     protected boolean isStringContentMatching(HandlerDoc doc,
             StringBuilder content, ParseState parseState, int sectionIndex)
                     throws ImporterHandlerException {
 
-        Bindings b = scriptRunner.createBindings();
+        Map<String, Object> b = new HashMap<>();
         b.put("reference", doc.getReference());
         b.put("content", content.toString());
         b.put("metadata", doc.getMetadata());
@@ -145,12 +166,15 @@ public class ScriptFilter extends AbstractStringFilter {
     @Override
     protected void saveStringFilterToXML(XML xml) {
         xml.setAttribute("engineName", getEngineName());
+        xml.setAttribute("enginePoolSize", getEnginePoolSize());
         xml.addElement("script", getScript());
     }
 
     @Override
     protected void loadStringFilterFromXML(XML xml) {
         setEngineName(xml.getString("@engineName", getEngineName()));
+        setEnginePoolSize(
+                xml.getInteger("@enginePoolSize", getEnginePoolSize()));
         setScript(xml.getString("script", getScript()));
     }
 
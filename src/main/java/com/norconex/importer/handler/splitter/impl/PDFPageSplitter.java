@@ -18,16 +18,25 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.apache.pdfbox.multipdf.Splitter;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.interactive.action.PDAction;
+import org.apache.pdfbox.pdmodel.interactive.action.PDActionGoTo;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotation;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationLink;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDDestination;
+import org.apache.pdfbox.pdmodel.interactive.documentnavigation.destination.PDPageDestination;
 
+import com.norconex.commons.lang.io.CachedOutputStream;
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.map.PropertyMatcher;
 import com.norconex.commons.lang.text.TextMatcher;
@@ -63,6 +72,19 @@ import com.norconex.importer.parser.ParseState;
  * }
  *
  * <p>
+ * <b>Since 3.0.0</b>, you can have pages grouped into page ranges, each
+ * range being treated as an individual document. The page number
+ * of a range is its first page, and its last page is stored in
+ * <code>document.pdf.lastPageNumber</code>.  Ranges are appended
+ * to the document reference as "#&lt;first&gt;-&lt;last&gt;".
+ * </p>
+ * <p>
+ * PDFs are loaded using temporary files past a few megabytes and
+ * one page (or page range) is extracted at a time, so that splitting
+ * large PDFs does not require much memory.
+ * </p>
+ *
+ * <p>
  * By default this splitter restricts its use to
  * <code>document.contentType</code> matching <code>application/pdf</code>.
  * </p>
@@ -77,6 +99,9 @@ import com.norconex.importer.parser.ParseState;
  *      (String to put before the page number is appended to the document
  *      reference. Default is "#".)
  *    </referencePagePrefix>
+ *    <pagesPerDocument>
+ *      (Number of pages in each split document. Default is 1.)
+ *    </pagesPerDocument>
  *
  *  </handler>
  * }
@@ -99,10 +124,20 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
     public static final String DOC_PDF_PAGE_NO = "document.pdf.pageNumber";
     public static final String DOC_PDF_TOTAL_PAGES =
             "document.pdf.numberOfPages";
+    /**
+     * Last page number of a split page range.
+     * @since 3.0.0
+     */
+    public static final String DOC_PDF_LAST_PAGE_NO =
+            "document.pdf.lastPageNumber";
 
     public static final String DEFAULT_REFERENCE_PAGE_PREFIX = "#";
 
+    // PDF bytes kept in memory when loading, before using temp files
+    private static final long MAX_MAIN_MEMORY = 8L * 1024 * 1024;
+
     private String referencePagePrefix = DEFAULT_REFERENCE_PAGE_PREFIX;
+    private int pagesPerDocument = 1;
 
     public PDFPageSplitter() {
         super();
@@ -118,6 +153,24 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         this.referencePagePrefix = referencePagePrefix;
     }
 
+    /**
+     * Gets the number of pages in each split document.
+     * @return number of pages
+     * @since 3.0.0
+     */
+    public int getPagesPerDocument() {
+        return pagesPerDocument;
+    }
+    /**
+     * Sets the number of pages in each split document (page range size).
+     * Default is 1.
+     * @param pagesPerDocument number of pages
+     * @since 3.0.0
+     */
+    public void setPagesPerDocument(int pagesPerDocument) {
+        this.pagesPerDocument = pagesPerDocument;
+    }
+
     @Override
     protected List<Doc> splitApplicableDocument(
             HandlerDoc doc, InputStream input, OutputStream output,
@@ -130,75 +183,110 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
             return pageDocs;
         }
 
-        try (PDDocument document = PDDocument.load(input)) {
+        try (PDDocument document = PDDocument.load(
+                input, MemoryUsageSetting.setupMixed(MAX_MAIN_MEMORY))) {
+
+            int totalPages = document.getNumberOfPages();
 
             // Make sure we are not splitting single pages.
-            if (document.getNumberOfPages() <= 1) {
+            if (totalPages <= 1) {
                 doc.getMetadata().set(DOC_PDF_PAGE_NO, 1);
                 doc.getMetadata().set(DOC_PDF_TOTAL_PAGES, 1);
                 return pageDocs;
             }
 
-            Splitter splitter = new Splitter();
-            List<PDDocument> splittedDocuments = splitter.split(document);
-            int pageNo = 0;
-            for (PDDocument page : splittedDocuments) {
-                pageNo++;
-
-                String pageRef =
-                        doc.getReference() + referencePagePrefix + pageNo;
-
-                // metadata
-                Properties pageMeta = new Properties();
-                pageMeta.loadFromMap(doc.getMetadata());
-
-                DocInfo pageInfo = new DocInfo(pageRef);
+            int rangeSize = Math.max(1, pagesPerDocument);
+            Iterator<PDPage> pages = document.getPages().iterator();
+            for (int first = 1; first <= totalPages; first += rangeSize) {
+                int last = Math.min(first + rangeSize - 1, totalPages);
+                pageDocs.add(toPageDoc(
+                        doc, document, pages, first, last, totalPages));
+            }
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "Could not split PDF: " + doc.getReference(), e);
+        }
+        return pageDocs;
+    }
 
-//                pageInfo.setEmbeddedReference(Integer.toString(pageNo));
-                pageMeta.set(DocMetadata.EMBEDDED_REFERENCE,
-                        Integer.toString(pageNo));
+    // Saves the next pages, up to the last page number, as a document.
+    private Doc toPageDoc(HandlerDoc doc, PDDocument document,
+            Iterator<PDPage> pages, int first, int last, int totalPages)
+                    throws IOException {
+        String pageId = Integer.toString(first);
+        if (last > first) {
+            pageId += "-" + last;
+        }
+        String pageRef = doc.getReference() + referencePagePrefix + pageId;
 
+        // metadata
+        Properties pageMeta = new Properties();
+        pageMeta.loadFromMap(doc.getMetadata());
 
-                pageInfo.addEmbeddedParentReference(doc.getReference());
+        DocInfo pageInfo = new DocInfo(pageRef);
+        pageMeta.set(DocMetadata.EMBEDDED_REFERENCE, pageId);
+        pageInfo.addEmbeddedParentReference(doc.getReference());
 
-//                pageMeta.setReference(pageRef);
-//                pageMeta.setEmbeddedReference(Integer.toString(pageNo));
-//                pageMeta.setEmbeddedParentReference(doc.getReference());
-//                pageMeta.setEmbeddedParentRootReference(doc.getReference());
+        pageMeta.set(DOC_PDF_PAGE_NO, first);
+        if (last > first) {
+            pageMeta.set(DOC_PDF_LAST_PAGE_NO, last);
+        }
+        pageMeta.set(DOC_PDF_TOTAL_PAGES, totalPages);
 
-                pageMeta.set(DOC_PDF_PAGE_NO, pageNo);
-                pageMeta.set(DOC_PDF_TOTAL_PAGES, document.getNumberOfPages());
+        // Only one page range is held in memory at any given time
+        CachedOutputStream os = doc.getStreamFactory().newOuputStream();
+        try (PDDocument pageDocument = new PDDocument()) {
+            pageDocument.getDocument().setVersion(document.getVersion());
+            pageDocument.setDocumentInformation(
+                    document.getDocumentInformation());
+            pageDocument.getDocumentCatalog().setViewerPreferences(
+                    document.getDocumentCatalog().getViewerPreferences());
+            for (int i = first; i <= last; i++) {
+                importPage(pageDocument, pages.next());
+            }
+            pageDocument.save(os);
+        }
+        return new Doc(pageInfo, os.getInputStream(), pageMeta);
+    }
 
-                // a single page should not be too big to store in memory
-                ByteArrayOutputStream os = new ByteArrayOutputStream();
-                try {
-                    page.save(os);
-                } finally {
-                    page.close();
+    // Same as PDFBox Splitter
+    private void importPage(PDDocument pageDocument, PDPage page)
+            throws IOException {
+        PDPage imported = pageDocument.importPage(page);
+        // inherited resources
+        if (page.getResources() != null
+                && !page.getCOSObject().containsKey(COSName.RESOURCES)) {
+            imported.setResources(page.getResources());
+        }
+        // remove links to other pages so they are not saved with this one
+        for (PDAnnotation annotation : imported.getAnnotations()) {
+            if (annotation instanceof PDAnnotationLink) {
+                PDAnnotationLink link = (PDAnnotationLink) annotation;
+                PDDestination destination = link.getDestination();
+                PDAction action = link.getAction();
+                if (destination == null && action instanceof PDActionGoTo) {
+                    destination = ((PDActionGoTo) action).getDestination();
+                }
+                if (destination instanceof PDPageDestination) {
+                    ((PDPageDestination) destination).setPage(null);
                 }
-                Doc pageDoc = new Doc(
-                        pageInfo,
-                        doc.getStreamFactory().newInputStream(
-                                os.toInputStream()),
-                        pageMeta);
-                pageDocs.add(pageDoc);
             }
-        } catch (IOException e) {
-            throw new ImporterHandlerException(
-                    "Could not split PDF: " + doc.getReference(), e);
+            annotation.setPage(null);
         }
-        return pageDocs;
     }
 
     @Override
     protected void loadHandlerFromXML(XML xml) {
         setReferencePagePrefix(
                 xml.getString("referencePagePrefix", referencePagePrefix));
+        setPagesPerDocument(
+                xml.getInteger("pagesPerDocument", pagesPerDocument));
     }
 
     @Override
     protected void saveHandlerToXML(XML xml) {
         xml.addElement("referencePagePrefix", referencePagePrefix);
+        xml.addElement("pagesPerDocument", pagesPerDocument);
     }
 
     @Override
@@ -210,6 +298,7 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return new EqualsBuilder()
                 .appendSuper(super.equals(castOther))
                 .append(referencePagePrefix, castOther.referencePagePrefix)
+                .append(pagesPerDocument, castOther.pagesPerDocument)
                 .isEquals();
     }
     @Override
@@ -217,6 +306,7 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return new HashCodeBuilder()
                 .appendSuper(super.hashCode())
                 .append(referencePagePrefix)
+                .append(pagesPerDocument)
                 .toHashCode();
     }
     @Override
@@ -224,6 +314,7 @@ public class PDFPageSplitter extends AbstractDocumentSplitter
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
                 .appendSuper(super.toString())
                 .append("referencePagePrefix", referencePagePrefix)
+                .append("pagesPerDocument", pagesPerDocument)
                 .toString();
     }
 }
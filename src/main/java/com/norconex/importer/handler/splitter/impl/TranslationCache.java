@@ -0,0 +1,215 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.splitter.impl;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.text.StringEscapeUtils;
+
+/**
+ * <p>
+ * Size-bounded cache of translations, keyed by a hash of the source text
+ * along with source and target languages. The least recently used
+ * translations are evicted first. Only texts up to
+ * {@value #MAX_TEXT_LENGTH} characters are cached: longer texts are
+ * unlikely to be translated again and would evict shorter ones.
+ * </p>
+ * <p>
+ * When given a file, new translations are appended to it as they are
+ * cached and the file is loaded back on creation, so translations
+ * survive restarts. The file is compacted when it has grown
+ * much bigger than the cache, on load or while appending.
+ * Invoke {@link #close()} when done.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+class TranslationCache implements AutoCloseable {
+
+    /**
+     * Maximum length of texts cached.
+     */
+    static final int MAX_TEXT_LENGTH = 1000;
+
+    private final int maxSize;
+    private final Path file;
+    private final Map<String, String> translations;
+    private Writer journal;
+    // Number of entries in the file, including evicted and duplicate ones
+    private long fileEntries;
+
+    /**
+     * Creates a translation cache.
+     * @param maxSize maximum number of translations kept
+     * @param file where to persist translations (can be <code>null</code>)
+     * @throws IOException could not load translations from file
+     */
+    TranslationCache(int maxSize, Path file) throws IOException {
+        this.maxSize = maxSize;
+        this.file = file;
+        this.translations = new LinkedHashMap<String, String>(
+                16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected boolean removeEldestEntry(Entry<String, String> e) {
+                return size() > TranslationCache.this.maxSize;
+            }
+        };
+        if (file != null) {
+            load();
+        }
+    }
+
+    /**
+     * Gets a cached translation.
+     * @param text source text
+     * @param sourceLang source language
+     * @param targetLang target language
+     * @return translation or <code>null</code> if not cached
+     */
+    synchronized String get(
+            String text, String sourceLang, String targetLang) {
+        if (!isCacheable(text)) {
+            return null;
+        }
+        return translations.get(key(text, sourceLang, targetLang));
+    }
+
+    /**
+     * Caches a translation. Has no effect if the text is too long to be
+     * cached.
+     * @param text source text
+     * @param sourceLang source language
+     * @param targetLang target language
+     * @param translation translated text
+     * @throws IOException could not persist translation
+     */
+    synchronized void put(String text, String sourceLang,
+            String targetLang, String translation) throws IOException {
+        if (!isCacheable(text)) {
+            return;
+        }
+        String key = key(text, sourceLang, targetLang);
+        if (translation.equals(translations.put(key, translation))
+                || file == null) {
+            return;
+        }
+        if (fileEntries >= maxSize * 2L) {
+            close();
+            compact();
+            return;
+        }
+        if (journal == null) {
+            journal = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        writeEntry(journal, key, translation);
+        journal.flush();
+        fileEntries++;
+    }
+
+    /**
+     * Closes the file translations are appended to, if any. It is opened
+     * again if more translations are cached afterwards.
+     * @throws IOException could not close the file
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (journal != null) {
+            try {
+                journal.close();
+            } finally {
+                journal = null;
+            }
+        }
+    }
+
+    private static boolean isCacheable(String text) {
+        return text != null && text.length() <= MAX_TEXT_LENGTH;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long lineCount = 0;
+        try (BufferedReader reader =
+                Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                String key = StringUtils.substringBefore(line, "\t");
+                if (key.length() < line.length()) {
+                    translations.put(key, StringEscapeUtils.unescapeJava(
+                            line.substring(key.length() + 1)));
+                }
+            }
+        }
+        fileEntries = lineCount;
+        if (lineCount > translations.size() * 2L) {
+            compact();
+        }
+    }
+
+    // Rewrites the file with cached entries only, dropping evicted and
+    // duplicate ones.
+    private void compact() throws IOException {
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(
+                tempFile, StandardCharsets.UTF_8)) {
+            for (Entry<String, String> en : translations.entrySet()) {
+                writeEntry(writer, en.getKey(), en.getValue());
+            }
+        }
+        try {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        fileEntries = translations.size();
+    }
+
+    private static void writeEntry(Writer writer, String key,
+            String translation) throws IOException {
+        writer.write(key);
+        writer.write('\t');
+        writer.write(StringEscapeUtils.escapeJava(translation));
+        writer.write('\n');
+    }
+
+    private static String key(
+            String text, String sourceLang, String targetLang) {
+        return sourceLang + ':' + targetLang + ':'
+                + DigestUtils.sha256Hex(text);
+    }
+}
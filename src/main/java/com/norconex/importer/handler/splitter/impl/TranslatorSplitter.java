@@ -18,8 +18,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -27,14 +27,15 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
-import org.apache.tika.language.translate.CachedTranslator;
 import org.apache.tika.language.translate.MicrosoftTranslator;
 import org.apache.tika.language.translate.MosesTranslator;
 import org.apache.tika.language.translate.Translator;
@@ -91,6 +92,11 @@ import com.norconex.importer.parser.ParseState;
  *     </ul>
  *   </li>
  * </ul>
+ * <p>
+ * <b>Since 3.0.0</b>, the API can also be the fully qualified name
+ * of a class implementing Tika {@link Translator}, with
+ * an empty constructor.
+ * </p>
  *
  * <p>For example, the
  * Microsoft Translation API requires a client ID and a client
@@ -105,16 +111,34 @@ import com.norconex.importer.parser.ParseState;
  * will create children documents for each translation performed.  The parent
  * document will always remain the original document, while the children
  * will always be the translations.</p>
+ *
+ * <h3>Caching and batching</h3>
+ * <p>
+ * Translations of field values and other short texts (up to 1000
+ * characters) are cached so the same text (e.g., titles, menus, legal
+ * notices) is not translated again for every document having it.
+ * Up to 1000 translations are cached by default, the least recently used
+ * being evicted first. You can also specify a file where to store
+ * translations so they are kept between executions. That file is
+ * compacted as it grows and closed when the importer is shut down.
+ * </p>
+ * <p>
+ * Field values not already translated are sent together for translation,
+ * up to a few thousand characters at once, instead of one translation
+ * request per value.
+ * </p>
  * <h3>XML configuration usage:</h3>
  * <pre>
  *  &lt;handler class="com.norconex.importer.handler.splitter.impl.TranslatorSplitter"
- *          api="(microsoft|google|lingo24|moses|yandex)" &gt;
+ *          api="(microsoft|google|lingo24|moses|yandex|translator class)" &gt;
  *      &lt;ignoreContent&gt;(false|true)&lt;/ignoreContent&gt;
  *      &lt;ignoreNonTranslatedFields&gt;(false|true)&lt;/ignoreNonTranslatedFields&gt;
  *      &lt;fieldsToTranslate&gt;(coma-separated list of fields)&lt;/fieldsToTranslate&gt;
  *      &lt;sourceLanguageField&gt;(field containing language)&lt;/sourceLanguageField&gt;
  *      &lt;sourceLanguage&gt;(language when no source language field)&lt;/sourceLanguage&gt;
  *      &lt;targetLanguages&gt;(coma-separated list of languages)&lt;/targetLanguages&gt;
+ *      &lt;cacheSize&gt;(max number of translations cached, 0 disables)&lt;/cacheSize&gt;
+ *      &lt;cacheFile&gt;(optional file where to persist translations)&lt;/cacheFile&gt;
  *
  *      &lt;!-- Microsoft --&gt;
  *      &lt;clientId&gt;...&lt;/clientId&gt;
@@ -156,7 +180,8 @@ import com.norconex.importer.parser.ParseState;
  * @author Pascal Essiembre
  * @since 2.1.0
  */
-public class TranslatorSplitter extends AbstractDocumentSplitter {
+public class TranslatorSplitter extends AbstractDocumentSplitter
+        implements AutoCloseable {
 
     public static final String API_MICROSOFT = "microsoft";
     public static final String API_GOOGLE = "google";
@@ -164,6 +189,16 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
     public static final String API_MOSES = "moses";
     public static final String API_YANDEX = "yandex";
 
+    /**
+     * Default maximum number of translations cached.
+     * @since 3.0.0
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1000;
+
+    // Marks the position of batched values: "[[1]] value"
+    private static final Pattern BATCH_LINE =
+            Pattern.compile("^\\s*\\[\\[(\\d+)\\]\\]\\s?(.*)$");
+
     private final Map<String, TranslatorStrategy> translators = new HashMap<>();
 
     private String api;
@@ -194,6 +229,10 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
     private String smtPath;
     private String scriptPath;
 
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private Path cacheFile;
+    private transient TranslationCache cache;
+
     /**
      * Constructor.
      */
@@ -399,8 +438,50 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         this.scriptPath = scriptPath;
     }
 
-    private TranslatorStrategy getTranslatorStrategy() {
+    /**
+     * Gets the maximum number of translations cached.
+     * Default is {@link #DEFAULT_CACHE_SIZE}.
+     * @return cache size
+     * @since 3.0.0
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+    /**
+     * Sets the maximum number of translations cached. Zero or less
+     * disables caching.
+     * @param cacheSize cache size
+     * @since 3.0.0
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Gets the file where translations are persisted.
+     * @return cache file or <code>null</code>
+     * @since 3.0.0
+     */
+    public Path getCacheFile() {
+        return cacheFile;
+    }
+    /**
+     * Sets the file where translations are persisted, so they are not
+     * lost between executions. Default is <code>null</code> (translations
+     * are only cached in memory).
+     * @param cacheFile cache file
+     * @since 3.0.0
+     */
+    public void setCacheFile(Path cacheFile) {
+        this.cacheFile = cacheFile;
+    }
+
+    private synchronized TranslatorStrategy getTranslatorStrategy() {
         TranslatorStrategy strategy = translators.get(api);
+        if (strategy == null && StringUtils.contains(api, '.')) {
+            strategy = new CustomTranslatorStrategy(api);
+            translators.put(api, strategy);
+        }
         if (strategy == null) {
             throw new ImporterRuntimeException(
                     "Unsupported translation api: " + api);
@@ -408,6 +489,25 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         return strategy;
     }
 
+    private synchronized TranslationCache getCache() throws IOException {
+        if (cache == null && cacheSize > 0) {
+            cache = new TranslationCache(cacheSize, cacheFile);
+        }
+        return cache;
+    }
+
+    /**
+     * Closes the translation cache file, if any.
+     * @throws IOException could not close the cache file
+     * @since 3.0.0
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (cache != null) {
+            cache.close();
+        }
+    }
+
     private Doc translateDocument(HandlerDoc doc,
             CachedStreamFactory streamFactory, String targetLang,
             TextReader reader) throws Exception {
@@ -427,7 +527,8 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
 
             String text = null;
             while ((text = reader.readText()) != null) {
-                String txt = translator.translate(text, sourceLang, targetLang);
+                String txt =
+                        translate(translator, text, sourceLang, targetLang);
                 childContent.write(txt.getBytes(StandardCharsets.UTF_8));
                 childContent.flush();
             }
@@ -483,31 +584,134 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
             }
         }
 
-        StringBuilder b = new StringBuilder();
+        // all values are translated at once and set back in order
+        List<String> values = new ArrayList<>();
         for (String fld : fieldsToTranslate) {
-            List<String> values = doc.getMetadata().get(fld);
-            for (String value : values) {
-                b.append("[" + value.replaceAll("[\n\\[\\]]", " ") + "]");
-            }
-            b.append("\n");
+            values.addAll(doc.getMetadata().getStrings(fld));
         }
-        if (b.length() == 0) {
+        if (values.isEmpty()) {
             return childMeta;
         }
-
-        String txt = translator.translate(b.toString(), sourceLang, targetLang);
-        List<String> lines = IOUtils.readLines(new StringReader(txt));
+        List<String> translations =
+                translateAll(translator, values, sourceLang, targetLang);
         int index = 0;
-        for (String line : lines) {
-            line = StringUtils.removeStart(line, "[");
-            line = StringUtils.removeEnd(line, "]");
-            String[] values = StringUtils.splitByWholeSeparator(line, "][");
-            childMeta.set(fieldsToTranslate.get(index), values);
-            index++;
+        for (String fld : fieldsToTranslate) {
+            int count = doc.getMetadata().getStrings(fld).size();
+            if (count > 0) {
+                childMeta.set(fld, translations.subList(
+                        index, index + count).toArray(new String[count]));
+                index += count;
+            }
         }
         return childMeta;
     }
 
+    // Translates texts not already cached, in batches.
+    private List<String> translateAll(Translator translator,
+            List<String> texts, String sourceLang, String targetLang)
+                    throws Exception {
+        TranslationCache c = getCache();
+        String[] translations = new String[texts.size()];
+        List<Integer> batch = new ArrayList<>();
+        int batchLength = 0;
+        int maxBatchLength = getTranslatorStrategy().getReadSize();
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            String translation = null;
+            if (StringUtils.isBlank(text)) {
+                translation = text;
+            } else if (c != null) {
+                translation = c.get(text, sourceLang, targetLang);
+            }
+            if (translation != null) {
+                translations[i] = translation;
+                continue;
+            }
+            // batches are line-based: texts with line breaks are sent alone
+            if (StringUtils.containsAny(text, '\r', '\n')) {
+                translations[i] =
+                        translate(translator, text, sourceLang, targetLang);
+                continue;
+            }
+            if (!batch.isEmpty()
+                    && batchLength + text.length() > maxBatchLength) {
+                translateBatch(translator, texts, batch,
+                        translations, sourceLang, targetLang);
+                batch.clear();
+                batchLength = 0;
+            }
+            batch.add(i);
+            batchLength += text.length();
+        }
+        translateBatch(
+                translator, texts, batch, translations, sourceLang, targetLang);
+        return Arrays.asList(translations);
+    }
+
+    // Single-line texts are sent one per line, prefixed with their position
+    // in the batch. If positions are not preserved by the translation,
+    // texts are translated one by one instead.
+    private void translateBatch(Translator translator, List<String> texts,
+            List<Integer> batch, String[] translations,
+            String sourceLang, String targetLang) throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() > 1) {
+            StringBuilder b = new StringBuilder();
+            for (int i = 0; i < batch.size(); i++) {
+                b.append("[[").append(i + 1).append("]] ")
+                        .append(texts.get(batch.get(i))).append('\n');
+            }
+            String[] batchTranslations = new String[batch.size()];
+            int found = 0;
+            for (String line : StringUtils.split(translator.translate(
+                    b.toString(), sourceLang, targetLang), "\r\n")) {
+                Matcher m = BATCH_LINE.matcher(line);
+                if (m.matches()) {
+                    int pos = Integer.parseInt(m.group(1)) - 1;
+                    if (pos < batchTranslations.length
+                            && batchTranslations[pos] == null) {
+                        batchTranslations[pos] = m.group(2);
+                        found++;
+                    }
+                }
+            }
+            if (found == batch.size()) {
+                TranslationCache c = getCache();
+                for (int i = 0; i < batch.size(); i++) {
+                    int index = batch.get(i);
+                    translations[index] = batchTranslations[i];
+                    if (c != null) {
+                        c.put(texts.get(index), sourceLang, targetLang,
+                                batchTranslations[i]);
+                    }
+                }
+                return;
+            }
+        }
+        for (int index : batch) {
+            translations[index] = translate(
+                    translator, texts.get(index), sourceLang, targetLang);
+        }
+    }
+
+    private String translate(Translator translator, String text,
+            String sourceLang, String targetLang) throws Exception {
+        TranslationCache c = getCache();
+        String translation = null;
+        if (c != null) {
+            translation = c.get(text, sourceLang, targetLang);
+        }
+        if (translation == null) {
+            translation = translator.translate(text, sourceLang, targetLang);
+            if (c != null && translation != null) {
+                c.put(text, sourceLang, targetLang, translation);
+            }
+        }
+        return translation;
+    }
+
     private void validateProperties(HandlerDoc doc)
             throws ImporterHandlerException {
         if (StringUtils.isBlank(getApi())) {
@@ -588,6 +792,8 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         setUserKey(xml.getString("userKey", userKey));
         setSmtPath(xml.getString("smtPath", smtPath));
         setScriptPath(xml.getString("scriptPath", scriptPath));
+        setCacheSize(xml.getInteger("cacheSize", cacheSize));
+        setCacheFile(xml.getPath("cacheFile", cacheFile));
     }
 
     @Override
@@ -605,6 +811,8 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         xml.addElement("userKey", userKey);
         xml.addElement("smtPath", smtPath);
         xml.addElement("scriptPath", scriptPath);
+        xml.addElement("cacheSize", cacheSize);
+        xml.addElement("cacheFile", cacheFile);
     }
 
     @Override
@@ -630,9 +838,9 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         public int getReadSize() {
             return DEFAULT_READ_SIZE;
         }
-        public final Translator getTranslator() {
+        public final synchronized Translator getTranslator() {
             if (translator == null) {
-                translator = new CachedTranslator(createTranslator());
+                translator = createTranslator();
             }
             return translator;
         }
@@ -640,4 +848,26 @@ public class TranslatorSplitter extends AbstractDocumentSplitter {
         public abstract void validateProperties()
                 throws ImporterHandlerException;
     }
+
+    // Translator created from its class name.
+    private static class CustomTranslatorStrategy extends TranslatorStrategy {
+        private final String className;
+        CustomTranslatorStrategy(String className) {
+            this.className = className;
+        }
+        @Override
+        protected Translator createTranslator() {
+            try {
+                return (Translator) ClassUtils.getClass(className)
+                        .getDeclaredConstructor().newInstance();
+            } catch (Exception e) {
+                throw new ImporterRuntimeException(
+                        "Unsupported translation api: " + className, e);
+            }
+        }
+        @Override
+        public void validateProperties() throws ImporterHandlerException {
+            //NOOP
+        }
+    }
 }
@@ -16,7 +16,6 @@ package com.norconex.importer.handler.tagger.impl;
 
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Locale;
 
 import org.apache.commons.lang3.StringUtils;
@@ -32,6 +31,7 @@ import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
+import com.norconex.importer.util.DateFormatRegistry;
 
 /**
  * <p>Adds the current computer UTC date to the specified <code>field</code>.
@@ -118,15 +118,7 @@ public class CurrentDateTagger extends AbstractDocumentTagger {
     }
 
     private String formatDate(long time) {
-        if (StringUtils.isBlank(format)) {
-            return Long.toString(time);
-        }
-        Locale safeLocale = locale;
-        if (safeLocale == null) {
-            safeLocale = Locale.US;
-        }
-        return new SimpleDateFormat(
-                format, safeLocale).format(new Date(time));
+        return DateFormatRegistry.format(time, format, locale);
     }
 
     /**
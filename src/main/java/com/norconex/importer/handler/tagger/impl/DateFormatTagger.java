@@ -20,12 +20,16 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.norconex.commons.lang.collection.CollectionUtil;
 import com.norconex.commons.lang.map.PropertySetter;
@@ -34,7 +38,7 @@ import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
 import com.norconex.importer.handler.tagger.AbstractDocumentTagger;
 import com.norconex.importer.parser.ParseState;
-import com.norconex.importer.util.FormatUtil;
+import com.norconex.importer.util.DateFormatRegistry;
 
 /**
  * <p>Formats a date from any given format to a format of choice, as per the
@@ -70,6 +74,10 @@ import com.norconex.importer.util.FormatUtil;
  * parsing a date will be used.
  * A date will be considered "bad" only if none of the formats could parse the
  * date.
+ * <b>Since 3.0.0</b>, the last format that succeeded for a field is tried
+ * first on subsequent dates of that field, given dates of a field are usually
+ * of the same format. For this reason, avoid specifying formats that could
+ * both match the same date differently (e.g., "dd/MM/yyyy" and "MM/dd/yyyy").
  * </p>
  *
  * {@nx.xml.usage
@@ -108,6 +116,9 @@ import com.norconex.importer.util.FormatUtil;
 @SuppressWarnings("javadoc")
 public class DateFormatTagger extends AbstractDocumentTagger {
 
+    private static final Logger LOG =
+            LoggerFactory.getLogger(DateFormatTagger.class);
+
     private String fromField;
     private String toField;
     private final List<String> fromFormats = new ArrayList<>();
@@ -117,6 +128,10 @@ public class DateFormatTagger extends AbstractDocumentTagger {
     private boolean keepBadDates;
     private PropertySetter onSet;
 
+    // last format that succeeded, per field
+    private final transient Map<String, String> lastFormats =
+            new ConcurrentHashMap<>();
+
     /**
      * Constructor.
      */
@@ -150,21 +165,39 @@ public class DateFormatTagger extends AbstractDocumentTagger {
     }
 
     private String formatDate(String fromDate) {
-        List<String> formats = new ArrayList<>();
-        if (fromFormats.isEmpty()) {
-            formats.add("EPOCH");
-        } else {
-            formats.addAll(fromFormats);
+        if (StringUtils.isBlank(fromDate)) {
+            return null;
         }
-        for (String fromFormat : formats) {
-            String toDate = FormatUtil.formatDateString(
-                    fromDate, fromFormat, fromLocale,
-                    toFormat, toLocale, fromField);
-            if (StringUtils.isNotBlank(toDate)) {
-                return toDate;
+        List<String> formats = fromFormats;
+        if (formats.isEmpty()) {
+            formats = Arrays.asList(DateFormatRegistry.EPOCH);
+        }
+        Long millis = null;
+        String lastFormat = lastFormats.get(fromField);
+        if (lastFormat != null && formats.contains(lastFormat)) {
+            millis = DateFormatRegistry.parse(fromDate, lastFormat, fromLocale);
+        }
+        if (millis == null) {
+            for (String fromFormat : formats) {
+                if (fromFormat != null && fromFormat.equals(lastFormat)) {
+                    continue;
+                }
+                millis = DateFormatRegistry.parse(
+                        fromDate, fromFormat, fromLocale);
+                if (millis != null) {
+                    if (fromFormat != null) {
+                        lastFormats.put(fromField, fromFormat);
+                    }
+                    break;
+                }
             }
         }
-        return null;
+        if (millis == null) {
+            LOG.debug("Invalid date format for field {}. None of the "
+                    + "formats could parse: {}", fromField, fromDate);
+            return null;
+        }
+        return DateFormatRegistry.format(millis, toFormat, toLocale);
     }
 
 
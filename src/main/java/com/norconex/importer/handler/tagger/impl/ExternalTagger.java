@@ -93,6 +93,17 @@ import com.norconex.importer.parser.impl.ExternalParser;
  *      for transformation.)
  *   </tempDir>
  *
+ *   <piped>
+ *     [false|true]
+ *     (Optional. Whether to use pipes and raw output copy instead of
+ *      temporary files and line-based output handling.)
+ *   </piped>
+ *
+ *   <persistentProcesses>
+ *     (Optional number of external processes to keep running, each
+ *      handling many documents.)
+ *   </persistentProcesses>
+ *
  * </handler>
  * }
  *
@@ -113,7 +124,8 @@ import com.norconex.importer.parser.impl.ExternalParser;
  * @since 2.8.0
  */
 @SuppressWarnings("javadoc")
-public class ExternalTagger extends AbstractDocumentTagger {
+public class ExternalTagger extends AbstractDocumentTagger
+        implements AutoCloseable {
 
     private final ExternalHandler h = new ExternalHandler();
     private boolean inputDisabled;
@@ -317,6 +329,50 @@ public class ExternalTagger extends AbstractDocumentTagger {
         h.setTempDir(tempDir);
     }
 
+    /**
+     * Gets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling.
+     * @return <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public boolean isPiped() {
+        return h.isPiped();
+    }
+    /**
+     * Sets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling.
+     * See {@link ExternalHandler} for details.
+     * @param piped <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public void setPiped(boolean piped) {
+        h.setPiped(piped);
+    }
+
+    /**
+     * Gets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * @return number of persistent processes
+     * @since 3.0.0
+     */
+    public int getPersistentProcesses() {
+        return h.getPersistentProcesses();
+    }
+    /**
+     * Sets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * See {@link ExternalHandler} for the protocol used.
+     * @param persistentProcesses number of persistent processes
+     * @since 3.0.0
+     */
+    public void setPersistentProcesses(int persistentProcesses) {
+        h.setPersistentProcesses(persistentProcesses);
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
@@ -339,6 +395,15 @@ public class ExternalTagger extends AbstractDocumentTagger {
         xml.getXML("command").setAttribute("inputDisabled", inputDisabled);
     }
 
+    /**
+     * Terminates any persistent external processes.
+     * @since 3.0.0
+     */
+    @Override
+    public void close() {
+        h.close();
+    }
+
     @Override
     public boolean equals(final Object other) {
         return EqualsBuilder.reflectionEquals(this, other);
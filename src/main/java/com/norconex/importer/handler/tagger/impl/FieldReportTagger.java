@@ -14,19 +14,27 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashSet;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
-import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.lang3.StringUtils;
@@ -54,7 +62,17 @@ import com.norconex.importer.parser.ParseState;
  * </p>
  * <p>
  * The report will list one field per row, along with a few sample values
- * (3 by default).  The samples will be the first ones encountered.
+ * (3 by default).  The samples will be the first distinct ones encountered.
+ * </p>
+ * <p>
+ * <b>Since 3.0.0</b>, fields are reported without locking
+ * importing threads against each other and the report file is written
+ * in the background, at most once per flush delay (1 second by default),
+ * only when changes were made.  The file is replaced as a whole
+ * so it is never found half written.  Pending changes are written
+ * when the JVM shuts down, or when {@link #flush()} is invoked.
+ * A flush delay of zero or less writes the report right away
+ * after every change.
  * </p>
  * <p>
  * This handler does not impact the data being imported at all
@@ -73,6 +91,7 @@ import com.norconex.importer.parser.ParseState;
  *     withHeaders="[false|true]"
  *     withOccurences="[false|true]"
  *     truncateSamplesAt="(number of characters to truncate long samples)"
+ *     flushDelay="(milliseconds to wait before writing changes)"
  *     file="(path to a local file)" >
  *
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
@@ -100,15 +119,25 @@ public class FieldReportTagger extends AbstractDocumentTagger {
 
     public static final int DEFAULT_MAX_SAMPLES = 3;
     public static final Path DEFAULT_FILE = Paths.get("./field-report.csv");
+    /**
+     * Default number of milliseconds to wait before writing report changes.
+     * @since 3.0.0
+     */
+    public static final long DEFAULT_FLUSH_DELAY = 1000;
 
     private int maxSamples = DEFAULT_MAX_SAMPLES;
     private Path file;
     private boolean withHeaders;
     private boolean withOccurences;
     private int truncateSamplesAt = -1;
+    private long flushDelay = DEFAULT_FLUSH_DELAY;
 
-    private final Map<String, FieldData> fields = MapUtils.lazyMap(
-            new TreeMap<String, FieldData>(), FieldData::new);
+    private final transient Map<String, FieldData> fields =
+            new ConcurrentHashMap<>();
+    // true when the report file is missing changes
+    private final transient AtomicBoolean dirty = new AtomicBoolean();
+    // same instance each time, to track pending flushes by identity
+    private final transient Runnable flushTask = this::flush;
 
     public Path getFile() {
         return file;
@@ -145,6 +174,26 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         this.truncateSamplesAt = truncateSamplesAt;
     }
 
+    /**
+     * Gets the number of milliseconds to wait before writing report changes.
+     * Default is {@link #DEFAULT_FLUSH_DELAY}.
+     * @return flush delay
+     * @since 3.0.0
+     */
+    public long getFlushDelay() {
+        return flushDelay;
+    }
+    /**
+     * Sets the number of milliseconds to wait before writing report changes.
+     * Changes made during that time are written together.
+     * Zero or less writes the report after every change.
+     * @param flushDelay flush delay
+     * @since 3.0.0
+     */
+    public void setFlushDelay(long flushDelay) {
+        this.flushDelay = flushDelay;
+    }
+
     @Override
     public void tagApplicableDocument(
             HandlerDoc doc, InputStream document, ParseState parseState)
@@ -152,34 +201,64 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         reportFields(doc.getMetadata());
     }
 
-    private synchronized void reportFields(Properties metadata) {
-        boolean dirty = false;
+    private void reportFields(Properties metadata) {
+        boolean changed = false;
         for (Entry<String, List<String>> en : metadata.entrySet()) {
             if (reportField(en.getKey(), en.getValue())) {
-                dirty = true;
+                changed = true;
             }
         }
-        if (dirty) {
-            saveReport();
+        if (changed) {
+            reportChanged();
         }
     }
 
     private boolean reportField(String field, List<String> samples) {
-        boolean dirty = false;
-        if (!fields.containsKey(field)) {
-            dirty = true;
-        }
+        boolean changed = false;
+        // get first: computeIfAbsent locks even when present
         FieldData fieldData = fields.get(field);
+        if (fieldData == null) {
+            fieldData = fields.computeIfAbsent(field, FieldData::new);
+            changed = true;
+        }
         if (fieldData.addSamples(samples, maxSamples, truncateSamplesAt)) {
-            dirty = true;
+            changed = true;
+        }
+        return changed;
+    }
+
+    private void reportChanged() {
+        if (flushDelay <= 0) {
+            dirty.set(true);
+            flush();
+            return;
+        }
+        // only the first change since last flush schedules a new one
+        if (dirty.compareAndSet(false, true)) {
+            Flusher.schedule(flushTask, flushDelay);
+        }
+    }
+
+    /**
+     * Writes the report file right away if fields were reported since it
+     * was last written. Has no effect otherwise.
+     * @since 3.0.0
+     */
+    public synchronized void flush() {
+        Flusher.PENDING.remove(flushTask);
+        if (dirty.compareAndSet(true, false)) {
+            saveReport();
         }
-        return dirty;
     }
 
     private void saveReport() {
         Path f = file == null ? DEFAULT_FILE : file;
+        List<FieldData> sortedFields = new ArrayList<>(fields.values());
+        sortedFields.sort(Comparator.comparing(fd -> fd.name));
+        // Write to a temporary file first so the report is never partial
+        Path tempFile = f.resolveSibling(f.getFileName() + ".tmp");
         try (CSVPrinter printer = new CSVPrinter(
-                new FileWriter(f.toFile()), CSVFormat.DEFAULT)) {
+                Files.newBufferedWriter(tempFile), CSVFormat.DEFAULT)) {
             if (withHeaders) {
                 printer.print("Field Name");
                 if (withOccurences) {
@@ -191,23 +270,35 @@ public class FieldReportTagger extends AbstractDocumentTagger {
                 printer.println();
             }
 
-            for (FieldData fieldData : fields.values()) {
+            for (FieldData fieldData : sortedFields) {
                 printer.print(fieldData.name);
                 if (withOccurences) {
-                    printer.print(fieldData.occurences);
+                    printer.print(fieldData.occurences.sum());
                 }
-                for (String value : fieldData.values) {
+                List<String> values = new ArrayList<>(fieldData.values);
+                for (String value : values) {
                     printer.print(value);
                 }
                 // fill the blanks
-                for (int i = 0; i < maxSamples - fieldData.values.size(); i++) {
+                for (int i = 0; i < maxSamples - values.size(); i++) {
                     printer.print("");
                 }
                 printer.println();
             }
             printer.flush();
         } catch (IOException e) {
-            LOG.error("Could not write field report to: " + file, e);
+            LOG.error("Could not write field report to: " + f, e);
+            return;
+        }
+        try {
+            try {
+                Files.move(tempFile, f, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, f, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.error("Could not write field report to: " + f, e);
         }
     }
 
@@ -219,6 +310,7 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         setWithOccurences(xml.getBoolean("@withOccurences", withOccurences));
         setTruncateSamplesAt(
                 xml.getInteger("@truncateSamplesAt", truncateSamplesAt));
+        setFlushDelay(xml.getLong("@flushDelay", flushDelay));
     }
 
     @Override
@@ -228,6 +320,7 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         xml.setAttribute("withHeaders", withHeaders);
         xml.setAttribute("withOccurences", withOccurences);
         xml.setAttribute("truncateSamplesAt", truncateSamplesAt);
+        xml.setAttribute("flushDelay", flushDelay);
     }
 
     @Override
@@ -244,10 +337,39 @@ public class FieldReportTagger extends AbstractDocumentTagger {
                 this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
     }
 
+    // Writes reports in the background, for all instances. Reports
+    // still pending when the JVM shuts down are written by a single
+    // shutdown hook.
+    private static final class Flusher {
+        private static final ScheduledExecutorService EXECUTOR =
+                Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "importer-field-report");
+                    t.setDaemon(true);
+                    return t;
+                });
+        private static final Set<Runnable> PENDING =
+                ConcurrentHashMap.newKeySet();
+        static {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                for (Runnable flushTask : PENDING) {
+                    flushTask.run();
+                }
+            }, "importer-field-report-shutdown"));
+        }
+        private static void schedule(Runnable flushTask, long delay) {
+            PENDING.add(flushTask);
+            EXECUTOR.schedule(flushTask, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
     class FieldData {
         private final String name;
-        private final Set<String> values = new HashSet<>();
-        private int occurences;
+        // only modified until full, so copies on write are rare
+        private final List<String> values = new CopyOnWriteArrayList<>();
+        // same as values, to find known values without locking
+        private final Set<String> valueSet = ConcurrentHashMap.newKeySet();
+        private final LongAdder occurences = new LongAdder();
+        private volatile boolean full;
         public FieldData(String name) {
             super();
             this.name = name;
@@ -255,24 +377,48 @@ public class FieldReportTagger extends AbstractDocumentTagger {
         // returns true if something changed
         public boolean addSamples(
                 List<String> samples, int maxSamples, int truncateAt) {
-            occurences++;
-            if (samples == null) {
-                return false;
+            occurences.increment();
+            if (full || samples == null
+                    || allKnown(samples, truncateAt)) {
+                return withOccurences;
             }
-            int beforeCount = values.size();
+            return addValues(samples, maxSamples, truncateAt)
+                    || withOccurences;
+        }
+        // Fields with fewer distinct values than the maximum number of
+        // samples never get full: this avoids locking for them.
+        private boolean allKnown(List<String> samples, int truncateAt) {
             for (String sample : samples) {
-                if (values.size() < maxSamples
-                        && StringUtils.isNotBlank(sample)) {
-                    if (truncateAt > -1) {
-                        values.add(StringUtils.truncate(sample, truncateAt));
-                    } else {
-                        values.add(sample);
-                    }
-                } else {
+                if (StringUtils.isNotBlank(sample) && !valueSet.contains(
+                        truncate(sample, truncateAt))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        private String truncate(String sample, int truncateAt) {
+            if (truncateAt > -1) {
+                return StringUtils.truncate(sample, truncateAt);
+            }
+            return sample;
+        }
+        private synchronized boolean addValues(
+                List<String> samples, int maxSamples, int truncateAt) {
+            boolean added = false;
+            for (String sample : samples) {
+                if (values.size() >= maxSamples) {
                     break;
                 }
+                if (StringUtils.isNotBlank(sample)) {
+                    String value = truncate(sample, truncateAt);
+                    if (valueSet.add(value)) {
+                        values.add(value);
+                        added = true;
+                    }
+                }
             }
-            return withOccurences || beforeCount != values.size();
+            full = values.size() >= maxSamples;
+            return added;
         }
 
         @Override
@@ -15,29 +15,41 @@
 package com.norconex.importer.handler.tagger.impl;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.tika.langdetect.OptimaizeLangDetector;
+import org.apache.tika.language.detect.LanguageConfidence;
 import org.apache.tika.language.detect.LanguageDetector;
 import org.apache.tika.language.detect.LanguageResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.norconex.commons.lang.collection.CollectionUtil;
+import com.norconex.commons.lang.io.TextReader;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.DocMetadata;
 import com.norconex.importer.handler.HandlerDoc;
 import com.norconex.importer.handler.ImporterHandlerException;
-import com.norconex.importer.handler.tagger.AbstractStringTagger;
+import com.norconex.importer.handler.tagger.AbstractCharStreamTagger;
 import com.norconex.importer.parser.ParseState;
 
 /**
@@ -160,12 +172,36 @@ import com.norconex.importer.parser.ParseState;
  * the default behavior is to try match all languages currently supported.
  * </p>
  *
+ * <h3>Sampling:</h3>
+ * <p>
+ * By default, only the beginning of a document (up to the maximum read size)
+ * is used for detection. <b>Since 3.0.0</b>, you can instead set a
+ * sample size to have the language detected from samples taken
+ * evenly across the document: its beginning, its end, and a few
+ * places in between, up to the sample size in total.
+ * Samples are scored one at a time and detection stops
+ * as soon as the same language is found with high probability
+ * in two consecutive samples. Language probabilities are the
+ * average of the sample scores, weighted by sample length.
+ * This gives a better representation of documents made of more than one
+ * language, while the detection cost stays the same whatever the document
+ * size.  Documents smaller than the sample size are detected as a whole.
+ * </p>
+ * <p>
+ * Language detectors are pooled and shared by all instances of this
+ * class having the same language candidates, so language profiles are
+ * only loaded again when more documents are tagged concurrently.
+ * </p>
+ *
  * {@nx.xml.usage
  * <handler class="com.norconex.importer.handler.tagger.impl.LanguageTagger"
  *     keepProbabilities="(false|true)"
  *     toField="(custom target field to store the language)"
  *     fallbackLanguage="(default language when detection failed)"
- *     {@nx.include com.norconex.importer.handler.tagger.AbstractStringTagger#attributes}>
+ *     maxReadSize="(max characters to read when not sampling)"
+ *     sampleSize="(max characters sampled across the document,
+ *                  default is 0 (no sampling))"
+ *     {@nx.include com.norconex.importer.handler.tagger.AbstractCharStreamTagger#attributes}>
  *
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
  *
@@ -191,7 +227,7 @@ import com.norconex.importer.parser.ParseState;
  * @since 2.0.0
  */
 @SuppressWarnings("javadoc")
-public class LanguageTagger extends AbstractStringTagger
+public class LanguageTagger extends AbstractCharStreamTagger
         implements IXMLConfigurable {
 
     //TODO Check if doc.size is defined in metadata? If so, use it to
@@ -203,27 +239,48 @@ public class LanguageTagger extends AbstractStringTagger
     private static final Logger LOG =
             LoggerFactory.getLogger(LanguageTagger.class);
 
-    private LanguageDetector detector;
+    // Number of samples: beginning, end, and a few in between
+    private static final int SAMPLE_COUNT = 5;
+    // Probability above which sampling can stop
+    private static final float CONVERGED_SCORE = 0.9f;
+
+    // Detectors are not thread-safe but costly to create, so they are
+    // pooled per set of language candidates.
+    private static final Map<Set<String>, Queue<LanguageDetector>>
+            DETECTORS = new ConcurrentHashMap<>();
+
+    private boolean initialized;
     private boolean keepProbabilities;
     private final List<String> languages = new ArrayList<>();
     private String fallbackLanguage;
+    private int maxReadSize = TextReader.DEFAULT_MAX_READ_SIZE;
+    private int sampleSize;
 
     private final Comparator<LanguageResult> langResultComparator =
             (o1, o2) -> Float.compare(o2.getRawScore(), o1.getRawScore());
 
     @Override
-    protected void tagStringContent(HandlerDoc doc, StringBuilder content,
-            ParseState parseState, int sectionIndex)
+    protected void tagTextDocument(
+            HandlerDoc doc, Reader input, ParseState parseState)
                     throws ImporterHandlerException {
 
-        // For massive docs: only use first section of document to detect langs
-        if (sectionIndex > 0) {
-            return;
-        }
-
-        ensureDetectorInitialization();
+        initialized = true;
 
-        List<LanguageResult> results = detector.detectAll(content.toString());
+        Set<String> candidates = new HashSet<>(languages);
+        LanguageDetector detector = borrowDetector(candidates);
+        List<LanguageResult> results;
+        try {
+            if (sampleSize > 0) {
+                results = detectSampled(doc, detector, input);
+            } else {
+                results = detectBeginning(detector, input);
+            }
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "Cannot tag text document.", e);
+        } finally {
+            releaseDetector(candidates, detector);
+        }
 
         // leave now if no matches
         if (results.isEmpty()) {
@@ -251,6 +308,102 @@ public class LanguageTagger extends AbstractStringTagger
         }
     }
 
+    // For massive docs: only use first section of document to detect langs
+    private List<LanguageResult> detectBeginning(
+            LanguageDetector detector, Reader input) throws IOException {
+        try (TextReader reader = new TextReader(input, maxReadSize)) {
+            return detector.detectAll(
+                    StringUtils.defaultString(reader.readText()));
+        }
+    }
+
+    private List<LanguageResult> detectSampled(HandlerDoc doc,
+            LanguageDetector detector, Reader input) throws IOException {
+        TextSampler sampler = new TextSampler(
+                Math.max(1, sampleSize / SAMPLE_COUNT), SAMPLE_COUNT - 2);
+        sampler.read(input);
+        List<Chunk> samples = sampler.getSamples();
+        if (sampler.isComplete()) {
+            for (Chunk sample : samples) {
+                detector.addText(sample.chars, 0, sample.length);
+            }
+            return detector.detectAll();
+        }
+
+        // Each sample is scored on its own, so text already scored
+        // is not scored again.
+        Map<String, Double> weightedScores = new HashMap<>();
+        long totalLength = 0;
+        String previousLanguage = null;
+        int count = 0;
+        for (Chunk sample : samples) {
+            count++;
+            detector.reset();
+            detector.addText(sample.chars, 0, sample.length);
+            totalLength += sample.length;
+            LanguageResult top = null;
+            for (LanguageResult result : detector.detectAll()) {
+                if (StringUtils.isBlank(result.getLanguage())) {
+                    continue;
+                }
+                weightedScores.merge(result.getLanguage(),
+                        (double) result.getRawScore() * sample.length,
+                        Double::sum);
+                if (top == null || result.getRawScore() > top.getRawScore()) {
+                    top = result;
+                }
+            }
+            if (top == null) {
+                previousLanguage = null;
+                continue;
+            }
+            if (top.getLanguage().equals(previousLanguage)
+                    && top.getRawScore() >= CONVERGED_SCORE) {
+                LOG.debug("Language detected after {} of {} samples for {}.",
+                        count, samples.size(), doc.getReference());
+                break;
+            }
+            previousLanguage = top.getLanguage();
+        }
+
+        List<LanguageResult> results = new ArrayList<>();
+        for (Entry<String, Double> en : weightedScores.entrySet()) {
+            float score = (float) (en.getValue() / totalLength);
+            results.add(new LanguageResult(en.getKey(),
+                    score >= CONVERGED_SCORE
+                            ? LanguageConfidence.HIGH
+                            : LanguageConfidence.MEDIUM,
+                    score));
+        }
+        return results;
+    }
+
+    private LanguageDetector borrowDetector(Set<String> candidates)
+            throws ImporterHandlerException {
+        LanguageDetector detector = DETECTORS.computeIfAbsent(
+                candidates, k -> new ConcurrentLinkedQueue<>()).poll();
+        if (detector != null) {
+            return detector;
+        }
+        OptimaizeLangDetector d = new OptimaizeLangDetector();
+        try {
+            if (candidates.isEmpty()) {
+                d.loadModels();
+            } else {
+                d.loadModels(candidates);
+            }
+        } catch (IOException e) {
+            throw new ImporterHandlerException(
+                    "Cannot initialize language detector.", e);
+        }
+        return d;
+    }
+    private void releaseDetector(
+            Set<String> candidates, LanguageDetector detector) {
+        detector.reset();
+        DETECTORS.get(candidates).offer(detector);
+    }
+
     public boolean isKeepProbabilities() {
         return keepProbabilities;
     }
@@ -278,22 +431,44 @@ public class LanguageTagger extends AbstractStringTagger
         this.fallbackLanguage = fallbackLanguage;
     }
 
-    private synchronized void ensureDetectorInitialization()
-            throws ImporterHandlerException {
-        if (detector == null) {
-            OptimaizeLangDetector d = new OptimaizeLangDetector();
-            try {
-                if (languages.isEmpty()) {
-                    d.loadModels();
-                } else {
-                    d.loadModels(new HashSet<>(languages));
-                }
-            } catch (IOException e) {
-                throw new ImporterHandlerException(
-                        "Cannot initialize language detector.", e);
-            }
-            detector = d;
-        }
+    /**
+     * Gets the maximum number of characters to read from the beginning
+     * of a document for detection, when not sampling.
+     * Default is {@link TextReader#DEFAULT_MAX_READ_SIZE}.
+     * @return maximum read size
+     */
+    public int getMaxReadSize() {
+        return maxReadSize;
+    }
+    /**
+     * Sets the maximum number of characters to read from the beginning
+     * of a document for detection, when not sampling.
+     * @param maxReadSize maximum read size
+     */
+    public void setMaxReadSize(int maxReadSize) {
+        ensureNotInitialized();
+        this.maxReadSize = maxReadSize;
+    }
+
+    /**
+     * Gets the maximum number of characters sampled across a document
+     * for detection. Default is 0 (no sampling).
+     * @return sample size
+     * @since 3.0.0
+     */
+    public int getSampleSize() {
+        return sampleSize;
+    }
+    /**
+     * Sets the maximum number of characters sampled across a document
+     * for detection. A value of zero or less disables sampling, using
+     * only the beginning of documents (up to the maximum read size).
+     * @param sampleSize sample size
+     * @since 3.0.0
+     */
+    public void setSampleSize(int sampleSize) {
+        ensureNotInitialized();
+        this.sampleSize = sampleSize;
     }
 
     public List<String> getLanguages() {
@@ -309,7 +484,7 @@ public class LanguageTagger extends AbstractStringTagger
     }
 
     private void ensureNotInitialized() {
-        if (detector != null) {
+        if (initialized) {
             throw new IllegalStateException(
                     "You cannot set LanguageTagger properties after it "
                   + "has been initialized (started tagging documents).");
@@ -317,18 +492,22 @@ public class LanguageTagger extends AbstractStringTagger
     }
 
     @Override
-    protected void loadStringTaggerFromXML(XML xml) {
+    protected void loadCharStreamTaggerFromXML(XML xml) {
         setKeepProbabilities(xml.getBoolean(
                 "@keepProbabilities", keepProbabilities));
         setFallbackLanguage(xml.getString(
                 "@fallbackLanguage", fallbackLanguage));
+        setMaxReadSize(xml.getInteger("@maxReadSize", maxReadSize));
+        setSampleSize(xml.getInteger("@sampleSize", sampleSize));
         setLanguages(xml.getDelimitedStringList("languages", languages));
     }
 
     @Override
-    protected void saveStringTaggerToXML(XML xml) {
+    protected void saveCharStreamTaggerToXML(XML xml) {
         xml.setAttribute("keepProbabilities", keepProbabilities);
         xml.setAttribute("fallbackLanguage", fallbackLanguage);
+        xml.setAttribute("maxReadSize", maxReadSize);
+        xml.setAttribute("sampleSize", sampleSize);
         xml.addDelimitedElementList("languages", languages);
     }
 
@@ -345,4 +524,110 @@ public class LanguageTagger extends AbstractStringTagger
         return new ReflectionToStringBuilder(
                 this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
     }
+
+    // Keeps chunks of text evenly distributed across a document as it is
+    // read (beginning, end, and in between), using bounded memory.
+    private static class TextSampler {
+        private final int chunkSize;
+        private final int middleCount;
+        // every "stride" chunk is kept as a middle chunk candidate
+        private final List<Chunk> middles = new ArrayList<>();
+        private int stride = 1;
+        private int count;
+        private Chunk head;
+        private Chunk previous;
+        private Chunk last;
+        TextSampler(int chunkSize, int middleCount) {
+            this.chunkSize = chunkSize;
+            this.middleCount = middleCount;
+        }
+        void read(Reader reader) throws IOException {
+            while (true) {
+                char[] chars = new char[chunkSize];
+                int length = IOUtils.read(reader, chars);
+                if (length == 0) {
+                    break;
+                }
+                add(new Chunk(count++, chars, length));
+                if (length < chunkSize) {
+                    break;
+                }
+            }
+        }
+        private void add(Chunk chunk) {
+            if (chunk.index == 0) {
+                head = chunk;
+            } else if (chunk.index % stride == 0) {
+                middles.add(chunk);
+                if (middles.size() > middleCount * 4) {
+                    // keep every other chunk
+                    stride *= 2;
+                    middles.removeIf(c -> c.index % stride != 0);
+                }
+            }
+            previous = last;
+            last = chunk;
+        }
+        // Whether samples are made of the entire text.
+        boolean isComplete() {
+            return count <= middleCount + 2;
+        }
+        // Samples in detection order: beginning, end, then in between.
+        List<Chunk> getSamples() {
+            List<Chunk> samples = new ArrayList<>();
+            if (head == null) {
+                return samples;
+            }
+            samples.add(head);
+            if (isComplete()) {
+                samples.addAll(middles);
+                return samples;
+            }
+            samples.add(tail());
+            List<Chunk> candidates = new ArrayList<>();
+            for (Chunk chunk : middles) {
+                // not overlapping with the end sample
+                if (chunk.index < previous.index) {
+                    candidates.add(chunk);
+                }
+            }
+            // the candidate closest to each evenly distributed position
+            int from = 0;
+            for (int i = 1; i <= middleCount && from < candidates.size(); i++) {
+                long target = (long) i * count / (middleCount + 1);
+                int closest = from;
+                while (closest + 1 < candidates.size()
+                        && Math.abs(candidates.get(closest + 1).index - target)
+                        <= Math.abs(candidates.get(closest).index - target)) {
+                    closest++;
+                }
+                samples.add(candidates.get(closest));
+                from = closest + 1;
+            }
+            return samples;
+        }
+        // The last chunk, completed with the end of the previous one.
+        private Chunk tail() {
+            if (last.length == chunkSize) {
+                return last;
+            }
+            char[] chars = new char[chunkSize];
+            int fromPrevious = chunkSize - last.length;
+            System.arraycopy(previous.chars,
+                    chunkSize - fromPrevious, chars, 0, fromPrevious);
+            System.arraycopy(last.chars, 0, chars, fromPrevious, last.length);
+            return new Chunk(last.index, chars, chunkSize);
+        }
+    }
+
+    private static class Chunk {
+        private final int index;
+        private final char[] chars;
+        private final int length;
+        Chunk(int index, char[] chars, int length) {
+            this.index = index;
+            this.chars = chars;
+            this.length = length;
+        }
+    }
 }
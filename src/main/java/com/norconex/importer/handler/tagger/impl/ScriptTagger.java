@@ -14,7 +14,8 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
-import javax.script.Bindings;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -61,6 +62,7 @@ import com.norconex.importer.parser.ParseState;
  * {@nx.xml.usage
  * <handler class="com.norconex.importer.handler.tagger.impl.ScriptTagger"
  *     engineName="(script engine name)"
+ *     enginePoolSize="(maximum number of script engines)"
  *     {@nx.include com.norconex.importer.handler.tagger.AbstractStringTagger#attributes}>
  *
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
@@ -114,11 +116,30 @@ public class ScriptTagger extends AbstractStringTagger {
         scriptRunner.setScript(script);
     }
 
+    /**
+     * Gets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @return engine pool size
+     * @since 3.0.0
+     */
+    public int getEnginePoolSize() {
+        return scriptRunner.getPoolSize();
+    }
+    /**
+     * Sets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @param enginePoolSize engine pool size
+     * @since 3.0.0
+     */
+    public void setEnginePoolSize(int enginePoolSize) {
+        scriptRunner.setPoolSize(enginePoolSize);
+    }
+
     @Override
     protected void tagStringContent(HandlerDoc doc, StringBuilder content,
             ParseState parseState, int sectionIndex)
                     throws ImporterHandlerException {
-        Bindings b = scriptRunner.createBindings();
+        Map<String, Object> b = new HashMap<>();
         b.put("reference", doc.getReference());
         b.put("content", content.toString());
         b.put("metadata", doc.getMetadata());
@@ -130,12 +151,15 @@ public class ScriptTagger extends AbstractStringTagger {
     @Override
     protected void saveStringTaggerToXML(XML xml) {
         xml.setAttribute("engineName", getEngineName());
+        xml.setAttribute("enginePoolSize", getEnginePoolSize());
         xml.addElement("script", getScript());
     }
 
     @Override
     protected void loadStringTaggerFromXML(XML xml) {
         setEngineName(xml.getString("@engineName", getEngineName()));
+        setEnginePoolSize(
+                xml.getInteger("@enginePoolSize", getEnginePoolSize()));
         setScript(xml.getString("script", getScript()));
     }
 
@@ -14,17 +14,22 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
+import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.text.BreakIterator;
+import java.text.CharacterIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import org.apache.commons.io.IOUtils;
-import org.apache.commons.io.LineIterator;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -97,6 +102,13 @@ import com.norconex.importer.parser.ParseState;
  *   </tr>
  * </table>
  *
+ * <p>Since 3.0.0, you can define your own character counters, each
+ * with a name and a regular expression matching single characters.
+ * The number of matching characters (excluding carriage returns/line
+ * feed) is stored under the counter name,
+ * prefixed with "document.stat." (e.g.,
+ * <code>document.stat.digitCount</code>).</p>
+ *
  * <p>You can specify a field matcher to obtain statistics about matching
  * fields instead.
  * When you do so, the field name will be inserted in the above
@@ -115,6 +127,13 @@ import com.norconex.importer.parser.ParseState;
  *     (optional expression matching source fields to analyze instead of content)
  *   </fieldMatcher>
  *
+ *   <counters>
+ *     <!-- repeat counter tag as needed -->
+ *     <counter name="(statistic name)">
+ *       (regular expression matching a single character)
+ *     </counter>
+ *   </counters>
+ *
  * </handler>
  * }
  *
@@ -134,10 +153,8 @@ import com.norconex.importer.parser.ParseState;
 public class TextStatisticsTagger extends AbstractCharStreamTagger
         implements IXMLConfigurable {
 
-    private static final Pattern PATTERN_WORD = Pattern.compile(
-            "\\w+\\-{0,1}\\w*", Pattern.UNICODE_CHARACTER_CLASS);
-
     private final TextMatcher fieldMatcher = new TextMatcher();
+    private final Map<String, String> counters = new LinkedHashMap<>();
 
     @Override
     protected void tagTextDocument(
@@ -155,45 +172,19 @@ public class TextStatisticsTagger extends AbstractCharStreamTagger
     }
 
     protected void analyze(Reader input, Properties metadata, String field) {
-        long charCount = 0;
-        long wordCharCount = 0;
-        long wordCount = 0;
-        long sentenceCount = 0;
-        long sentenceCharCount = 0;
-        long paragraphCount = 0;
-
-        //TODO make this more efficient, by doing all this in one pass.
-        LineIterator it = IOUtils.lineIterator(input);
-        while (it.hasNext()) {
-            String line = it.nextLine().trim();
-            if (StringUtils.isBlank(line)) {
-                continue;
-            }
-
-            // Paragraph
-            paragraphCount++;
-
-            // Character
-            charCount += line.length();
-
-            // Word
-            Matcher matcher = PATTERN_WORD.matcher(line);
-            while (matcher.find()) {
-                int wordLength = matcher.end() - matcher.start();
-                wordCount++;
-                wordCharCount += wordLength;
-            }
-
-            // Sentence
-            BreakIterator boundary = BreakIterator.getSentenceInstance();
-            boundary.setText(line);
-            int start = boundary.first();
-            for (int end = boundary.next(); end != BreakIterator.DONE;
-                    start = end, end = boundary.next()) {
-                sentenceCharCount += (end - start);
-                sentenceCount++;
-            }
+        Statistics stats = new Statistics(counters);
+        try {
+            stats.read(input);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Could not read text to analyze.", e);
         }
+        long charCount = stats.charCount;
+        long wordCharCount = stats.wordCharCount;
+        long wordCount = stats.wordCount;
+        long sentenceCount = stats.sentenceCount;
+        long sentenceCharCount = stats.sentenceCharCount;
+        long paragraphCount = stats.paragraphCount;
 
         //--- Add fields ---
         String prefix = "document.stat.";
@@ -216,6 +207,9 @@ public class TextStatisticsTagger extends AbstractCharStreamTagger
                 divide(sentenceCount, paragraphCount));
         metadata.add(prefix + "averageParagraphWordCount",
                 divide(wordCount, paragraphCount));
+        for (CharCounter counter : stats.charCounters) {
+            metadata.add(prefix + counter.name, counter.count);
+        }
 
     }
 
@@ -225,6 +219,38 @@ public class TextStatisticsTagger extends AbstractCharStreamTagger
                         BigDecimal.ROUND_HALF_UP).toString();
     }
 
+    /**
+     * Gets character counters, where keys are statistic names and values
+     * are regular expressions matching single characters.
+     * @return character counters (never <code>null</code>)
+     * @since 3.0.0
+     */
+    public Map<String, String> getCounters() {
+        return Collections.unmodifiableMap(counters);
+    }
+    /**
+     * Sets character counters, where keys are statistic names and values
+     * are regular expressions matching single characters. Counters
+     * previously set are removed.
+     * @param counters character counters
+     * @since 3.0.0
+     */
+    public void setCounters(Map<String, String> counters) {
+        this.counters.clear();
+        if (counters != null) {
+            this.counters.putAll(counters);
+        }
+    }
+    /**
+     * Adds a character counter.
+     * @param name statistic name
+     * @param regex regular expression matching single characters to count
+     * @since 3.0.0
+     */
+    public void addCounter(String name, String regex) {
+        this.counters.put(name, regex);
+    }
+
     /**
      * Gets the name of field containing the text to analyze.
      * @return field name
@@ -265,11 +291,25 @@ public class TextStatisticsTagger extends AbstractCharStreamTagger
     protected void loadCharStreamTaggerFromXML(XML xml) {
         xml.checkDeprecated("@fieldName", "fieldMatcher", true);
         fieldMatcher.loadFromXML(xml.getXML("fieldMatcher"));
+        List<XML> nodes = xml.getXMLList("counters/counter");
+        if (!nodes.isEmpty()) {
+            counters.clear();
+            for (XML node : nodes) {
+                addCounter(node.getString("@name"), node.getString("."));
+            }
+        }
     }
 
     @Override
     protected void saveCharStreamTaggerToXML(XML xml) {
         fieldMatcher.saveToXML(xml.addElement("fieldMatcher"));
+        if (!counters.isEmpty()) {
+            XML countersXML = xml.addElement("counters");
+            for (Entry<String, String> en : counters.entrySet()) {
+                countersXML.addElement("counter", en.getValue())
+                        .setAttribute("name", en.getKey());
+            }
+        }
     }
 
     @Override
@@ -285,4 +325,267 @@ public class TextStatisticsTagger extends AbstractCharStreamTagger
         return new ReflectionToStringBuilder(
                 this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
     }
+
+    //--- Inner classes --------------------------------------------------------
+    // Computes statistics in a single pass over the text, one line
+    // (paragraph) at a time, reusing the same line buffer.
+    private static class Statistics {
+        private static final int WORD_NONE = 0;
+        private static final int WORD_START = 1;
+        // after a word hyphen
+        private static final int WORD_END = 2;
+
+        private long charCount;
+        private long wordCharCount;
+        private long wordCount;
+        private long sentenceCount;
+        private long sentenceCharCount;
+        private long paragraphCount;
+        private final List<CharCounter> charCounters = new ArrayList<>();
+        private final BreakIterator sentenceIterator =
+                BreakIterator.getSentenceInstance();
+        private final LineCharacterIterator lineIterator =
+                new LineCharacterIterator();
+        private char[] line = new char[1024];
+        private int lineLength;
+
+        Statistics(Map<String, String> counters) {
+            for (Entry<String, String> en : counters.entrySet()) {
+                charCounters.add(new CharCounter(en.getKey(), en.getValue()));
+            }
+        }
+
+        // Lines are terminated by either \n, \r, or \r\n.
+        void read(Reader reader) throws IOException {
+            char[] buffer = new char[8192];
+            boolean afterCR = false;
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char ch = buffer[i];
+                    if (ch == '\n') {
+                        if (!afterCR) {
+                            endLine();
+                        }
+                        afterCR = false;
+                    } else if (ch == '\r') {
+                        endLine();
+                        afterCR = true;
+                    } else {
+                        afterCR = false;
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, lineLength * 2);
+                        }
+                        line[lineLength++] = ch;
+                    }
+                }
+            }
+            endLine();
+        }
+
+        private void endLine() {
+            // Same as String#trim()
+            int start = 0;
+            int end = lineLength;
+            lineLength = 0;
+            while (start < end && line[start] <= ' ') {
+                start++;
+            }
+            while (end > start && line[end - 1] <= ' ') {
+                end--;
+            }
+            if (isBlank(start, end)) {
+                return;
+            }
+            paragraphCount++;
+            charCount += end - start;
+            countWords(start, end);
+            countSentences(start, end);
+            if (!charCounters.isEmpty()) {
+                countChars(start, end);
+            }
+        }
+
+        private boolean isBlank(int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (!Character.isWhitespace(line[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Words are letters/digits, optionally joined by one hyphen
+        // (same as "\\w+\\-{0,1}\\w*" with Unicode character classes).
+        private void countWords(int start, int end) {
+            int state = WORD_NONE;
+            int length = 0;
+            int i = start;
+            while (i < end) {
+                int cp = Character.codePointAt(line, i, end);
+                int cpLength = Character.charCount(cp);
+                boolean wordChar = isWordChar(cp);
+                if (state == WORD_NONE) {
+                    if (wordChar) {
+                        state = WORD_START;
+                        length = cpLength;
+                    }
+                } else if (wordChar) {
+                    length += cpLength;
+                } else if (state == WORD_START && cp == '-') {
+                    state = WORD_END;
+                    length++;
+                } else {
+                    addWord(length);
+                    state = WORD_NONE;
+                }
+                i += cpLength;
+            }
+            if (state != WORD_NONE) {
+                addWord(length);
+            }
+        }
+        private void addWord(int length) {
+            wordCount++;
+            wordCharCount += length;
+        }
+
+        private void countSentences(int start, int end) {
+            lineIterator.reset(line, start, end);
+            sentenceIterator.setText(lineIterator);
+            int sentenceStart = sentenceIterator.first();
+            for (int sentenceEnd = sentenceIterator.next();
+                    sentenceEnd != BreakIterator.DONE;
+                    sentenceStart = sentenceEnd,
+                    sentenceEnd = sentenceIterator.next()) {
+                sentenceCharCount += (sentenceEnd - sentenceStart);
+                sentenceCount++;
+            }
+        }
+
+        private void countChars(int start, int end) {
+            int i = start;
+            while (i < end) {
+                int cp = Character.codePointAt(line, i, end);
+                for (CharCounter counter : charCounters) {
+                    counter.accept(cp);
+                }
+                i += Character.charCount(cp);
+            }
+        }
+
+        // Same as Pattern.UNICODE_CHARACTER_CLASS "\\w".
+        private static boolean isWordChar(int cp) {
+            return Character.isAlphabetic(cp)
+                    || (((1 << Character.NON_SPACING_MARK
+                            | 1 << Character.ENCLOSING_MARK
+                            | 1 << Character.COMBINING_SPACING_MARK
+                            | 1 << Character.DECIMAL_DIGIT_NUMBER
+                            | 1 << Character.CONNECTOR_PUNCTUATION)
+                            >> Character.getType(cp)) & 1) != 0
+                    || cp == 0x200C || cp == 0x200D;
+        }
+    }
+
+    // Counts characters matching a pattern, caching matches of BMP
+    // characters.
+    private static class CharCounter {
+        private final String name;
+        private final Pattern pattern;
+        private final BitSet known = new BitSet();
+        private final BitSet matching = new BitSet();
+        private long count;
+        CharCounter(String name, String regex) {
+            this.name = name;
+            this.pattern = Pattern.compile(regex);
+        }
+        void accept(int cp) {
+            boolean matches;
+            if (cp <= Character.MAX_VALUE && known.get(cp)) {
+                matches = matching.get(cp);
+            } else {
+                matches = pattern.matcher(
+                        new String(Character.toChars(cp))).matches();
+                if (cp <= Character.MAX_VALUE) {
+                    known.set(cp);
+                    matching.set(cp, matches);
+                }
+            }
+            if (matches) {
+                count++;
+            }
+        }
+    }
+
+    // Character iterator over a portion of a reusable character array.
+    private static class LineCharacterIterator implements CharacterIterator {
+        private char[] chars;
+        private int begin;
+        private int end;
+        private int index;
+        void reset(char[] chars, int begin, int end) {
+            this.chars = chars;
+            this.begin = begin;
+            this.end = end;
+            this.index = begin;
+        }
+        @Override
+        public char first() {
+            index = begin;
+            return current();
+        }
+        @Override
+        public char last() {
+            index = end > begin ? end - 1 : end;
+            return current();
+        }
+        @Override
+        public char current() {
+            return index >= begin && index < end ? chars[index] : DONE;
+        }
+        @Override
+        public char next() {
+            if (index < end) {
+                index++;
+            }
+            return current();
+        }
+        @Override
+        public char previous() {
+            if (index <= begin) {
+                return DONE;
+            }
+            index--;
+            return current();
+        }
+        @Override
+        public char setIndex(int position) {
+            if (position < begin || position > end) {
+                throw new IllegalArgumentException(
+                        "Invalid index: " + position);
+            }
+            index = position;
+            return current();
+        }
+        @Override
+        public int getBeginIndex() {
+            return begin;
+        }
+        @Override
+        public int getEndIndex() {
+            return end;
+        }
+        @Override
+        public int getIndex() {
+            return index;
+        }
+        @Override
+        public Object clone() {
+            try {
+                return super.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
 }
@@ -16,13 +16,8 @@ package com.norconex.importer.handler.tagger.impl;
 
 import java.text.BreakIterator;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -131,9 +126,6 @@ public class TitleGeneratorTagger
     private static final int MIN_OCCURENCES = 3;
     //TODO have a max num terms?
 
-    private final EntryValueComparator entryValueComparator =
-            new EntryValueComparator();
-
     public static final String DEFAULT_TO_FIELD =
             DocMetadata.GENERATED_TITLE;
     public static final int DEFAULT_TITLE_MAX_LENGTH = 150;
@@ -313,27 +305,18 @@ public class TitleGeneratorTagger
     }
 
     private String summarize(String text) {
-
-        Index index = indexText(text);
+        TermIndex index = indexText(text);
         if (index.sentences.isEmpty()) {
             return StringUtils.EMPTY;
         }
+
+        TermsWeigher weigher = new TermsWeigher(index);
         long topScore = 0;
         String topSentence = index.sentences.get(0);
-        for (String  sentence : index.sentences) {
-            long score = 0;
+        for (String sentence : index.sentences) {
+            long weight = weigher.weight(sentence);
             long densityFactor = 500 - sentence.length();
-            for (TermOccurence to : index.terms) {
-                Matcher m = Pattern.compile(
-                        "\\b\\Q" + to.term + "\\E\\b").matcher(sentence);
-                int count = 0;
-                while (m.find()) {
-                    count++;
-                }
-                if (count > 0) {
-                    score += (count * to.occurence * densityFactor);
-                }
-            }
+            long score = weight * densityFactor;
             if (score > topScore) {
                 topScore = score;
                 topSentence = sentence;
@@ -342,13 +325,14 @@ public class TitleGeneratorTagger
         return topSentence;
     }
 
-    private Index indexText(String text) {
-        Index index = new Index();
-        ConcurrentMap<String, AtomicInteger> terms = new ConcurrentHashMap<>();
+    // Indexes sentences and counts their terms in a single pass.
+    private TermIndex indexText(String text) {
+        TermIndex index = new TermIndex();
 
         // Allow to pass locale, based on language field?
         BreakIterator breakIterator = BreakIterator.getSentenceInstance();
         breakIterator.setText(text);
+        BreakIterator wordIterator = BreakIterator.getWordInstance();
 
         int start = breakIterator.first();
         int end = breakIterator.next();
@@ -360,44 +344,26 @@ public class TitleGeneratorTagger
                 if (s != null
                         && Character.isLetterOrDigit(sentence.codePointAt(0))) {
                     index.sentences.add(sentence);
-                    breakWords(sentence, terms);
+
+                    // Break words
+                    wordIterator.setText(sentence);
+                    int wordStart = wordIterator.first();
+                    int wordEnd = wordIterator.next();
+                    while (wordEnd != BreakIterator.DONE) {
+                        if (Character.isLetterOrDigit(
+                                sentence.codePointAt(wordStart))) {
+                            index.add(sentence.substring(wordStart, wordEnd));
+                        }
+                        wordStart = wordEnd;
+                        wordEnd = wordIterator.next();
+                    }
                 }
             }
             start = end;
             end = breakIterator.next();
         }
-
-        List<Entry<String, AtomicInteger>> sorted =
-                new ArrayList<>(terms.entrySet());
-        Collections.sort(sorted, entryValueComparator);
-        for (Entry<String, AtomicInteger> entry : sorted) {
-            String term = entry.getKey();
-            int occurences = entry.getValue().get();
-            if (term.length() >= MIN_TERM_LENGTH
-                    && occurences >= MIN_OCCURENCES) {
-                index.terms.add(new TermOccurence(term, occurences));
-            }
-        }
         return index;
     }
-    private void breakWords(
-            String sentence, ConcurrentMap<String, AtomicInteger> terms) {
-
-        BreakIterator wordIterator = BreakIterator.getWordInstance();
-        wordIterator.setText(sentence);
-        int start = wordIterator.first();
-        int end = wordIterator.next();
-
-        while (end != BreakIterator.DONE) {
-            String word = sentence.substring(start,end);
-            if (Character.isLetterOrDigit(word.codePointAt(0))) {
-                terms.putIfAbsent(word, new AtomicInteger(0));
-                terms.get(word).incrementAndGet();
-            }
-            start = end;
-            end = wordIterator.next();
-        }
-    }
 
     @Override
     protected void loadStringTaggerFromXML(XML xml) {
@@ -439,68 +405,181 @@ public class TitleGeneratorTagger
     }
 
     //--- Inner classes --------------------------------------------------------
-    class EntryValueComparator
-            implements Comparator<Entry<String, AtomicInteger>> {
-        @Override
-        public int compare(Entry<String, AtomicInteger> o1,
-                Entry<String, AtomicInteger> o2) {
-            return Integer.compare(o2.getValue().get(), o1.getValue().get());
+    // Sums the weights of terms matching in sentences. A term matches
+    // where found between two word boundaries, as defined by the
+    // regular expression "\b" (e.g., "don" matches in "don't"), not only
+    // where the word instance breaks words, without overlapping itself.
+    private static final class TermsWeigher {
+        private final TermIndex index;
+        // Terms long and frequent enough are weighted by their number
+        // of occurrences. Others have no weight.
+        private final int[] weights;
+        private int maxTermLength;
+        private int[] bounds = new int[128];
+        // Where each term last matched, as an offset from the first
+        // sentence, so matches from previous sentences never overlap.
+        private final int[] lastMatchEnds;
+        private int offset;
+
+        private TermsWeigher(TermIndex index) {
+            this.index = index;
+            weights = new int[index.size];
+            lastMatchEnds = new int[index.size];
+            for (int id = 0; id < index.size; id++) {
+                int length = index.terms[id].length();
+                int occurences = index.counts[id];
+                if (length >= MIN_TERM_LENGTH
+                        && occurences >= MIN_OCCURENCES) {
+                    weights[id] = occurences;
+                    maxTermLength = Math.max(maxTermLength, length);
+                }
+            }
         }
-        @Override
-        public boolean equals(final Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+
+        private long weight(String sentence) {
+            if (maxTermLength == 0) {
+                return 0;
+            }
+            int boundsCount = wordBoundaries(sentence);
+            long weight = 0;
+            for (int i = 0; i < boundsCount; i++) {
+                int start = bounds[i];
+                if (start == sentence.length() || !Character.isLetterOrDigit(
+                        sentence.codePointAt(start))) {
+                    continue;
+                }
+                for (int j = i + 1; j < boundsCount
+                        && bounds[j] - start <= maxTermLength; j++) {
+                    int end = bounds[j];
+                    int id = index.find(sentence, start, end);
+                    if (id != -1 && weights[id] != 0
+                            && offset + start >= lastMatchEnds[id]) {
+                        weight += weights[id];
+                        lastMatchEnds[id] = offset + end;
+                    }
+                }
+            }
+            offset += sentence.length() + 1;
+            return weight;
         }
-        @Override
-        public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+
+        // Stores word boundary positions and returns how many there are.
+        private int wordBoundaries(String sentence) {
+            int length = sentence.length();
+            if (bounds.length <= length) {
+                bounds = new int[length + 1];
+            }
+            int count = 0;
+            for (int i = 0; i <= length; i++) {
+                boolean left = i > 0 && isWordChar(sentence,
+                        Character.codePointBefore(sentence, i), i - 1);
+                boolean right = i < length && isWordChar(sentence,
+                        Character.codePointAt(sentence, i), i);
+                if (left != right) {
+                    bounds[count++] = i;
+                }
+            }
+            return count;
         }
-        @Override
-        public String toString() {
-            return new ReflectionToStringBuilder(
-                    this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+
+        // Same word characters as the regular expression "\b": letters,
+        // digits, underscores, and non-spacing marks following a letter
+        // or digit.
+        private static boolean isWordChar(
+                String sentence, int codePoint, int index) {
+            if (codePoint == '_' || Character.isLetterOrDigit(codePoint)) {
+                return true;
+            }
+            if (Character.getType(codePoint) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+            for (int i = index; i >= 0; i--) {
+                int ch = Character.codePointAt(sentence, i);
+                if (Character.isLetterOrDigit(ch)) {
+                    return true;
+                }
+                if (Character.getType(ch) != Character.NON_SPACING_MARK) {
+                    return false;
+                }
+            }
+            return false;
         }
     }
-    class Index {
+
+    // Sentences and term occurrences (terms are stored in an
+    // open-addressing hash table).
+    private static final class TermIndex {
         private final List<String> sentences = new ArrayList<>();
-        private final List<TermOccurence> terms = new ArrayList<>();
-        @Override
-        public boolean equals(final Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
-        }
-        @Override
-        public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
-        }
-        @Override
-        public String toString() {
-            return new ReflectionToStringBuilder(
-                    this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
-        }
-    }
-    class TermOccurence implements Comparable<TermOccurence> {
-        private final String term;
-        private final int occurence;
-        public TermOccurence(String term, int occurence) {
-            super();
-            this.term = term;
-            this.occurence = occurence;
+        // Term id of each hash table slot (-1 when empty)
+        private int[] slots = newSlots(256);
+        private String[] terms = new String[128];
+        private int[] counts = new int[128];
+        private int size;
+
+        // Adds a term occurrence and returns its id.
+        private int add(String term) {
+            int mask = slots.length - 1;
+            int slot = hash(term.hashCode()) & mask;
+            int id;
+            while ((id = slots[slot]) != -1) {
+                if (terms[id].equals(term)) {
+                    counts[id]++;
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            id = size++;
+            if (id == terms.length) {
+                terms = Arrays.copyOf(terms, id * 2);
+                counts = Arrays.copyOf(counts, id * 2);
+            }
+            terms[id] = term;
+            counts[id] = 1;
+            slots[slot] = id;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return id;
         }
-        @Override
-        public int compareTo(TermOccurence o) {
-            return Integer.compare(occurence, o.occurence);
+        // Returns the id of the term found in a text region, or -1.
+        private int find(String text, int start, int end) {
+            int h = 0;
+            for (int i = start; i < end; i++) {
+                h = 31 * h + text.charAt(i);
+            }
+            int length = end - start;
+            int mask = slots.length - 1;
+            int slot = hash(h) & mask;
+            int id;
+            while ((id = slots[slot]) != -1) {
+                String term = terms[id];
+                if (term.length() == length
+                        && text.regionMatches(start, term, 0, length)) {
+                    return id;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
         }
-        @Override
-        public boolean equals(final Object other) {
-            return EqualsBuilder.reflectionEquals(this, other);
+        private void rehash() {
+            int[] newSlots = newSlots(slots.length * 2);
+            int mask = newSlots.length - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = hash(terms[id].hashCode()) & mask;
+                while (newSlots[slot] != -1) {
+                    slot = (slot + 1) & mask;
+                }
+                newSlots[slot] = id;
+            }
+            slots = newSlots;
         }
-        @Override
-        public int hashCode() {
-            return HashCodeBuilder.reflectionHashCode(this);
+        private static int[] newSlots(int length) {
+            int[] newSlots = new int[length];
+            Arrays.fill(newSlots, -1);
+            return newSlots;
         }
-        @Override
-        public String toString() {
-            return new ReflectionToStringBuilder(
-                    this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+        private static int hash(int h) {
+            return h ^ (h >>> 16);
         }
     }
 }
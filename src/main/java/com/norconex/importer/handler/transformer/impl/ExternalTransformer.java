@@ -80,6 +80,17 @@ import com.norconex.importer.parser.impl.ExternalParser;
  *      for transformation.)
  *   </tempDir>
  *
+ *   <piped>
+ *     [false|true]
+ *     (Optional. Whether to use pipes and raw output copy instead of
+ *      temporary files and line-based output handling.)
+ *   </piped>
+ *
+ *   <persistentProcesses>
+ *     (Optional number of external processes to keep running, each
+ *      handling many documents.)
+ *   </persistentProcesses>
+ *
  * </handler>
  * }
  *
@@ -103,7 +114,8 @@ import com.norconex.importer.parser.impl.ExternalParser;
  * @since 2.7.0
  */
 @SuppressWarnings("javadoc")
-public class ExternalTransformer extends AbstractDocumentTransformer {
+public class ExternalTransformer extends AbstractDocumentTransformer
+        implements AutoCloseable {
 
     private final ExternalHandler h = new ExternalHandler();
 
@@ -289,6 +301,50 @@ public class ExternalTransformer extends AbstractDocumentTransformer {
         h.setTempDir(tempDir);
     }
 
+    /**
+     * Gets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling.
+     * @return <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public boolean isPiped() {
+        return h.isPiped();
+    }
+    /**
+     * Sets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling.
+     * See {@link ExternalHandler} for details.
+     * @param piped <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public void setPiped(boolean piped) {
+        h.setPiped(piped);
+    }
+
+    /**
+     * Gets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * @return number of persistent processes
+     * @since 3.0.0
+     */
+    public int getPersistentProcesses() {
+        return h.getPersistentProcesses();
+    }
+    /**
+     * Sets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * See {@link ExternalHandler} for the protocol used.
+     * @param persistentProcesses number of persistent processes
+     * @since 3.0.0
+     */
+    public void setPersistentProcesses(int persistentProcesses) {
+        h.setPersistentProcesses(persistentProcesses);
+    }
+
     @Override
     protected void transformApplicableDocument(
             HandlerDoc doc, final InputStream input, final OutputStream output,
@@ -306,6 +362,15 @@ public class ExternalTransformer extends AbstractDocumentTransformer {
         h.saveHandlerToXML(xml);
     }
 
+    /**
+     * Terminates any persistent external processes.
+     * @since 3.0.0
+     */
+    @Override
+    public void close() {
+        h.close();
+    }
+
     @Override
     public boolean equals(final Object other) {
         return EqualsBuilder.reflectionEquals(this, other);
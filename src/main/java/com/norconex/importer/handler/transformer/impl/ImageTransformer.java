@@ -15,11 +15,22 @@
 package com.norconex.importer.handler.transformer.impl;
 
 import java.awt.Dimension;
+import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.Objects;
+import java.util.stream.IntStream;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -58,6 +69,16 @@ import com.norconex.importer.parser.ParseState;
  * image.
  * </p>
  *
+ * <h3>Memory usage</h3>
+ * <p>
+ * When an image is scaled down, it is decoded with only a subset of its
+ * pixels, while keeping at least twice the target dimension for quality
+ * scaling.  When an image is only cropped, only the cropped region is
+ * decoded.  Large images are scaled in horizontal bands, in parallel.
+ * This keeps memory usage low and speeds up the creation of
+ * thumbnails from high-resolution images.
+ * </p>
+ *
  * <h3>Image dimension format</h3>
  * <p>
  * For a list of supported image dimension formats, refer to
@@ -105,6 +126,10 @@ public class ImageTransformer extends AbstractDocumentTransformer {
 
     public static final String DEFAULT_TARGET_FORMAT = "png";
 
+    // Number of pixels from which scaling is done in parallel bands
+    private static final long LARGE_IMAGE_AREA = 4_000_000;
+    private static final int MIN_BAND_HEIGHT = 64;
+
     //TODO Maybe: default == null == keep same as source,
     // derived from detected content-type
     private String targetFormat = DEFAULT_TARGET_FORMAT;
@@ -170,9 +195,7 @@ public class ImageTransformer extends AbstractDocumentTransformer {
         Objects.requireNonNull("'targetFormat' must not be null");
 
         try {
-            MutableImage img = new MutableImage(input);
-            transformImage(img);
-            img.write(output, targetFormat);
+            readAndTransformImage(input).write(output, targetFormat);
         } catch (IOException e) {
             throw new ImporterHandlerException(
                     "Could not transform image: " + doc.getReference(), e);
@@ -203,6 +226,158 @@ public class ImageTransformer extends AbstractDocumentTransformer {
         }
     }
 
+    // Decodes only what is needed from the image before transforming it.
+    private MutableImage readAndTransformImage(InputStream input)
+            throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(input)) {
+            Iterator<ImageReader> readers =
+                    iis == null ? null : ImageIO.getImageReaders(iis);
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("Unsupported image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                return readAndTransformImage(reader);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+    private MutableImage readAndTransformImage(ImageReader reader)
+            throws IOException {
+        Rectangle bounds = new Rectangle(
+                reader.getWidth(0), reader.getHeight(0));
+        ImageReadParam param = reader.getDefaultReadParam();
+
+        // Crop only: decode the cropped region only
+        if (cropRectangle != null && scaleFactor == null
+                && scaleDimension == null && rotateDegrees == null) {
+            Rectangle region = cropRectangle.intersection(bounds);
+            if (!region.isEmpty()) {
+                param.setSourceRegion(region);
+                return new MutableImage(reader.read(0, param));
+            }
+        }
+
+        Dimension target = getScaledDownDimension(bounds.getSize());
+        if (target == null) {
+            MutableImage img = new MutableImage(reader.read(0, param));
+            transformImage(img);
+            return img;
+        }
+
+        // Scaling down: skip pixels we do not need when decoding
+        int subsampling = Math.max(1, Math.min(
+                bounds.width / target.width,
+                bounds.height / target.height) / 2);
+        if (subsampling == 1
+                && (long) bounds.width * bounds.height < LARGE_IMAGE_AREA) {
+            MutableImage img = new MutableImage(reader.read(0, param));
+            transformImage(img);
+            return img;
+        }
+        if (subsampling > 1) {
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        }
+        MutableImage img = new MutableImage(
+                scaleDown(reader.read(0, param), target));
+        if (rotateDegrees != null) {
+            img.rotate(rotateDegrees);
+        }
+        if (cropRectangle != null) {
+            img.crop(cropRectangle);
+        }
+        return img;
+    }
+
+    // Final dimension after scaling, or null if not scaled down.
+    private Dimension getScaledDownDimension(Dimension source) {
+        if (scaleFactor == null && scaleDimension == null) {
+            return null;
+        }
+        double width = source.width;
+        double height = source.height;
+        if (scaleFactor != null) {
+            width *= scaleFactor;
+            height *= scaleFactor;
+        }
+        if (scaleDimension != null) {
+            if (scaleDimension.width <= 0 || scaleDimension.height <= 0) {
+                return null;
+            }
+            if (scaleStretch) {
+                width = scaleDimension.width;
+                height = scaleDimension.height;
+            } else {
+                double ratio = Math.min(scaleDimension.width / width,
+                        scaleDimension.height / height);
+                width *= ratio;
+                height *= ratio;
+            }
+        }
+        Dimension target = new Dimension(
+                (int) Math.max(1, Math.round(width)),
+                (int) Math.max(1, Math.round(height)));
+        if (target.width >= source.width || target.height >= source.height) {
+            return null;
+        }
+        return target;
+    }
+
+    // Halves the image until close to the target dimension,
+    // for better quality, then scales it to the target dimension.
+    private static BufferedImage scaleDown(
+            BufferedImage image, Dimension target) {
+        BufferedImage scaled = image;
+        while (scaled.getWidth() / 2 >= target.width
+                && scaled.getHeight() / 2 >= target.height) {
+            scaled = scale(scaled, new Dimension(
+                    scaled.getWidth() / 2, scaled.getHeight() / 2));
+        }
+        if (scaled.getWidth() != target.width
+                || scaled.getHeight() != target.height) {
+            scaled = scale(scaled, target);
+        }
+        return scaled;
+    }
+
+    // Large images are scaled in horizontal bands drawn in parallel.
+    private static BufferedImage scale(
+            BufferedImage image, Dimension target) {
+        BufferedImage scaled = new BufferedImage(target.width, target.height,
+                image.getTransparency() == Transparency.OPAQUE
+                        ? BufferedImage.TYPE_INT_RGB
+                        : BufferedImage.TYPE_INT_ARGB);
+        int bands = 1;
+        if ((long) target.width * target.height >= LARGE_IMAGE_AREA / 4) {
+            bands = Math.max(1, Math.min(
+                    Runtime.getRuntime().availableProcessors(),
+                    target.height / MIN_BAND_HEIGHT));
+        }
+        int bandHeight = (target.height + bands - 1) / bands;
+        IntStream.range(0, bands).parallel().forEach(i -> {
+            int y = i * bandHeight;
+            int height = Math.min(bandHeight, target.height - y);
+            if (height <= 0) {
+                return;
+            }
+            // bands share the image pixels but never overlap
+            Graphics2D g = scaled.getSubimage(
+                    0, y, target.width, height).createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                        RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING,
+                        RenderingHints.VALUE_RENDER_QUALITY);
+                g.drawImage(image, 0, -y, target.width, target.height, null);
+            } finally {
+                g.dispose();
+            }
+        });
+        return scaled;
+    }
+
     @Override
     protected void loadHandlerFromXML(XML xml) {
         setTargetFormat(xml.getString("@targetFormat", targetFormat));
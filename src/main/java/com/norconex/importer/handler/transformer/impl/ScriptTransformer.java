@@ -14,10 +14,10 @@
  */
 package com.norconex.importer.handler.transformer.impl;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
-import javax.script.Bindings;
-
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
@@ -64,6 +64,7 @@ import com.norconex.importer.parser.ParseState;
  * {@nx.xml.usage
  * <handler class="com.norconex.importer.handler.transformer.impl.ScriptTransformer"
  *     engineName="(script engine name)"
+ *     enginePoolSize="(maximum number of script engines)"
  *     {@nx.include com.norconex.importer.handler.transformer.AbstractStringTransformer#attributes}>
  *
  *   {@nx.include com.norconex.importer.handler.AbstractImporterHandler#restrictTo}
@@ -120,13 +121,32 @@ public class ScriptTransformer extends AbstractStringTransformer
         scriptRunner.setScript(script);
     }
 
+    /**
+     * Gets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @return engine pool size
+     * @since 3.0.0
+     */
+    public int getEnginePoolSize() {
+        return scriptRunner.getPoolSize();
+    }
+    /**
+     * Sets the maximum number of script engines created for concurrent
+     * evaluations. Zero or less means no limit.
+     * @param enginePoolSize engine pool size
+     * @since 3.0.0
+     */
+    public void setEnginePoolSize(final int enginePoolSize) {
+        scriptRunner.setPoolSize(enginePoolSize);
+    }
+
     @Override
     protected void transformStringContent(HandlerDoc doc,
             final StringBuilder content, final ParseState parseState,
             final int sectionIndex) throws ImporterHandlerException {
 
         String originalContent = content.toString();
-        Bindings b = scriptRunner.createBindings();
+        Map<String, Object> b = new HashMap<>();
         b.put("reference", doc.getReference());
         b.put("content", originalContent);
         b.put("metadata", doc.getMetadata());
@@ -143,12 +163,15 @@ public class ScriptTransformer extends AbstractStringTransformer
     protected void saveStringTransformerToXML(
             final XML xml) {
         xml.setAttribute("engineName", getEngineName());
+        xml.setAttribute("enginePoolSize", getEnginePoolSize());
         xml.addElement("script", getScript());
     }
 
     @Override
     protected void loadStringTransformerFromXML(final XML xml) {
         setEngineName(xml.getString("@engineName", getEngineName()));
+        setEnginePoolSize(
+                xml.getInteger("@enginePoolSize", getEnginePoolSize()));
         setScript(xml.getString("script"));
     }
 
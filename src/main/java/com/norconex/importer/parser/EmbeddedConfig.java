@@ -31,6 +31,7 @@ public class EmbeddedConfig {
     private String splitContentTypes;
     private String noExtractEmbeddedContentTypes;
     private String noExtractContainerContentTypes;
+    private boolean splitLazily;
 
     public String getSplitContentTypes() {
         return splitContentTypes;
@@ -53,8 +54,32 @@ public class EmbeddedConfig {
         this.noExtractContainerContentTypes = noExtractContainerContentTypes;
     }
 
+    /**
+     * Gets whether split embedded documents have their content loaded
+     * only when needed, for containers supporting it (e.g. ZIP files).
+     * @return <code>true</code> if splitting lazily
+     * @since 3.0.0
+     */
+    public boolean isSplitLazily() {
+        return splitLazily;
+    }
+    /**
+     * Sets whether split embedded documents have their content loaded
+     * only when needed, for containers supporting it (e.g. ZIP files).
+     * Their content is then re-opened from the container instead
+     * of being copied when extracted. Embedded documents from other
+     * containers are always copied when extracted. Entries of ZIP files
+     * imported from the local file system are then read directly
+     * from the file, without a temporary copy of the ZIP.
+     * @param splitLazily <code>true</code> to split lazily
+     * @since 3.0.0
+     */
+    public void setSplitLazily(boolean splitLazily) {
+        this.splitLazily = splitLazily;
+    }
+
     public boolean isEmpty() {
-        return StringUtils.isBlank(splitContentTypes)
+        return !splitLazily && StringUtils.isBlank(splitContentTypes)
                 && StringUtils.isBlank(noExtractContainerContentTypes)
                 && StringUtils.isBlank(noExtractEmbeddedContentTypes);
     }
@@ -71,6 +96,7 @@ public class EmbeddedConfig {
                         castOther.noExtractEmbeddedContentTypes)
                 .append(noExtractContainerContentTypes, 
                         castOther.noExtractContainerContentTypes)
+                .append(splitLazily, castOther.splitLazily)
                 .isEquals();
     }
 
@@ -80,6 +106,7 @@ public class EmbeddedConfig {
                 .append(splitContentTypes)
                 .append(noExtractEmbeddedContentTypes)
                 .append(noExtractContainerContentTypes)
+                .append(splitLazily)
                 .toHashCode();
     }
 
@@ -91,6 +118,7 @@ public class EmbeddedConfig {
                         noExtractEmbeddedContentTypes)
                 .append("noExtractContainerContentTypes", 
                         noExtractContainerContentTypes)
+                .append("splitLazily", splitLazily)
                 .toString();
     }
 }
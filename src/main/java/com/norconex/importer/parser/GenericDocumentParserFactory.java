@@ -37,6 +37,8 @@ import com.norconex.commons.lang.file.ContentType;
 import com.norconex.commons.lang.xml.IXMLConfigurable;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.parser.impl.FallbackParser;
+import com.norconex.importer.parser.impl.html.FastHTMLParser;
+import com.norconex.importer.parser.impl.text.FastTextParser;
 import com.norconex.importer.parser.impl.xfdl.XFDLParser;
 import com.norconex.importer.response.ImporterResponse;
 
@@ -47,6 +49,18 @@ import com.norconex.importer.response.ImporterResponse;
  *
  * <p>As of 2.6.0, it is possible to register your own parsers.</p>
  *
+ * <p>Since 3.0.0, a faster, non-Tika HTML parser is available for
+ * registration: {@link FastHTMLParser}. It extracts HTML text and core
+ * metadata in a single pass, at the cost of not supporting embedded
+ * documents or OCR.</p>
+ *
+ * <p>Also since 3.0.0, plain text, CSV, TSV, and JSON content types
+ * are parsed by default with {@link FastTextParser}, which only converts
+ * their character encoding to UTF-8, without Tika content type detection.
+ * To have them parsed by Tika instead, register the parser of your
+ * choice for these content types (e.g.,
+ * {@link FallbackParser}).</p>
+ *
  * <h3>Ignoring content types:</h3>
  * <p>You can "ignore" content-types so they do not get
  * parsed. Unparsed documents will be sent as is to the post handlers
@@ -82,6 +96,16 @@ import com.norconex.importer.response.ImporterResponse;
  * containers you do not want to extract their embedded documents.
  * </p>
  *
+ * <p>Since 3.0.0, split embedded documents from ZIP files can have their
+ * content loaded only when needed ("splitLazily"). Instead of being
+ * copied as they are extracted, they are re-opened from their container.
+ * This saves disk or memory for embedded documents that end up
+ * rejected based on their metadata. Embedded documents from other
+ * container types are always copied. When this option is set, ZIP files
+ * imported from the local file system have their split entries read
+ * directly from the file, without a temporary copy of the ZIP.
+ * </p>
+ *
  * <h3>Optical character recognition (OCR):</h3>
  * <p>You can configure this parser to use the
  * <b><a href="https://code.google.com/p/tesseract-ocr/">Tesseract</a></b>
@@ -105,6 +129,38 @@ import com.norconex.importer.response.ImporterResponse;
  * limit OCR to a subset of document content types, configure the corresponding
  * content-types (e.g. application/pdf, image/tiff, image/png, etc.).</p>
  *
+ * <p>Since 3.0.0, you can specify a directory where OCR results are
+ * cached, so identical images (e.g. logos) are not sent to Tesseract
+ * again. The cache is kept between executions and limited in size
+ * (default is 100MB). Least recently used results are removed first.</p>
+ *
+ * <p>Also since 3.0.0, you can limit how many OCR processes can run at
+ * once, and have PDFs OCR'd page by page, only for pages having little or
+ * no text (e.g. scanned pages). Such pages are then rendered as images and
+ * OCR'd concurrently, while other pages are not OCR'd at all. Only standard
+ * PDF metadata is extracted that way and embedded files are ignored.</p>
+ *
+ * <h3>Parse modes:</h3>
+ * <p>Since 3.0.0, you can limit how much content gets extracted from
+ * documents matching specific content types. For "metadata-only" content
+ * types, only metadata is extracted and the body text is discarded.
+ * For "head-only" content types, body text extraction stops after
+ * a maximum number of characters is reached (default is 10,000).
+ * Parsing being interrupted, metadata normally found at the end of
+ * such documents may be missing.
+ * Not all parsers support parse modes.
+ * </p>
+ *
+ * <h3>Parallel PDF extraction:</h3>
+ * <p>Since 3.0.0, text from large PDF documents can be extracted using
+ * multiple threads, each extracting a portion of the pages.
+ * It is enabled by specifying more than one thread and only applies to
+ * PDFs having a minimum number of pages (default is 100).
+ * Only standard PDF metadata is extracted that way and embedded files are
+ * ignored. It does not apply to PDFs subject to OCR, embedded splitting,
+ * or parse modes.
+ * </p>
+ *
  * <h3>XML configuration usage:</h3>
  * <pre>
  *  &lt;documentParserFactory
@@ -117,6 +173,19 @@ import com.norconex.importer.response.ImporterResponse;
  *          &lt;contentTypes&gt;
  *              (optional regex matching content types to limit OCR on)
  *          &lt;/contentTypes&gt;
+ *          &lt;cacheDir&gt;
+ *              (optional directory where to cache OCR results)
+ *          &lt;/cacheDir&gt;
+ *          &lt;cacheMaxSize&gt;
+ *              (maximum size of cached OCR results, in bytes)
+ *          &lt;/cacheMaxSize&gt;
+ *          &lt;maxProcesses&gt;
+ *              (optional maximum number of OCR processes running at once)
+ *          &lt;/maxProcesses&gt;
+ *          &lt;pdfPageTextThreshold&gt;
+ *              (optional maximum number of characters a PDF page can have
+ *               to be OCR'd, enabling page-level PDF OCR)
+ *          &lt;/pdfPageTextThreshold&gt;
  *      &lt;/ocr&gt;
  *
  *      &lt;ignoredContentTypes&gt;
@@ -140,8 +209,38 @@ import com.norconex.importer.response.ImporterResponse;
  *               do not want to see their embedded files extracted, regardless
  *               of the embedded content types)
  *          &lt;/noExtractContainerContentTypes&gt;
+ *          &lt;splitLazily&gt;
+ *              [false|true] (whether to load split embedded documents
+ *               content only when needed, when supported)
+ *          &lt;/splitLazily&gt;
  *      &lt;/embedded&gt;
  *
+ *      &lt;parseMode&gt;
+ *          &lt;metadataOnlyContentTypes&gt;
+ *              (optional regex matching content types for which to only
+ *               extract metadata)
+ *          &lt;/metadataOnlyContentTypes&gt;
+ *          &lt;headOnlyContentTypes&gt;
+ *              (optional regex matching content types for which to only
+ *               extract the beginning of the body text)
+ *          &lt;/headOnlyContentTypes&gt;
+ *          &lt;headOnlyMaxLength&gt;
+ *              (maximum number of characters extracted for head-only
+ *               content types)
+ *          &lt;/headOnlyMaxLength&gt;
+ *      &lt;/parseMode&gt;
+ *
+ *      &lt;parallelPDF&gt;
+ *          &lt;threads&gt;
+ *              (number of threads extracting text from a single PDF,
+ *               default is 1, i.e., disabled)
+ *          &lt;/threads&gt;
+ *          &lt;minPageCount&gt;
+ *              (minimum number of pages a PDF must have to be extracted
+ *               using multiple threads)
+ *          &lt;/minPageCount&gt;
+ *      &lt;/parallelPDF&gt;
+ *
  *      &lt;fallbackParser
  *          class="(optionally overwrite the fallback parser)" /&gt;
  *
@@ -175,7 +274,7 @@ import com.norconex.importer.response.ImporterResponse;
  * @author Pascal Essiembre
  */
 public class GenericDocumentParserFactory
-        implements IDocumentParserFactory, IXMLConfigurable {
+        implements IDocumentParserFactory, IXMLConfigurable, AutoCloseable {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(GenericDocumentParserFactory.class);
@@ -232,6 +331,12 @@ public class GenericDocumentParserFactory
         // PureEdge XFDL
         parsers.put(
                 ContentType.valueOf("application/vnd.xfdl"), new XFDLParser());
+
+        // Text formats only needing character encoding conversion
+        for (String type : new String[] { "text/plain", "text/csv",
+                "text/tab-separated-values", "application/json" }) {
+            parsers.put(ContentType.valueOf(type), new FastTextParser());
+        }
     }
 
     /**
@@ -297,6 +402,28 @@ public class GenericDocumentParserFactory
         this.ignoredContentTypesRegex = ignoredContentTypesRegex;
     }
 
+    /**
+     * Closes configured parsers implementing {@link AutoCloseable}
+     * (e.g., terminating persistent external parser processes).
+     * @since 3.0.0
+     */
+    @Override
+    public void close() {
+        for (IDocumentParser parser : parsers.values()) {
+            closeQuietly(parser);
+        }
+        closeQuietly(fallbackParser);
+    }
+    private void closeQuietly(IDocumentParser parser) {
+        if (parser instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) parser).close();
+            } catch (Exception e) {
+                LOG.warn("Could not close parser: {}", parser, e);
+            }
+        }
+    }
+
     private synchronized void ensureParseHintsState() {
         if (!parsersAreUpToDate) {
             for (Entry<ContentType, IDocumentParser> entry :
@@ -385,6 +512,8 @@ public class GenericDocumentParserFactory
                     embXml.getString("noExtractContainerContentTypes", null));
             embCfg.setNoExtractEmbeddedContentTypes(
                     embXml.getString("noExtractEmbeddedContentTypes", null));
+            embCfg.setSplitLazily(embXml.getBoolean(
+                    "splitLazily", embCfg.isSplitLazily()));
         }
 
         // OCR Config
@@ -394,6 +523,37 @@ public class GenericDocumentParserFactory
             ocrCfg.setPath(ocrXml.getString("@path"));
             ocrCfg.setLanguages(ocrXml.getString("languages"));
             ocrCfg.setContentTypes(ocrXml.getString("contentTypes"));
+            ocrCfg.setCacheDir(ocrXml.getString("cacheDir", null));
+            ocrCfg.setCacheMaxSize(ocrXml.getLong(
+                    "cacheMaxSize", ocrCfg.getCacheMaxSize()));
+            ocrCfg.setMaxProcesses(ocrXml.getInteger(
+                    "maxProcesses", ocrCfg.getMaxProcesses()));
+            ocrCfg.setPdfPageTextThreshold(ocrXml.getInteger(
+                    "pdfPageTextThreshold", ocrCfg.getPdfPageTextThreshold()));
+        }
+
+        // Parse Mode Config
+        XML modeXml = xml.getXML("parseMode");
+        if (modeXml != null) {
+            ParseModeConfig modeCfg = parseHints.getParseModeConfig();
+            modeCfg.setMetadataOnlyContentTypes(modeXml.getString(
+                    "metadataOnlyContentTypes",
+                    modeCfg.getMetadataOnlyContentTypes()));
+            modeCfg.setHeadOnlyContentTypes(modeXml.getString(
+                    "headOnlyContentTypes",
+                    modeCfg.getHeadOnlyContentTypes()));
+            modeCfg.setHeadOnlyMaxLength(modeXml.getInteger(
+                    "headOnlyMaxLength", modeCfg.getHeadOnlyMaxLength()));
+        }
+
+        // Parallel PDF Config
+        XML pdfXml = xml.getXML("parallelPDF");
+        if (pdfXml != null) {
+            ParallelPDFConfig pdfCfg = parseHints.getParallelPDFConfig();
+            pdfCfg.setThreads(
+                    pdfXml.getInteger("threads", pdfCfg.getThreads()));
+            pdfCfg.setMinPageCount(pdfXml.getInteger(
+                    "minPageCount", pdfCfg.getMinPageCount()));
         }
     }
 
@@ -428,6 +588,7 @@ public class GenericDocumentParserFactory
                     emb.getNoExtractEmbeddedContentTypes());
             embXML.addElement("noExtractContainerContentTypes",
                     emb.getNoExtractContainerContentTypes());
+            embXML.addElement("splitLazily", emb.isSplitLazily());
         }
         OCRConfig ocr = parseHints.getOcrConfig();
         if (!ocr.isEmpty()) {
@@ -435,6 +596,27 @@ public class GenericDocumentParserFactory
             ocrXML.setAttribute("path", ocr.getPath());
             ocrXML.addElement("languages", ocr.getLanguages());
             ocrXML.addElement("contentTypes", ocr.getContentTypes());
+            ocrXML.addElement("cacheDir", ocr.getCacheDir());
+            ocrXML.addElement("cacheMaxSize", ocr.getCacheMaxSize());
+            ocrXML.addElement("maxProcesses", ocr.getMaxProcesses());
+            ocrXML.addElement(
+                    "pdfPageTextThreshold", ocr.getPdfPageTextThreshold());
+        }
+        ParseModeConfig mode = parseHints.getParseModeConfig();
+        if (!mode.isEmpty()) {
+            XML modeXML = xml.addElement("parseMode");
+            modeXML.addElement("metadataOnlyContentTypes",
+                    mode.getMetadataOnlyContentTypes());
+            modeXML.addElement("headOnlyContentTypes",
+                    mode.getHeadOnlyContentTypes());
+            modeXML.addElement("headOnlyMaxLength",
+                    mode.getHeadOnlyMaxLength());
+        }
+        ParallelPDFConfig pdf = parseHints.getParallelPDFConfig();
+        if (!pdf.isEmpty()) {
+            XML pdfXML = xml.addElement("parallelPDF");
+            pdfXML.addElement("threads", pdf.getThreads());
+            pdfXML.addElement("minPageCount", pdf.getMinPageCount());
         }
     }
 
@@ -36,9 +36,15 @@ import org.apache.commons.lang3.builder.ToStringStyle;
  */
 public class OCRConfig {
 
+    public static final long DEFAULT_CACHE_MAX_SIZE = 100L * 1024 * 1024;
+
     private String path;
     private String languages;
     private String contentTypes;
+    private String cacheDir;
+    private long cacheMaxSize = DEFAULT_CACHE_MAX_SIZE;
+    private int maxProcesses;
+    private int pdfPageTextThreshold = -1;
 
     /**
      * Constructor.
@@ -92,6 +98,100 @@ public class OCRConfig {
         this.contentTypes = contentTypes;
     }
 
+    /**
+     * Gets the directory where OCR results are cached. OCR results
+     * are cached only when a directory is specified.
+     * @return cache directory path
+     * @since 3.0.0
+     */
+    public String getCacheDir() {
+        return cacheDir;
+    }
+    /**
+     * Sets the directory where OCR results are cached. Identical images
+     * (same bytes, languages and other OCR settings) are then only sent
+     * to the OCR engine once. A directory can be shared by several
+     * parsers, its maximum size applying to all of them.
+     * @param cacheDir cache directory path
+     * @since 3.0.0
+     */
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+
+    /**
+     * Gets the maximum total size of cached OCR results, in bytes.
+     * Least recently used results are removed first when exceeded.
+     * Default is 100MB.
+     * @return maximum cache size
+     * @since 3.0.0
+     */
+    public long getCacheMaxSize() {
+        return cacheMaxSize;
+    }
+    /**
+     * Sets the maximum total size of cached OCR results, in bytes.
+     * When more than one parser use the same cache directory, the first
+     * maximum size applies.
+     * @param cacheMaxSize maximum cache size
+     * @since 3.0.0
+     */
+    public void setCacheMaxSize(long cacheMaxSize) {
+        this.cacheMaxSize = cacheMaxSize;
+    }
+
+    /**
+     * Gets the maximum number of OCR processes that can run at the
+     * same time. Zero or less means no limit (default).
+     * @return maximum number of OCR processes
+     * @since 3.0.0
+     */
+    public int getMaxProcesses() {
+        return maxProcesses;
+    }
+    /**
+     * Sets the maximum number of OCR processes that can run at the
+     * same time, across all parsers of a parser factory.
+     * Zero or less means no limit. When page-level PDF OCR
+     * is enabled, it is also the number of threads performing OCR
+     * on PDF pages (defaults to the number of processors when unset).
+     * @param maxProcesses maximum number of OCR processes
+     * @since 3.0.0
+     */
+    public void setMaxProcesses(int maxProcesses) {
+        this.maxProcesses = maxProcesses;
+    }
+
+    /**
+     * Gets the maximum number of non-white space characters a PDF page
+     * can have to be OCR'd. A negative value (default) disables
+     * page-level OCR.
+     * @return page text threshold
+     * @see #setPdfPageTextThreshold(int)
+     * @since 3.0.0
+     */
+    public int getPdfPageTextThreshold() {
+        return pdfPageTextThreshold;
+    }
+    /**
+     * <p>
+     * Sets the maximum number of non-white space characters a PDF page
+     * can have to be OCR'd. When zero or more, PDFs are processed page by
+     * page, rendering as images and OCR'ing only pages with that many
+     * characters or less (e.g. scanned pages), concurrently.  Pages having
+     * more text are not OCR'd at all.
+     * </p>
+     * <p>
+     * A negative value disables page-level OCR, in which case OCR is
+     * performed on all images found in PDFs, regardless of their text.
+     * </p>
+     * @param pdfPageTextThreshold page text threshold
+     * @since 3.0.0
+     */
+    public void setPdfPageTextThreshold(int pdfPageTextThreshold) {
+        this.pdfPageTextThreshold = pdfPageTextThreshold;
+    }
+
     public boolean isEmpty() {
         return  StringUtils.isBlank(path)
                 && StringUtils.isBlank(languages)
@@ -109,6 +209,10 @@ public class OCRConfig {
                 .append(path, castOther.path)
                 .append(languages, castOther.languages)
                 .append(contentTypes, castOther.contentTypes)
+                .append(cacheDir, castOther.cacheDir)
+                .append(cacheMaxSize, castOther.cacheMaxSize)
+                .append(maxProcesses, castOther.maxProcesses)
+                .append(pdfPageTextThreshold, castOther.pdfPageTextThreshold)
                 .isEquals();
     }
 
@@ -118,6 +222,10 @@ public class OCRConfig {
                 .append(path)
                 .append(languages)
                 .append(contentTypes)
+                .append(cacheDir)
+                .append(cacheMaxSize)
+                .append(maxProcesses)
+                .append(pdfPageTextThreshold)
                 .toHashCode();
     }
 
@@ -127,6 +235,10 @@ public class OCRConfig {
                 .append("path", path)
                 .append("languages", languages)
                 .append("contentTypes", contentTypes)
+                .append("cacheDir", cacheDir)
+                .append("cacheMaxSize", cacheMaxSize)
+                .append("maxProcesses", maxProcesses)
+                .append("pdfPageTextThreshold", pdfPageTextThreshold)
                 .toString();
     }
 }
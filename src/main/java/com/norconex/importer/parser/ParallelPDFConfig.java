@@ -0,0 +1,108 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * <p>
+ * Configuration settings for extracting text from large PDF documents
+ * using multiple threads.  When enabled, the page range of PDFs having
+ * at least "minPageCount" pages is split in equal parts, each
+ * extracted concurrently before being written back in page order.
+ * </p>
+ * <p>
+ * Parallel extraction is only performed when more than one thread is
+ * configured and no other settings require the PDF to be processed
+ * as a whole (OCR, splitting of embedded documents, or parse modes).
+ * Only standard document information metadata is extracted from PDFs
+ * processed this way and embedded files are ignored.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public class ParallelPDFConfig {
+
+    public static final int DEFAULT_THREADS = 1;
+    public static final int DEFAULT_MIN_PAGE_COUNT = 100;
+
+    private int threads = DEFAULT_THREADS;
+    private int minPageCount = DEFAULT_MIN_PAGE_COUNT;
+
+    /**
+     * Gets the number of threads used to extract text from a single PDF.
+     * A value lower than 2 disables parallel extraction (default).
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+    /**
+     * Sets the number of threads used to extract text from a single PDF.
+     * A value lower than 2 disables parallel extraction.
+     * @param threads number of threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the minimum number of pages a PDF must have to be
+     * extracted using multiple threads.
+     * Default is {@value #DEFAULT_MIN_PAGE_COUNT}.
+     * @return minimum page count
+     */
+    public int getMinPageCount() {
+        return minPageCount;
+    }
+    /**
+     * Sets the minimum number of pages a PDF must have to be
+     * extracted using multiple threads.
+     * @param minPageCount minimum page count
+     */
+    public void setMinPageCount(int minPageCount) {
+        this.minPageCount = minPageCount;
+    }
+
+    /**
+     * Gets whether parallel extraction is enabled (more than one thread).
+     * @return <code>true</code> if enabled
+     */
+    public boolean isEnabled() {
+        return threads > 1;
+    }
+
+    public boolean isEmpty() {
+        return threads == DEFAULT_THREADS
+                && minPageCount == DEFAULT_MIN_PAGE_COUNT;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+}
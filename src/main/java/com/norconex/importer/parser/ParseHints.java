@@ -31,6 +31,9 @@ public class ParseHints {
 
     private final OCRConfig ocrConfig = new OCRConfig();
     private final EmbeddedConfig embeddedConfig = new EmbeddedConfig();
+    private final ParseModeConfig parseModeConfig = new ParseModeConfig();
+    private final ParallelPDFConfig parallelPDFConfig =
+            new ParallelPDFConfig();
 
     public OCRConfig getOcrConfig() {
         return ocrConfig;
@@ -38,6 +41,12 @@ public class ParseHints {
     public EmbeddedConfig getEmbeddedConfig() {
         return embeddedConfig;
     }
+    public ParseModeConfig getParseModeConfig() {
+        return parseModeConfig;
+    }
+    public ParallelPDFConfig getParallelPDFConfig() {
+        return parallelPDFConfig;
+    }
 
     @Override
     public boolean equals(final Object other) {
@@ -48,6 +57,8 @@ public class ParseHints {
         return new EqualsBuilder()
                 .append(ocrConfig, castOther.ocrConfig)
                 .append(embeddedConfig, castOther.embeddedConfig)
+                .append(parseModeConfig, castOther.parseModeConfig)
+                .append(parallelPDFConfig, castOther.parallelPDFConfig)
                 .isEquals();
     }
 
@@ -56,6 +67,8 @@ public class ParseHints {
         return new HashCodeBuilder()
                 .append(ocrConfig)
                 .append(embeddedConfig)
+                .append(parseModeConfig)
+                .append(parallelPDFConfig)
                 .toHashCode();
     }
 
@@ -64,6 +77,8 @@ public class ParseHints {
         return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
                 .append("ocrConfig", ocrConfig)
                 .append("embeddedConfig", embeddedConfig)
+                .append("parseModeConfig", parseModeConfig)
+                .append("parallelPDFConfig", parallelPDFConfig)
                 .toString();
     }
 }
@@ -0,0 +1,146 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * <p>
+ * Configuration settings limiting how much content is extracted
+ * by parsers, for documents matching given content types.
+ * </p>
+ * <ul>
+ *   <li><b>Metadata-only:</b> only metadata is extracted. The document
+ *       body text is discarded.</li>
+ *   <li><b>Head-only:</b> body text is extracted up to a maximum
+ *       number of characters, after which parsing stops. Metadata
+ *       obtained until then is kept.</li>
+ * </ul>
+ * <p>
+ * When a content type matches both, metadata-only takes precedence.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public class ParseModeConfig {
+
+    public static final int DEFAULT_HEAD_ONLY_MAX_LENGTH = 10000;
+
+    private String metadataOnlyContentTypes;
+    private String headOnlyContentTypes;
+    private int headOnlyMaxLength = DEFAULT_HEAD_ONLY_MAX_LENGTH;
+
+    /**
+     * Gets the regular expression matching content types for which
+     * only metadata should be extracted.
+     * @return content types regex
+     */
+    public String getMetadataOnlyContentTypes() {
+        return metadataOnlyContentTypes;
+    }
+    /**
+     * Sets the regular expression matching content types for which
+     * only metadata should be extracted.
+     * @param metadataOnlyContentTypes content types regex
+     */
+    public void setMetadataOnlyContentTypes(String metadataOnlyContentTypes) {
+        this.metadataOnlyContentTypes = metadataOnlyContentTypes;
+    }
+
+    /**
+     * Gets the regular expression matching content types for which
+     * only the beginning of the body text should be extracted.
+     * @return content types regex
+     */
+    public String getHeadOnlyContentTypes() {
+        return headOnlyContentTypes;
+    }
+    /**
+     * Sets the regular expression matching content types for which
+     * only the beginning of the body text should be extracted.
+     * @param headOnlyContentTypes content types regex
+     */
+    public void setHeadOnlyContentTypes(String headOnlyContentTypes) {
+        this.headOnlyContentTypes = headOnlyContentTypes;
+    }
+
+    /**
+     * Gets the maximum number of body characters extracted from
+     * head-only documents.
+     * Default is {@value #DEFAULT_HEAD_ONLY_MAX_LENGTH}.
+     * @return maximum number of characters
+     */
+    public int getHeadOnlyMaxLength() {
+        return headOnlyMaxLength;
+    }
+    /**
+     * Sets the maximum number of body characters extracted from
+     * head-only documents.
+     * @param headOnlyMaxLength maximum number of characters
+     */
+    public void setHeadOnlyMaxLength(int headOnlyMaxLength) {
+        this.headOnlyMaxLength = headOnlyMaxLength;
+    }
+
+    /**
+     * Gets whether only metadata should be extracted for the given
+     * content type.
+     * @param contentType content type
+     * @return <code>true</code> if metadata-only
+     */
+    public boolean isMetadataOnly(String contentType) {
+        return matches(metadataOnlyContentTypes, contentType);
+    }
+    /**
+     * Gets whether only the beginning of the body text should be extracted
+     * for the given content type. Always <code>false</code> for
+     * metadata-only content types.
+     * @param contentType content type
+     * @return <code>true</code> if head-only
+     */
+    public boolean isHeadOnly(String contentType) {
+        return !isMetadataOnly(contentType)
+                && matches(headOnlyContentTypes, contentType);
+    }
+
+    public boolean isEmpty() {
+        return StringUtils.isBlank(metadataOnlyContentTypes)
+                && StringUtils.isBlank(headOnlyContentTypes)
+                && headOnlyMaxLength == DEFAULT_HEAD_ONLY_MAX_LENGTH;
+    }
+
+    private boolean matches(String regex, String contentType) {
+        return StringUtils.isNotBlank(regex)
+                && contentType != null && contentType.matches(regex);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+}
@@ -19,20 +19,32 @@ import static com.norconex.importer.doc.DocMetadata.EMBEDDED_TYPE;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+import org.apache.commons.io.output.NullWriter;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.tika.detect.Detector;
 import org.apache.tika.exception.TikaException;
 import org.apache.tika.exception.ZeroByteFileException;
+import org.apache.tika.io.TemporaryResources;
+import org.apache.tika.io.TikaInputStream;
 import org.apache.tika.metadata.Metadata;
 import org.apache.tika.metadata.TikaMetadataKeys;
 import org.apache.tika.mime.MediaType;
@@ -43,38 +55,58 @@ import org.apache.tika.parser.ParserDecorator;
 import org.apache.tika.parser.ocr.TesseractOCRConfig;
 import org.apache.tika.parser.pdf.PDFParserConfig;
 import org.apache.tika.sax.BodyContentHandler;
+import org.apache.tika.sax.TeeContentHandler;
+import org.apache.tika.sax.WriteOutContentHandler;
+import org.apache.tika.sax.XHTMLContentHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.SAXException;
 
 import com.google.common.base.Objects;
+import com.google.common.collect.MapMaker;
 import com.norconex.commons.lang.EqualsUtil;
 import com.norconex.commons.lang.file.ContentType;
 import com.norconex.commons.lang.io.CachedInputStream;
 import com.norconex.commons.lang.io.CachedOutputStream;
 import com.norconex.commons.lang.io.CachedStreamFactory;
 import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.ContentTypeDetector;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.doc.DocInfo;
 import com.norconex.importer.parser.DocumentParserException;
 import com.norconex.importer.parser.IHintsAwareParser;
 import com.norconex.importer.parser.OCRConfig;
+import com.norconex.importer.parser.ParallelPDFConfig;
 import com.norconex.importer.parser.ParseHints;
+import com.norconex.importer.parser.ParseModeConfig;
+import com.norconex.importer.util.MetadataUtil;
 
 
 /**
  * Base class wrapping Apache Tika parser for use by the importer.
+ * Closing it releases threads it may have created, until
+ * it is initialized again.
  * @author Pascal Essiembre
  */
-public class AbstractTikaParser implements IHintsAwareParser {
+public class AbstractTikaParser
+        implements IHintsAwareParser, AutoCloseable {
 
     private static final Logger LOG =
             LoggerFactory.getLogger(AbstractTikaParser.class);
 
+    // OCR process limiters, shared by parsers initialized with the same
+    // parse hints instance (i.e., from the same parser factory).
+    private static final Map<ParseHints, OCRLimiter> OCR_LIMITERS =
+            new MapMaker().weakKeys().makeMap();
+
     private final Parser parser;
     private TesseractOCRConfig ocrTesseractConfig;
     private ParseHints parseHints;
+    private ParallelPDFExtractor parallelPDFExtractor;
+    private OCRResultCache ocrCache;
+    private Semaphore ocrLimiter;
+    private PDFPageOCRExtractor pdfPageOCRExtractor;
     private final ThreadSafeCacheableAutoDetectWrapper knownDetector;
 
     /**
@@ -102,6 +134,55 @@ public class AbstractTikaParser implements IHintsAwareParser {
             return;
         }
         this.ocrTesseractConfig = toTesseractConfig(parseHints.getOcrConfig());
+        this.ocrCache = toOCRResultCache(parseHints.getOcrConfig());
+
+        if (parallelPDFExtractor != null) {
+            parallelPDFExtractor.shutdown();
+            parallelPDFExtractor = null;
+        }
+        ParallelPDFConfig pdfConfig = parseHints.getParallelPDFConfig();
+        if (pdfConfig.isEnabled()) {
+            parallelPDFExtractor = new ParallelPDFExtractor(pdfConfig);
+        }
+
+        OCRConfig ocrConfig = parseHints.getOcrConfig();
+        ocrLimiter = null;
+        int maxProcesses = ocrConfig.getMaxProcesses();
+        if (maxProcesses > 0) {
+            ocrLimiter = OCR_LIMITERS.compute(parseHints, (h, l) ->
+                    l != null && l.maxProcesses == maxProcesses
+                            ? l : new OCRLimiter(maxProcesses));
+        }
+        if (pdfPageOCRExtractor != null) {
+            pdfPageOCRExtractor.shutdown();
+            pdfPageOCRExtractor = null;
+        }
+        if (ocrTesseractConfig != null
+                && ocrConfig.getPdfPageTextThreshold() >= 0) {
+            int threads = ocrConfig.getMaxProcesses();
+            if (threads <= 0) {
+                threads = Runtime.getRuntime().availableProcessors();
+            }
+            pdfPageOCRExtractor = new PDFPageOCRExtractor(
+                    ocrConfig.getPdfPageTextThreshold(), threads);
+        }
+    }
+
+    /**
+     * Releases threads used to extract PDF pages in parallel or to
+     * OCR PDF pages, if any.
+     * @since 3.0.0
+     */
+    @Override
+    public void close() {
+        if (parallelPDFExtractor != null) {
+            parallelPDFExtractor.shutdown();
+            parallelPDFExtractor = null;
+        }
+        if (pdfPageOCRExtractor != null) {
+            pdfPageOCRExtractor.shutdown();
+            pdfPageOCRExtractor = null;
+        }
     }
 
     @Override
@@ -119,14 +200,61 @@ public class AbstractTikaParser implements IHintsAwareParser {
         //which may be an unnecessary read.  Have stream factory
         //directly on document instead to save a read?
         CachedInputStream content = doc.getInputStream();
+        // When known, content is read from its file so Tika can access it
+        // randomly (e.g., ZIP central directory) without caching it first.
+        Path contentFile = doc.getContentFile();
 
         tikaMetadata.set(Metadata.CONTENT_TYPE, contentType);
         tikaMetadata.set(Metadata.RESOURCE_NAME_KEY,
                 doc.getReference());
         tikaMetadata.set(Metadata.CONTENT_ENCODING,
                 doc.getDocInfo().getContentEncoding());
-        tikaMetadata.set(Metadata.CONTENT_LENGTH,
-                Long.toString(content.length()));
+        try {
+            tikaMetadata.set(Metadata.CONTENT_LENGTH, Long.toString(
+                    contentFile != null
+                            ? Files.size(contentFile) : content.length()));
+        } catch (IOException e) {
+            throw new DocumentParserException(e);
+        }
+
+        // Limit extracted content when configured to do so.
+        ParseModeConfig modeConfig = parseHints.getParseModeConfig();
+        Writer bodyOutput = output;
+        WriteOutContentHandler headOnlyHandler = null;
+        if (modeConfig.isMetadataOnly(contentType)) {
+            bodyOutput = NullWriter.NULL_WRITER;
+        } else if (modeConfig.isHeadOnly(contentType)) {
+            // Throws once the limit is reached, so Tika stops parsing.
+            headOnlyHandler = new WriteOutContentHandler(
+                    output, Math.max(0, modeConfig.getHeadOnlyMaxLength()));
+        }
+
+        // PDF extractors need a file. When we have to create one, Tika
+        // also uses it if they decline, rather than spooling content again.
+        Path pdfTempFile = null;
+        if (isParallelPDF(contentType) || isPageOCRPDF(contentType)) {
+            boolean extracted = true;
+            try {
+                Path tempDir = getTempDir(content);
+                if (contentFile == null) {
+                    pdfTempFile = toTempFile(content, tempDir);
+                    contentFile = pdfTempFile;
+                }
+                extracted = extractPDF(doc.getReference(), contentType,
+                        contentFile, tempDir, output, tikaMetadata);
+            } catch (IOException e) {
+                throw new DocumentParserException(e);
+            } finally {
+                if (extracted) {
+                    deleteQuietly(pdfTempFile);
+                }
+            }
+            if (extracted) {
+                addTikaMetadataToImporterMetadata(
+                        tikaMetadata, doc.getMetadata());
+                return null;
+            }
+        }
 
         RecursiveParser recursiveParser = null;
         try {
@@ -135,17 +263,27 @@ public class AbstractTikaParser implements IHintsAwareParser {
             }
 
             recursiveParser = createRecursiveParser(
-                    doc.getReference(), contentType, output, doc.getMetadata(),
+                    doc.getReference(), contentType, bodyOutput,
+                    doc.getMetadata(),
                     content.getStreamFactory());
+            if (recursiveParser instanceof SplitEmbbededParser) {
+                SplitEmbbededParser splitParser =
+                        (SplitEmbbededParser) recursiveParser;
+                splitParser.containerFile = contentFile;
+                splitParser.tempDir = getTempDir(content);
+                splitParser.lazy = doc.isSplitLazily();
+            } else if (recursiveParser instanceof MergeEmbeddedParser) {
+                ((MergeEmbeddedParser) recursiveParser).headOnlyHandler =
+                        headOnlyHandler;
+            }
+            ContentHandler bodyHandler = headOnlyHandler != null
+                    ? new BodyContentHandler(headOnlyHandler)
+                    : new BodyContentHandler(bodyOutput);
             ParseContext context = new ParseContext();
             context.set(Parser.class, recursiveParser);
 
             PDFParserConfig pdfConfig = new PDFParserConfig();
-            OCRConfig ocrConfig = parseHints.getOcrConfig();
-            if (!ocrConfig.isEmpty()
-                    && StringUtils.isNotBlank(ocrConfig.getPath())
-                    && (StringUtils.isBlank(ocrConfig.getContentTypes())
-                        || contentType.matches(ocrConfig.getContentTypes()))) {
+            if (isOCR(contentType)) {
                 context.set(TesseractOCRConfig.class, ocrTesseractConfig);
                 pdfConfig.setExtractInlineImages(true);
             } else {
@@ -155,16 +293,111 @@ public class AbstractTikaParser implements IHintsAwareParser {
             context.set(PDFParserConfig.class, pdfConfig);
             modifyParseContext(context);
 
-            recursiveParser.parse(content,
-                    new BodyContentHandler(output),  tikaMetadata, context);
+            if (contentFile == null) {
+                recursiveParser.parse(
+                        content, bodyHandler, tikaMetadata, context);
+            } else {
+                try (TikaInputStream tis = TikaInputStream.get(contentFile)) {
+                    recursiveParser.parse(
+                            tis, bodyHandler, tikaMetadata, context);
+                }
+            }
         } catch (ZeroByteFileException e) {
             LOG.warn("Document has no content: " + doc.getReference());
         } catch (Exception e) {
-            throw new DocumentParserException(e);
+            if (headOnlyHandler == null
+                    || !headOnlyHandler.isWriteLimitReached(e)) {
+                throw new DocumentParserException(e);
+            }
+            // Parsing was interrupted on purpose: keep what we have.
+            LOG.debug("Head-only limit of {} characters reached for: {}",
+                    modeConfig.getHeadOnlyMaxLength(), doc.getReference());
+            addTikaMetadataToImporterMetadata(
+                    tikaMetadata, doc.getMetadata());
+        } finally {
+            deleteQuietly(pdfTempFile);
         }
         return recursiveParser.getEmbeddedDocuments();
     }
 
+    private boolean extractPDF(String ref, String contentType, Path file,
+            Path tempDir, Writer output, Metadata tikaMetadata)
+                    throws IOException {
+        if (isParallelPDF(contentType)) {
+            return parallelPDFExtractor.extract(
+                    file, tempDir, output, tikaMetadata);
+        }
+        pdfPageOCRExtractor.extract(file, tempDir, output, tikaMetadata,
+                (pageNumber, image) -> ocrImage(
+                        ref + "#page" + pageNumber, image));
+        return true;
+    }
+
+    // Importer temporary directory, where content gets cached
+    private static Path getTempDir(CachedInputStream content)
+            throws IOException {
+        Path dir = content.getCacheDirectory();
+        if (dir == null) {
+            dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+        Files.createDirectories(dir);
+        return dir;
+    }
+    private static Path toTempFile(CachedInputStream content, Path dir)
+            throws IOException {
+        Path file = Files.createTempFile(dir, "importer-pdf-", ".pdf");
+        try {
+            Files.copy(content, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+        return file;
+    }
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.warn("Could not delete temporary file: {}", file, e);
+        }
+    }
+
+    private boolean isOCR(String contentType) {
+        OCRConfig ocrConfig = parseHints.getOcrConfig();
+        return !ocrConfig.isEmpty()
+                && StringUtils.isNotBlank(ocrConfig.getPath())
+                && (StringUtils.isBlank(ocrConfig.getContentTypes())
+                    || contentType.matches(ocrConfig.getContentTypes()));
+    }
+
+    private boolean isParallelPDF(String contentType) {
+        return parallelPDFExtractor != null
+                && !isOCR(contentType) && isStandalonePDF(contentType);
+    }
+    private boolean isPageOCRPDF(String contentType) {
+        return pdfPageOCRExtractor != null
+                && isOCR(contentType) && isStandalonePDF(contentType);
+    }
+    // Whether a PDF does not otherwise need to be processed as a
+    // whole by Tika.
+    private boolean isStandalonePDF(String contentType) {
+        if (!ContentType.PDF.toString().equals(contentType)) {
+            return false;
+        }
+        ParseModeConfig modeConfig = parseHints.getParseModeConfig();
+        if (modeConfig.isMetadataOnly(contentType)
+                || modeConfig.isHeadOnly(contentType)) {
+            return false;
+        }
+        String splitRegex =
+                parseHints.getEmbeddedConfig().getSplitContentTypes();
+        return StringUtils.isBlank(splitRegex)
+                || !contentType.matches(splitRegex);
+    }
+
     /**
      * Override to apply your own settings on the Tika ParseContext.
      * The ParseContext is already configured before calling this method.
@@ -177,6 +410,8 @@ public class AbstractTikaParser implements IHintsAwareParser {
     }
 
 
+    // Values of each field are merged with existing ones and set at once,
+    // under a shared field name.
     protected void addTikaMetadataToImporterMetadata(
             Metadata tikaMeta, Properties metadata) {
         String[]  names = tikaMeta.names();
@@ -185,25 +420,35 @@ public class AbstractTikaParser implements IHintsAwareParser {
             if (TikaMetadataKeys.RESOURCE_NAME_KEY.equals(name)) {
                 continue;
             }
-            List<String> nxValues = metadata.getStrings(name);
             String[] tikaValues = tikaMeta.getValues(name);
+            if (tikaValues.length == 0) {
+                continue;
+            }
+            name = MetadataUtil.internFieldName(name);
+            List<String> nxValues = metadata.getStrings(name);
+            List<String> values =
+                    new ArrayList<>(nxValues.size() + tikaValues.length);
+            values.addAll(nxValues);
+            boolean ignoreSpaces = EqualsUtil.equalsAnyIgnoreCase(
+                    name, Metadata.CONTENT_TYPE, Metadata.CONTENT_ENCODING);
+            // A Tika value already present before parsing replaces all
+            // values. Others are added.
             for (String tikaValue : tikaValues) {
-                if (!containsSameValue(name, nxValues, tikaValue)) {
-                    metadata.add(name, tikaValue);
-                } else {
-                    metadata.set(name, tikaValue);
+                if (containsSameValue(nxValues, tikaValue, ignoreSpaces)) {
+                    values.clear();
                 }
+                values.add(tikaValue);
             }
+            metadata.put(name, values);
         }
     }
 
     private boolean containsSameValue(
-            String name, List<String> nxValues, String tikaValue) {
-        if (EqualsUtil.equalsAnyIgnoreCase(
-                name, Metadata.CONTENT_TYPE, Metadata.CONTENT_ENCODING)) {
-            String tk = tikaValue.replaceAll("[\\s]", "");
+            List<String> nxValues, String tikaValue, boolean ignoreSpaces) {
+        if (ignoreSpaces) {
             for (String nxValue : nxValues) {
-                if (nxValue.replaceAll("[\\s]", "").equalsIgnoreCase(tk)) {
+                if (MetadataUtil.equalsIgnoreCaseAndSpaces(
+                        nxValue, tikaValue)) {
                     return true;
                 }
             }
@@ -225,6 +470,125 @@ public class AbstractTikaParser implements IHintsAwareParser {
         return new MergeEmbeddedParser(this.parser, writer, metadata);
     }
 
+    // Performs OCR on a single image (e.g. a rendered PDF page).
+    private String ocrImage(String reference, InputStream image)
+            throws IOException {
+        if (knownDetector != null) {
+            knownDetector.initCache(reference, "image/png");
+        }
+        Metadata tikaMeta = new Metadata();
+        tikaMeta.set(Metadata.CONTENT_TYPE, "image/png");
+        tikaMeta.set(Metadata.RESOURCE_NAME_KEY, reference);
+        ParseContext context = new ParseContext();
+        context.set(TesseractOCRConfig.class, ocrTesseractConfig);
+        StringWriter text = new StringWriter();
+        try {
+            parseOCRAware(parser, image,
+                    new BodyContentHandler(text), tikaMeta, context);
+        } catch (SAXException | TikaException e) {
+            throw new IOException("Could not perform OCR on: " + reference, e);
+        }
+        return text.toString();
+    }
+
+    // Parses with the given parser. When the document is an image
+    // subject to OCR, its text is taken from the OCR cache if present,
+    // and the number of concurrent OCR processes is limited.
+    private void parseOCRAware(Parser p, InputStream stream,
+            ContentHandler handler, Metadata tikaMeta, ParseContext context)
+                    throws IOException, SAXException, TikaException {
+        if ((ocrCache == null && ocrLimiter == null)
+                || context.get(TesseractOCRConfig.class) == null) {
+            p.parse(stream, handler, tikaMeta, context);
+            return;
+        }
+        TemporaryResources tmp = new TemporaryResources();
+        try {
+            TikaInputStream tis = TikaInputStream.get(stream, tmp);
+            String type;
+            if (knownDetector != null) {
+                type = knownDetector.detect(tis, tikaMeta).toString();
+            } else {
+                type = tikaMeta.get(Metadata.CONTENT_TYPE);
+            }
+            if (!OCRResultCache.isOCRType(type)) {
+                p.parse(tis, handler, tikaMeta, context);
+                return;
+            }
+
+            String key = null;
+            String text = null;
+            if (ocrCache != null) {
+                key = ocrCache.key(tis.getPath(), toOCRSettings(
+                        context.get(TesseractOCRConfig.class)));
+                text = ocrCache.get(key);
+            }
+            if (text != null) {
+                LOG.debug("OCR text found in cache for image of type {}.",
+                        type);
+                if (tikaMeta.get(Metadata.CONTENT_TYPE) == null) {
+                    tikaMeta.set(Metadata.CONTENT_TYPE, type);
+                }
+                XHTMLContentHandler xhtml =
+                        new XHTMLContentHandler(handler, tikaMeta);
+                xhtml.startDocument();
+                xhtml.startElement("div", "class", "ocr");
+                xhtml.characters(text);
+                xhtml.endElement("div");
+                xhtml.endDocument();
+                return;
+            }
+
+            StringWriter ocrText = null;
+            ContentHandler h = handler;
+            if (ocrCache != null) {
+                ocrText = new StringWriter();
+                h = new TeeContentHandler(
+                        handler, new BodyContentHandler(ocrText));
+            }
+            acquireOCRPermit();
+            try {
+                p.parse(tis, h, tikaMeta, context);
+            } finally {
+                if (ocrLimiter != null) {
+                    ocrLimiter.release();
+                }
+            }
+            if (ocrCache != null) {
+                ocrCache.put(key, ocrText.toString());
+            }
+        } finally {
+            tmp.dispose();
+        }
+    }
+
+    private void acquireOCRPermit() throws IOException {
+        if (ocrLimiter == null) {
+            return;
+        }
+        try {
+            ocrLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to perform OCR.");
+        }
+    }
+
+    private OCRResultCache toOCRResultCache(OCRConfig ocrConfig) {
+        if (ocrConfig == null || StringUtils.isBlank(ocrConfig.getPath())
+                || StringUtils.isBlank(ocrConfig.getCacheDir())) {
+            return null;
+        }
+        return OCRResultCache.get(Paths.get(ocrConfig.getCacheDir()),
+                ocrConfig.getCacheMaxSize());
+    }
+    // All Tesseract settings, so changing any of them (e.g., languages,
+    // page segmentation mode) does not return results obtained otherwise.
+    private static String toOCRSettings(TesseractOCRConfig config) {
+        return ReflectionToStringBuilder.toString(
+                config, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+
     private TesseractOCRConfig toTesseractConfig(OCRConfig ocrConfig) {
         if (ocrConfig == null || StringUtils.isBlank(ocrConfig.getPath())) {
             return null;
@@ -301,6 +665,13 @@ public class AbstractTikaParser implements IHintsAwareParser {
         private String masterType;
         private int embedCount;
         private List<Doc> embeddedDocs;
+        private ZipEntryOpeners zipOpeners;
+        // Local file holding the master document content, if known
+        private Path containerFile;
+        // Importer temporary directory
+        private Path tempDir;
+        // Split lazily regardless of configuration
+        private boolean lazy;
         public SplitEmbbededParser(String reference, Parser parser,
                 Properties metadata, CachedStreamFactory streamFactory) {
             super(parser);
@@ -315,11 +686,35 @@ public class AbstractTikaParser implements IHintsAwareParser {
 
             if (isMasterDoc) {
                 isMasterDoc = false;
-                if (hasNoExtractCondition()) {
+                // Only when splitting lazily, so entries are otherwise
+                // extracted (copied) as they always were.
+                boolean perEntry = knownDetector != null
+                        && (lazy || isSplitLazily());
+                if (hasNoExtractCondition() || perEntry) {
                     masterType =
                             knownDetector.detect(stream, tikaMeta).toString();
                 }
-                super.parse(stream, handler, tikaMeta, context);
+                if (perEntry && ZipEntryOpeners.isZipType(masterType)) {
+                    // Entries are re-opened from the container file (or
+                    // a copy of it) when needed instead of being copied
+                    // one by one.
+                    if (containerFile != null) {
+                        zipOpeners = new ZipEntryOpeners(containerFile);
+                    } else {
+                        zipOpeners = ZipEntryOpeners.copyOf(stream, tempDir);
+                    }
+                    try (TikaInputStream tis =
+                            TikaInputStream.get(zipOpeners.getFile())) {
+                        parseOCRAware(getWrappedParser(),
+                                tis, handler, tikaMeta, context);
+                    } finally {
+                        zipOpeners.release();
+                        zipOpeners = null;
+                    }
+                } else {
+                    parseOCRAware(getWrappedParser(),
+                            stream, handler, tikaMeta, context);
+                }
                 addTikaMetadataToImporterMetadata(tikaMeta, metadata);
             } else {
 
@@ -343,16 +738,31 @@ public class AbstractTikaParser implements IHintsAwareParser {
 
                 DocInfo embedDocInfo = resolveEmbeddedResourceName(
                         tikaMeta, embedMeta, embedCount);
-
-                // Read the steam into cache for reuse since Tika will
-                // close the original stream on us causing exceptions later.
-                CachedOutputStream embedOutput = streamFactory.newOuputStream();
-                IOUtils.copy(stream, embedOutput);
-                CachedInputStream embedInput = embedOutput.getInputStream();
-                embedOutput.close();
-
                 embedDocInfo.addEmbeddedParentReference(reference);
-                Doc embedDoc = new Doc(embedDocInfo, embedInput, embedMeta);
+
+                Doc embedDoc;
+                String entryName = tikaMeta.get(Metadata.RESOURCE_NAME_KEY);
+                if (zipOpeners != null && StringUtils.isNotBlank(entryName)) {
+                    // Content type is detected now, while we have the
+                    // stream, so content is only loaded when needed.
+                    embedDocInfo.setContentType(ContentTypeDetector.detect(
+                            new CloseShieldInputStream(stream),
+                            embedDocInfo.getReference()));
+                    embedDoc = new Doc(embedDocInfo,
+                            zipOpeners.opener(entryName),
+                            streamFactory, embedMeta);
+                } else {
+                    // Read the steam into cache for reuse since Tika will
+                    // close the original stream on us causing exceptions
+                    // later.
+                    CachedOutputStream embedOutput =
+                            streamFactory.newOuputStream();
+                    IOUtils.copy(stream, embedOutput);
+                    CachedInputStream embedInput =
+                            embedOutput.getInputStream();
+                    embedOutput.close();
+                    embedDoc = new Doc(embedDocInfo, embedInput, embedMeta);
+                }
 //                embedMeta.setReference(embedRef);
 //                embedMeta.setEmbeddedParentReference(reference);
 
@@ -455,6 +865,8 @@ public class AbstractTikaParser implements IHintsAwareParser {
         private static final long serialVersionUID = -5011890258694908887L;
         private final Writer writer;
         private final Properties metadata;
+        // When set, written to instead of the writer (shared limit)
+        private WriteOutContentHandler headOnlyHandler;
 
         private final LinkedList<String> hierarchy = new LinkedList<>();
 
@@ -479,8 +891,11 @@ public class AbstractTikaParser implements IHintsAwareParser {
                 performExtract = performExtract(parentType, currentType);
             }
             if (performExtract) {
-                super.parse(stream,
-                        new BodyContentHandler(writer), tikaMeta, context);
+                ContentHandler bodyHandler = headOnlyHandler != null
+                        ? new BodyContentHandler(headOnlyHandler)
+                        : new BodyContentHandler(writer);
+                parseOCRAware(getWrappedParser(), stream,
+                        bodyHandler, tikaMeta, context);
                 addTikaMetadataToImporterMetadata(tikaMeta, metadata);
             }
             if (hasNoExtractFilter) {
@@ -497,6 +912,20 @@ public class AbstractTikaParser implements IHintsAwareParser {
         List<Doc> getEmbeddedDocuments();
     }
 
+    private static final class OCRLimiter extends Semaphore {
+        private static final long serialVersionUID = 1L;
+        private final int maxProcesses;
+        private OCRLimiter(int maxProcesses) {
+            super(maxProcesses, true);
+            this.maxProcesses = maxProcesses;
+        }
+    }
+
+    private boolean isSplitLazily() {
+        return knownDetector != null && parseHints != null
+                && parseHints.getEmbeddedConfig().isSplitLazily();
+    }
+
     private boolean hasNoExtractCondition() {
         if (parseHints == null) {
             return false;
@@ -631,6 +1060,10 @@ public class AbstractTikaParser implements IHintsAwareParser {
         ocr.setContentTypes(ocrConfig.getContentTypes());
         ocr.setLanguages(ocrConfig.getLanguages());
         ocr.setPath(ocrConfig.getPath());
+        ocr.setCacheDir(ocrConfig.getCacheDir());
+        ocr.setCacheMaxSize(ocrConfig.getCacheMaxSize());
+        ocr.setMaxProcesses(ocrConfig.getMaxProcesses());
+        ocr.setPdfPageTextThreshold(ocrConfig.getPdfPageTextThreshold());
         initialize(parseHints);
     }
     /**
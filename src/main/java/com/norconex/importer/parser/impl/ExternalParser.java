@@ -80,6 +80,17 @@ import com.norconex.importer.parser.IDocumentParser;
  *     <!-- repeat variable tag as needed -->
  *   </environment>
  *
+ *   <piped>
+ *     [false|true]
+ *     (Optional. Whether to use pipes and raw output copy instead of
+ *      temporary files and line-based output handling.)
+ *   </piped>
+ *
+ *   <persistentProcesses>
+ *     (Optional number of external processes to keep running, each
+ *      handling many documents.)
+ *   </persistentProcesses>
+ *
  * </parser>
  * }
  *
@@ -108,7 +119,8 @@ import com.norconex.importer.parser.IDocumentParser;
  * @since 2.2.0
  */
 @SuppressWarnings("javadoc")
-public class ExternalParser implements IDocumentParser, IXMLConfigurable {
+public class ExternalParser
+        implements IDocumentParser, IXMLConfigurable, AutoCloseable {
 
     private final ExternalHandler h = new ExternalHandler();
 
@@ -146,6 +158,50 @@ public class ExternalParser implements IDocumentParser, IXMLConfigurable {
         h.setTempDir(tempDir);
     }
 
+    /**
+     * Gets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling.
+     * @return <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public boolean isPiped() {
+        return h.isPiped();
+    }
+    /**
+     * Sets whether to exchange data with the external application using
+     * pipes and raw output copy instead of temporary files and
+     * line-based output handling.
+     * See {@link ExternalHandler} for details.
+     * @param piped <code>true</code> if piped
+     * @since 3.0.0
+     */
+    public void setPiped(boolean piped) {
+        h.setPiped(piped);
+    }
+
+    /**
+     * Gets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * @return number of persistent processes
+     * @since 3.0.0
+     */
+    public int getPersistentProcesses() {
+        return h.getPersistentProcesses();
+    }
+    /**
+     * Sets the number of external application processes to keep running,
+     * each handling many documents. Zero (default) launches the
+     * external application for each document.
+     * See {@link ExternalHandler} for the protocol used.
+     * @param persistentProcesses number of persistent processes
+     * @since 3.0.0
+     */
+    public void setPersistentProcesses(int persistentProcesses) {
+        h.setPersistentProcesses(persistentProcesses);
+    }
+
     /**
      * Gets metadata extraction patterns. See class documentation.
      * @return map of patterns and field names
@@ -328,6 +384,15 @@ public class ExternalParser implements IDocumentParser, IXMLConfigurable {
         h.saveHandlerToXML(xml);
     }
 
+    /**
+     * Terminates any persistent external processes.
+     * @since 3.0.0
+     */
+    @Override
+    public void close() {
+        h.close();
+    }
+
     @Override
     public boolean equals(final Object other) {
         if (!(other instanceof ExternalParser)) {
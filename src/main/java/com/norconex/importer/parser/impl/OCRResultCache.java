@@ -0,0 +1,284 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.norconex.importer.ImporterRuntimeException;
+
+/**
+ * <p>
+ * Persistent cache of OCR results, stored as one text file per image
+ * in a local directory.  Entries are keyed by a digest of image bytes
+ * and OCR settings (languages and other Tesseract settings),
+ * so identical images (e.g. logos, letterheads) are only sent to the OCR
+ * engine once.
+ * </p>
+ * <p>
+ * A single cache instance is shared per directory
+ * (see {@link #get(Path, long)}), so the maximum size applies to
+ * the directory as a whole.
+ * </p>
+ * <p>
+ * The cache is bounded by the total size of cached text. Least recently
+ * used entries are evicted first, with file modification dates keeping
+ * track of usage across restarts.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+class OCRResultCache {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(OCRResultCache.class);
+
+    // Image types supported by Tesseract, as per Tika TesseractOCRParser
+    private static final Pattern OCR_TYPES = Pattern.compile(
+            "image/(ocr-)?(png|jpeg|tiff|bmp|gif|jp2|jpx|x-portable-pixmap)");
+    private static final String EXTENSION = ".txt";
+    private static final String TMP_EXTENSION = ".tmp";
+    // temporary files older than this were left by interrupted writes
+    private static final long TMP_MAX_AGE = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Map<Path, OCRResultCache> CACHES =
+            new ConcurrentHashMap<>();
+
+    private final Path dir;
+    private final long maxSize;
+    private final Map<String, Long> entries =
+            new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Creates an OCR cache, loading existing entries from the given
+     * directory. Use {@link #get(Path, long)} instead to share the
+     * cache of a directory.
+     * @param dir cache directory (created if it does not exist)
+     * @param maxSize maximum total size of cached text, in bytes
+     */
+    OCRResultCache(Path dir, long maxSize) {
+        this.dir = dir;
+        this.maxSize = maxSize;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new ImporterRuntimeException(
+                    "Could not create OCR cache directory: " + dir, e);
+        }
+        load();
+    }
+
+    /**
+     * Gets the cache of the given directory, creating it if it does not
+     * exist. When already created, the maximum size it was created with
+     * is kept.
+     * @param dir cache directory (created if it does not exist)
+     * @param maxSize maximum total size of cached text, in bytes
+     * @return OCR cache
+     */
+    static OCRResultCache get(Path dir, long maxSize) {
+        OCRResultCache cache = CACHES.computeIfAbsent(
+                dir.toAbsolutePath().normalize(),
+                d -> new OCRResultCache(d, maxSize));
+        if (cache.maxSize != maxSize) {
+            LOG.warn("OCR cache directory {} is already used with a "
+                    + "maximum size of {} bytes. Ignoring maximum size of "
+                    + "{} bytes.", dir, cache.maxSize, maxSize);
+        }
+        return cache;
+    }
+
+    static boolean isOCRType(String contentType) {
+        return contentType != null
+                && OCR_TYPES.matcher(contentType).matches();
+    }
+
+    /**
+     * Computes the cache key of an image.
+     * @param image image file
+     * @param settings OCR settings affecting results
+     * @return cache key
+     * @throws IOException could not read image
+     */
+    String key(Path image, String settings) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new ImporterRuntimeException(e);
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream is = Files.newInputStream(image)) {
+            int read;
+            while ((read = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update((byte) 0);
+        digest.update(StringUtils.defaultString(
+                settings).getBytes(StandardCharsets.UTF_8));
+        return Hex.encodeHexString(digest.digest());
+    }
+
+    /**
+     * Gets cached OCR text.
+     * @param key cache key
+     * @return OCR text or <code>null</code> if not cached
+     */
+    String get(String key) {
+        synchronized (this) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = file(key);
+        try {
+            String text = new String(
+                    Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(
+                    file, FileTime.fromMillis(System.currentTimeMillis()));
+            return text;
+        } catch (NoSuchFileException e) {
+            remove(key);
+        } catch (IOException e) {
+            LOG.warn("Could not read OCR cache entry: {}", file, e);
+        }
+        return null;
+    }
+
+    /**
+     * Caches OCR text, evicting least recently used entries if the
+     * maximum cache size is exceeded.
+     * @param key cache key
+     * @param text OCR text
+     */
+    void put(String key, String text) {
+        byte[] bytes = StringUtils.defaultString(
+                text).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxSize) {
+            return;
+        }
+        Path file = file(key);
+        try {
+            Path tmp = Files.createTempFile(dir, key, TMP_EXTENSION);
+            Files.write(tmp, bytes);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            LOG.warn("Could not write OCR cache entry: {}", file, e);
+            return;
+        }
+        synchronized (this) {
+            Long previous = entries.put(key, (long) bytes.length);
+            if (previous != null) {
+                size -= previous;
+            }
+            size += bytes.length;
+            evict();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        Long previous = entries.remove(key);
+        if (previous != null) {
+            size -= previous;
+        }
+    }
+
+    // must be called while holding the lock
+    private void evict() {
+        Iterator<Entry<String, Long>> it = entries.entrySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Entry<String, Long> eldest = it.next();
+            it.remove();
+            size -= eldest.getValue();
+            try {
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException e) {
+                LOG.warn("Could not delete OCR cache entry: {}",
+                        eldest.getKey(), e);
+            }
+        }
+    }
+
+    private synchronized void load() {
+        deleteStaleTempFiles();
+        File[] files = dir.toFile().listFiles(
+                (d, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            return;
+        }
+        // oldest first, so most recently used ones are evicted last
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            String key = StringUtils.removeEnd(file.getName(), EXTENSION);
+            entries.put(key, file.length());
+            size += file.length();
+        }
+        evict();
+        LOG.debug("Loaded {} OCR cache entries from {}.", entries.size(), dir);
+    }
+
+    private void deleteStaleTempFiles() {
+        long cutoff = System.currentTimeMillis() - TMP_MAX_AGE;
+        File[] files = dir.toFile().listFiles((d, name) ->
+                name.endsWith(TMP_EXTENSION));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.lastModified() < cutoff && !file.delete()) {
+                LOG.warn("Could not delete OCR cache temporary file: {}",
+                        file);
+            }
+        }
+    }
+
+    private Path file(String key) {
+        return dir.resolve(key + EXTENSION);
+    }
+}
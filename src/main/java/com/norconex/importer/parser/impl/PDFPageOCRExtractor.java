@@ -0,0 +1,208 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.tika.metadata.Metadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>
+ * Extracts text from PDF documents page by page, performing OCR only on
+ * pages having little or no extracted text (e.g. scanned pages).
+ * Such pages are rendered as images and handed to the OCR engine by
+ * multiple threads. Text is written in page order.
+ * </p>
+ * <p>
+ * Pages are rendered by the calling thread, since PDF documents cannot be
+ * shared between threads. To limit memory usage, only a few rendered
+ * pages per thread are kept waiting for OCR.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+class PDFPageOCRExtractor {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(PDFPageOCRExtractor.class);
+
+    private static final float RENDER_DPI = 300;
+    private static final int PENDING_PAGES_PER_THREAD = 2;
+
+    /**
+     * Performs OCR on a rendered page.
+     */
+    @FunctionalInterface
+    interface PageOCR {
+        /**
+         * Extracts text from a page image.
+         * @param pageNumber page number (starting at 1)
+         * @param pngImage page image, in PNG format
+         * @return extracted text
+         * @throws IOException problem performing OCR
+         */
+        String ocr(int pageNumber, InputStream pngImage) throws IOException;
+    }
+
+    private final int pageTextThreshold;
+    private final int maxPending;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new extractor.
+     * @param pageTextThreshold pages with this many non-white space
+     *     characters or less are OCR'd
+     * @param threads number of threads performing OCR
+     */
+    PDFPageOCRExtractor(int pageTextThreshold, int threads) {
+        this.pageTextThreshold = pageTextThreshold;
+        int poolSize = Math.max(1, threads);
+        this.maxPending = poolSize * PENDING_PAGES_PER_THREAD;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(poolSize, r -> {
+            Thread t = new Thread(
+                    r, "importer-ocr-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Extracts text from the given PDF, performing OCR on pages with
+     * little or no text.
+     * @param file PDF file
+     * @param tempDir directory where PDFBox stores temporary data
+     * @param output where to write extracted text
+     * @param tikaMeta where to store PDF metadata
+     * @param pageOCR OCR engine
+     * @throws IOException problem extracting PDF text
+     */
+    void extract(Path file, Path tempDir, Writer output,
+            Metadata tikaMeta, PageOCR pageOCR) throws IOException {
+        try (PDDocument pdf = ParallelPDFExtractor.load(file, tempDir)) {
+            ParallelPDFExtractor.addPDFMetadata(
+                    pdf, pdf.getNumberOfPages(), tikaMeta);
+            extract(pdf, output, pageOCR);
+        }
+    }
+
+    private void extract(PDDocument pdf, Writer output, PageOCR pageOCR)
+            throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSuppressDuplicateOverlappingText(true);
+        PDFRenderer renderer = new PDFRenderer(pdf);
+
+        // Each entry is either extracted text or a pending OCR result.
+        List<Object> pages = new ArrayList<>();
+        LinkedList<Future<String>> pending = new LinkedList<>();
+        int ocrCount = 0;
+        try {
+            for (int i = 1; i <= pdf.getNumberOfPages(); i++) {
+                stripper.setStartPage(i);
+                stripper.setEndPage(i);
+                String text = stripper.getText(pdf);
+                if (StringUtils.deleteWhitespace(text).length()
+                        > pageTextThreshold) {
+                    pages.add(text);
+                    continue;
+                }
+                while (pending.size() >= maxPending) {
+                    waitFor(pending.removeFirst());
+                }
+                byte[] png = renderPage(renderer, i - 1);
+                int pageNumber = i;
+                Future<String> future = executor.submit(() -> {
+                    try {
+                        return pageOCR.ocr(
+                                pageNumber, new ByteArrayInputStream(png));
+                    } catch (IOException e) {
+                        LOG.warn("Could not perform OCR on PDF page {}. "
+                               + "Using extracted text instead.",
+                                pageNumber, e);
+                        return text;
+                    }
+                });
+                pages.add(future);
+                pending.add(future);
+                ocrCount++;
+            }
+            LOG.debug("Performing OCR on {} out of {} PDF pages.",
+                    ocrCount, pdf.getNumberOfPages());
+
+            for (Object page : pages) {
+                if (page instanceof Future) {
+                    @SuppressWarnings("unchecked")
+                    Future<String> future = (Future<String>) page;
+                    output.write(waitFor(future));
+                } else {
+                    output.write((String) page);
+                }
+            }
+        } finally {
+            for (Future<String> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private byte[] renderPage(PDFRenderer renderer, int pageIndex)
+            throws IOException {
+        BufferedImage image = renderer.renderImageWithDPI(
+                pageIndex, RENDER_DPI, ImageType.GRAY);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private String waitFor(Future<String> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(
+                    "Interrupted while performing OCR on PDF pages.", e);
+        } catch (ExecutionException e) {
+            throw new IOException(
+                    "Could not perform OCR on PDF page.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentInformation;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.PagedText;
+import org.apache.tika.metadata.TikaCoreProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.norconex.importer.parser.ParallelPDFConfig;
+
+/**
+ * Extracts text from PDF documents using multiple threads, each
+ * extracting a range of pages from its own instance of the document.
+ * Extracted text is written in page order.
+ * Documents are loaded from a file, with PDFBox scratch data kept in
+ * temporary files rather than in memory, so loading a document only
+ * to find out its page count is cheap, and memory usage does not grow
+ * with the number of threads.
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+class ParallelPDFExtractor {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ParallelPDFExtractor.class);
+
+    private final ParallelPDFConfig config;
+    private final ExecutorService executor;
+
+    ParallelPDFExtractor(ParallelPDFConfig config) {
+        this.config = config;
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(
+                Math.max(1, config.getThreads() - 1), r -> {
+            Thread t = new Thread(
+                    r, "importer-pdf-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Extracts text from the given PDF if it has enough pages.
+     * @param file PDF file
+     * @param tempDir directory where PDFBox stores temporary data
+     * @param output where to write extracted text
+     * @param tikaMeta where to store PDF metadata
+     * @return <code>true</code> if the text was extracted,
+     *     <code>false</code> if the PDF does not qualify for parallel
+     *     extraction (nothing was written)
+     * @throws IOException problem extracting PDF text
+     */
+    boolean extract(Path file, Path tempDir, Writer output, Metadata tikaMeta)
+            throws IOException {
+        try (PDDocument pdf = load(file, tempDir)) {
+            if (pdf.isEncrypted()) {
+                return false;
+            }
+            int pageCount = pdf.getNumberOfPages();
+            if (pageCount < config.getMinPageCount()) {
+                return false;
+            }
+            addPDFMetadata(pdf, pageCount, tikaMeta);
+
+            // First range is extracted by the current thread, using the
+            // already loaded document, while others are extracted by
+            // pool threads, each loading their own copy.
+            int ranges = Math.min(config.getThreads(), pageCount);
+            int pagesPerRange = (pageCount + ranges - 1) / ranges;
+            List<Future<String>> futures = new ArrayList<>();
+            for (int start = pagesPerRange + 1;
+                    start <= pageCount; start += pagesPerRange) {
+                int from = start;
+                int to = Math.min(start + pagesPerRange - 1, pageCount);
+                futures.add(executor.submit(() -> {
+                    try (PDDocument copy = load(file, tempDir)) {
+                        return extractText(copy, from, to);
+                    }
+                }));
+            }
+            LOG.debug("Extracting {} PDF pages in {} ranges.",
+                    pageCount, futures.size() + 1);
+            try {
+                output.write(extractText(pdf, 1, pagesPerRange));
+                for (Future<String> future : futures) {
+                    output.write(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(
+                        "Interrupted while extracting PDF text.", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(
+                        "Could not extract PDF text.", e.getCause());
+            } finally {
+                for (Future<String> future : futures) {
+                    future.cancel(true);
+                }
+            }
+            return true;
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    static PDDocument load(Path file, Path tempDir) throws IOException {
+        return PDDocument.load(file.toFile(), MemoryUsageSetting
+                .setupTempFileOnly().setTempDir(tempDir.toFile()));
+    }
+
+    private String extractText(PDDocument pdf, int from, int to)
+            throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setSuppressDuplicateOverlappingText(true);
+        stripper.setStartPage(from);
+        stripper.setEndPage(to);
+        return stripper.getText(pdf);
+    }
+
+    // Adds standard PDF metadata, using Tika field names.
+    static void addPDFMetadata(
+            PDDocument pdf, int pageCount, Metadata tikaMeta) {
+        tikaMeta.set(PagedText.N_PAGES, pageCount);
+        PDDocumentInformation info = pdf.getDocumentInformation();
+        if (info == null) {
+            return;
+        }
+        setIfNotBlank(tikaMeta, TikaCoreProperties.TITLE.getName(),
+                info.getTitle());
+        setIfNotBlank(tikaMeta, TikaCoreProperties.CREATOR.getName(),
+                info.getAuthor());
+        setIfNotBlank(tikaMeta, TikaCoreProperties.CREATOR_TOOL.getName(),
+                info.getCreator());
+        if (info.getCreationDate() != null) {
+            tikaMeta.set(TikaCoreProperties.CREATED, info.getCreationDate());
+        }
+        if (info.getModificationDate() != null) {
+            tikaMeta.set(
+                    TikaCoreProperties.MODIFIED, info.getModificationDate());
+        }
+    }
+
+    private static void setIfNotBlank(
+            Metadata tikaMeta, String name, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            tikaMeta.set(name, value);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipFile;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.ProxyInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.norconex.importer.doc.IDocContentOpener;
+
+/**
+ * <p>
+ * Creates content openers re-opening entries of a ZIP container
+ * on demand, so split embedded documents do not have to be copied
+ * when extracted.  Entries are read directly from the container when it
+ * is a local file. Otherwise, the container is copied once to a temporary
+ * file, which is deleted once all openers are closed and this instance is
+ * released.
+ * </p>
+ * <p>
+ * The container central directory is read only once, when an entry is
+ * first opened, to find where each entry data starts. Entries are then
+ * read from that position, without parsing the container again.
+ * Entries that cannot be read this way (e.g., compression methods other
+ * than "stored" and "deflated") are read with a {@link ZipFile}.
+ * </p>
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+class ZipEntryOpeners {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(ZipEntryOpeners.class);
+
+    private static final Pattern ZIP_TYPES = Pattern.compile(
+            "application/(zip|x-zip-compressed|java-archive)");
+
+    private final Path file;
+    private final boolean temporary;
+    private Map<String, EntryData> entries;
+    private int references = 1;
+
+    /**
+     * Reads entries from the given ZIP container file, which is left
+     * untouched.
+     * @param container ZIP file
+     */
+    ZipEntryOpeners(Path container) {
+        this(container, false);
+    }
+    private ZipEntryOpeners(Path file, boolean temporary) {
+        this.file = file;
+        this.temporary = temporary;
+    }
+
+    /**
+     * Copies the ZIP container to a temporary file to read entries from.
+     * @param container ZIP content
+     * @param tempDir directory where to create the temporary file
+     * @return ZIP entry openers
+     * @throws IOException could not copy container
+     */
+    static ZipEntryOpeners copyOf(InputStream container, Path tempDir)
+            throws IOException {
+        Files.createDirectories(tempDir);
+        Path file = Files.createTempFile(tempDir, "importer-zip-", ".zip");
+        try {
+            Files.copy(container, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new ZipEntryOpeners(file, true);
+    }
+
+    static boolean isZipType(String contentType) {
+        return contentType != null
+                && ZIP_TYPES.matcher(contentType).matches();
+    }
+
+    /**
+     * Gets the ZIP container file (or its temporary copy).
+     * @return container file
+     */
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * Creates an opener for the given ZIP entry.
+     * @param entryName ZIP entry name
+     * @return content opener
+     */
+    synchronized IDocContentOpener opener(String entryName) {
+        references++;
+        return new IDocContentOpener() {
+            private boolean closed;
+            @Override
+            public InputStream open() throws IOException {
+                EntryData data = getEntries().get(entryName);
+                if (data == null) {
+                    return openWithZipFile(entryName);
+                }
+                return data.open(file);
+            }
+            @Override
+            public void close() throws IOException {
+                synchronized (ZipEntryOpeners.this) {
+                    if (!closed) {
+                        closed = true;
+                        release();
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Releases this instance reference. The temporary copy, if any,
+     * is deleted when no more openers are using it.
+     */
+    synchronized void release() {
+        references--;
+        if (references == 0) {
+            entries = null;
+            if (temporary) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOG.warn("Could not delete temporary ZIP file: {}",
+                            file, e);
+                }
+            }
+        }
+    }
+
+    // Entries readable from their data offset, by name.
+    private synchronized Map<String, EntryData> getEntries()
+            throws IOException {
+        if (entries == null) {
+            Map<String, EntryData> map = new HashMap<>();
+            try (ZipFile zip = new ZipFile(file.toFile())) {
+                Enumeration<ZipArchiveEntry> en = zip.getEntries();
+                while (en.hasMoreElements()) {
+                    ZipArchiveEntry entry = en.nextElement();
+                    if (EntryData.isSupported(zip, entry)) {
+                        map.put(entry.getName(), new EntryData(entry));
+                    }
+                }
+            }
+            entries = map;
+        }
+        return entries;
+    }
+
+    private InputStream openWithZipFile(String entryName) throws IOException {
+        ZipFile zip = new ZipFile(file.toFile());
+        ZipArchiveEntry entry = zip.getEntry(entryName);
+        if (entry == null || !zip.canReadEntryData(entry)) {
+            zip.close();
+            throw new IOException("Cannot read ZIP entry: " + entryName);
+        }
+        return new ProxyInputStream(zip.getInputStream(entry)) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    zip.close();
+                }
+            }
+        };
+    }
+
+    // Where an entry data is and how to read it.
+    private static final class EntryData {
+        private final long offset;
+        private final long compressedSize;
+        private final boolean deflated;
+        private EntryData(ZipArchiveEntry entry) {
+            this.offset = entry.getDataOffset();
+            this.compressedSize = entry.getCompressedSize();
+            this.deflated = entry.getMethod() == ZipEntry.DEFLATED;
+        }
+        private static boolean isSupported(
+                ZipFile zip, ZipArchiveEntry entry) {
+            int method = entry.getMethod();
+            return (method == ZipEntry.STORED || method == ZipEntry.DEFLATED)
+                    && entry.getDataOffset() >= 0
+                    && entry.getCompressedSize() >= 0
+                    && entry.isStreamContiguous()
+                    && zip.canReadEntryData(entry);
+        }
+        private InputStream open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file);
+            InputStream in;
+            try {
+                channel.position(offset);
+                in = new BoundedInputStream(
+                        Channels.newInputStream(channel), compressedSize);
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+            if (!deflated) {
+                return in;
+            }
+            // Like java.util.zip.ZipFile, a dummy byte is added at the end
+            // for the inflater to detect the end of raw deflate data.
+            Inflater inflater = new Inflater(true);
+            return new InflaterInputStream(new SequenceInputStream(
+                    in, new ByteArrayInputStream(new byte[1])),
+                            inflater, 8192) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        inflater.end();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,592 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl.html;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.commons.text.StringEscapeUtils;
+import org.apache.tika.utils.CharsetUtils;
+
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.parser.DocumentParserException;
+import com.norconex.importer.parser.IHintsAwareParser;
+import com.norconex.importer.parser.ParseHints;
+import com.norconex.importer.parser.ParseModeConfig;
+import com.norconex.importer.util.CharsetUtil;
+import com.norconex.importer.util.MetadataUtil;
+
+/**
+ * <p>
+ * Lightweight HTML parser extracting visible text and core metadata
+ * in a single pass, without building a DOM and without going through
+ * Tika content type detection.  It is meant as a faster alternative
+ * to the default (Tika-based) HTML parsing for large volumes of
+ * web pages.
+ * </p>
+ * <p>
+ * Extracted metadata matches the core metadata obtained with the
+ * default parser:
+ * </p>
+ * <ul>
+ *   <li><code>Content-Type</code> and <code>Content-Encoding</code>,
+ *       with the detected character encoding.</li>
+ *   <li><code>title</code> and <code>dc:title</code> from the first
+ *       <code>&lt;title&gt;</code> tag.</li>
+ *   <li>The <code>content</code> of <code>&lt;meta&gt;</code> tags, under
+ *       their <code>http-equiv</code>, <code>name</code>, or
+ *       <code>property</code> attribute value (in that order).</li>
+ *   <li><code>Content-Language</code> from the
+ *       <code>&lt;html&gt;</code> tag <code>lang</code> attribute.</li>
+ * </ul>
+ * <p>
+ * The character encoding is the one of the document info if set,
+ * else the one declared in the first 8KB of the document
+ * (<code>&lt;meta&gt;</code> tag), else it is detected.
+ * Text of <code>&lt;head&gt;</code>, <code>&lt;script&gt;</code>, and
+ * <code>&lt;style&gt;</code> tags is ignored. A line break is inserted
+ * after block elements. Embedded documents are not supported.
+ * </p>
+ * <p>
+ * Metadata-only and head-only parse modes are supported (see
+ * {@link ParseModeConfig}). Metadata-only parsing stops after the
+ * <code>&lt;head&gt;</code> section is read. A head not explicitly
+ * closed ends with the first element that can't be part of it.
+ * </p>
+ * <p>
+ * This parser is not used by default. To use it, register it for HTML
+ * content types with
+ * {@link com.norconex.importer.parser.GenericDocumentParserFactory#registerParser(com.norconex.commons.lang.file.ContentType, com.norconex.importer.parser.IDocumentParser)}
+ * or in your parser factory configuration.
+ * </p>
+ *
+ * {@nx.xml.usage
+ * <parsers>
+ *   <parser contentType="text/html"
+ *       class="com.norconex.importer.parser.impl.html.FastHTMLParser"/>
+ *   <parser contentType="application/xhtml+xml"
+ *       class="com.norconex.importer.parser.impl.html.FastHTMLParser"/>
+ * </parsers>
+ * }
+ *
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public class FastHTMLParser implements IHintsAwareParser {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CHARSET_LOOKUP_LENGTH = 8192;
+
+    private static final Pattern META_CHARSET = Pattern.compile(
+            "<meta\\s[^>]*?charset\\s*=\\s*[\"']?\\s*([\\w.:\\-]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    // Elements after which a line break is written, same as Tika.
+    private static final Set<String> BLOCK_ELEMENTS = new HashSet<>(
+            Arrays.asList("p", "h1", "h2", "h3", "h4", "h5", "h6", "div",
+                    "ul", "ol", "dl", "pre", "hr", "blockquote", "address",
+                    "fieldset", "table", "form", "noscript", "li", "dt", "dd",
+                    "noframes", "br", "tr", "select", "option"));
+    // Elements allowed in <head>. Any other element closes the head
+    // when not explicitly closed.
+    private static final Set<String> HEAD_ELEMENTS = new HashSet<>(
+            Arrays.asList("html", "head", "title", "meta", "link", "base",
+                    "basefont", "bgsound", "style", "script", "noscript",
+                    "template"));
+    // Elements which content is not parsed as markup.
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(
+            Arrays.asList("script", "style", "title", "textarea"));
+
+    private ParseHints parseHints = new ParseHints();
+
+    @Override
+    public void initialize(ParseHints parseHints) {
+        this.parseHints =
+                parseHints != null ? parseHints : new ParseHints();
+    }
+
+    @Override
+    public List<Doc> parseDocument(Doc doc, Writer output)
+            throws DocumentParserException {
+        String contentType = doc.getDocInfo().getContentType() != null
+                ? doc.getDocInfo().getContentType().toString() : "text/html";
+        ParseModeConfig modeConfig = parseHints.getParseModeConfig();
+        int maxLength = -1;
+        boolean metadataOnly = modeConfig.isMetadataOnly(contentType);
+        if (metadataOnly) {
+            maxLength = 0;
+        } else if (modeConfig.isHeadOnly(contentType)) {
+            maxLength = Math.max(0, modeConfig.getHeadOnlyMaxLength());
+        }
+
+        try {
+            CachedInputStream is = doc.getInputStream();
+            String charset = detectCharset(doc, is);
+            Reader reader = new InputStreamReader(is, Charset.forName(charset)
+                    .newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE));
+
+            Properties meta = doc.getMetadata();
+            MetadataUtil.addUnique(meta, "Content-Type",
+                    StringUtils.substringBefore(contentType, ";")
+                            + "; charset=" + charset);
+            MetadataUtil.addUnique(meta, "Content-Encoding", charset);
+            MetadataUtil.addUnique(
+                    meta, "X-Parsed-By", FastHTMLParser.class.getName());
+
+            new HTMLExtractor(reader, output, meta, maxLength, metadataOnly)
+                    .extract();
+            output.flush();
+        } catch (IOException | RuntimeException e) {
+            throw new DocumentParserException(
+                    "Could not parse " + doc.getReference(), e);
+        }
+        return null;
+    }
+
+    private String detectCharset(Doc doc, CachedInputStream is)
+            throws IOException {
+        String charset = doc.getDocInfo().getContentEncoding();
+        if (StringUtils.isBlank(charset)) {
+            charset = detectDeclaredCharset(is);
+        }
+        if (StringUtils.isBlank(charset)) {
+            charset = CharsetUtil.detectCharset(is);
+        }
+        if (StringUtils.isNotBlank(charset)) {
+            charset = CharsetUtils.clean(charset);
+        }
+        if (StringUtils.isBlank(charset) || !Charset.isSupported(charset)) {
+            charset = StandardCharsets.UTF_8.toString();
+        }
+        return charset;
+    }
+
+    // Looks for a <meta> charset declaration at the beginning of the
+    // document.
+    private String detectDeclaredCharset(CachedInputStream is)
+            throws IOException {
+        byte[] head = new byte[CHARSET_LOOKUP_LENGTH];
+        int length = 0;
+        try {
+            int read;
+            while (length < head.length && (read = is.read(
+                    head, length, head.length - length)) != -1) {
+                length += read;
+            }
+        } finally {
+            is.rewind();
+        }
+        Matcher m = META_CHARSET.matcher(
+                new String(head, 0, length, StandardCharsets.ISO_8859_1));
+        if (m.find()) {
+            return m.group(1);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+
+    /**
+     * Single-pass HTML tokenizer writing text as it reads it.
+     */
+    private static class HTMLExtractor {
+        private final Reader reader;
+        private final Writer output;
+        private final Properties meta;
+        private final boolean metadataOnly;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private int pos;
+        private int len;
+        private final StringBuilder text = new StringBuilder();
+        // -1 when unlimited
+        private int remaining;
+        private boolean done;
+        private boolean titleFound;
+        private boolean inHead;
+        private boolean headEnded;
+        private char lastChar;
+
+        HTMLExtractor(Reader reader, Writer output, Properties meta,
+                int maxLength, boolean metadataOnly) {
+            this.reader = reader;
+            this.output = output;
+            this.meta = meta;
+            this.remaining = maxLength;
+            this.metadataOnly = metadataOnly;
+        }
+
+        void extract() throws IOException {
+            int ch;
+            while (!done && (ch = read()) != -1) {
+                if (ch == '<') {
+                    readMarkup();
+                } else {
+                    text.append((char) ch);
+                    if (text.length() >= BUFFER_SIZE) {
+                        flushText(false);
+                    }
+                }
+            }
+            flushText(true);
+        }
+
+        private void readMarkup() throws IOException {
+            int ch = read();
+            if (ch == '!') {
+                ch = read();
+                if (ch == '-') {
+                    ch = read();
+                    if (ch == '-') {
+                        // "<!-->" and "<!--->" are empty comments
+                        skipPast("-->", "--");
+                        return;
+                    }
+                }
+                if (ch != '>') {
+                    skipPast(">", "");
+                }
+                return;
+            }
+            if (ch == '?') {
+                skipPast(">", "");
+                return;
+            }
+            boolean endTag = ch == '/';
+            if (endTag) {
+                ch = read();
+            }
+            if (!isLetter(ch)) {
+                if (endTag) {
+                    if (ch != '>') {
+                        skipPast(">", "");
+                    }
+                } else {
+                    // not a tag
+                    text.append('<');
+                    unread(ch);
+                }
+                return;
+            }
+
+            StringBuilder b = new StringBuilder();
+            while (ch != -1 && !isTagNameEnd(ch)) {
+                b.append(Character.toLowerCase((char) ch));
+                ch = read();
+            }
+            String name = b.toString();
+
+            if (endTag) {
+                if (ch != '>') {
+                    skipPast(">", "");
+                }
+                endElement(name);
+            } else {
+                boolean wantAttribs = "meta".equals(name) || "html".equals(name);
+                Map<String, String> attribs = readAttributes(ch, wantAttribs);
+                startElement(name, attribs);
+            }
+        }
+
+        private void startElement(String name, Map<String, String> attribs)
+                throws IOException {
+            if (!headEnded && !HEAD_ELEMENTS.contains(name)) {
+                endHead();
+            }
+            if ("head".equals(name)) {
+                flushText(false);
+                inHead = true;
+            } else if ("body".equals(name)) {
+                endHead();
+            } else if ("html".equals(name)) {
+                addMeta("Content-Language", attribs.get("lang"));
+            } else if ("meta".equals(name)) {
+                handleMeta(attribs);
+            } else if ("br".equals(name)) {
+                text.append('\n');
+            } else if (BLOCK_ELEMENTS.contains(name)) {
+                // for blocks not explicitly closed
+                breakWords();
+            } else if (RAW_TEXT_ELEMENTS.contains(name)) {
+                String raw = readRawText(name, !"script".equals(name)
+                        && !"style".equals(name));
+                if ("title".equals(name)) {
+                    if (!titleFound) {
+                        String title =
+                                StringEscapeUtils.unescapeHtml4(raw).trim();
+                        meta.set("title", title);
+                        meta.set("dc:title", title);
+                        titleFound = true;
+                    }
+                } else if ("textarea".equals(name)) {
+                    text.append(raw);
+                }
+            }
+        }
+
+        private void endElement(String name) throws IOException {
+            if ("head".equals(name)) {
+                endHead();
+            } else if (BLOCK_ELEMENTS.contains(name) && !"br".equals(name)) {
+                text.append('\n');
+            } else if ("td".equals(name) || "th".equals(name)) {
+                text.append('\t');
+            }
+        }
+
+        private void breakWords() {
+            char last = text.length() > 0
+                    ? text.charAt(text.length() - 1) : lastChar;
+            if (last != 0 && !Character.isWhitespace(last)) {
+                text.append('\n');
+            }
+        }
+
+        private void endHead() {
+            headEnded = true;
+            if (inHead) {
+                text.setLength(0);
+                inHead = false;
+            }
+            if (metadataOnly) {
+                done = true;
+            }
+        }
+
+        private void handleMeta(Map<String, String> attribs) {
+            String content = attribs.get("content");
+            if (content == null) {
+                return;
+            }
+            String name = attribs.get("http-equiv");
+            if (name == null) {
+                name = attribs.get("name");
+            }
+            if (name == null) {
+                name = attribs.get("property");
+            }
+            // Content type is the one resolved by the parser
+            if (name != null && !"content-type".equalsIgnoreCase(name)) {
+                addMeta(name, content);
+            }
+        }
+
+        private void addMeta(String name, String value) {
+            if (StringUtils.isNotBlank(name) && value != null) {
+                MetadataUtil.addUnique(
+                        meta, name, StringEscapeUtils.unescapeHtml4(value));
+            }
+        }
+
+        // Reads attributes up to the tag end, keeping them only if wanted.
+        private Map<String, String> readAttributes(
+                int firstChar, boolean keep) throws IOException {
+            Map<String, String> attribs = keep
+                    ? new HashMap<>() : null;
+            int ch = firstChar;
+            while (true) {
+                while (ch != -1 && (Character.isWhitespace(ch) || ch == '/')) {
+                    ch = read();
+                }
+                if (ch == -1 || ch == '>') {
+                    break;
+                }
+                StringBuilder name = new StringBuilder();
+                while (ch != -1 && ch != '=' && ch != '>'
+                        && !Character.isWhitespace(ch)) {
+                    name.append(Character.toLowerCase((char) ch));
+                    ch = read();
+                }
+                while (ch != -1 && Character.isWhitespace(ch)) {
+                    ch = read();
+                }
+                String value = "";
+                if (ch == '=') {
+                    ch = read();
+                    while (ch != -1 && Character.isWhitespace(ch)) {
+                        ch = read();
+                    }
+                    StringBuilder v = new StringBuilder();
+                    if (ch == '"' || ch == '\'') {
+                        int quote = ch;
+                        while ((ch = read()) != -1 && ch != quote) {
+                            v.append((char) ch);
+                        }
+                        ch = read();
+                    } else {
+                        while (ch != -1 && ch != '>'
+                                && !Character.isWhitespace(ch)) {
+                            v.append((char) ch);
+                            ch = read();
+                        }
+                    }
+                    value = v.toString();
+                }
+                if (keep) {
+                    attribs.putIfAbsent(name.toString(), value);
+                }
+            }
+            return keep ? attribs : Collections.emptyMap();
+        }
+
+        // Reads up to the matching end tag, returning what was read
+        // when kept.
+        private String readRawText(String name, boolean keep)
+                throws IOException {
+            StringBuilder raw = new StringBuilder();
+            String endTag = "</" + name;
+            int ch;
+            while ((ch = read()) != -1) {
+                raw.append((char) ch);
+                if (ch == '>' && endsWithEndTag(raw, endTag)) {
+                    int start = raw.lastIndexOf("<");
+                    raw.setLength(start);
+                    break;
+                }
+                if (!keep && raw.length() > BUFFER_SIZE) {
+                    // only keep a possible end tag start
+                    int start = raw.lastIndexOf("<");
+                    raw.delete(0, start == -1 ? raw.length() : start);
+                }
+            }
+            return keep ? raw.toString() : "";
+        }
+        private boolean endsWithEndTag(StringBuilder raw, String endTag) {
+            int start = raw.lastIndexOf("<");
+            if (start == -1 || raw.length() - start < endTag.length()) {
+                return false;
+            }
+            if (!raw.substring(start, start + endTag.length())
+                    .toLowerCase(Locale.ENGLISH).equals(endTag)) {
+                return false;
+            }
+            int after = start + endTag.length();
+            return after == raw.length() - 1
+                    || isTagNameEnd(raw.charAt(after));
+        }
+
+        private void skipPast(String end, String alreadyRead)
+                throws IOException {
+            StringBuilder window = new StringBuilder(alreadyRead);
+            int ch;
+            while ((ch = read()) != -1) {
+                window.append((char) ch);
+                if (window.length() > end.length()) {
+                    window.deleteCharAt(0);
+                }
+                if (window.length() == end.length()
+                        && end.contentEquals(window)) {
+                    return;
+                }
+            }
+        }
+
+        private void flushText(boolean last) throws IOException {
+            if (text.length() == 0 || inHead || metadataOnly) {
+                text.setLength(0);
+                return;
+            }
+            String str = text.toString();
+            text.setLength(0);
+            int amp = str.lastIndexOf('&');
+            // keep a possibly incomplete trailing entity for later
+            if (!last && amp != -1 && str.indexOf(';', amp) == -1
+                    && str.length() - amp < 12) {
+                text.append(str, amp, str.length());
+                str = str.substring(0, amp);
+            }
+            if (str.indexOf('&') != -1) {
+                str = StringEscapeUtils.unescapeHtml4(str);
+            }
+            write(str);
+        }
+
+        private void write(String str) throws IOException {
+            if (str.isEmpty()) {
+                return;
+            }
+            lastChar = str.charAt(str.length() - 1);
+            if (remaining == -1) {
+                output.write(str);
+            } else if (str.length() >= remaining) {
+                output.write(str, 0, remaining);
+                remaining = 0;
+                done = true;
+            } else {
+                output.write(str);
+                remaining -= str.length();
+            }
+        }
+
+        private int read() throws IOException {
+            while (pos == len) {
+                len = reader.read(buffer, 0, buffer.length);
+                pos = 0;
+                if (len == -1) {
+                    len = 0;
+                    return -1;
+                }
+            }
+            return buffer[pos++];
+        }
+        private void unread(int ch) {
+            if (ch != -1) {
+                pos--;
+            }
+        }
+
+        private static boolean isLetter(int ch) {
+            return (ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z');
+        }
+        private static boolean isTagNameEnd(int ch) {
+            return ch == '>' || ch == '/' || Character.isWhitespace(ch);
+        }
+    }
+}
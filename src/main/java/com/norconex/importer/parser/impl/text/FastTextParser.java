@@ -0,0 +1,223 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.parser.DocumentParserException;
+import com.norconex.importer.parser.IHintsAwareParser;
+import com.norconex.importer.parser.ParseHints;
+import com.norconex.importer.parser.ParseModeConfig;
+import com.norconex.importer.util.CharsetUtil;
+import com.norconex.importer.util.MetadataUtil;
+
+/**
+ * <p>
+ * Lightweight parser for text formats that only need their character
+ * encoding converted (e.g., plain text, CSV, JSON).  The character
+ * encoding is detected once (unless already known), and the content is
+ * then decoded as it is read and written as is, without going through
+ * Tika content type detection.  A leading byte order mark (BOM), if any,
+ * is removed.
+ * </p>
+ * <p>
+ * The following metadata is set, same as with the default (Tika-based)
+ * text parsing: <code>Content-Type</code> (with the detected charset)
+ * and <code>Content-Encoding</code>.
+ * </p>
+ * <p>
+ * Metadata-only and head-only parse modes are supported (see
+ * {@link ParseModeConfig}).  When metadata-only, the content is not read
+ * past character encoding detection.
+ * </p>
+ * <p>
+ * This parser is used by default for these content types:
+ * <code>text/plain</code>, <code>text/csv</code>,
+ * <code>text/tab-separated-values</code>, and <code>application/json</code>.
+ * </p>
+ *
+ * {@nx.xml.usage
+ * <parsers>
+ *   <parser contentType="text/plain"
+ *       class="com.norconex.importer.parser.impl.text.FastTextParser"/>
+ * </parsers>
+ * }
+ *
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public class FastTextParser implements IHintsAwareParser {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final char BOM = '\uFEFF';
+
+    private ParseHints parseHints = new ParseHints();
+
+    @Override
+    public void initialize(ParseHints parseHints) {
+        this.parseHints =
+                parseHints != null ? parseHints : new ParseHints();
+    }
+
+    @Override
+    public List<Doc> parseDocument(Doc doc, Writer output)
+            throws DocumentParserException {
+        String contentType = doc.getDocInfo().getContentType() != null
+                ? doc.getDocInfo().getContentType().toString() : "text/plain";
+        ParseModeConfig modeConfig = parseHints.getParseModeConfig();
+        try {
+            InputStream is = doc.getInputStream();
+            String charset = CharsetUtil.detectCharsetIfNotBlank(null, doc);
+            if (!isSupported(charset)) {
+                charset = StandardCharsets.UTF_8.toString();
+            }
+
+            Properties meta = doc.getMetadata();
+            MetadataUtil.addUnique(meta, "Content-Type",
+                    StringUtils.substringBefore(contentType, ";")
+                            + "; charset=" + charset);
+            MetadataUtil.addUnique(meta, "Content-Encoding", charset);
+            MetadataUtil.addUnique(
+                    meta, "X-Parsed-By", FastTextParser.class.getName());
+
+            if (modeConfig.isMetadataOnly(contentType)) {
+                return null;
+            }
+            int maxLength = -1;
+            if (modeConfig.isHeadOnly(contentType)) {
+                maxLength = Math.max(0, modeConfig.getHeadOnlyMaxLength());
+            }
+            transcode(is, Charset.forName(charset), output, maxLength);
+            output.flush();
+        } catch (IOException e) {
+            throw new DocumentParserException(
+                    "Could not parse " + doc.getReference(), e);
+        }
+        return null;
+    }
+
+    // Decodes input bytes and writes resulting characters, up to
+    // maxLength characters unless -1.
+    private void transcode(InputStream is, Charset charset, Writer output,
+            int maxLength) throws IOException {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+        CharSink sink = new CharSink(output, maxLength);
+        boolean eof = false;
+        while (!eof) {
+            int read = is.read(bytes, in.position(), in.remaining());
+            if (read == -1) {
+                eof = true;
+            } else {
+                in.position(in.position() + read);
+            }
+            in.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(in, out, eof);
+                if (!sink.drain(out)) {
+                    return;
+                }
+            } while (result.isOverflow());
+            // keep bytes of incomplete characters for next read
+            in.compact();
+        }
+        while (decoder.flush(out).isOverflow()) {
+            if (!sink.drain(out)) {
+                return;
+            }
+        }
+        sink.drain(out);
+    }
+
+    private static boolean isSupported(String charset) {
+        try {
+            return StringUtils.isNotBlank(charset)
+                    && Charset.isSupported(charset);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+
+    // Writes decoded characters, skipping a leading BOM.
+    private static class CharSink {
+        private final Writer output;
+        // -1 when unlimited
+        private int remaining;
+        private boolean started;
+        CharSink(Writer output, int maxLength) {
+            this.output = output;
+            this.remaining = maxLength;
+        }
+        // Returns false if no more characters can be written.
+        boolean drain(CharBuffer out) throws IOException {
+            out.flip();
+            if (!started && out.hasRemaining()) {
+                started = true;
+                if (out.get(out.position()) == BOM) {
+                    out.get();
+                }
+            }
+            int length = out.remaining();
+            if (remaining != -1 && length > remaining) {
+                length = remaining;
+            }
+            output.write(out.array(),
+                    out.arrayOffset() + out.position(), length);
+            out.clear();
+            if (remaining != -1) {
+                remaining -= length;
+                return remaining > 0;
+            }
+            return true;
+        }
+    }
+}
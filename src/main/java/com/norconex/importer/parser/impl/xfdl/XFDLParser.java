@@ -1,4 +1,4 @@
-/* Copyright 2015-2017 Norconex Inc.
+/* Copyright 2015-2020 Norconex Inc.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,23 +16,25 @@ package com.norconex.importer.parser.impl.xfdl;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.zip.GZIPInputStream;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
-import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.codec.binary.Base64InputStream;
+import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
@@ -40,12 +42,6 @@ import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.tika.parser.txt.CharsetDetector;
 import org.apache.tika.parser.txt.CharsetMatch;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
 
 import com.norconex.commons.lang.map.Properties;
 import com.norconex.importer.doc.Doc;
@@ -57,6 +53,8 @@ import com.norconex.importer.parser.IDocumentParser;
  * Parser for PureEdge Extensible Forms Description Language (XFDL).
  * This parser extracts any text found in the XFDL XML, whether that XML
  * is Base64 encoded or just plain XML (two possible format for XFDL).
+ * Since 3.0.0, XFDL is decoded and parsed as a stream, using
+ * constant memory regardless of document size.
  *
  * @author Pascal Essiembre
  * @since 2.1.0
@@ -66,6 +64,14 @@ public class XFDLParser implements IDocumentParser {
     private static final char[] MAGIC_BASE64 =
           "application/vnd.xfdl;content-encoding=\"base64-gzip\"".toCharArray();
 
+    private static final XMLInputFactory XML_FACTORY =
+            XMLInputFactory.newInstance();
+    static {
+        XML_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_FACTORY.setProperty(
+                XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
     @Override
     public List<Doc> parseDocument(Doc doc,
             Writer output) throws DocumentParserException {
@@ -84,7 +90,7 @@ public class XFDLParser implements IDocumentParser {
             BufferedReader reader = new BufferedReader(
                     new InputStreamReader(is, charset));
             parse(reader, output, doc.getMetadata());
-        } catch (IOException | ParserConfigurationException | SAXException e) {
+        } catch (IOException | XMLStreamException e) {
             throw new DocumentParserException(
                     "Could not parse " + doc.getReference(), e);
         }
@@ -93,7 +99,7 @@ public class XFDLParser implements IDocumentParser {
 
     private void parse(
             BufferedReader reader, Writer out, Properties metadata)
-            throws IOException, ParserConfigurationException, SAXException {
+            throws IOException, XMLStreamException {
         reader.mark(MAGIC_BASE64.length);
         char[] signature = new char[MAGIC_BASE64.length];
         int num = reader.read(signature);
@@ -102,57 +108,77 @@ public class XFDLParser implements IDocumentParser {
             return;
         }
 
-        //--- Create XML DOM ---
-        DocumentBuilder docBuilder =
-                DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        Document dom = null;
         if (Arrays.equals(signature, MAGIC_BASE64)) {
             // skip first line
             reader.readLine();
 
-            // un-encode first
-            byte[] compressedContent =
-                    Base64.decodeBase64(IOUtils.toString(reader));
-            // deal with compression
-            try (InputStream is = new GZIPInputStream(
-                    new ByteArrayInputStream(compressedContent))) {
-                dom = docBuilder.parse(is);
+            // un-encode and uncompress as we read
+            try (InputStream is = new GZIPInputStream(new Base64InputStream(
+                    new ReaderInputStream(reader, StandardCharsets.US_ASCII)))) {
+                XMLStreamReader xml = XML_FACTORY.createXMLStreamReader(is);
+                try {
+                    parseXML(xml, out, metadata);
+                } finally {
+                    xml.close();
+                }
             }
         } else {
-            dom = docBuilder.parse(new InputSource(reader));
-        }
-        parseXML(dom, out, metadata);
-    }
-
-    //TODO use a SAX parser instead for increased efficiency.
-    private void parseXML(Document doc, Writer out, Properties metadata)
-            throws IOException {
-
-        // Grab the title
-        NodeList xmlTitles = doc.getElementsByTagName("title");
-        if (xmlTitles != null && xmlTitles.getLength() > 0) {
-            Node titleItem = xmlTitles.item(0);
-            if (titleItem instanceof Element) {
-                metadata.add("title",
-                        ((Element) titleItem).getTextContent());
+            XMLStreamReader xml = XML_FACTORY.createXMLStreamReader(reader);
+            try {
+                parseXML(xml, out, metadata);
+            } finally {
+                xml.close();
             }
         }
+    }
 
+    // Extracts the first title, and "value" elements of "field" elements,
+    // writing text as it goes.
+    private void parseXML(XMLStreamReader xml, Writer out, Properties metadata)
+            throws IOException, XMLStreamException {
         boolean isEmpty = true;
-        NodeList xmlFields = doc.getElementsByTagName("field");
-        for (int i = 0; i < xmlFields.getLength(); i++) {
-            if (xmlFields.item(i) instanceof Element) {
-                NodeList children = xmlFields.item(i).getChildNodes();
-                for (int j = 0; j < children.getLength(); j++) {
-                    Node childItem = children.item(j);
-                    if (childItem instanceof Element) {
-                        Element tag = ((Element) childItem);
-                        String tagName = tag.getTagName();
-                        if ("value".equalsIgnoreCase(tagName)) {
-                            isEmpty = writeValue(
-                                    out, tag.getTextContent(), isEmpty);
-                        }
-                    }
+        boolean titleFound = false;
+        StringBuilder title = null;
+        int titleDepth = 0;
+        StringBuilder value = null;
+        int valueDepth = 0;
+        // Whether each currently opened element is a "field"
+        Deque<Boolean> fields = new ArrayDeque<>();
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                // Prefixed elements are ignored
+                String name = StringUtils.isEmpty(xml.getPrefix())
+                        ? xml.getLocalName() : null;
+                if (!titleFound && title == null && "title".equals(name)) {
+                    title = new StringBuilder();
+                    titleDepth = fields.size();
+                }
+                if (value == null && Boolean.TRUE.equals(fields.peek())
+                        && "value".equalsIgnoreCase(name)) {
+                    value = new StringBuilder();
+                    valueDepth = fields.size();
+                }
+                fields.push("field".equals(name));
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                fields.pop();
+                if (title != null && fields.size() == titleDepth) {
+                    metadata.add("title", title.toString());
+                    title = null;
+                    titleFound = true;
+                }
+                if (value != null && fields.size() == valueDepth) {
+                    isEmpty = writeValue(out, value.toString(), isEmpty);
+                    value = null;
+                }
+            } else if (event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE) {
+                if (title != null) {
+                    title.append(xml.getText());
+                }
+                if (value != null) {
+                    value.append(xml.getText());
                 }
             }
         }
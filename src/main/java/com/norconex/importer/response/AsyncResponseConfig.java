@@ -0,0 +1,151 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import org.apache.commons.lang3.builder.EqualsBuilder;
+import org.apache.commons.lang3.builder.HashCodeBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * <p>
+ * Configuration settings for processing importer responses asynchronously.
+ * When enabled, top-level responses are queued and handed to response
+ * processors by dedicated threads instead of the importing thread.
+ * </p>
+ * <p>
+ * Responses are grouped in batches of up to "batchSize" responses, waiting
+ * up to "batchMaxDelay" milliseconds for a batch to fill up.
+ * When the queue is full (reaching "queueSize"), importing threads block
+ * until there is room again.
+ * </p>
+ * <p>
+ * Processors take ownership of response documents, which are disposed
+ * once processed. Responses returned by the importer are then copies
+ * having the same metadata, but no content (content is never copied).
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ * @see IImporterBatchResponseProcessor
+ */
+public class AsyncResponseConfig {
+
+    public static final int DEFAULT_THREADS = 1;
+    public static final int DEFAULT_QUEUE_SIZE = 100;
+    public static final int DEFAULT_BATCH_SIZE = 1;
+    public static final long DEFAULT_BATCH_MAX_DELAY = 0;
+
+    private boolean enabled;
+    private int threads = DEFAULT_THREADS;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long batchMaxDelay = DEFAULT_BATCH_MAX_DELAY;
+
+    /**
+     * Gets whether response processing is asynchronous.
+     * Default is <code>false</code>.
+     * @return <code>true</code> if asynchronous
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+    /**
+     * Sets whether response processing is asynchronous.
+     * @param enabled <code>true</code> if asynchronous
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets the number of threads processing responses.
+     * @return number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+    /**
+     * Sets the number of threads processing responses.
+     * @param threads number of threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the maximum number of responses waiting to be processed
+     * before importing threads are blocked.
+     * @return queue size
+     */
+    public int getQueueSize() {
+        return queueSize;
+    }
+    /**
+     * Sets the maximum number of responses waiting to be processed
+     * before importing threads are blocked.
+     * @param queueSize queue size
+     */
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Gets the maximum number of responses sent together to
+     * response processors.
+     * @return batch size
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+    /**
+     * Sets the maximum number of responses sent together to
+     * response processors.
+     * @param batchSize batch size
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Gets the maximum number of milliseconds to wait for a batch
+     * to fill up before it is processed anyway.
+     * @return maximum delay in milliseconds
+     */
+    public long getBatchMaxDelay() {
+        return batchMaxDelay;
+    }
+    /**
+     * Sets the maximum number of milliseconds to wait for a batch
+     * to fill up before it is processed anyway.
+     * @param batchMaxDelay maximum delay in milliseconds
+     */
+    public void setBatchMaxDelay(long batchMaxDelay) {
+        this.batchMaxDelay = batchMaxDelay;
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return EqualsBuilder.reflectionEquals(this, other);
+    }
+    @Override
+    public int hashCode() {
+        return HashCodeBuilder.reflectionHashCode(this);
+    }
+    @Override
+    public String toString() {
+        return new ReflectionToStringBuilder(
+                this, ToStringStyle.SHORT_PREFIX_STYLE).toString();
+    }
+}
@@ -0,0 +1,226 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.norconex.importer.ImporterRuntimeException;
+import com.norconex.importer.doc.Doc;
+
+/**
+ * <p>
+ * Hands importer responses to response processors asynchronously,
+ * according to an {@link AsyncResponseConfig}.  Submitted responses
+ * are queued and processed in batches by dedicated threads.
+ * Processors implementing {@link IImporterBatchResponseProcessor}
+ * receive each batch in a single call, while others receive batch
+ * responses one by one.
+ * </p>
+ * <p>
+ * Submitting a response blocks when the queue is full, slowing down
+ * importing threads to the pace of response processors.
+ * Invoke {@link #shutdown()} to process remaining responses and release
+ * threads.
+ * </p>
+ * <p>
+ * Submitted responses are owned by this dispatcher: their documents
+ * (including nested ones) are disposed once all processors are done
+ * with them. The {@link com.norconex.importer.Importer} submits the
+ * responses it created and returns copies without content to its callers,
+ * so processors and importer callers never share content streams.
+ * Processors must not keep references to response content beyond
+ * processing.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public class AsyncResponseDispatcher {
+
+    private static final Logger LOG =
+            LoggerFactory.getLogger(AsyncResponseDispatcher.class);
+
+    private static final long POLL_INTERVAL = 100;
+
+    private final List<IImporterResponseProcessor> processors;
+    private final BlockingQueue<ImporterResponse> queue;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final long batchMaxDelay;
+    private volatile boolean stopping;
+
+    /**
+     * Creates and starts a new dispatcher.
+     * @param config asynchronous processing configuration
+     * @param processors response processors
+     */
+    public AsyncResponseDispatcher(AsyncResponseConfig config,
+            List<IImporterResponseProcessor> processors) {
+        Objects.requireNonNull(config, "'config' must not be null.");
+        this.processors = Collections.unmodifiableList(
+                new ArrayList<>(Objects.requireNonNull(
+                        processors, "'processors' must not be null.")));
+        this.queue = new ArrayBlockingQueue<>(
+                Math.max(1, config.getQueueSize()));
+        this.batchSize = Math.max(1, config.getBatchSize());
+        this.batchMaxDelay = Math.max(0, config.getBatchMaxDelay());
+
+        int threads = Math.max(1, config.getThreads());
+        AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(
+                    r, "importer-response-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::consume);
+        }
+    }
+
+    /**
+     * Queues a response for processing, waiting for room in the queue
+     * if necessary.
+     * @param response importer response
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void submit(ImporterResponse response) throws InterruptedException {
+        if (stopping) {
+            throw new ImporterRuntimeException(
+                    "Asynchronous response processing was shut down.");
+        }
+        queue.put(response);
+    }
+
+    /**
+     * Processes all queued responses and stops processing threads.
+     * This method blocks until all queued responses are processed.
+     */
+    public void shutdown() {
+        stopping = true;
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOG.info("Waiting for {} queued importer responses to be "
+                        + "processed...", queue.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.warn("Interrupted while waiting for importer responses "
+                    + "to be processed. {} responses were not processed.",
+                    queue.size());
+            executor.shutdownNow();
+        }
+    }
+
+    private void consume() {
+        List<ImporterResponse> batch = new ArrayList<>(batchSize);
+        try {
+            while (true) {
+                ImporterResponse first =
+                        queue.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (stopping && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                fillBatch(batch);
+                dispatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!batch.isEmpty()) {
+                dispatch(batch);
+            }
+        }
+    }
+
+    private void fillBatch(List<ImporterResponse> batch)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + batchMaxDelay;
+        while (batch.size() < batchSize) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0 || stopping) {
+                queue.drainTo(batch, batchSize - batch.size());
+                return;
+            }
+            ImporterResponse next =
+                    queue.poll(remaining, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void dispatch(List<ImporterResponse> batch) {
+        List<ImporterResponse> responses =
+                Collections.unmodifiableList(new ArrayList<>(batch));
+        for (IImporterResponseProcessor proc : processors) {
+            if (proc instanceof IImporterBatchResponseProcessor) {
+                try {
+                    ((IImporterBatchResponseProcessor) proc)
+                            .processImporterResponses(responses);
+                } catch (RuntimeException e) {
+                    LOG.error("Response processor {} failed to process {} "
+                            + "response(s).", proc, responses.size(), e);
+                }
+                continue;
+            }
+            for (ImporterResponse response : responses) {
+                try {
+                    proc.processImporterResponse(response);
+                } catch (RuntimeException e) {
+                    LOG.error("Response processor {} failed to process "
+                            + "response: {}", proc,
+                            response.getReference(), e);
+                }
+            }
+        }
+        for (ImporterResponse response : responses) {
+            dispose(response);
+        }
+    }
+
+    private void dispose(ImporterResponse response) {
+        Doc doc = response.getDocument();
+        if (doc != null) {
+            try {
+                doc.dispose();
+            } catch (IOException e) {
+                LOG.warn("Could not dispose of document: {}",
+                        response.getReference(), e);
+            }
+        }
+        for (ImporterResponse nested : response.getNestedResponses()) {
+            dispose(nested);
+        }
+    }
+}
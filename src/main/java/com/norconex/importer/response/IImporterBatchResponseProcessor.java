@@ -0,0 +1,36 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import java.util.List;
+
+/**
+ * A response processor able to process several importer responses at once.
+ * When asynchronous response processing is enabled
+ * (see {@link AsyncResponseConfig}), responses are grouped in batches
+ * and handed to implementors of this interface in a single call.
+ * Regular (non-batch) processors receive responses one at a time.
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public interface IImporterBatchResponseProcessor
+        extends IImporterResponseProcessor {
+
+    /**
+     * Processes a batch of top-level importer responses.
+     * @param responses importer responses (never empty)
+     */
+    void processImporterResponses(List<ImporterResponse> responses);
+}
@@ -0,0 +1,38 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+/**
+ * Receives importer responses one at a time, depth-first, when importing
+ * documents in streaming mode.  A response document is disposed as soon as
+ * this visitor returns, so any content needed afterwards
+ * must be consumed or copied before returning.
+ * While being visited, a nested response is attached to its parent
+ * response (see {@link ImporterResponse#getParentResponse()}), but
+ * that parent no longer holds any content.
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ * @see com.norconex.importer.Importer#importDocument(
+ *          com.norconex.importer.ImporterRequest, IImporterResponseVisitor)
+ */
+@FunctionalInterface
+public interface IImporterResponseVisitor {
+
+    /**
+     * Visits an importer response.
+     * @param response importer response
+     */
+    void visit(ImporterResponse response);
+}
@@ -0,0 +1,258 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.io.CachedOutputStream;
+import com.norconex.commons.lang.io.CachedStreamFactory;
+import com.norconex.commons.lang.io.IOUtil;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.response.ImporterStatus.Status;
+
+/**
+ * <p>
+ * Reads {@link ImporterResponse} trees previously written with
+ * {@link ImporterResponseWriter}.  Responses are returned one at a time,
+ * in the order they were written, each with its nested responses.
+ * Document content is cached using the supplied
+ * {@link CachedStreamFactory}.
+ * </p>
+ * <p>
+ * Since rejection filters and exceptions are not serialized, statuses
+ * read back only hold their {@link Status} and description.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ * @see ImporterResponseWriter
+ */
+public class ImporterResponseReader implements Closeable {
+
+    private static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+    private static final Status[] STATUSES = Status.values();
+
+    private final DataInputStream in;
+    private final CachedStreamFactory streamFactory;
+    private final byte[] buffer = new byte[64 * 1024];
+    private boolean headerRead;
+    private boolean endReached;
+
+    /**
+     * Creates a new reader caching content with default cache settings.
+     * @param in the input stream to read from
+     */
+    public ImporterResponseReader(InputStream in) {
+        this(in, null);
+    }
+    /**
+     * Creates a new reader.
+     * @param in the input stream to read from
+     * @param streamFactory factory used to cache document content
+     *     (default cache settings are used when <code>null</code>)
+     */
+    public ImporterResponseReader(
+            InputStream in, CachedStreamFactory streamFactory) {
+        Objects.requireNonNull(in, "'in' must not be null.");
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (streamFactory != null) {
+            this.streamFactory = streamFactory;
+        } else {
+            this.streamFactory = new CachedStreamFactory();
+        }
+    }
+
+    /**
+     * Reads the next response, with its nested responses.
+     * @return importer response or <code>null</code> if there are no
+     *     more responses to read
+     * @throws IOException problem reading the stream or invalid format
+     */
+    public ImporterResponse read() throws IOException {
+        if (endReached) {
+            return null;
+        }
+        readHeaderIfNeeded();
+        int marker = in.read();
+        if (marker == ImporterResponseWriter.RECORD_END || marker == -1) {
+            endReached = true;
+            return null;
+        }
+        if (marker != ImporterResponseWriter.RECORD_RESPONSE) {
+            throw new IOException("Invalid importer response record marker: "
+                    + marker);
+        }
+        return readResponse();
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private ImporterResponse readResponse() throws IOException {
+        String reference = readString();
+        int statusOrdinal = in.readUnsignedByte();
+        if (statusOrdinal >= STATUSES.length) {
+            throw new IOException("Invalid importer status: " + statusOrdinal);
+        }
+        Status status = STATUSES[statusOrdinal];
+        String description = readString();
+
+        ImporterResponse response;
+        if (in.readUnsignedByte() == 1) {
+            DocInfo info = readDocInfo();
+            Properties meta = readMetadata();
+            CachedInputStream content = readContent();
+            response = new ImporterResponse(new Doc(info, content, meta));
+            if (status != Status.SUCCESS) {
+                response.setImporterStatus(
+                        new ImporterStatus(status, description));
+            }
+        } else {
+            ImporterStatus importerStatus;
+            if (status == Status.SUCCESS) {
+                importerStatus = new ImporterStatus();
+            } else {
+                importerStatus = new ImporterStatus(status, description);
+            }
+            response = new ImporterResponse(reference, importerStatus);
+        }
+
+        int nestedCount = readCount();
+        for (int i = 0; i < nestedCount; i++) {
+            response.addNestedResponse(readResponse());
+        }
+        return response;
+    }
+
+    private DocInfo readDocInfo() throws IOException {
+        DocInfo info = new DocInfo(readString());
+        String ct = readString();
+        if (ct != null) {
+            info.setContentType(ContentType.valueOf(ct));
+        }
+        info.setContentEncoding(readString());
+        int parentCount = readCount();
+        List<String> parentRefs = new ArrayList<>(parentCount);
+        for (int i = 0; i < parentCount; i++) {
+            parentRefs.add(readString());
+        }
+        info.setEmbeddedParentReferences(parentRefs);
+        return info;
+    }
+
+    private Properties readMetadata() throws IOException {
+        Properties meta = new Properties();
+        int fieldCount = readCount();
+        for (int i = 0; i < fieldCount; i++) {
+            String field = readString();
+            int valueCount = readCount();
+            List<String> values = new ArrayList<>(valueCount);
+            for (int j = 0; j < valueCount; j++) {
+                values.add(readString());
+            }
+            meta.setList(field, values);
+        }
+        return meta;
+    }
+
+    private CachedInputStream readContent() throws IOException {
+        CachedOutputStream out = streamFactory.newOuputStream();
+        try {
+            int length;
+            while ((length = in.readInt()) != 0) {
+                if (length < 0 || length > MAX_CHUNK_SIZE) {
+                    throw new IOException(
+                            "Invalid content chunk length: " + length);
+                }
+                int remaining = length;
+                while (remaining > 0) {
+                    int read = in.read(
+                            buffer, 0, Math.min(remaining, buffer.length));
+                    if (read == -1) {
+                        throw new EOFException(
+                                "Unexpected end of document content.");
+                    }
+                    out.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+            return out.getInputStream();
+        } finally {
+            IOUtil.closeQuietly(out);
+        }
+    }
+
+    private String readString() throws IOException {
+        int length = in.readInt();
+        if (length == -1) {
+            return null;
+        }
+        if (length < -1) {
+            throw new IOException("Invalid string length: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readCount() throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid element count: " + count);
+        }
+        return count;
+    }
+
+    private void readHeaderIfNeeded() throws IOException {
+        if (headerRead) {
+            return;
+        }
+        byte[] magic = new byte[ImporterResponseWriter.MAGIC.length()];
+        try {
+            in.readFully(magic);
+        } catch (EOFException e) {
+            throw new IOException("Not an importer response stream "
+                    + "(missing header).", e);
+        }
+        if (!ImporterResponseWriter.MAGIC.equals(
+                new String(magic, StandardCharsets.US_ASCII))) {
+            throw new IOException("Not an importer response stream "
+                    + "(invalid header).");
+        }
+        int version = in.readUnsignedByte();
+        if (version > ImporterResponseWriter.FORMAT_VERSION) {
+            throw new IOException("Unsupported importer response format "
+                    + "version: " + version);
+        }
+        headerRead = true;
+    }
+}
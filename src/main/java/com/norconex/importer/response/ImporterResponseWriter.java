@@ -0,0 +1,237 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+
+/**
+ * <p>
+ * Writes {@link ImporterResponse} trees to an output stream using a
+ * compact, length-prefixed binary format.  Each response is written
+ * with its status, document details ({@link DocInfo}), metadata, content,
+ * and nested responses (recursively).  Multiple responses can be written
+ * one after the other to the same stream and read back in the same order
+ * with {@link ImporterResponseReader}.
+ * </p>
+ * <p>
+ * This is meant as a fast way to hand over importer results to another
+ * process, as opposed to writing one content file and one metadata file
+ * per document.
+ * </p>
+ *
+ * <h3>Format</h3>
+ * <p>
+ * The stream starts with a header made of the {@value #MAGIC} magic
+ * characters followed by a format version byte. Then each response
+ * is written as follows (strings are written as an <code>int</code>
+ * byte length followed by UTF-8 bytes, with a length of <code>-1</code>
+ * for <code>null</code>):
+ * </p>
+ * <pre>
+ * byte     record marker (1 = response, 0 = end of stream)
+ * string   reference
+ * byte     status (ordinal of {@link ImporterStatus.Status})
+ * string   status description
+ * byte     has document (1 or 0)
+ *   string   document reference
+ *   string   content type
+ *   string   content encoding
+ *   int      number of embedded parent references, followed by each
+ *   int      number of metadata fields, each followed by:
+ *     string   field name
+ *     int      number of values, followed by each
+ *   content  chunks of (int length, bytes), ending with a zero length
+ * int      number of nested responses, each written as above
+ *          (without record marker)
+ * </pre>
+ * <p>
+ * Writing content does not require knowing its length in advance, so
+ * document content is streamed as-is. Rejection filters and exceptions
+ * are not written, only the status and its description.
+ * </p>
+ * <p>
+ * This class is not thread-safe.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ * @see ImporterResponseReader
+ */
+public class ImporterResponseWriter implements Closeable, Flushable {
+
+    /** Magic characters found at the beginning of a serialized stream. */
+    public static final String MAGIC = "NXIR";
+    /** Current version of the binary format. */
+    public static final int FORMAT_VERSION = 1;
+
+    static final int RECORD_END = 0;
+    static final int RECORD_RESPONSE = 1;
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DataOutputStream out;
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private boolean headerWritten;
+    private boolean closed;
+
+    /**
+     * Creates a new writer.  The header is written on first write.
+     * @param out the output stream to write to
+     */
+    public ImporterResponseWriter(OutputStream out) {
+        Objects.requireNonNull(out, "'out' must not be null.");
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+    }
+
+    /**
+     * Writes a response and all its nested responses.
+     * @param response importer response
+     * @throws IOException problem writing the response
+     */
+    public void write(ImporterResponse response) throws IOException {
+        Objects.requireNonNull(response, "'response' must not be null.");
+        ensureOpen();
+        writeHeaderIfNeeded();
+        out.writeByte(RECORD_RESPONSE);
+        writeResponse(response);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Writes the end-of-stream marker and closes the underlying stream.
+     * @throws IOException problem closing the stream
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            writeHeaderIfNeeded();
+            out.writeByte(RECORD_END);
+            out.flush();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+
+    private void writeResponse(ImporterResponse response) throws IOException {
+        writeString(response.getReference());
+        ImporterStatus status = response.getImporterStatus();
+        if (status == null) {
+            status = new ImporterStatus();
+        }
+        out.writeByte(status.getStatus().ordinal());
+        writeString(status.getDescription());
+
+        Doc doc = response.getDocument();
+        if (doc == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(1);
+            writeDocInfo(doc.getDocInfo());
+            writeMetadata(doc.getMetadata());
+            writeContent(doc.getInputStream());
+        }
+
+        ImporterResponse[] nested = response.getNestedResponses();
+        out.writeInt(nested.length);
+        for (ImporterResponse nestedResponse : nested) {
+            writeResponse(nestedResponse);
+        }
+    }
+
+    private void writeDocInfo(DocInfo info) throws IOException {
+        writeString(info.getReference());
+        ContentType ct = info.getContentType();
+        writeString(ct != null ? ct.toString() : null);
+        writeString(info.getContentEncoding());
+        List<String> parentRefs = info.getEmbeddedParentReferences();
+        out.writeInt(parentRefs.size());
+        for (String ref : parentRefs) {
+            writeString(ref);
+        }
+    }
+
+    private void writeMetadata(Properties meta) throws IOException {
+        out.writeInt(meta.size());
+        for (Entry<String, List<String>> en : meta.entrySet()) {
+            writeString(en.getKey());
+            List<String> values = en.getValue();
+            if (values == null) {
+                out.writeInt(0);
+                continue;
+            }
+            out.writeInt(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+    }
+
+    private void writeContent(InputStream is) throws IOException {
+        int read;
+        while ((read = is.read(buffer)) != -1) {
+            if (read > 0) {
+                out.writeInt(read);
+                out.write(buffer, 0, read);
+            }
+        }
+        out.writeInt(0);
+    }
+
+    private void writeString(String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private void writeHeaderIfNeeded() throws IOException {
+        if (!headerWritten) {
+            out.write(MAGIC.getBytes(StandardCharsets.US_ASCII));
+            out.writeByte(FORMAT_VERSION);
+            headerWritten = true;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Importer response writer is closed.");
+        }
+    }
+}
@@ -0,0 +1,429 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQueries;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * <p>
+ * Registry of compiled date formatters, shared by date-related handlers.
+ * Formatters are immutable and thread-safe. They are created once per
+ * pattern and locale, and reused afterward.
+ * </p>
+ * <p>
+ * Patterns are the ones of {@link java.text.SimpleDateFormat}. Letters
+ * only defined by {@link DateTimeFormatter} can also be used (e.g., "Q"
+ * for the quarter of year). Letters with a different meaning in both
+ * keep the {@link java.text.SimpleDateFormat} one: "u" is the day number
+ * of week (1 = Monday), "F" is the day of week in month, and "S" is
+ * the number of milliseconds, not a fraction of second.
+ * Text (e.g., month names) is parsed without regard to case, and
+ * characters after the parsed date are ignored.
+ * </p>
+ * <p>
+ * Like {@link java.text.SimpleDateFormat}, parsing is lenient with numbers
+ * and text: numbers may have fewer or more digits than in the pattern
+ * (e.g., "yyyy-MM-dd" matches "2020-1-5") and month or day names may be
+ * short or full (e.g., "MMM" matches "Jan" and "January"). A two-digit
+ * year ("yy") is interpreted as being within 80 years before and 20 years
+ * after the time the formatter is created, while a year with a different
+ * number of digits is taken as is. Hours of AM/PM ("h" or "K") without an
+ * AM/PM marker ("a") are assumed to be AM. When a parsed date has
+ * no time zone, the system default time zone is used. When it has no time,
+ * midnight is assumed. The string "EPOCH" (or a blank pattern) stands for
+ * the number of milliseconds since midnight, January 1, 1970 UTC.
+ * The locale is US English when not specified.
+ * </p>
+ * <p>
+ * Parsing does not rely on exceptions to reject dates not matching
+ * a pattern, making it cheap to try several patterns in turn.
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public final class DateFormatRegistry {
+
+    /** Pattern representing milliseconds since the epoch. */
+    public static final String EPOCH = "EPOCH";
+
+    private static final Map<Locale, Map<String, DateTimeFormatter>>
+            FORMATTERS = new ConcurrentHashMap<>();
+
+    private DateFormatRegistry() {
+    }
+
+    /**
+     * Gets whether the given pattern is EPOCH (blank or "EPOCH",
+     * case insensitive).
+     * @param pattern date pattern
+     * @return <code>true</code> if EPOCH
+     */
+    public static boolean isEpochFormat(String pattern) {
+        return StringUtils.isBlank(pattern) || EPOCH.equalsIgnoreCase(pattern);
+    }
+
+    /**
+     * Gets the formatter for the given pattern and locale, creating it
+     * if it does not exist.
+     * @param pattern date pattern
+     * @param locale locale (US English if <code>null</code>)
+     * @return formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static DateTimeFormatter getFormatter(
+            String pattern, Locale locale) {
+        Locale safeLocale = locale == null ? Locale.US : locale;
+        Map<String, DateTimeFormatter> formatters = FORMATTERS.get(safeLocale);
+        if (formatters == null) {
+            formatters = FORMATTERS.computeIfAbsent(
+                    safeLocale, l -> new ConcurrentHashMap<>());
+        }
+        DateTimeFormatter formatter = formatters.get(pattern);
+        if (formatter == null) {
+            formatter = formatters.computeIfAbsent(
+                    pattern, p -> createFormatter(p, safeLocale));
+        }
+        return formatter;
+    }
+
+    private static DateTimeFormatter createFormatter(
+            String pattern, Locale locale) {
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder()
+                .parseCaseInsensitive()
+                .parseLenient();
+        boolean hasAmPmHour = false;
+        boolean hasAmPm = false;
+        int i = 0;
+        while (i < pattern.length()) {
+            int end = patternTokenEnd(pattern, i);
+            String token = pattern.substring(i, end);
+            char ch = token.charAt(0);
+            int count = end - i;
+            if ("yy".equals(token)) {
+                // same sliding century as SimpleDateFormat
+                builder.appendValueReduced(ChronoField.YEAR_OF_ERA, 2, 2,
+                        LocalDate.now().minusYears(80));
+            } else if (ch == 'S') {
+                appendNumber(builder, ChronoField.MILLI_OF_SECOND, count, 3);
+            } else if (ch == 'u') {
+                appendNumber(builder, ChronoField.DAY_OF_WEEK, count, 1);
+            } else if (ch == 'F') {
+                // day of week in month is the aligned week of month
+                appendNumber(
+                        builder, ChronoField.ALIGNED_WEEK_OF_MONTH, count, 1);
+            } else {
+                builder.appendPattern(token);
+            }
+            hasAmPmHour |= ch == 'h' || ch == 'K';
+            hasAmPm |= ch == 'a';
+            i = end;
+        }
+        if (hasAmPmHour && !hasAmPm) {
+            builder.parseDefaulting(ChronoField.AMPM_OF_DAY, 0);
+        }
+        return builder.toFormatter(locale);
+    }
+
+    // Numbers are padded with zeros to the number of pattern letters,
+    // like SimpleDateFormat.
+    private static void appendNumber(DateTimeFormatterBuilder builder,
+            ChronoField field, int letterCount, int maxDigits) {
+        int width = Math.min(letterCount, 19);
+        builder.appendValue(field, width,
+                Math.max(width, maxDigits), SignStyle.NOT_NEGATIVE);
+    }
+
+    // A token is a quoted literal, a run of the same letter (with pad
+    // letters kept with what they pad), or any other single character.
+    private static int patternTokenEnd(String pattern, int start) {
+        int len = pattern.length();
+        char ch = pattern.charAt(start);
+        int i = start + 1;
+        if (ch == '\'') {
+            while (i < len) {
+                if (pattern.charAt(i++) == '\'') {
+                    if (i < len && pattern.charAt(i) == '\'') {
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+            }
+        } else if ((ch >= 'A' && ch <= 'Z') || (ch >= 'a' && ch <= 'z')) {
+            while (i < len && pattern.charAt(i) == ch) {
+                i++;
+            }
+            if (ch == 'p' && i < len) {
+                i = patternTokenEnd(pattern, i);
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Parses a date string to milliseconds since the epoch.
+     * @param date the date to parse
+     * @param pattern date pattern
+     * @param locale locale (US English if <code>null</code>)
+     * @return milliseconds since the epoch, or <code>null</code> if the
+     *     date could not be parsed
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static Long parse(String date, String pattern, Locale locale) {
+        if (StringUtils.isBlank(date)) {
+            return null;
+        }
+        if (isEpochFormat(pattern)) {
+            return parseEpoch(date);
+        }
+        DateTimeFormatter formatter = getFormatter(pattern, locale);
+        // check for a match first, which does not throw
+        ParsePosition pos = new ParsePosition(0);
+        if (formatter.parseUnresolved(date, pos) == null
+                || pos.getErrorIndex() >= 0) {
+            return null;
+        }
+        try {
+            return toEpochMillis(formatter.parse(date, new ParsePosition(0)));
+        } catch (DateTimeException e) {
+            // matching the pattern but with invalid values
+            return null;
+        }
+    }
+
+    /**
+     * Formats milliseconds since the epoch to a date string, in the system
+     * default time zone.
+     * @param epochMillis milliseconds since the epoch
+     * @param pattern date pattern
+     * @param locale locale (US English if <code>null</code>)
+     * @return formatted date
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public static String format(
+            long epochMillis, String pattern, Locale locale) {
+        if (isEpochFormat(pattern)) {
+            return Long.toString(epochMillis);
+        }
+        return getFormatter(pattern, locale).format(
+                Instant.ofEpochMilli(epochMillis).atZone(
+                        ZoneId.systemDefault()));
+    }
+
+    /**
+     * Recognizes a number of milliseconds since the epoch (an optional
+     * minus sign followed by digits only).
+     * @param date the date to parse
+     * @return milliseconds since the epoch, or <code>null</code> if
+     *     not an EPOCH date
+     */
+    public static Long parseEpoch(CharSequence date) {
+        if (date == null) {
+            return null;
+        }
+        int len = date.length();
+        int start = len > 0 && date.charAt(0) == '-' ? 1 : 0;
+        // 18 digits cannot overflow
+        if (len == start || len - start > 18) {
+            return null;
+        }
+        long value = 0;
+        for (int i = start; i < len; i++) {
+            char ch = date.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return null;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return start == 1 ? -value : value;
+    }
+
+    /**
+     * <p>
+     * Recognizes an ISO-8601 date, with optional time, fraction of seconds,
+     * and time zone offset. That is, one of:
+     * </p>
+     * <pre>
+     * yyyy-MM-dd
+     * yyyy-MM-ddTHH:mm[:ss[.S...]]
+     * yyyy-MM-ddTHH:mm[:ss[.S...]]Z
+     * yyyy-MM-ddTHH:mm[:ss[.S...]](+|-)HH[[:]mm]
+     * </pre>
+     * <p>
+     * Without an offset, the system default time zone is used.
+     * </p>
+     * @param date the date to parse
+     * @return milliseconds since the epoch, or <code>null</code> if
+     *     not an ISO-8601 date
+     */
+    public static Long parseISO(CharSequence date) {
+        if (date == null) {
+            return null;
+        }
+        int len = date.length();
+        if (len < 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 2);
+        int day = digits(date, 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1
+                || day > YearMonth.of(year, month).lengthOfMonth()) {
+            return null;
+        }
+
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int nano = 0;
+        int i = 10;
+        if (i < len) {
+            if (date.charAt(i) != 'T' || len < i + 6
+                    || date.charAt(i + 3) != ':') {
+                return null;
+            }
+            hour = digits(date, i + 1, 2);
+            minute = digits(date, i + 4, 2);
+            i += 6;
+            if (i < len && date.charAt(i) == ':') {
+                second = digits(date, i + 1, 2);
+                i += 3;
+                if (i < len && date.charAt(i) == '.') {
+                    int start = ++i;
+                    int fraction = 0;
+                    while (i < len && i - start < 9
+                            && Character.isDigit(date.charAt(i))) {
+                        fraction = fraction * 10 + (date.charAt(i) - '0');
+                        i++;
+                    }
+                    if (i == start) {
+                        return null;
+                    }
+                    for (int j = i - start; j < 9; j++) {
+                        fraction *= 10;
+                    }
+                    nano = fraction;
+                }
+            }
+            if (hour < 0 || hour > 23 || minute < 0 || minute > 59
+                    || second < 0 || second > 59) {
+                return null;
+            }
+        }
+
+        ZoneId zone = ZoneId.systemDefault();
+        if (i < len) {
+            char ch = date.charAt(i);
+            if (ch == 'Z' && i + 1 == len) {
+                zone = ZoneOffset.UTC;
+            } else if (ch == '+' || ch == '-') {
+                zone = parseOffset(date, i);
+                if (zone == null) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second, nano)
+                .atZone(zone).toInstant().toEpochMilli();
+    }
+
+    // (+|-)HH[[:]mm], until the end
+    private static ZoneOffset parseOffset(CharSequence date, int start) {
+        int len = date.length() - start;
+        int hours = digits(date, start + 1, 2);
+        int minutes = 0;
+        if (len == 6 && date.charAt(start + 3) == ':') {
+            minutes = digits(date, start + 4, 2);
+        } else if (len == 5) {
+            minutes = digits(date, start + 3, 2);
+        } else if (len != 3) {
+            return null;
+        }
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59
+                || (hours == 18 && minutes > 0)) {
+            return null;
+        }
+        int sign = date.charAt(start) == '-' ? -1 : 1;
+        return ZoneOffset.ofHoursMinutes(sign * hours, sign * minutes);
+    }
+
+    // Returns -1 if not all digits
+    private static int digits(CharSequence s, int start, int length) {
+        if (start + length > s.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            char ch = s.charAt(i);
+            if (ch < '0' || ch > '9') {
+                return -1;
+            }
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    // Missing date or time parts are set to their minimum value.
+    private static long toEpochMillis(TemporalAccessor t) {
+        if (t.isSupported(ChronoField.INSTANT_SECONDS)) {
+            long millis = t.getLong(ChronoField.INSTANT_SECONDS) * 1000;
+            if (t.isSupported(ChronoField.MILLI_OF_SECOND)) {
+                millis += t.get(ChronoField.MILLI_OF_SECOND);
+            }
+            return millis;
+        }
+        LocalDate date = t.query(TemporalQueries.localDate());
+        if (date == null) {
+            date = LocalDate.of(
+                    valueOrDefault(t, ChronoField.YEAR, 1970),
+                    valueOrDefault(t, ChronoField.MONTH_OF_YEAR, 1),
+                    valueOrDefault(t, ChronoField.DAY_OF_MONTH, 1));
+        }
+        LocalTime time = t.query(TemporalQueries.localTime());
+        if (time == null) {
+            time = LocalTime.MIDNIGHT;
+        }
+        ZoneId zone = t.query(TemporalQueries.zone());
+        if (zone == null) {
+            zone = ZoneId.systemDefault();
+        }
+        return date.atTime(time).atZone(zone).toInstant().toEpochMilli();
+    }
+    private static int valueOrDefault(
+            TemporalAccessor t, ChronoField field, int defaultValue) {
+        return t.isSupported(field) ? t.get(field) : defaultValue;
+    }
+}
@@ -14,19 +14,17 @@
  */
 package com.norconex.importer.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Locale;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Utility methods related to formatting.  Date formatting from string
  * uses the US English locale when the locale is not specified.
+ * As of 3.0.0, dates are parsed and formatted with formatters from
+ * {@link DateFormatRegistry}.
  * @author Pascal Essiembre
  * @since 2.2.0
  */
@@ -89,56 +87,25 @@ public final class FormatUtil {
         }
 
         //--- Parse from date ---
-        Locale sourceLocale = fromLocale;
-        if (sourceLocale == null) {
-            sourceLocale = Locale.US;
-        }
-        Date date;
-        if (isEpochFormat(fromFormat)) {
-            // From date format is EPOCH
-            long millis = NumberUtils.toLong(dateString, -1);
-            if (millis == -1) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Invalid date format" + formatFieldMsg(fieldName)
-                            + "The date is expected to be of EPOCH format: "
-                            + dateString);
-                }
-                return null;
-            }
-            date = new Date(millis);
-        } else {
-            // From date is custom format
-            try {
-                date = new SimpleDateFormat(
-                        fromFormat, sourceLocale).parse(dateString);
-            } catch (ParseException e) {
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug("Invalid date format"
-                            + formatFieldMsg(fieldName) + e.getMessage());
-                }
-                return null;
+        Long millis = DateFormatRegistry.parse(
+                dateString, fromFormat, fromLocale);
+        if (millis == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Invalid date format" + formatFieldMsg(fieldName)
+                        + "The date is expected to be of "
+                        + (isEpochFormat(fromFormat) ? "EPOCH" : fromFormat)
+                        + " format: " + dateString);
             }
+            return null;
         }
 
         //--- Format to date ---
-        Locale targetLocale = toLocale;
-        if (targetLocale == null) {
-            targetLocale = Locale.US;
-        }
-        String toDate;
-        if (isEpochFormat(toFormat)) {
-            // To date format is EPOCH
-            toDate = Long.toString(date.getTime());
-        } else {
-            toDate = new SimpleDateFormat(
-                    toFormat, targetLocale).format(date);
-        }
-        return toDate;
+        return DateFormatRegistry.format(millis, toFormat, toLocale);
     }
 
     // returns true if blank or "EPOCH" (case insensitive).
     private static boolean isEpochFormat(String format) {
-        return StringUtils.isBlank(format) || "EPOCH".equalsIgnoreCase(format);
+        return DateFormatRegistry.isEpochFormat(format);
     }
 
     private static String formatFieldMsg(String fieldName) {
@@ -0,0 +1,173 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.DocMetadata;
+
+/**
+ * <p>
+ * Metadata utility methods, mainly to reduce the memory held by
+ * document metadata.
+ * </p>
+ * <p>
+ * Field names are kept in a shared dictionary so documents having the
+ * same fields share the same name instances rather than each holding
+ * their own copies. The dictionary is bounded: once
+ * {@value #MAX_FIELD_NAMES} names are known, new names are no longer
+ * added to it (they are used as is).
+ * </p>
+ * @author Pascal Essiembre
+ * @since 3.0.0
+ */
+public final class MetadataUtil {
+
+    /** Maximum number of field names kept in the dictionary. */
+    public static final int MAX_FIELD_NAMES = 50000;
+
+    private static final ConcurrentMap<String, String> FIELD_NAMES =
+            new ConcurrentHashMap<>();
+    static {
+        // start with importer constants
+        for (Field f : DocMetadata.class.getFields()) {
+            if (Modifier.isStatic(f.getModifiers())
+                    && f.getType() == String.class) {
+                try {
+                    String name = (String) f.get(null);
+                    FIELD_NAMES.put(name, name);
+                } catch (IllegalAccessException e) {
+                    // skip it
+                }
+            }
+        }
+    }
+
+    private MetadataUtil() {
+    }
+
+    /**
+     * Gets the shared instance of a field name.
+     * @param name field name
+     * @return the shared field name instance, or the supplied name if
+     *     the dictionary is full
+     */
+    public static String internFieldName(String name) {
+        if (name == null) {
+            return null;
+        }
+        String shared = FIELD_NAMES.get(name);
+        if (shared != null) {
+            return shared;
+        }
+        if (FIELD_NAMES.size() >= MAX_FIELD_NAMES) {
+            return name;
+        }
+        shared = FIELD_NAMES.putIfAbsent(name, name);
+        return shared != null ? shared : name;
+    }
+
+    /**
+     * <p>
+     * Reduces the memory held by metadata, without changing its content.
+     * Field names are replaced with their shared instances
+     * (see {@link #internFieldName(String)}) and value lists are trimmed to
+     * their size.
+     * </p>
+     * <p>
+     * This is best invoked once a document metadata is no longer expected
+     * to change much, like after importing it.
+     * </p>
+     * @param metadata the metadata to compact
+     */
+    public static void compact(Properties metadata) {
+        if (metadata == null || metadata.isEmpty()) {
+            return;
+        }
+        for (Entry<String, List<String>> en :
+                new ArrayList<>(metadata.entrySet())) {
+            String name = en.getKey();
+            List<String> values = en.getValue();
+            if (values instanceof ArrayList) {
+                ((ArrayList<String>) values).trimToSize();
+            }
+            String sharedName = internFieldName(name);
+            // equal keys are not replaced by a put, so remove first
+            if (sharedName != name) {
+                metadata.remove(name);
+                metadata.put(sharedName, values);
+            }
+        }
+    }
+
+    /**
+     * Adds a value to a metadata field, unless the field already has
+     * the same value, ignoring case and white spaces (like Tika
+     * content type and encoding values are merged).
+     * @param metadata the metadata to add the value to
+     * @param name field name
+     * @param value the value to add (ignored if <code>null</code>)
+     */
+    public static void addUnique(
+            Properties metadata, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        for (String existing : metadata.getStrings(name)) {
+            if (equalsIgnoreCaseAndSpaces(existing, value)) {
+                return;
+            }
+        }
+        metadata.add(name, value);
+    }
+
+    /**
+     * Gets whether two strings are the same once white spaces are removed,
+     * ignoring case, without creating new strings.
+     * @param a a string
+     * @param b another string
+     * @return <code>true</code> if equal
+     */
+    public static boolean equalsIgnoreCaseAndSpaces(String a, String b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        int i = 0;
+        int j = 0;
+        while (true) {
+            while (i < a.length() && Character.isWhitespace(a.charAt(i))) {
+                i++;
+            }
+            while (j < b.length() && Character.isWhitespace(b.charAt(j))) {
+                j++;
+            }
+            if (i == a.length() || j == b.length()) {
+                return i == a.length() && j == b.length();
+            }
+            if (!a.regionMatches(true, i, b, j, 1)) {
+                return false;
+            }
+            i++;
+            j++;
+        }
+    }
+}
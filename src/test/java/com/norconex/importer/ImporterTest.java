@@ -20,13 +20,18 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Pattern;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.apache.tika.io.NullInputStream;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -37,10 +42,18 @@ import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.commons.lang.xml.XML;
 import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.IImporterHandler;
 import com.norconex.importer.handler.ImporterHandlerException;
+import com.norconex.importer.handler.filter.IDocumentFilter;
 import com.norconex.importer.handler.filter.OnMatch;
+import com.norconex.importer.handler.filter.impl.EmptyFilter;
+import com.norconex.importer.handler.filter.impl.ReferenceFilter;
 import com.norconex.importer.handler.filter.impl.TextFilter;
+import com.norconex.importer.handler.tagger.impl.ConstantTagger;
 import com.norconex.importer.handler.transformer.IDocumentTransformer;
+import com.norconex.importer.response.IImporterResponseProcessor;
 import com.norconex.importer.response.ImporterResponse;
 
 public class ImporterTest {
@@ -140,6 +153,125 @@ public class ImporterTest {
                         + "status description.");
     }
 
+    @Test
+    public void testMetadataOnlyFiltersFirst() {
+        ImporterConfig config = new ImporterConfig();
+        MutableInt contentFilterCalls = new MutableInt();
+        IDocumentFilter contentFilter = (doc, input, parseState) -> {
+            contentFilterCalls.increment();
+            return true;
+        };
+        ReferenceFilter refFilter = new ReferenceFilter(
+                TextMatcher.basic("rejectme"));
+        refFilter.setOnMatch(OnMatch.EXCLUDE);
+        ConstantTagger tagger = new ConstantTagger();
+        tagger.addConstant("tagged", "yes");
+        EmptyFilter fieldFilter = new EmptyFilter();
+        fieldFilter.setFieldMatcher(TextMatcher.basic("tagged"));
+        fieldFilter.setOnMatch(OnMatch.EXCLUDE);
+        List<IImporterHandler> handlers = Arrays.asList(
+                contentFilter, refFilter, tagger, fieldFilter);
+
+        // tagger is a barrier: only the reference filter gets moved
+        Assertions.assertEquals(
+                Arrays.asList(refFilter, contentFilter, tagger, fieldFilter),
+                Importer.hoistMetadataOnlyFilters(handlers));
+
+        config.setPreParseHandlers(handlers);
+        ImporterResponse response = new Importer(config).importDocument(
+                new ImporterRequest(new NullInputStream(0))
+                        .setContentType(ContentType.TEXT)
+                        .setReference("rejectme"));
+        Assertions.assertTrue(response.getImporterStatus().isRejected());
+        Assertions.assertSame(refFilter,
+                response.getImporterStatus().getRejectionFilter());
+        Assertions.assertEquals(0, contentFilterCalls.intValue());
+    }
+
+    @Test
+    public void testMetadataOnlyFilterKeepsContentUnloaded() {
+        ImporterConfig config = new ImporterConfig();
+        ReferenceFilter refFilter = new ReferenceFilter(
+                TextMatcher.basic("rejectme"));
+        refFilter.setOnMatch(OnMatch.EXCLUDE);
+        config.setPreParseHandlers(Arrays.asList(refFilter));
+        Importer importer = new Importer(config);
+
+        MutableInt opened = new MutableInt();
+        DocInfo info = new DocInfo("rejectme");
+        info.setContentType(ContentType.TEXT);
+        Doc doc = new Doc(info, () -> {
+            opened.increment();
+            return new NullInputStream(0);
+        }, importer.getStreamFactory(), null);
+
+        ImporterResponse response = importer.importDocument(doc);
+        Assertions.assertTrue(response.getImporterStatus().isRejected());
+        Assertions.assertFalse(doc.isContentLoaded());
+        Assertions.assertEquals(0, opened.intValue());
+    }
+
+    @Test
+    public void testAsyncResponseProcessorsOwnContent() throws IOException {
+        String text = StringUtils.repeat("Concurrent reads. ", 20000);
+        List<String> processed = new CopyOnWriteArrayList<>();
+        List<Doc> processedDocs = new CopyOnWriteArrayList<>();
+        IImporterResponseProcessor proc = response -> {
+            try {
+                processedDocs.add(response.getDocument());
+                processed.add(IOUtils.toString(
+                        response.getDocument().getInputStream(),
+                        StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return response.getImporterStatus();
+        };
+        ImporterConfig config = new ImporterConfig();
+        config.setResponseProcessors(Arrays.asList(proc));
+        config.getAsyncResponseConfig().setEnabled(true);
+        config.getAsyncResponseConfig().setThreads(2);
+        Importer importer = new Importer(config);
+
+        for (int i = 0; i < 20; i++) {
+            ImporterResponse response = importer.importDocument(
+                    new ImporterRequest(IOUtils.toInputStream(
+                            text, StandardCharsets.UTF_8))
+                            .setContentType(ContentType.TEXT)
+                            .setReference("doc" + i));
+            Doc doc = response.getDocument();
+            // metadata only, while processors read the content
+            Assertions.assertEquals("doc" + i, doc.getMetadata().getString(
+                    DocMetadata.REFERENCE));
+            Assertions.assertTrue(doc.getInputStream().isEmpty());
+            Assertions.assertFalse(processedDocs.contains(doc));
+            doc.dispose();
+        }
+        importer.shutdown();
+
+        Assertions.assertEquals(20, processed.size());
+        Assertions.assertTrue(processed.get(0).contains("Concurrent reads."));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(processed.get(0), processed.get(i));
+        }
+    }
+
+    @Test
+    public void testShutdownClosesHandlers() {
+        MutableInt closed = new MutableInt();
+        class ClosingTagger extends ConstantTagger implements AutoCloseable {
+            @Override
+            public void close() {
+                closed.increment();
+            }
+        }
+        ImporterConfig config = new ImporterConfig();
+        config.setPreParseHandlers(Arrays.asList(new ClosingTagger()));
+        config.setPostParseHandlers(Arrays.asList(new ClosingTagger()));
+        new Importer(config).shutdown();
+        Assertions.assertEquals(2, closed.intValue());
+    }
+
     private void writeToFile(Doc doc, File file)
             throws IOException {
         FileOutputStream out = new FileOutputStream(file);
@@ -0,0 +1,82 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Measures script evaluation throughput for an increasing number of
+ * threads. Not a unit test: run it manually, with the script engine
+ * name as an optional argument ("lua" by default).
+ * @author Pascal Essiembre
+ */
+public final class ScriptRunnerBenchmark {
+
+    private static final int EVALS_PER_THREAD = 5000;
+    private static final String LUA_SCRIPT =
+            "local s = content:gsub('a', 'b'); return s;";
+    private static final String JS_SCRIPT =
+            "content.replace(/a/g, 'b');";
+
+    private ScriptRunnerBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String engineName = args.length > 0 ? args[0] : ScriptRunner.LUA_ENGINE;
+        ScriptRunner<Object> runner = new ScriptRunner<>(engineName);
+        runner.setScript(ScriptRunner.LUA_ENGINE.equals(engineName)
+                ? LUA_SCRIPT : JS_SCRIPT);
+
+        // warm-up
+        run(runner, 1);
+        for (int threads : new int[] { 1, 2, 4, 8 }) {
+            long start = System.nanoTime();
+            run(runner, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d thread(s): %,.0f evals/sec%n",
+                    threads, threads * EVALS_PER_THREAD / seconds);
+        }
+    }
+
+    private static void run(ScriptRunner<Object> runner, int threads)
+            throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                tasks.add(() -> {
+                    Map<String, Object> vars = new HashMap<>();
+                    for (int j = 0; j < EVALS_PER_THREAD; j++) {
+                        vars.put("content", "a banana and an apple " + j);
+                        runner.eval(vars);
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> f : executor.invokeAll(tasks)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.io.InputStream;
 import java.util.List;
 
 import org.apache.commons.io.output.NullOutputStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -60,6 +61,32 @@ public class PDFPageSplitterTest {
         Assertions.assertEquals(3, getPageNo(pages.get(2)));
     }
 
+    @Test
+    public void testSplitPageRanges() throws Exception {
+        PDFPageSplitter s = new PDFPageSplitter();
+        s.setPagesPerDocument(2);
+        List<Doc> pages = split(s);
+
+        Assertions.assertEquals(2, pages.size(), "Invalid number of ranges.");
+        Assertions.assertEquals("n/a#1-2", pages.get(0).getReference());
+        Assertions.assertEquals(1, getPageNo(pages.get(0)));
+        Assertions.assertEquals(2, (int) pages.get(0).getMetadata().getInteger(
+                PDFPageSplitter.DOC_PDF_LAST_PAGE_NO));
+        Assertions.assertEquals("n/a#3", pages.get(1).getReference());
+        Assertions.assertEquals(3, getPageNo(pages.get(1)));
+        Assertions.assertEquals(3, (int) pages.get(1).getMetadata().getInteger(
+                PDFPageSplitter.DOC_PDF_TOTAL_PAGES));
+
+        try (PDDocument range = PDDocument.load(
+                pages.get(0).getInputStream())) {
+            Assertions.assertEquals(2, range.getNumberOfPages());
+        }
+        try (PDDocument range = PDDocument.load(
+                pages.get(1).getInputStream())) {
+            Assertions.assertEquals(1, range.getNumberOfPages());
+        }
+    }
+
     private int getPageNo(Doc doc) {
         return doc.getMetadata().getInteger(PDFPageSplitter.DOC_PDF_PAGE_NO);
     }
@@ -68,6 +95,7 @@ public class PDFPageSplitterTest {
         public void testWriteRead() {
         PDFPageSplitter splitter = new PDFPageSplitter();
         splitter.setReferencePagePrefix("#page");
+        splitter.setPagesPerDocument(10);
         XML.assertWriteRead(splitter, "handler");
     }
 
@@ -0,0 +1,60 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.splitter.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TranslationCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testLongTextNotCached() throws Exception {
+        TranslationCache cache = new TranslationCache(10, null);
+        String shortText = "short";
+        String longText = StringUtils.repeat(
+                'a', TranslationCache.MAX_TEXT_LENGTH + 1);
+        cache.put(shortText, "en", "fr", "court");
+        cache.put(longText, "en", "fr", "long");
+        Assertions.assertEquals("court", cache.get(shortText, "en", "fr"));
+        Assertions.assertNull(cache.get(longText, "en", "fr"));
+    }
+
+    @Test
+    public void testFileCompactedWhileAppending() throws Exception {
+        Path file = tempDir.resolve("translations.txt");
+        TranslationCache cache = new TranslationCache(5, file);
+        for (int i = 0; i < 100; i++) {
+            cache.put("text" + i, "en", "fr", "texte" + i);
+            Assertions.assertTrue(Files.readAllLines(file).size() <= 10);
+        }
+        cache.close();
+
+        // latest translations are loaded back
+        cache = new TranslationCache(5, file);
+        for (int i = 95; i < 100; i++) {
+            Assertions.assertEquals(
+                    "texte" + i, cache.get("text" + i, "en", "fr"));
+        }
+        cache.close();
+    }
+}
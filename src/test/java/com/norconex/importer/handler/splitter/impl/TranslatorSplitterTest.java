@@ -0,0 +1,198 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.splitter.impl;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.apache.tika.language.translate.Translator;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.parser.ParseState;
+
+public class TranslatorSplitterTest {
+
+    private static final AtomicInteger CALLS = new AtomicInteger();
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setup() {
+        CALLS.set(0);
+    }
+
+    @Test
+    public void testBatchedFields() throws Exception {
+        TranslatorSplitter splitter = newSplitter(UpperCaseTranslator.class);
+        Doc doc = translate(splitter);
+
+        // one call for single-line fields, one for the multi-line
+        // description, one for content
+        Assertions.assertEquals(3, CALLS.get());
+        Assertions.assertEquals(
+                "HELLO WORLD", TestUtil.getContentAsString(doc));
+        Assertions.assertEquals(
+                "MY TITLE", doc.getMetadata().getString("title"));
+        Assertions.assertEquals("MULTI\nLINE DESCRIPTION",
+                doc.getMetadata().getString("description"));
+        Assertions.assertEquals(Arrays.asList("ONE", "TWO"),
+                doc.getMetadata().getStrings("keywords"));
+    }
+
+    @Test
+    public void testMultiLineValues() throws Exception {
+        TranslatorSplitter splitter = newSplitter(UpperCaseTranslator.class);
+        splitter.setFieldsToTranslate("notes", "keywords");
+        Properties meta = new Properties();
+        meta.add("notes", "First line\r\nsecond line\n\nthird line ");
+        meta.add("keywords", " one", "two ");
+        Doc doc = translate(splitter, meta);
+        Assertions.assertEquals("FIRST LINE\r\nSECOND LINE\n\nTHIRD LINE ",
+                doc.getMetadata().getString("notes"));
+        Assertions.assertEquals(Arrays.asList(" ONE", "TWO "),
+                doc.getMetadata().getStrings("keywords"));
+
+        // cached as translated
+        int calls = CALLS.get();
+        doc = translate(splitter, meta);
+        Assertions.assertEquals(calls, CALLS.get());
+        Assertions.assertEquals("FIRST LINE\r\nSECOND LINE\n\nTHIRD LINE ",
+                doc.getMetadata().getString("notes"));
+    }
+
+    @Test
+    public void testBatchFallback() throws Exception {
+        TranslatorSplitter splitter =
+                newSplitter(MarkerDroppingTranslator.class);
+        Doc doc = translate(splitter);
+
+        // positions lost: each value translated on its own
+        Assertions.assertEquals(
+                "MY TITLE", doc.getMetadata().getString("title"));
+        Assertions.assertEquals(Arrays.asList("ONE", "TWO"),
+                doc.getMetadata().getStrings("keywords"));
+    }
+
+    @Test
+    public void testCache() throws Exception {
+        TranslatorSplitter splitter = newSplitter(UpperCaseTranslator.class);
+        translate(splitter);
+        int calls = CALLS.get();
+        Doc doc = translate(splitter);
+        Assertions.assertEquals(calls, CALLS.get());
+        Assertions.assertEquals(
+                "HELLO WORLD", TestUtil.getContentAsString(doc));
+        Assertions.assertEquals(
+                "MY TITLE", doc.getMetadata().getString("title"));
+    }
+
+    @Test
+    public void testCacheFile() throws Exception {
+        Path file = tempDir.resolve("translations.txt");
+        TranslatorSplitter splitter = newSplitter(UpperCaseTranslator.class);
+        splitter.setCacheFile(file);
+        translate(splitter);
+        int calls = CALLS.get();
+
+        // new instance, loading translations from file
+        splitter = newSplitter(UpperCaseTranslator.class);
+        splitter.setCacheFile(file);
+        Doc doc = translate(splitter);
+        Assertions.assertEquals(calls, CALLS.get());
+        Assertions.assertEquals("MULTI\nLINE DESCRIPTION",
+                doc.getMetadata().getString("description"));
+    }
+
+    @Test
+    public void testWriteRead() {
+        TranslatorSplitter splitter = new TranslatorSplitter();
+        splitter.setApi(TranslatorSplitter.API_GOOGLE);
+        splitter.setApiKey("abc");
+        splitter.setSourceLanguage("en");
+        splitter.setTargetLanguages("fr", "es");
+        splitter.setFieldsToTranslate("title", "description");
+        splitter.setCacheSize(500);
+        splitter.setCacheFile(tempDir.resolve("translations.txt"));
+        XML.assertWriteRead(splitter, "handler");
+    }
+
+    private TranslatorSplitter newSplitter(
+            Class<? extends Translator> translatorClass) {
+        TranslatorSplitter splitter = new TranslatorSplitter();
+        splitter.setApi(translatorClass.getName());
+        splitter.setSourceLanguage("en");
+        splitter.setTargetLanguages("fr");
+        splitter.setFieldsToTranslate("title", "description", "keywords");
+        return splitter;
+    }
+
+    private Doc translate(TranslatorSplitter splitter) throws Exception {
+        Properties meta = new Properties();
+        meta.add("title", "My title");
+        meta.add("description", "Multi\nline description");
+        meta.add("keywords", "one", "two");
+        return translate(splitter, meta);
+    }
+    private Doc translate(TranslatorSplitter splitter, Properties meta)
+            throws Exception {
+        InputStream input =
+                IOUtils.toInputStream("Hello world", StandardCharsets.UTF_8);
+        List<Doc> docs = splitter.splitApplicableDocument(
+                TestUtil.toHandlerDoc("n/a", input, meta),
+                input, new NullOutputStream(), ParseState.POST);
+        Assertions.assertEquals(1, docs.size());
+        return docs.get(0);
+    }
+
+    public static class UpperCaseTranslator implements Translator {
+        @Override
+        public String translate(
+                String text, String sourceLanguage, String targetLanguage) {
+            CALLS.incrementAndGet();
+            return text.toUpperCase();
+        }
+        @Override
+        public String translate(String text, String targetLanguage) {
+            return translate(text, null, targetLanguage);
+        }
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+    }
+
+    public static class MarkerDroppingTranslator extends UpperCaseTranslator {
+        @Override
+        public String translate(
+                String text, String sourceLanguage, String targetLanguage) {
+            return super.translate(text, sourceLanguage, targetLanguage)
+                    .replaceAll("\\[\\[\\d+\\]\\]", "");
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.norconex.importer.handler.tagger.impl;
 
+import java.util.Arrays;
 import java.util.Locale;
 
 import org.junit.jupiter.api.Assertions;
@@ -83,6 +84,28 @@ public class DateFormatTaggerTest {
 
     }
 
+    @Test
+    public void testMixedFromFormats() throws ImporterHandlerException {
+        Properties meta = new Properties();
+        meta.add("dates", "2001-10-10T11:32:21", "Wed, 10 Oct 2001 11:32:21",
+                "bad", "2001-10-10T11:32:21", "Wed, 10 Oct 2001 11:32:21");
+
+        DateFormatTagger tagger = new DateFormatTagger();
+        tagger.setFromField("dates");
+        tagger.setFromFormats(
+                "EEE, dd MMM yyyy HH:mm:ss", "yyyy-MM-dd'T'HH:mm:ss");
+        tagger.setToFormat("yyyy/MM/dd HH:mm");
+        for (int i = 0; i < 2; i++) {
+            Properties m = new Properties();
+            m.loadFromMap(meta);
+            TestUtil.tag(tagger, "n/a", m, ParseState.POST);
+            Assertions.assertEquals(Arrays.asList(
+                    "2001/10/10 11:32", "2001/10/10 11:32",
+                    "2001/10/10 11:32", "2001/10/10 11:32"),
+                    m.getStrings("dates"));
+        }
+    }
+
     @Test
     public void testDateFormat() throws ImporterHandlerException {
         Properties meta = new Properties();
@@ -0,0 +1,109 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.handler.tagger.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.parser.ParseState;
+
+public class FieldReportTaggerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testConcurrentReport() throws Exception {
+        Path file = tempDir.resolve("report.csv");
+        FieldReportTagger tagger = new FieldReportTagger();
+        tagger.setFile(file);
+        tagger.setMaxSamples(2);
+        tagger.setWithHeaders(true);
+        tagger.setWithOccurences(true);
+        tagger.setFlushDelay(60000);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 100; j++) {
+                    Properties meta = new Properties();
+                    meta.add("fieldA", "a" + j);
+                    meta.add("fieldB", "b", "b");
+                    TestUtil.tag(tagger, "n/a", meta, ParseState.POST);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // not written yet given the long delay
+        Assertions.assertFalse(Files.exists(file));
+        tagger.flush();
+
+        List<String> lines = Files.readAllLines(file);
+        Assertions.assertEquals(
+                "Field Name,Occurences,Sample Value 1,Sample Value 2",
+                lines.get(0));
+        Assertions.assertTrue(lines.stream().anyMatch(
+                l -> l.matches("fieldA,800,a\\d+,a\\d+")), lines.toString());
+        Assertions.assertTrue(lines.contains("fieldB,800,b,"),
+                lines.toString());
+    }
+
+    @Test
+    public void testTruncatedSamples() throws Exception {
+        Path file = tempDir.resolve("report.csv");
+        FieldReportTagger tagger = new FieldReportTagger();
+        tagger.setFile(file);
+        tagger.setMaxSamples(3);
+        tagger.setTruncateSamplesAt(3);
+        tagger.setFlushDelay(0);
+        for (String value : new String[] { "abcdef", "abcxyz", "xyz" }) {
+            Properties meta = new Properties();
+            meta.add("field", value);
+            TestUtil.tag(tagger, "n/a", meta, ParseState.POST);
+        }
+        Assertions.assertEquals(
+                "field,abc,xyz,", Files.readAllLines(file).get(0));
+    }
+
+    @Test
+    public void testWriteRead() {
+        FieldReportTagger tagger = new FieldReportTagger();
+        tagger.setFile(tempDir.resolve("report.csv"));
+        tagger.setMaxSamples(5);
+        tagger.setWithHeaders(true);
+        tagger.setWithOccurences(true);
+        tagger.setTruncateSamplesAt(10);
+        tagger.setFlushDelay(2000);
+        XML.assertWriteRead(tagger, "handler");
+    }
+}
@@ -92,6 +92,53 @@ public class LanguageTaggerTest {
 
         tagger.setLanguages(Arrays.asList("it", "br", "en"));
         XML.assertWriteRead(tagger, "handler");
+
+        tagger = new LanguageTagger();
+        tagger.setMaxReadSize(5000);
+        tagger.setSampleSize(20000);
+        XML.assertWriteRead(tagger, "handler");
+    }
+
+    @Test
+    public void testSampledDetection() throws ImporterHandlerException {
+        // English beginning, mostly French afterwards
+        StringBuilder b = new StringBuilder();
+        while (b.length() < 20000) {
+            b.append("This is the beginning of a long text written "
+                    + "in English, with many more words to come. ");
+        }
+        while (b.length() < 200000) {
+            b.append("Le reste du texte est en français, comme "
+                    + "on peut le voir dans chacune de ces phrases. ");
+        }
+        CachedStreamFactory factory =
+                new CachedStreamFactory(10 * 1024, 10 * 1024);
+
+        LanguageTagger tagger = new LanguageTagger();
+        tagger.setLanguages(Arrays.asList("en", "fr"));
+        tagger.setMaxReadSize(10000);
+        Doc doc = new Doc("n/a", factory.newInputStream(b.toString()));
+        tagger.tagDocument(
+                new HandlerDoc(doc), doc.getInputStream(), ParseState.POST);
+        Assertions.assertEquals(
+                "en", doc.getMetadata().getString(DocMetadata.LANGUAGE));
+
+        tagger = new LanguageTagger();
+        tagger.setLanguages(Arrays.asList("en", "fr"));
+        tagger.setSampleSize(10000);
+        tagger.setKeepProbabilities(true);
+        doc = new Doc("n/a", factory.newInputStream(b.toString()));
+        tagger.tagDocument(
+                new HandlerDoc(doc), doc.getInputStream(), ParseState.POST);
+        Assertions.assertEquals(
+                "fr", doc.getMetadata().getString(DocMetadata.LANGUAGE));
+        // sample scores are combined: one English sample of three
+        Assertions.assertEquals("en", doc.getMetadata().getString(
+                DocMetadata.LANGUAGE + ".2.tag"));
+        double enProbability = doc.getMetadata().getDouble(
+                DocMetadata.LANGUAGE + ".2.probability");
+        Assertions.assertTrue(enProbability > 0.2 && enProbability < 0.5,
+                "English probability: " + enProbability);
     }
 
     @Test
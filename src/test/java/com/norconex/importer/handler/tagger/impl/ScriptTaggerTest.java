@@ -19,6 +19,15 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
 
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
@@ -52,6 +61,37 @@ public class ScriptTaggerTest {
         );
     }
 
+    @Test
+    public void testConcurrentEvaluations() throws Exception {
+        ScriptTagger t = new ScriptTagger();
+        t.setEngineName("lua");
+        t.setEnginePoolSize(2);
+        t.setScript("metadata:add('echo', {content});");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<Boolean>> tasks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String text = "document " + i;
+                tasks.add(() -> {
+                    Properties metadata = new Properties();
+                    InputStream is = IOUtils.toInputStream(
+                            text, StandardCharsets.UTF_8);
+                    t.tagDocument(TestUtil.toHandlerDoc(
+                            text, is, metadata), is, ParseState.PRE);
+                    // each evaluation sees its own variables only
+                    return metadata.getStrings("echo").size() == 1
+                            && text.equals(metadata.getString("echo"));
+                });
+            }
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                Assertions.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private void testScriptTagger(String engineName, String script)
             throws ImporterHandlerException, IOException {
         ScriptTagger t = new ScriptTagger();
@@ -83,6 +123,7 @@ public class ScriptTaggerTest {
         tagger.setScript("a script");
         tagger.setEngineName("an engine name");
         tagger.setMaxReadSize(256);
+        tagger.setEnginePoolSize(4);
         XML.assertWriteRead(tagger, "handler");
     }
 }
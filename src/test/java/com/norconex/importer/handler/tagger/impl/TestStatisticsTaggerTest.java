@@ -16,9 +16,17 @@ package com.norconex.importer.handler.tagger.impl;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.text.BreakIterator;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -85,10 +93,121 @@ public class TestStatisticsTaggerTest {
                 meta.getString("document.stat.averageParagraphWordCount"));
     }
 
+    @Test
+    public void testCounters()
+            throws ImporterHandlerException, IOException {
+        TextStatisticsTagger t = new TextStatisticsTagger();
+        t.addCounter("digitCount", "\\d");
+        t.addCounter("upperCaseCount", "\\p{Lu}");
+        InputStream is = IOUtils.toInputStream(
+                "In 1865, Alice\r\nfell 2 times.", StandardCharsets.UTF_8);
+        Properties meta = new Properties();
+        meta.set(DocMetadata.CONTENT_TYPE, "text/plain");
+        t.tagDocument(TestUtil.toHandlerDoc(
+                "n/a", is, meta), is, ParseState.POST);
+        is.close();
+
+        Assertions.assertEquals(5,
+                (int) meta.getInteger("document.stat.digitCount"));
+        Assertions.assertEquals(2,
+                (int) meta.getInteger("document.stat.upperCaseCount"));
+        Assertions.assertEquals(2,
+                (int) meta.getInteger("document.stat.paragraphCount"));
+        Assertions.assertEquals(6,
+                (int) meta.getInteger("document.stat.wordCount"));
+    }
+
+    // Statistics must be the same as with the original implementation
+    // (kept below as a reference), which used a regular expression and
+    // a break iterator per line.
+    @Test
+    public void testSameAsReferenceImplementation() {
+        String[] tokens = { "a", "Z", "é", "9", "_", "-", "--", "word",
+                "rabbit-hole", "they'll", "e\u0301", "\u4e2d\u6587",
+                "\ud83d\ude00", "\u200d", "\u00a0", "\u2028", ".", "!",
+                "?", "...", "' ", "\"", "(", ")", " ", " ", "  ", "\t",
+                "\n", "\r", "\r\n", "\n\n", "Mr. ", "3.14", "U.S.A. " };
+        Random random = new Random(1);
+        TextStatisticsTagger t = new TextStatisticsTagger();
+        for (int i = 0; i < 2000; i++) {
+            // starts with a word so no statistic is divided by zero
+            StringBuilder b = new StringBuilder("Start. ");
+            int length = random.nextInt(300);
+            for (int j = 0; j < length; j++) {
+                b.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String text = b.toString();
+
+            Properties expected = referenceAnalyze(text);
+            Properties actual = new Properties();
+            t.analyze(new StringReader(text), actual, null);
+            for (String key : expected.keySet()) {
+                Assertions.assertEquals(expected.getString(key),
+                        actual.getString(key), key + ": \"" + text + "\"");
+            }
+        }
+    }
+    private static Properties referenceAnalyze(String text) {
+        Pattern wordPattern = Pattern.compile(
+                "\\w+\\-{0,1}\\w*", Pattern.UNICODE_CHARACTER_CLASS);
+        long charCount = 0;
+        long wordCharCount = 0;
+        long wordCount = 0;
+        long sentenceCount = 0;
+        long sentenceCharCount = 0;
+        long paragraphCount = 0;
+        LineIterator it = IOUtils.lineIterator(new StringReader(text));
+        while (it.hasNext()) {
+            String line = it.nextLine().trim();
+            if (StringUtils.isBlank(line)) {
+                continue;
+            }
+            paragraphCount++;
+            charCount += line.length();
+            Matcher matcher = wordPattern.matcher(line);
+            while (matcher.find()) {
+                wordCount++;
+                wordCharCount += matcher.end() - matcher.start();
+            }
+            BreakIterator boundary = BreakIterator.getSentenceInstance();
+            boundary.setText(line);
+            int start = boundary.first();
+            for (int end = boundary.next(); end != BreakIterator.DONE;
+                    start = end, end = boundary.next()) {
+                sentenceCharCount += (end - start);
+                sentenceCount++;
+            }
+        }
+        String prefix = "document.stat.";
+        Properties meta = new Properties();
+        meta.add(prefix + "characterCount", charCount);
+        meta.add(prefix + "wordCount", wordCount);
+        meta.add(prefix + "sentenceCount", sentenceCount);
+        meta.add(prefix + "paragraphCount", paragraphCount);
+        meta.add(prefix + "averageWordCharacterCount",
+                divide(wordCharCount, wordCount));
+        meta.add(prefix + "averageSentenceCharacterCount",
+                divide(sentenceCharCount, sentenceCount));
+        meta.add(prefix + "averageSentenceWordCount",
+                divide(wordCount, sentenceCount));
+        meta.add(prefix + "averageParagraphCharacterCount",
+                divide(charCount, paragraphCount));
+        meta.add(prefix + "averageParagraphSentenceCount",
+                divide(sentenceCount, paragraphCount));
+        meta.add(prefix + "averageParagraphWordCount",
+                divide(wordCount, paragraphCount));
+        return meta;
+    }
+    private static String divide(long value, long divisor) {
+        return BigDecimal.valueOf(value).divide(BigDecimal.valueOf(divisor),
+                1, BigDecimal.ROUND_HALF_UP).toString();
+    }
+
     @Test
     public void testWriteRead() {
         TextStatisticsTagger tagger = new TextStatisticsTagger();
         tagger.setFieldMatcher(new TextMatcher("afield"));
+        tagger.addCounter("digitCount", "\\d");
         XML.assertWriteRead(tagger, "handler");
     }
 }
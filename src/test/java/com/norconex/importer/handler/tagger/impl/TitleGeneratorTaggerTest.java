@@ -20,7 +20,19 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -126,6 +138,104 @@ public class TitleGeneratorTaggerTest {
                 "This is the first line.",  title, "Wrong title.");
     }
 
+    // Titles must be the same as with the original implementation
+    // (kept below as a reference), which matched terms with regular
+    // expressions.
+    @Test
+    public void testSameAsReferenceImplementation()
+            throws ImporterHandlerException, IOException {
+        assertSameAsReference(new String(Files.readAllBytes(
+                TestUtil.getAliceTextFile().toPath()), StandardCharsets.UTF_8));
+        assertSameAsReference("I don't know. Don said don't. Don don don. "
+                + "Don't worry, don't. Don went. Alice's cat. "
+                + "Alice, Alice, Alice's. Alice was here.");
+
+        String[] words = { "don", "don't", "Alice", "Alice's", "well-known",
+                "well", "known", "rabbit", "rabbits", "3.14", "\u00e9tat",
+                "_under", "co-op", "coop", "abc_def", "abcd" };
+        String[] separators = {
+                " ", " ", " ", ", ", "-", "'", ". ", "! ", "? ", "\n" };
+        Random random = new Random(1);
+        for (int i = 0; i < 500; i++) {
+            StringBuilder b = new StringBuilder();
+            int length = 5 + random.nextInt(200);
+            for (int j = 0; j < length; j++) {
+                b.append(words[random.nextInt(words.length)]);
+                b.append(separators[random.nextInt(separators.length)]);
+            }
+            assertSameAsReference(b.toString());
+        }
+    }
+    private void assertSameAsReference(String text)
+            throws ImporterHandlerException {
+        TitleGeneratorTagger t = new TitleGeneratorTagger();
+        t.setFromField("text");
+        t.setTitleMaxLength(TitleGeneratorTagger.UNLIMITED_TITLE_LENGTH);
+        Properties metadata = new Properties();
+        metadata.set("text", text);
+        TestUtil.tag(t, "test.txt", metadata, ParseState.POST);
+        String expected = referenceSummarize(text);
+        Assertions.assertEquals(StringUtils.isBlank(expected) ? null : expected,
+                metadata.getString(DocMetadata.GENERATED_TITLE), text);
+    }
+    private static String referenceSummarize(String text) {
+        List<String> sentences = new ArrayList<>();
+        Map<String, Integer> terms = new HashMap<>();
+        BreakIterator breakIterator = BreakIterator.getSentenceInstance();
+        breakIterator.setText(text);
+        int start = breakIterator.first();
+        int end = breakIterator.next();
+        while (end != BreakIterator.DONE) {
+            String matchText = text.substring(start, end).trim();
+            for (String sentence : matchText.split("[\\n\\r]")) {
+                if (StringUtils.trimToNull(sentence) != null
+                        && Character.isLetterOrDigit(sentence.codePointAt(0))) {
+                    sentences.add(sentence);
+                    BreakIterator wordIterator =
+                            BreakIterator.getWordInstance();
+                    wordIterator.setText(sentence);
+                    int wordStart = wordIterator.first();
+                    int wordEnd = wordIterator.next();
+                    while (wordEnd != BreakIterator.DONE) {
+                        String word = sentence.substring(wordStart, wordEnd);
+                        if (Character.isLetterOrDigit(word.codePointAt(0))) {
+                            terms.merge(word, 1, Integer::sum);
+                        }
+                        wordStart = wordEnd;
+                        wordEnd = wordIterator.next();
+                    }
+                }
+            }
+            start = end;
+            end = breakIterator.next();
+        }
+        if (sentences.isEmpty()) {
+            return StringUtils.EMPTY;
+        }
+        long topScore = 0;
+        String topSentence = sentences.get(0);
+        for (String sentence : sentences) {
+            long score = 0;
+            long densityFactor = 500 - sentence.length();
+            for (Entry<String, Integer> term : terms.entrySet()) {
+                if (term.getKey().length() < 4 || term.getValue() < 3) {
+                    continue;
+                }
+                Matcher m = Pattern.compile("\\b\\Q"
+                        + term.getKey() + "\\E\\b").matcher(sentence);
+                int count = 0;
+                while (m.find()) {
+                    count++;
+                }
+                score += count * term.getValue() * densityFactor;
+            }
+            if (score > topScore) {
+                topScore = score;
+                topSentence = sentence;
+            }
+        }
+        return topSentence;
+    }
 
     @Test
     public void testWriteRead() {
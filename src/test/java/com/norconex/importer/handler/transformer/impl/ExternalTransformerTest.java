@@ -15,13 +15,20 @@
 package com.norconex.importer.handler.transformer.impl;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.norconex.commons.lang.io.ByteArrayOutputStream;
 import com.norconex.commons.lang.map.Properties;
@@ -44,6 +51,8 @@ public class ExternalTransformerTest {
         ExternalTransformer t = new ExternalTransformer();
         t.setCommand("my command");
         t.setTempDir(Paths.get("/some/path"));
+        t.setPersistentProcesses(2);
+        t.setPiped(true);
 
         t.setMetadataInputFormat("json");
         t.setMetadataOutputFormat("xml");
@@ -91,12 +100,119 @@ public class ExternalTransformerTest {
                 + "-ref ${REFERENCE}", true);
     }
 
+    @Test
+    public void testPipedInFileOutFile()
+            throws ImporterHandlerException {
+        testWithExternalApp("-ic ${INPUT} -oc ${OUTPUT} -ref ${REFERENCE}",
+                false, true);
+    }
+    @Test
+    public void testPipedStdinStdout()
+            throws ImporterHandlerException {
+        testWithExternalApp("", false, true);
+    }
+    @Test
+    public void testPipedMetaInputOutputFiles()
+            throws ImporterHandlerException {
+        testWithExternalApp("-ic ${INPUT} -oc ${OUTPUT} "
+                + "-im ${INPUT_META} -om ${OUTPUT_META} "
+                + "-ref ${REFERENCE}", true, true);
+    }
+
+    @Test
+    public void testPipedMetaPipeReused(@TempDir Path tempDir)
+            throws ImporterHandlerException, IOException {
+        ExternalTransformer t = new ExternalTransformer();
+        t.setCommand(ExternalApp.newCommandLine(
+                "-ic ${INPUT} -oc ${OUTPUT} "
+              + "-im ${INPUT_META} -om ${OUTPUT_META} -ref ${REFERENCE}"));
+        t.setMetadataInputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
+        t.setMetadataOutputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
+        t.setOnSet(PropertySetter.REPLACE);
+        t.setTempDir(tempDir);
+        t.setPiped(true);
+        List<Path> firstFiles = null;
+        for (int i = 0; i < 3; i++) {
+            InputStream input = inputAsStream();
+            ByteArrayOutputStream output = outputAsStream();
+            Properties metadata = new Properties();
+            metadata.set("metaFileField1", "this is a first test");
+            metadata.set("metaFileField2",
+                    "this is a second test value1",
+                    "this is a second test value2");
+            t.transformDocument(TestUtil.toHandlerDoc("doc" + i + ".txt",
+                    input, metadata), input, output, ParseState.PRE);
+            Assertions.assertEquals(EXPECTED_OUTPUT, output.toString().trim());
+            assertMetadataFiles(metadata);
+            // at most one named pipe, kept for the next document
+            List<Path> files = listFiles(tempDir);
+            Assertions.assertTrue(files.size() <= 1);
+            if (firstFiles == null) {
+                firstFiles = files;
+            }
+            Assertions.assertEquals(firstFiles, files);
+        }
+        t.close();
+        Assertions.assertTrue(listFiles(tempDir).isEmpty());
+    }
+    private List<Path> listFiles(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void testPersistentProcesses()
+            throws ImporterHandlerException {
+        ExternalTransformer t = new ExternalTransformer();
+        t.setCommand(ExternalApp.newCommandLine(
+                "-" + ExternalApp.ARG_PERSISTENT));
+        t.setPersistentProcesses(2);
+        t.setMetadataInputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
+        t.setMetadataOutputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
+        t.setOnSet(PropertySetter.REPLACE);
+        try {
+            // processes handle many documents
+            for (int i = 0; i < 4; i++) {
+                testPersistentProcess(t, "doc" + i + ".txt");
+            }
+            // failed processes are replaced
+            Assertions.assertThrows(ImporterHandlerException.class,
+                    () -> testPersistentProcess(t, ExternalApp.REF_CRASH));
+            testPersistentProcess(t, "after-crash.txt");
+        } finally {
+            // terminates processes
+            t.setPersistentProcesses(0);
+        }
+    }
+    private void testPersistentProcess(
+            ExternalTransformer t, String reference)
+            throws ImporterHandlerException {
+        InputStream input = inputAsStream();
+        ByteArrayOutputStream output = outputAsStream();
+        Properties metadata = new Properties();
+        metadata.set("metaFileField1", "this is a first test");
+        metadata.set("metaFileField2",
+                "this is a second test value1",
+                "this is a second test value2");
+        t.transformDocument(TestUtil.toHandlerDoc(
+                reference, input, metadata), input, output, ParseState.PRE);
+        Assertions.assertEquals(EXPECTED_OUTPUT, output.toString().trim());
+        assertMetadataFiles(metadata);
+        Assertions.assertEquals(reference, metadata.getString("reference"));
+    }
+
     private void testWithExternalApp(String command)
             throws ImporterHandlerException {
         testWithExternalApp(command, false);
     }
     private void testWithExternalApp(String command, boolean metaFiles)
             throws ImporterHandlerException {
+        testWithExternalApp(command, metaFiles, false);
+    }
+    private void testWithExternalApp(
+            String command, boolean metaFiles, boolean piped)
+            throws ImporterHandlerException {
         InputStream input = inputAsStream();
         ByteArrayOutputStream output = outputAsStream();
         Properties metadata = new Properties();
@@ -114,6 +230,7 @@ public class ExternalTransformerTest {
         t.setMetadataInputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
         t.setMetadataOutputFormat(ExternalHandler.META_FORMAT_PROPERTIES);
         t.setOnSet(PropertySetter.REPLACE);
+        t.setPiped(piped);
         t.transformDocument(TestUtil.toHandlerDoc(
                 "c:\\ref with spaces\\doc.txt", input, metadata),
                 input, output, ParseState.PRE);
@@ -128,6 +245,8 @@ public class ExternalTransformerTest {
         Assertions.assertEquals(EXPECTED_OUTPUT, content);
         if (metaFiles) {
             assertMetadataFiles(metadata);
+        } else if (piped) {
+            assertPipedMetadata(metadata);
         } else {
             assertMetadata(metadata, command.contains("${REFERENCE}"));
         }
@@ -154,6 +273,14 @@ public class ExternalTransformerTest {
         }
     }
 
+    // when piped, patterns are only applied to STDERR
+    private void assertPipedMetadata(Properties meta) {
+        Assertions.assertNull(meta.getString("field1"));
+        Assertions.assertNull(meta.getString("field2"));
+        Assertions.assertEquals("field3 StdErrBefore", meta.getString("field3"));
+        Assertions.assertEquals("StdErrAfter", meta.getString("field4"));
+    }
+
     private void addPatternsAndEnvs(ExternalTransformer t) {
         Map<String, String> envs = new HashMap<>();
         envs.put(ExternalApp.ENV_STDOUT_BEFORE, "field1:StdoutBefore");
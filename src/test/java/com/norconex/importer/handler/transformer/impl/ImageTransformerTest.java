@@ -16,13 +16,54 @@ package com.norconex.importer.handler.transformer.impl;
 
 import java.awt.Dimension;
 import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import com.norconex.commons.lang.map.Properties;
 import com.norconex.commons.lang.xml.XML;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.doc.DocMetadata;
+import com.norconex.importer.handler.ImporterHandlerException;
+import com.norconex.importer.parser.ParseState;
 
 public class ImageTransformerTest {
 
+    @Test
+    public void testScaleDown()
+            throws IOException, ImporterHandlerException {
+        ImageTransformer t = new ImageTransformer();
+        t.setScaleDimension(new Dimension(400, 250));
+        BufferedImage image = transform(t, newImage(3000, 2000));
+        Assertions.assertEquals(375, image.getWidth());
+        Assertions.assertEquals(250, image.getHeight());
+
+        t = new ImageTransformer();
+        t.setScaleFactor(0.1);
+        t.setCropRectangle(new Rectangle(10, 20, 100, 50));
+        image = transform(t, newImage(3000, 2000));
+        Assertions.assertEquals(100, image.getWidth());
+        Assertions.assertEquals(50, image.getHeight());
+    }
+
+    @Test
+    public void testCropOnly() throws IOException, ImporterHandlerException {
+        BufferedImage source = newImage(800, 600);
+        ImageTransformer t = new ImageTransformer();
+        t.setCropRectangle(new Rectangle(100, 200, 50, 40));
+        BufferedImage image = transform(t, source);
+        Assertions.assertEquals(50, image.getWidth());
+        Assertions.assertEquals(40, image.getHeight());
+        Assertions.assertEquals(source.getRGB(120, 230), image.getRGB(20, 30));
+    }
+
     @Test
     public void testWriteRead() {
         ImageTransformer t = new ImageTransformer();
@@ -34,4 +75,28 @@ public class ImageTransformerTest {
         t.setTargetFormat("jpg");
         XML.assertWriteRead(t, "handler");
     }
+
+    private BufferedImage newImage(int width, int height) {
+        BufferedImage image =
+                new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 7) ^ (y * 13));
+            }
+        }
+        return image;
+    }
+
+    private BufferedImage transform(ImageTransformer t, BufferedImage image)
+            throws IOException, ImporterHandlerException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        Properties meta = new Properties();
+        meta.set(DocMetadata.CONTENT_TYPE, "image/png");
+        InputStream is = new ByteArrayInputStream(png.toByteArray());
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        t.transformDocument(TestUtil.toHandlerDoc("n/a", is, meta),
+                is, os, ParseState.PRE);
+        return ImageIO.read(new ByteArrayInputStream(os.toByteArray()));
+    }
 }
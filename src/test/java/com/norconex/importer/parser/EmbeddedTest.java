@@ -17,23 +17,38 @@ package com.norconex.importer.parser;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.mutable.MutableInt;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import com.norconex.commons.lang.file.ContentType;
 import com.norconex.commons.lang.map.Properties;
+import com.norconex.commons.lang.text.TextMatcher;
 import com.norconex.importer.Importer;
 import com.norconex.importer.ImporterConfig;
 import com.norconex.importer.ImporterRequest;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.handler.filter.OnMatch;
+import com.norconex.importer.handler.filter.impl.ReferenceFilter;
 import com.norconex.importer.response.ImporterResponse;
 
 public class EmbeddedTest {
@@ -476,7 +491,212 @@ public class EmbeddedTest {
                 "Spreadsheet must not be extracted.");
     }
 
+    @Test
+    public void testEmbeddedSplitStreaming() throws IOException {
+
+        // Make sure streaming traversal visits the same responses as the
+        // regular split, parents first, without keeping visited ones.
+
+        GenericDocumentParserFactory f = new GenericDocumentParserFactory();
+        f.getParseHints().getEmbeddedConfig().setSplitContentTypes(".*");
+        ImporterConfig config = new ImporterConfig();
+        config.setParserFactory(f);
+        Importer importer = new Importer(config);
+
+        List<String> visitedTypes = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        importer.importDocument(new ImporterRequest(getZipFile().toPath()),
+                response -> {
+            visitedTypes.add(response.getDocument()
+                    .getDocInfo().getContentType().toString());
+            int depth = 0;
+            ImporterResponse parent = response.getParentResponse();
+            while (parent != null) {
+                // Visited siblings must have been released.
+                Assertions.assertEquals(1, parent.getNestedResponses().length);
+                depth++;
+                parent = parent.getParentResponse();
+            }
+            depths.add(depth);
+        });
+
+        Assertions.assertEquals(ZIP, visitedTypes.get(0));
+        Assertions.assertEquals(0, (int) depths.get(0));
+        Assertions.assertTrue(visitedTypes.contains(PPT));
+        Assertions.assertTrue(visitedTypes.contains(XLS));
+        Assertions.assertTrue(visitedTypes.contains(TXT));
+        Assertions.assertTrue(visitedTypes.indexOf(PPT)
+                < visitedTypes.indexOf(XLS), "Parent must be visited first.");
+        Assertions.assertEquals(2, (int) depths.get(visitedTypes.indexOf(XLS)));
+    }
+
+    @Test
+    public void testEmbeddedSplitStreamingBounded() throws IOException {
+
+        // Make sure streaming traversal of a flat archive only holds
+        // content for the current branch (depth + 1 documents), not
+        // for all entries.
+
+        int entryCount = 100;
+        Path zipFile = folder.resolve("test-many-entries.zip");
+        try (ZipOutputStream zip = new ZipOutputStream(
+                Files.newOutputStream(zipFile))) {
+            for (int i = 0; i < entryCount; i++) {
+                zip.putNextEntry(new ZipEntry("entry" + i + ".txt"));
+                zip.write(("Content of entry " + i + ".").getBytes(
+                        StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+
+        GenericDocumentParserFactory f = new GenericDocumentParserFactory();
+        f.getParseHints().getEmbeddedConfig().setSplitContentTypes(".*");
+        Path tempDir = folder.resolve("streaming-temp");
+        ImporterConfig config = new ImporterConfig();
+        config.setParserFactory(f);
+        config.setTempDir(tempDir);
+        // all content cached to disk, one file per live content stream
+        config.setMaxFileCacheSize(0);
+        config.setMaxFilePoolCacheSize(0);
+        Importer importer = new Importer(config);
 
+        MutableInt visited = new MutableInt();
+        MutableInt maxLiveFiles = new MutableInt();
+        importer.importDocument(new ImporterRequest(zipFile), response -> {
+            visited.increment();
+            try (Stream<Path> files = Files.walk(tempDir)) {
+                int count = (int) files.filter(Files::isRegularFile).count();
+                maxLiveFiles.setValue(
+                        Math.max(maxLiveFiles.intValue(), count));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        Assertions.assertEquals(entryCount + 1, visited.intValue());
+        // archive depth is 1
+        Assertions.assertTrue(maxLiveFiles.intValue() <= 2,
+                "Too many live content files: " + maxLiveFiles);
+    }
+
+    @Test
+    public void testEmbeddedSplitLazily() throws IOException {
+
+        // Make sure lazy split gives the same results as regular split,
+        // ZIP entries being loaded lazily, while PowerPoint ones are not.
+
+        GenericDocumentParserFactory f = new GenericDocumentParserFactory();
+        f.getParseHints().getEmbeddedConfig().setSplitContentTypes(".*");
+        f.getParseHints().getEmbeddedConfig().setSplitLazily(true);
+        ImporterResponse zipResponse = importFileZipFile(f);
+
+        Assertions.assertEquals(
+                2, zipResponse.getNestedResponses().length,
+                "Zip must have two embedded docs.");
+        ImporterResponse pptResponse = findResponse(zipResponse, PPT);
+        Assertions.assertTrue(
+                pptResponse.getNestedResponses().length >= 2,
+                "PowerPoint must have at least two embedded docs.");
+
+        String[] expectedTypes = { ZIP, PPT, EMF, XLS, PNG, TXT };
+        List<String> responseTypes = getTikaContentTypes(zipResponse);
+        for (String type : expectedTypes) {
+            Assertions.assertTrue(
+                    responseTypes.contains(type),
+                    "Expected to find " + type);
+        }
+
+        ImporterResponse xlsResponse = findResponse(pptResponse, XLS);
+        String xlsContent = IOUtils.toString(
+                xlsResponse.getDocument().getInputStream(),
+                StandardCharsets.UTF_8);
+        Assertions.assertTrue(
+                xlsContent.contains("column 1"),
+                "Spreadsheet not extracted.");
+    }
+
+    @Test
+    public void testEmbeddedSplitLazilyUnloaded()
+            throws IOException, DocumentParserException {
+
+        // Make sure ZIP entries are only loaded when their content is read.
+
+        GenericDocumentParserFactory f = new GenericDocumentParserFactory();
+        f.getParseHints().getEmbeddedConfig().setSplitContentTypes(".*");
+        f.getParseHints().getEmbeddedConfig().setSplitLazily(true);
+        ReferenceFilter txtFilter = new ReferenceFilter(
+                TextMatcher.basic(".txt").setPartial(true));
+        txtFilter.setOnMatch(OnMatch.EXCLUDE);
+        ImporterConfig config = new ImporterConfig();
+        config.setParserFactory(f);
+        config.setPreParseHandlers(Arrays.asList(txtFilter));
+        Importer importer = new Importer(config);
+
+        // from a stream, so the ZIP gets copied to a temporary file
+        DocInfo info = new DocInfo("embedded.zip");
+        info.setContentType(ContentType.valueOf(ZIP));
+        Doc zipDoc = new Doc(info, importer.getStreamFactory().newInputStream(
+                getClass().getResourceAsStream(
+                        "/parser/embedded/embedded.zip")), null);
+        List<Doc> entries = f.getParser(zipDoc.getReference(),
+                info.getContentType()).parseDocument(
+                        zipDoc, new StringWriter());
+        zipDoc.dispose();
+
+        Assertions.assertEquals(2, entries.size());
+        Doc txtDoc = null;
+        Doc pptDoc = null;
+        for (Doc entry : entries) {
+            Assertions.assertFalse(entry.isContentLoaded());
+            String type = entry.getDocInfo().getContentType().toString();
+            if (TXT.equals(type)) {
+                txtDoc = entry;
+            } else if (PPT.equals(type)) {
+                pptDoc = entry;
+            }
+        }
+        Assertions.assertNotNull(txtDoc);
+        Assertions.assertNotNull(pptDoc);
+
+        // rejected based on its reference: never loaded
+        Assertions.assertTrue(importer.importDocument(
+                txtDoc).getImporterStatus().isRejected());
+        Assertions.assertFalse(txtDoc.isContentLoaded());
+
+        // loaded when read
+        Assertions.assertTrue(IOUtils.toByteArray(
+                pptDoc.getInputStream()).length > 0);
+        Assertions.assertTrue(pptDoc.isContentLoaded());
+        txtDoc.dispose();
+        pptDoc.dispose();
+    }
+
+    @Test
+    public void testEmbeddedSplitFromFile() throws IOException {
+
+        // Make sure ZIP entries read directly from a file give the same
+        // results as when reading the ZIP from a stream.
+
+        GenericDocumentParserFactory f = new GenericDocumentParserFactory();
+        f.getParseHints().getEmbeddedConfig().setSplitContentTypes(".*");
+        f.getParseHints().getEmbeddedConfig().setSplitLazily(true);
+        ImporterConfig config = new ImporterConfig();
+        config.setParserFactory(f);
+        Importer importer = new Importer(config);
+
+        List<String> fileTypes = getTikaContentTypes(importer.importDocument(
+                new ImporterRequest(getZipFile().toPath())));
+        List<String> streamTypes;
+        try (InputStream is = getClass().getResourceAsStream(
+                "/parser/embedded/embedded.zip")) {
+            streamTypes = getTikaContentTypes(importer.importDocument(
+                    new ImporterRequest(is).setReference("embedded.zip")));
+        }
+        Collections.sort(fileTypes);
+        Collections.sort(streamTypes);
+        Assertions.assertEquals(streamTypes, fileTypes);
+        Assertions.assertTrue(fileTypes.contains(XLS));
+    }
 
     private ImporterResponse findResponse(
             ImporterResponse response, String contentType) {
@@ -17,7 +17,10 @@ package com.norconex.importer.parser;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.Assertions;
@@ -32,6 +35,7 @@ import com.norconex.importer.ImporterRequest;
 import com.norconex.importer.TestUtil;
 import com.norconex.importer.doc.Doc;
 import com.norconex.importer.parser.impl.ExternalParser;
+import com.norconex.importer.parser.impl.text.FastTextParser;
 
 public class GenericDocumentParserFactoryTest {
 
@@ -48,11 +52,25 @@ public class GenericDocumentParserFactoryTest {
         emb.setNoExtractContainerContentTypes("noExtractContainerTest");
         emb.setNoExtractEmbeddedContentTypes("noExtractEmbeddedTest");
         emb.setSplitContentTypes(".*");
+        emb.setSplitLazily(true);
 
         OCRConfig ocr = f.getParseHints().getOcrConfig();
         ocr.setContentTypes("ocrContentTypesTest");
         ocr.setLanguages("ocrLanguages");
         ocr.setPath("ocrPath");
+        ocr.setCacheDir("ocrCacheDir");
+        ocr.setCacheMaxSize(12345);
+        ocr.setMaxProcesses(3);
+        ocr.setPdfPageTextThreshold(5);
+
+        ParseModeConfig mode = f.getParseHints().getParseModeConfig();
+        mode.setMetadataOnlyContentTypes("metadataOnlyTest");
+        mode.setHeadOnlyContentTypes("headOnlyTest");
+        mode.setHeadOnlyMaxLength(123);
+
+        ParallelPDFConfig pdf = f.getParseHints().getParallelPDFConfig();
+        pdf.setThreads(3);
+        pdf.setMinPageCount(50);
 
         ExternalParser app = new ExternalParser();
         app.setCommand("command.exe");
@@ -60,6 +78,129 @@ public class GenericDocumentParserFactoryTest {
         XML.assertWriteRead(f, "documentParserFactory");
     }
 
+    @Test
+    public void testMetadataOnly() throws IOException {
+        GenericDocumentParserFactory factory =
+                new GenericDocumentParserFactory();
+        factory.getParseHints().getParseModeConfig()
+                .setMetadataOnlyContentTypes("application/pdf");
+        Doc doc = importAlicePdf(factory);
+        try (InputStream is = doc.getInputStream()) {
+            Assertions.assertEquals(
+                    "", IOUtils.toString(is, StandardCharsets.UTF_8));
+        }
+        Assertions.assertNotNull(
+                doc.getMetadata().getString("xmpTPg:NPages"));
+    }
+
+    @Test
+    public void testHeadOnly() throws IOException {
+        GenericDocumentParserFactory factory =
+                new GenericDocumentParserFactory();
+        ParseModeConfig mode = factory.getParseHints().getParseModeConfig();
+        mode.setHeadOnlyContentTypes("application/pdf");
+        mode.setHeadOnlyMaxLength(20);
+        Doc doc = importAlicePdf(factory);
+        try (InputStream is = doc.getInputStream()) {
+            String content = IOUtils.toString(is, StandardCharsets.UTF_8);
+            Assertions.assertTrue(content.length() <= 20,
+                    "Content too long: " + content.length());
+            Assertions.assertTrue(StringUtils.isNotBlank(content));
+        }
+        Assertions.assertEquals("application/pdf",
+                doc.getMetadata().getString("Content-Type"));
+    }
+
+    @Test
+    public void testParallelPDF() throws IOException {
+        GenericDocumentParserFactory factory =
+                new GenericDocumentParserFactory();
+        String serialContent;
+        try (InputStream is = importAlicePdf(factory).getInputStream()) {
+            serialContent = IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+
+        factory = new GenericDocumentParserFactory();
+        ParallelPDFConfig pdf = factory.getParseHints().getParallelPDFConfig();
+        pdf.setThreads(3);
+        pdf.setMinPageCount(1);
+        Doc doc = importAlicePdf(factory);
+        String parallelContent;
+        try (InputStream is = doc.getInputStream()) {
+            parallelContent = IOUtils.toString(is, StandardCharsets.UTF_8);
+        }
+        Assertions.assertNotNull(
+                doc.getMetadata().getString("xmpTPg:NPages"));
+        // Same page text, in the same order, ignoring white spaces
+        // (Tika may also extract extras, such as annotations).
+        parallelContent = StringUtils.deleteWhitespace(parallelContent);
+        Assertions.assertTrue(StringUtils.isNotEmpty(parallelContent));
+        Assertions.assertTrue(StringUtils.deleteWhitespace(
+                serialContent).contains(parallelContent));
+    }
+
+    @Test
+    public void testCloseReleasesPDFThreads() throws InterruptedException {
+        Set<Thread> existingThreads = namedThreads("importer-pdf-");
+        GenericDocumentParserFactory factory =
+                new GenericDocumentParserFactory();
+        ParallelPDFConfig pdf = factory.getParseHints().getParallelPDFConfig();
+        pdf.setThreads(3);
+        pdf.setMinPageCount(1);
+        importAlicePdf(factory);
+        Set<Thread> threads = namedThreads("importer-pdf-");
+        threads.removeAll(existingThreads);
+        Assertions.assertFalse(threads.isEmpty());
+
+        factory.close();
+        for (Thread thread : threads) {
+            thread.join(10000);
+            Assertions.assertFalse(thread.isAlive());
+        }
+    }
+
+    @Test
+    public void testDefaultTextParser() throws IOException {
+        GenericDocumentParserFactory factory =
+                new GenericDocumentParserFactory();
+        Assertions.assertTrue(factory.getParser("n/a", ContentType.valueOf(
+                "text/plain")) instanceof FastTextParser);
+
+        ImporterConfig config = new ImporterConfig();
+        config.setParserFactory(factory);
+        Doc doc = new Importer(config).importDocument(
+                new ImporterRequest(TestUtil.getAliceTextFile().toPath())
+                        .setContentType(ContentType.valueOf("text/plain"))
+                        .setReference("n/a")).getDocument();
+        try (InputStream is = doc.getInputStream()) {
+            Assertions.assertEquals(
+                    FileUtils.readFileToString(TestUtil.getAliceTextFile(),
+                            StandardCharsets.UTF_8),
+                    IOUtils.toString(is, StandardCharsets.UTF_8));
+        }
+        Assertions.assertNotNull(
+                doc.getMetadata().getString("Content-Encoding"));
+    }
+
+    private Set<Thread> namedThreads(String namePrefix) {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith(namePrefix)) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private Doc importAlicePdf(GenericDocumentParserFactory factory) {
+        ImporterConfig config = new ImporterConfig();
+        config.setParserFactory(factory);
+        return new Importer(config).importDocument(
+                new ImporterRequest(TestUtil.getAlicePdfFile().toPath())
+                        .setContentType(ContentType.PDF)
+                        .setReference("n/a")).getDocument();
+    }
+
     @Test
     public void testIgnoringContentTypes() throws IOException {
 
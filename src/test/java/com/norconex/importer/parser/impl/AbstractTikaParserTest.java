@@ -0,0 +1,74 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.util.Arrays;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.TikaMetadataKeys;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.map.Properties;
+
+public class AbstractTikaParserTest {
+
+    @Test
+    public void testAddTikaMetadataToImporterMetadata() {
+        Metadata tikaMeta = new Metadata();
+        Properties metadata = new Properties();
+
+        // duplicate Tika values without existing values are all kept
+        tikaMeta.add("dups", "a");
+        tikaMeta.add("dups", "b");
+        tikaMeta.add("dups", "a");
+
+        // Tika values not already present are added
+        metadata.add("added", "x");
+        tikaMeta.add("added", "y");
+
+        // a Tika value already present replaces all values
+        metadata.add("replaced", "x", "a");
+        tikaMeta.add("replaced", "a");
+        tikaMeta.add("replaced", "b");
+        metadata.add("replacedLast", "x", "a");
+        tikaMeta.add("replacedLast", "b");
+        tikaMeta.add("replacedLast", "a");
+
+        // content type compared without regard to case and spaces
+        metadata.add(Metadata.CONTENT_TYPE, "text/html; charset=UTF-8");
+        tikaMeta.add(Metadata.CONTENT_TYPE, "text/html;charset=utf-8");
+
+        // resource name is ignored
+        metadata.add(TikaMetadataKeys.RESOURCE_NAME_KEY, "x");
+        tikaMeta.add(TikaMetadataKeys.RESOURCE_NAME_KEY, "y");
+
+        new FallbackParser().addTikaMetadataToImporterMetadata(
+                tikaMeta, metadata);
+
+        Assertions.assertEquals(
+                Arrays.asList("a", "b", "a"), metadata.getStrings("dups"));
+        Assertions.assertEquals(
+                Arrays.asList("x", "y"), metadata.getStrings("added"));
+        Assertions.assertEquals(
+                Arrays.asList("a", "b"), metadata.getStrings("replaced"));
+        Assertions.assertEquals(
+                Arrays.asList("a"), metadata.getStrings("replacedLast"));
+        Assertions.assertEquals(Arrays.asList("text/html;charset=utf-8"),
+                metadata.getStrings(Metadata.CONTENT_TYPE));
+        Assertions.assertEquals(Arrays.asList("x"),
+                metadata.getStrings(TikaMetadataKeys.RESOURCE_NAME_KEY));
+    }
+}
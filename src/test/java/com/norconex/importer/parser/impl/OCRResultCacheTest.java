@@ -0,0 +1,109 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class OCRResultCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testKeys() throws IOException {
+        Path img1 = image("img1", "same bytes");
+        Path img2 = image("img2", "same bytes");
+        Path img3 = image("img3", "other bytes");
+        Path dir = tempDir.resolve("cache");
+        OCRResultCache cache = new OCRResultCache(dir, 1000);
+
+        Assertions.assertEquals(
+                cache.key(img1, "eng"), cache.key(img2, "eng"));
+        Assertions.assertNotEquals(
+                cache.key(img1, "eng"), cache.key(img3, "eng"));
+        Assertions.assertNotEquals(
+                cache.key(img1, "eng"), cache.key(img1, "fra"));
+        Assertions.assertNotEquals(cache.key(img1, "eng;psm=1"),
+                cache.key(img1, "eng;psm=3"));
+    }
+
+    @Test
+    public void testSharedPerDirectory() {
+        Path dir = tempDir.resolve("shared");
+        OCRResultCache cache = OCRResultCache.get(dir, 1000);
+        Assertions.assertSame(cache, OCRResultCache.get(
+                tempDir.resolve("other/../shared"), 1000));
+        Assertions.assertNotSame(cache,
+                OCRResultCache.get(tempDir.resolve("other"), 1000));
+    }
+
+    @Test
+    public void testStaleTempFilesDeleted() throws IOException {
+        Path dir = Files.createDirectories(tempDir.resolve("cache"));
+        Path stale = Files.write(dir.resolve("abc123.tmp"), new byte[] {1});
+        Files.setLastModifiedTime(stale, FileTime.fromMillis(0));
+        Path recent = Files.write(dir.resolve("def456.tmp"), new byte[] {1});
+        new OCRResultCache(dir, 1000);
+        Assertions.assertFalse(Files.exists(stale));
+        Assertions.assertTrue(Files.exists(recent));
+    }
+
+    @Test
+    public void testPersistenceAndEviction() throws IOException {
+        Path dir = tempDir.resolve("cache");
+        OCRResultCache cache = new OCRResultCache(dir, 10);
+        Assertions.assertNull(cache.get("a"));
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.put("c", "");
+        Assertions.assertEquals("aaaa", cache.get("a"));
+        Assertions.assertEquals("", cache.get("c"));
+
+        // reloaded from disk
+        cache = new OCRResultCache(dir, 10);
+        Assertions.assertEquals("bbbb", cache.get("b"));
+
+        // "a" is least recently used and gets evicted
+        cache.put("d", "dddd");
+        Assertions.assertNull(cache.get("a"));
+        Assertions.assertEquals("bbbb", cache.get("b"));
+        Assertions.assertEquals("dddd", cache.get("d"));
+
+        // too big to be cached
+        cache.put("e", "eeeeeeeeeeee");
+        Assertions.assertNull(cache.get("e"));
+    }
+
+    @Test
+    public void testOCRTypes() {
+        Assertions.assertTrue(OCRResultCache.isOCRType("image/png"));
+        Assertions.assertTrue(OCRResultCache.isOCRType("image/ocr-jpeg"));
+        Assertions.assertFalse(OCRResultCache.isOCRType("application/pdf"));
+        Assertions.assertFalse(OCRResultCache.isOCRType(null));
+    }
+
+    private Path image(String name, String content) throws IOException {
+        return Files.write(tempDir.resolve(name),
+                content.getBytes(StandardCharsets.UTF_8));
+    }
+}
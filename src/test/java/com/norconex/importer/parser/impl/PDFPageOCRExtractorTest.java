@@ -0,0 +1,86 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.PagedText;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.importer.TestUtil;
+
+public class PDFPageOCRExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PDFPageOCRExtractor extractor;
+
+    @AfterEach
+    public void tearDown() {
+        if (extractor != null) {
+            extractor.shutdown();
+        }
+    }
+
+    @Test
+    public void testOCRPagesInOrder() throws IOException {
+        // every page is below threshold: all are OCR'd
+        extractor = new PDFPageOCRExtractor(Integer.MAX_VALUE, 3);
+        Metadata meta = new Metadata();
+        StringWriter output = new StringWriter();
+        AtomicInteger ocrCount = new AtomicInteger();
+        extractor.extract(TestUtil.getAlicePdfFile().toPath(), tempDir,
+                output, meta, (page, image) -> {
+            ocrCount.incrementAndGet();
+            Assertions.assertTrue(image.read() != -1);
+            return "[page" + page + "]";
+        });
+        int pages = meta.getInt(PagedText.N_PAGES);
+        Assertions.assertEquals(pages, ocrCount.get());
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= pages; i++) {
+            expected.append("[page" + i + "]");
+        }
+        Assertions.assertEquals(expected.toString(), output.toString());
+    }
+
+    @Test
+    public void testSkipPagesWithText() throws IOException {
+        // page has text: not OCR'd
+        extractor = new PDFPageOCRExtractor(0, 2);
+        StringWriter output = new StringWriter();
+        Path file = tempDir.resolve("plain.pdf");
+        try (InputStream is = getClass().getResourceAsStream(
+                "/parser/pdf/plain.pdf")) {
+            Files.copy(is, file);
+        }
+        extractor.extract(file, tempDir, output, new Metadata(),
+                (page, image) -> {
+            throw new AssertionError("Page " + page + " was OCR'd.");
+        });
+        Assertions.assertTrue(output.toString().contains(
+                "Hey Norconex, this is a test."));
+    }
+}
@@ -0,0 +1,72 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.metadata.PagedText;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.parser.ParallelPDFConfig;
+
+public class ParallelPDFExtractorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ParallelPDFExtractor extractor;
+
+    @AfterEach
+    public void tearDown() {
+        if (extractor != null) {
+            extractor.shutdown();
+        }
+    }
+
+    @Test
+    public void testExtract() throws IOException {
+        extractor = new ParallelPDFExtractor(config(3, 1));
+        Metadata meta = new Metadata();
+        StringWriter output = new StringWriter();
+        Assertions.assertTrue(extractor.extract(
+                TestUtil.getAlicePdfFile().toPath(), tempDir, output, meta));
+        Assertions.assertTrue(meta.getInt(PagedText.N_PAGES) > 0);
+        Assertions.assertTrue(output.toString().contains("Alice"));
+    }
+
+    @Test
+    public void testTooFewPages() throws IOException {
+        extractor = new ParallelPDFExtractor(config(3, Integer.MAX_VALUE));
+        StringWriter output = new StringWriter();
+        Assertions.assertFalse(extractor.extract(
+                TestUtil.getAlicePdfFile().toPath(), tempDir,
+                output, new Metadata()));
+        Assertions.assertEquals(0, output.getBuffer().length());
+    }
+
+    private ParallelPDFConfig config(int threads, int minPageCount) {
+        ParallelPDFConfig config = new ParallelPDFConfig();
+        config.setThreads(threads);
+        config.setMinPageCount(minPageCount);
+        return config;
+    }
+}
@@ -0,0 +1,85 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl.html;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.apache.commons.io.output.NullWriter;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.parser.IDocumentParser;
+import com.norconex.importer.parser.ParseHints;
+import com.norconex.importer.parser.impl.FallbackParser;
+
+/**
+ * Compares {@link FastHTMLParser} throughput with the default
+ * (Tika-based) parser. Not a unit test: run it manually, with an HTML
+ * file path as an optional argument (Alice in Wonderland sample
+ * by default).
+ * @author Pascal Essiembre
+ */
+public final class FastHTMLParserBenchmark {
+
+    private static final int DOCS_PER_RUN = 2000;
+
+    private FastHTMLParserBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        byte[] html = Files.readAllBytes(args.length > 0
+                ? Paths.get(args[0]) : TestUtil.getAliceHtmlFile().toPath());
+
+        FallbackParser tikaParser = new FallbackParser();
+        tikaParser.initialize(new ParseHints());
+        FastHTMLParser fastParser = new FastHTMLParser();
+
+        // warm-up
+        run(tikaParser, html, DOCS_PER_RUN / 10);
+        run(fastParser, html, DOCS_PER_RUN / 10);
+        for (int i = 0; i < 3; i++) {
+            report("Tika", tikaParser, html);
+            report("FastHTMLParser", fastParser, html);
+        }
+    }
+
+    private static void report(
+            String name, IDocumentParser parser, byte[] html)
+                    throws Exception {
+        long start = System.nanoTime();
+        run(parser, html, DOCS_PER_RUN);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-15s %,8.0f docs/sec %,8.1f MB/sec%n", name,
+                DOCS_PER_RUN / seconds,
+                DOCS_PER_RUN * (double) html.length / seconds / 1e6);
+    }
+
+    private static void run(IDocumentParser parser, byte[] html, int docs)
+            throws Exception {
+        for (int i = 0; i < docs; i++) {
+            DocInfo info = new DocInfo("benchmark.html");
+            info.setContentType(ContentType.valueOf("text/html"));
+            Doc doc = new Doc(info, CachedInputStream.cache(
+                    new ByteArrayInputStream(html)));
+            parser.parseDocument(doc, new NullWriter());
+            doc.dispose();
+        }
+    }
+}
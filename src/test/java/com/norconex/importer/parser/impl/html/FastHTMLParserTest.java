@@ -0,0 +1,150 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl.html;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.importer.TestUtil;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.parser.IDocumentParser;
+import com.norconex.importer.parser.ParseHints;
+import com.norconex.importer.parser.impl.FallbackParser;
+
+public class FastHTMLParserTest {
+
+    private static final String HTML =
+            "<!DOCTYPE html><html lang=\"fr\"><head>"
+          + "<meta charset=\"utf-8\">"
+          + "<meta name=\"description\" content=\"A &amp; B\">"
+          + "<meta property=\"og:type\" content=article>"
+          + "<title> My &amp; Title </title>"
+          + "<style>p { color: red; }</style>"
+          + "<script>if (a < b) { x('</p>'); }</script>"
+          + "</head><body><!-- hidden --><h1>Hello &amp; welcome</h1>"
+          + "<p>First<br>line</p><p>Café a < b</p>"
+          + "<script type=\"text/javascript\">document.write('no');</script>"
+          + "</body></html>";
+
+    @Test
+    public void testParse() throws Exception {
+        Doc doc = newDoc(HTML);
+        String text = parse(new FastHTMLParser(), doc);
+
+        Assertions.assertEquals(
+                "Hello & welcome\nFirst\nline\nCafé a < b\n", text);
+        Assertions.assertEquals(
+                "My & Title", doc.getMetadata().getString("title"));
+        Assertions.assertEquals(
+                "My & Title", doc.getMetadata().getString("dc:title"));
+        Assertions.assertEquals(
+                "A & B", doc.getMetadata().getString("description"));
+        Assertions.assertEquals(
+                "article", doc.getMetadata().getString("og:type"));
+        Assertions.assertEquals(
+                "fr", doc.getMetadata().getString("Content-Language"));
+        Assertions.assertEquals(
+                "UTF-8", doc.getMetadata().getString("Content-Encoding"));
+        Assertions.assertEquals("text/html; charset=UTF-8",
+                doc.getMetadata().getString("Content-Type"));
+    }
+
+    @Test
+    public void testMetadataOnly() throws Exception {
+        ParseHints hints = new ParseHints();
+        hints.getParseModeConfig().setMetadataOnlyContentTypes("text/html");
+        FastHTMLParser parser = new FastHTMLParser();
+        parser.initialize(hints);
+        Doc doc = newDoc(HTML);
+        Assertions.assertEquals("", parse(parser, doc));
+        Assertions.assertEquals(
+                "My & Title", doc.getMetadata().getString("title"));
+    }
+
+    @Test
+    public void testUnclosedHead() throws Exception {
+        String html = "<html><head><title>Title</title>"
+                + "<meta name=\"description\" content=\"Desc\">"
+                + "<h1>Heading</h1><p>Body text</p></html>";
+        Doc doc = newDoc(html);
+        Assertions.assertEquals(
+                "Heading\nBody text\n", parse(new FastHTMLParser(), doc));
+        Assertions.assertEquals(
+                "Title", doc.getMetadata().getString("title"));
+
+        ParseHints hints = new ParseHints();
+        hints.getParseModeConfig().setMetadataOnlyContentTypes("text/html");
+        FastHTMLParser parser = new FastHTMLParser();
+        parser.initialize(hints);
+        doc = newDoc(html + "<meta name=\"late\" content=\"ignored\">");
+        Assertions.assertEquals("", parse(parser, doc));
+        Assertions.assertEquals(
+                "Desc", doc.getMetadata().getString("description"));
+        // stopped reading after the head
+        Assertions.assertNull(doc.getMetadata().getString("late"));
+    }
+
+    @Test
+    public void testSameAsTika() throws Exception {
+        String html;
+        try (InputStream is = Files.newInputStream(
+                TestUtil.getAliceHtmlFile().toPath())) {
+            html = IOUtils.toString(is, StandardCharsets.ISO_8859_1);
+        }
+        Doc fastDoc = newDoc(html, StandardCharsets.ISO_8859_1);
+        String fastText = parse(new FastHTMLParser(), fastDoc);
+        Doc tikaDoc = newDoc(html, StandardCharsets.ISO_8859_1);
+        String tikaText = parse(new FallbackParser(), tikaDoc);
+
+        Assertions.assertEquals(normalize(tikaText), normalize(fastText));
+        Assertions.assertEquals(tikaDoc.getMetadata().getString("title"),
+                fastDoc.getMetadata().getString("title"));
+    }
+
+    private String parse(IDocumentParser parser, Doc doc) throws Exception {
+        if (parser instanceof FallbackParser) {
+            ((FallbackParser) parser).initialize(new ParseHints());
+        }
+        StringWriter out = new StringWriter();
+        parser.parseDocument(doc, out);
+        return out.toString();
+    }
+
+    private String normalize(String text) {
+        return text.replaceAll("\\s+", " ").trim();
+    }
+
+    private Doc newDoc(String html) throws IOException {
+        return newDoc(html, StandardCharsets.UTF_8);
+    }
+    private Doc newDoc(String html, Charset charset)
+            throws IOException {
+        DocInfo info = new DocInfo("test.html");
+        info.setContentType(ContentType.valueOf("text/html"));
+        return new Doc(info, CachedInputStream.cache(
+                IOUtils.toInputStream(html, charset)));
+    }
+}
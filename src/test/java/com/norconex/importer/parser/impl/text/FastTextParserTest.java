@@ -0,0 +1,85 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.parser.impl.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.parser.ParseHints;
+
+public class FastTextParserTest {
+
+    @Test
+    public void testConvertCharset() throws Exception {
+        for (String charset : new String[] {
+                "ISO-8859-1", "windows-1252", "UTF-8" }) {
+            Doc doc = newDoc(charset);
+            doc.getDocInfo().setContentEncoding(charset);
+            StringWriter out = new StringWriter();
+            new FastTextParser().parseDocument(doc, out);
+            Assertions.assertEquals(read(charset), out.toString());
+            Assertions.assertEquals(charset,
+                    doc.getMetadata().getString("Content-Encoding"));
+            Assertions.assertEquals("text/plain; charset=" + charset,
+                    doc.getMetadata().getString("Content-Type"));
+        }
+    }
+
+    @Test
+    public void testDetectCharset() throws Exception {
+        Doc doc = newDoc("UTF-8");
+        StringWriter out = new StringWriter();
+        new FastTextParser().parseDocument(doc, out);
+        Assertions.assertEquals(read("UTF-8"), out.toString());
+        Assertions.assertEquals("UTF-8",
+                doc.getMetadata().getString("Content-Encoding"));
+    }
+
+    @Test
+    public void testHeadOnly() throws Exception {
+        ParseHints hints = new ParseHints();
+        hints.getParseModeConfig().setHeadOnlyContentTypes("text/plain");
+        hints.getParseModeConfig().setHeadOnlyMaxLength(20);
+        FastTextParser parser = new FastTextParser();
+        parser.initialize(hints);
+        StringWriter out = new StringWriter();
+        parser.parseDocument(newDoc("UTF-8"), out);
+        Assertions.assertEquals(
+                read("UTF-8").substring(0, 20), out.toString());
+    }
+
+    private Doc newDoc(String charset) throws IOException {
+        DocInfo info = new DocInfo(charset + ".txt");
+        info.setContentType(ContentType.valueOf("text/plain"));
+        return new Doc(info, CachedInputStream.cache(getClass()
+                .getResourceAsStream("/charset/" + charset + ".txt")));
+    }
+
+    private String read(String charset) throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(
+                "/charset/" + charset + ".txt")) {
+            return IOUtils.toString(is, charset);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AsyncResponseDispatcherTest {
+
+    @Test
+    public void testBatchProcessing() throws InterruptedException {
+        AsyncResponseConfig cfg = new AsyncResponseConfig();
+        cfg.setEnabled(true);
+        cfg.setThreads(2);
+        cfg.setQueueSize(5);
+        cfg.setBatchSize(10);
+        cfg.setBatchMaxDelay(50);
+
+        List<Integer> batchSizes =
+                Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger batchTotal = new AtomicInteger();
+        AtomicInteger singleTotal = new AtomicInteger();
+        IImporterBatchResponseProcessor batchProc =
+                new IImporterBatchResponseProcessor() {
+            @Override
+            public ImporterStatus processImporterResponse(
+                    ImporterResponse response) {
+                throw new UnsupportedOperationException();
+            }
+            @Override
+            public void processImporterResponses(
+                    List<ImporterResponse> responses) {
+                batchSizes.add(responses.size());
+                batchTotal.addAndGet(responses.size());
+            }
+        };
+        IImporterResponseProcessor singleProc = response -> {
+            singleTotal.incrementAndGet();
+            return response.getImporterStatus();
+        };
+
+        AsyncResponseDispatcher dispatcher = new AsyncResponseDispatcher(
+                cfg, Arrays.asList(batchProc, singleProc));
+        for (int i = 0; i < 100; i++) {
+            dispatcher.submit(new ImporterResponse(
+                    "ref" + i, new ImporterStatus()));
+        }
+        dispatcher.shutdown();
+
+        Assertions.assertEquals(100, batchTotal.get());
+        Assertions.assertEquals(100, singleTotal.get());
+        for (int size : batchSizes) {
+            Assertions.assertTrue(size >= 1 && size <= 10,
+                    "Invalid batch size: " + size);
+        }
+    }
+
+    @Test
+    public void testFailingResponseDoesNotSkipBatch()
+            throws InterruptedException {
+        AsyncResponseConfig cfg = new AsyncResponseConfig();
+        cfg.setEnabled(true);
+        cfg.setBatchSize(10);
+        cfg.setBatchMaxDelay(1000);
+
+        List<String> processed =
+                Collections.synchronizedList(new ArrayList<>());
+        IImporterResponseProcessor failingProc = response -> {
+            if ("ref3".equals(response.getReference())) {
+                throw new IllegalStateException("Failing on purpose.");
+            }
+            processed.add(response.getReference());
+            return response.getImporterStatus();
+        };
+
+        AsyncResponseDispatcher dispatcher = new AsyncResponseDispatcher(
+                cfg, Arrays.asList(failingProc));
+        for (int i = 0; i < 10; i++) {
+            dispatcher.submit(new ImporterResponse(
+                    "ref" + i, new ImporterStatus()));
+        }
+        dispatcher.shutdown();
+
+        Assertions.assertEquals(9, processed.size());
+        Assertions.assertFalse(processed.contains("ref3"));
+        Assertions.assertTrue(processed.contains("ref9"));
+    }
+}
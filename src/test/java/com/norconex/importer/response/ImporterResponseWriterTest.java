@@ -0,0 +1,108 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.response;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.file.ContentType;
+import com.norconex.commons.lang.io.CachedInputStream;
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.Doc;
+import com.norconex.importer.doc.DocInfo;
+import com.norconex.importer.response.ImporterStatus.Status;
+
+public class ImporterResponseWriterTest {
+
+    @Test
+    public void testWriteRead() throws IOException {
+        ImporterResponse parent = newResponse("parent", "Parent content.");
+        ImporterResponse child = newResponse("child", "Child content.");
+        child.getDocument().getDocInfo().addEmbeddedParentReference("parent");
+        parent.addNestedResponse(child);
+        parent.addNestedResponse(new ImporterResponse("rejected",
+                new ImporterStatus(Status.REJECTED, "Rejected by test.")));
+        ImporterResponse other = newResponse("other", "");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImporterResponseWriter writer =
+                new ImporterResponseWriter(bytes)) {
+            writer.write(parent);
+            writer.write(other);
+        }
+
+        try (ImporterResponseReader reader = new ImporterResponseReader(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            ImporterResponse readParent = reader.read();
+            assertSameDoc(parent, readParent);
+            ImporterResponse[] nested = readParent.getNestedResponses();
+            Assertions.assertEquals(2, nested.length);
+            assertSameDoc(child, nested[0]);
+            Assertions.assertSame(readParent, nested[0].getParentResponse());
+            Assertions.assertEquals(Status.REJECTED,
+                    nested[1].getImporterStatus().getStatus());
+            Assertions.assertEquals("Rejected by test.",
+                    nested[1].getImporterStatus().getDescription());
+            Assertions.assertNull(nested[1].getDocument());
+
+            assertSameDoc(other, reader.read());
+            Assertions.assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void testInvalidHeader() {
+        ImporterResponseReader reader = new ImporterResponseReader(
+                new ByteArrayInputStream("NOPE".getBytes()));
+        Assertions.assertThrows(IOException.class, () -> reader.read());
+    }
+
+    private void assertSameDoc(
+            ImporterResponse expected, ImporterResponse actual)
+                    throws IOException {
+        Assertions.assertNotNull(actual);
+        Assertions.assertEquals(expected.getReference(), actual.getReference());
+        Assertions.assertTrue(actual.isSuccess());
+        Doc expectedDoc = expected.getDocument();
+        Doc actualDoc = actual.getDocument();
+        Assertions.assertEquals(
+                expectedDoc.getDocInfo(), actualDoc.getDocInfo());
+        Assertions.assertEquals(
+                expectedDoc.getMetadata(), actualDoc.getMetadata());
+        Assertions.assertEquals(
+                IOUtils.toString(expectedDoc.getInputStream(),
+                        StandardCharsets.UTF_8),
+                IOUtils.toString(actualDoc.getInputStream(),
+                        StandardCharsets.UTF_8));
+    }
+
+    private ImporterResponse newResponse(String ref, String content) {
+        DocInfo info = new DocInfo(ref);
+        info.setContentType(ContentType.TEXT);
+        info.setContentEncoding(StandardCharsets.UTF_8.toString());
+        Properties meta = new Properties();
+        meta.add("field1", "value1", "value2");
+        meta.add("field2", "été");
+        return new ImporterResponse(new Doc(info, CachedInputStream.cache(
+                new ByteArrayInputStream(
+                        content.getBytes(StandardCharsets.UTF_8))), meta));
+    }
+}
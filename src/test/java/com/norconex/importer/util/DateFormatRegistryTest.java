@@ -0,0 +1,183 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DateFormatRegistryTest {
+
+    @Test
+    public void testParse() {
+        long expected = millis(LocalDateTime.of(2001, 10, 10, 11, 32, 21));
+        Assertions.assertEquals(expected, (long) DateFormatRegistry.parse(
+                "2001-10-10T11:32:21", "yyyy-MM-dd'T'HH:mm:ss", null));
+        Assertions.assertEquals(expected, (long) DateFormatRegistry.parse(
+                "wed, 10 OCT 2001 11:32:21", "EEE, dd MMM yyyy HH:mm:ss",
+                null));
+        // trailing characters are ignored
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2001, 10, 10, 0, 0)),
+                (long) DateFormatRegistry.parse(
+                        "2001-10-10T11:32:21", "yyyy-MM-dd", null));
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2001, 4, 10, 0, 0)),
+                (long) DateFormatRegistry.parse("mar., 10 avr. 2001",
+                        "EEE, dd MMM yyyy", Locale.CANADA_FRENCH));
+        Assertions.assertEquals(1002713541000L, (long) DateFormatRegistry
+                .parse("Wed, 10 Oct 2001 11:32:21 GMT",
+                        "EEE, dd MMM yyyy HH:mm:ss zzz", null));
+        Assertions.assertEquals(1002727941000L, (long) DateFormatRegistry
+                .parse("1002727941000", "EPOCH", null));
+
+        Assertions.assertNull(DateFormatRegistry.parse(
+                "Wed, 10 Oct 2001", "yyyy-MM-dd", null));
+        Assertions.assertNull(DateFormatRegistry.parse(
+                "2001-10-10", "EPOCH", null));
+        Assertions.assertNull(DateFormatRegistry.parse(
+                "2001-13-10", "yyyy-MM-dd", null));
+        Assertions.assertNull(DateFormatRegistry.parse(
+                " ", "yyyy-MM-dd", null));
+    }
+
+    @Test
+    public void testParseLikeSimpleDateFormat() {
+        long expected = millis(LocalDateTime.of(2020, 1, 5, 0, 0));
+        // lenient number of digits
+        Assertions.assertEquals(expected, (long) DateFormatRegistry.parse(
+                "2020-1-5", "yyyy-MM-dd", null));
+        // full or short month names
+        Assertions.assertEquals(expected, (long) DateFormatRegistry.parse(
+                "January 5, 2020", "MMM d, yyyy", null));
+        Assertions.assertEquals(expected, (long) DateFormatRegistry.parse(
+                "Jan 5, 2020", "MMMM d, yyyy", null));
+        // two-digit years within 80 years before and 20 years after now
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(1999, 1, 5, 0, 0)),
+                (long) DateFormatRegistry.parse("99-01-05", "yy-MM-dd", null));
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(1999, 1, 5, 0, 0)),
+                (long) DateFormatRegistry.parse("990105", "yyMMdd", null));
+        Assertions.assertEquals(expected, (long) DateFormatRegistry.parse(
+                "2020-01-05", "yy-MM-dd", null));
+        // AM when hour of AM/PM has no marker
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2020, 1, 5, 9, 30)),
+                (long) DateFormatRegistry.parse(
+                        "2020-01-05 09:30", "yyyy-MM-dd hh:mm", null));
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2020, 1, 5, 21, 30)),
+                (long) DateFormatRegistry.parse(
+                        "2020-01-05 09:30 PM", "yyyy-MM-dd hh:mm a", null));
+    }
+
+    @Test
+    public void testFormat() {
+        long date = millis(LocalDateTime.of(2001, 4, 10, 11, 32, 21, 5000000));
+        Assertions.assertEquals("2001-04-10T11:32:21.005", DateFormatRegistry
+                .format(date, "yyyy-MM-dd'T'HH:mm:ss.SSS", null));
+        Assertions.assertEquals("Tue, 10 Apr 2001",
+                DateFormatRegistry.format(date, "EEE, dd MMM yyyy", null));
+        Assertions.assertEquals("01-04-10 11:32",
+                DateFormatRegistry.format(date, "yy-MM-dd hh:mm", null));
+        Assertions.assertEquals(Long.toString(date),
+                DateFormatRegistry.format(date, "EPOCH", null));
+        Assertions.assertEquals(Long.toString(date),
+                DateFormatRegistry.format(date, null, null));
+        Assertions.assertSame(
+                DateFormatRegistry.getFormatter("yyyy-MM-dd", null),
+                DateFormatRegistry.getFormatter("yyyy-MM-dd", Locale.US));
+    }
+
+    @Test
+    public void testSimpleDateFormatLetters() {
+        // Tuesday, second Tuesday of the month, 123 milliseconds
+        long date = millis(
+                LocalDateTime.of(2001, 4, 10, 11, 32, 21, 123000000));
+        Assertions.assertEquals("21.123",
+                DateFormatRegistry.format(date, "ss.S", null));
+        Assertions.assertEquals("21.123",
+                DateFormatRegistry.format(date, "ss.SS", null));
+        Assertions.assertEquals("21.0123",
+                DateFormatRegistry.format(date, "ss.SSSS", null));
+        Assertions.assertEquals("2001-04-10 2",
+                DateFormatRegistry.format(date, "yyyy-MM-dd u", null));
+        Assertions.assertEquals("02",
+                DateFormatRegistry.format(date, "uu", null));
+        Assertions.assertEquals("2",
+                DateFormatRegistry.format(date, "F", null));
+        Assertions.assertEquals("113221123",
+                DateFormatRegistry.format(date, "HHmmssSSS", null));
+
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2001, 4, 10, 11, 32, 21, 5000000)),
+                (long) DateFormatRegistry.parse("2001-04-10 11:32:21.5",
+                        "yyyy-MM-dd HH:mm:ss.S", null));
+        Assertions.assertEquals(date, (long) DateFormatRegistry.parse(
+                "113221123 2001-04-10", "HHmmssSSS yyyy-MM-dd", null));
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2001, 4, 10, 0, 0)),
+                (long) DateFormatRegistry.parse(
+                        "2001-04-10 2 2", "yyyy-MM-dd u F", null));
+        Assertions.assertNull(DateFormatRegistry.parse(
+                "2001-04-10 3", "yyyy-MM-dd u", null));
+    }
+
+    @Test
+    public void testParseISO() {
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2015, 5, 31, 0, 0)),
+                (long) DateFormatRegistry.parseISO("2015-05-31"));
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2015, 5, 31, 22, 44, 15)),
+                (long) DateFormatRegistry.parseISO("2015-05-31T22:44:15"));
+        Assertions.assertEquals(
+                millis(LocalDateTime.of(2015, 5, 31, 22, 44, 15, 123000000)),
+                (long) DateFormatRegistry.parseISO("2015-05-31T22:44:15.123"));
+        Assertions.assertEquals(LocalDateTime.of(2015, 5, 31, 22, 44)
+                .toInstant(ZoneOffset.UTC).toEpochMilli(),
+                (long) DateFormatRegistry.parseISO("2015-05-31T22:44Z"));
+        Assertions.assertEquals(LocalDateTime.of(2015, 5, 31, 22, 44, 15)
+                .toInstant(ZoneOffset.ofHours(-5)).toEpochMilli(),
+                (long) DateFormatRegistry.parseISO(
+                        "2015-05-31T22:44:15-05:00"));
+
+        Assertions.assertNull(DateFormatRegistry.parseISO("2015-02-30"));
+        Assertions.assertNull(DateFormatRegistry.parseISO("2015-05-31T25:00"));
+        Assertions.assertNull(DateFormatRegistry.parseISO("2015-05-31X"));
+        Assertions.assertNull(DateFormatRegistry.parseISO("1433044800000"));
+    }
+
+    @Test
+    public void testParseEpoch() {
+        Assertions.assertEquals(123L, (long) DateFormatRegistry.parseEpoch(
+                "123"));
+        Assertions.assertEquals(-123L, (long) DateFormatRegistry.parseEpoch(
+                "-123"));
+        Assertions.assertNull(DateFormatRegistry.parseEpoch("-"));
+        Assertions.assertNull(DateFormatRegistry.parseEpoch("12a"));
+        Assertions.assertNull(DateFormatRegistry.parseEpoch(""));
+    }
+
+    private long millis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault())
+                .toInstant().toEpochMilli();
+    }
+}
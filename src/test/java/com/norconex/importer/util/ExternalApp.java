@@ -14,6 +14,12 @@
  */
 package com.norconex.importer.util;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -24,6 +30,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -64,6 +72,10 @@ public class ExternalApp {
     public static final String ARG_INFILE_META = "im";
     public static final String ARG_OUTFILE_META = "om";
     public static final String ARG_REFERENCE = "ref";
+    public static final String ARG_PERSISTENT = "persistent";
+
+    // reference making a persistent process end abruptly
+    public static final String REF_CRASH = "crash";
 
     public static final String ENV_STDOUT_BEFORE = "stdout_before";
     public static final String ENV_STDOUT_AFTER = "stdout_after";
@@ -75,6 +87,10 @@ public class ExternalApp {
     public static void main(String[] args) throws IOException {
 
         CommandLine cmd = parseCommandLineArguments(args);
+        if (cmd.hasOption(ARG_PERSISTENT)) {
+            runPersistently();
+            return;
+        }
 
         File inFileContent = null;
         File outFileContent = null;
@@ -136,6 +152,71 @@ public class ExternalApp {
         }
     }
 
+    // handle documents sent as length-prefixed fields until STDIN is closed
+    private static void runPersistently() throws IOException {
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(System.out));
+        while (true) {
+            int length;
+            try {
+                length = in.readInt();
+            } catch (EOFException e) {
+                return;
+            }
+            String reference = readField(in, length);
+            Properties p = new Properties();
+            p.loadFromProperties(
+                    new StringReader(readField(in, in.readInt())));
+            String content = readField(in, in.readInt());
+            if (REF_CRASH.equals(reference)) {
+                System.exit(1);
+            }
+
+            StringBuilder b = new StringBuilder();
+            for (String line : IOUtils.readLines(new StringReader(content))) {
+                b.append(reverseWords(line)).append('\n');
+            }
+            writeField(out, b.toString());
+
+            for (Entry<String, List<String>> entry : p.entrySet()) {
+                String[] values = entry.getValue().toArray(
+                        ArrayUtils.EMPTY_STRING_ARRAY);
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = reverseWords(values[i]);
+                }
+                p.set(entry.getKey(), values);
+            }
+            p.set("reference", reference);
+            StringWriter w = new StringWriter();
+            p.storeToProperties(w);
+            writeField(out, w.toString());
+            out.flush();
+        }
+    }
+    private static String readField(DataInputStream in, int firstLength)
+            throws IOException {
+        ByteArrayOutputStream b = new ByteArrayOutputStream();
+        int length = firstLength;
+        while (length != 0) {
+            byte[] chunk = new byte[length];
+            in.readFully(chunk);
+            b.write(chunk);
+            length = in.readInt();
+        }
+        return new String(b.toByteArray(), StandardCharsets.UTF_8);
+    }
+    private static void writeField(DataOutputStream out, String value)
+            throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(0);
+    }
+
     private static String reverseWords(String str) {
         String[] words =  str.split(" ");
         ArrayUtils.reverse(words);
@@ -326,6 +407,8 @@ public class ExternalApp {
                 "Output metadata file (default to STDOUT/STDERR).");
         options.addOption(ARG_REFERENCE, true,
                 "Document reference.");
+        options.addOption(ARG_PERSISTENT, false,
+                "Handle many documents over STDIN/STDOUT.");
 
         CommandLineParser parser = new DefaultParser();
         CommandLine cmd = null;
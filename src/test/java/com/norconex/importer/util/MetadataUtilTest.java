@@ -0,0 +1,77 @@
+/* Copyright 2020 Norconex Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.norconex.importer.util;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.norconex.commons.lang.map.Properties;
+import com.norconex.importer.doc.DocMetadata;
+
+public class MetadataUtilTest {
+
+    @Test
+    public void testInternFieldName() {
+        Assertions.assertSame(DocMetadata.CONTENT_TYPE,
+                MetadataUtil.internFieldName(
+                        new String("document.contentType")));
+        String name = MetadataUtil.internFieldName(new String("dc:title"));
+        Assertions.assertSame(name,
+                MetadataUtil.internFieldName(new String("dc:title")));
+        Assertions.assertNull(MetadataUtil.internFieldName(null));
+    }
+
+    @Test
+    public void testCompact() {
+        Properties meta = new Properties();
+        meta.add(new String("document.reference"), "ref");
+        meta.add(new String("keywords"), "a", "b", "c");
+
+        MetadataUtil.compact(meta);
+
+        Assertions.assertEquals(2, meta.size());
+        Assertions.assertEquals("ref", meta.getString(DocMetadata.REFERENCE));
+        Assertions.assertEquals(
+                Arrays.asList("a", "b", "c"), meta.getStrings("keywords"));
+        for (String name : meta.keySet()) {
+            Assertions.assertSame(MetadataUtil.internFieldName(name), name);
+        }
+        // still modifiable
+        meta.add("keywords", "d");
+        Assertions.assertEquals(4, meta.getStrings("keywords").size());
+    }
+
+    @Test
+    public void testAddUnique() {
+        Properties meta = new Properties();
+        String type = "Content-Type";
+        MetadataUtil.addUnique(meta, type, "text/html; charset=UTF-8");
+        MetadataUtil.addUnique(meta, type, "TEXT/HTML;charset=utf-8");
+        MetadataUtil.addUnique(meta, type, "text/plain");
+        MetadataUtil.addUnique(meta, type, null);
+        Assertions.assertEquals(
+                Arrays.asList("text/html; charset=UTF-8", "text/plain"),
+                meta.getStrings(type));
+
+        Assertions.assertTrue(MetadataUtil.equalsIgnoreCaseAndSpaces(
+                " a B\tc ", "abC"));
+        Assertions.assertFalse(MetadataUtil.equalsIgnoreCaseAndSpaces(
+                "abc", "abcd"));
+        Assertions.assertFalse(MetadataUtil.equalsIgnoreCaseAndSpaces(
+                "abc", null));
+    }
+}